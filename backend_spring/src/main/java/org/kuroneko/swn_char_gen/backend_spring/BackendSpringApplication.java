@@ -11,12 +11,14 @@ package org.kuroneko.swn_char_gen.backend_spring;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for the SWN Character Generator Spring Boot application.
  * This class serves as the entry point for the application and initializes the Spring Boot framework.
  */
 @SpringBootApplication
+@EnableScheduling
 public class BackendSpringApplication {
 
     /**
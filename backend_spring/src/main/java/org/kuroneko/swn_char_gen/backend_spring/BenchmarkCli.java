@@ -0,0 +1,422 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring;
+
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterToken;
+import org.kuroneko.swn_char_gen.backend_spring.models.SWNChar;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionMap;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterService;
+import org.kuroneko.swn_char_gen.backend_spring.services.SessionTokens;
+import org.kuroneko.swn_char_gen.backend_spring.services.StatelessCharacterService;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Command line micro-benchmarks of the request path, in the style of JMH: warmup iterations that are
+ * thrown away, then timed iterations reported as the mean time per operation with its spread.
+ * <p>
+ * Run with: gradlew benchmark --args="--benchmark=token --threads=4"
+ * <p>
+ * Each benchmark is an operation run in a loop on every thread until the iteration ends. Its result is
+ * folded into a sink, so the JIT cannot remove the work.
+ * <ul>
+ * <li>token.sign - pack a character and sign the stateless mode token</li>
+ * <li>token.verify - verify a token and unpack its character</li>
+ * <li>token.request - a stateless roll request: verify, unpack, roll, pack, sign, and convert to a Map</li>
+ * <li>store.request - the same roll through CharacterService, for comparison with a stored character</li>
+ * <li>map.hashmap.get - look up a session in a HashMap keyed by session ID strings, read only</li>
+ * <li>map.concurrent.get - the same lookup in a ConcurrentHashMap</li>
+ * <li>map.session.get - the same lookup in the SessionMap the character store uses</li>
+ * <li>map.concurrent.churn - replace a session in a ConcurrentHashMap: remove one entry and put another</li>
+ * <li>map.session.churn - the same replacement in a SessionMap</li>
+ * <li>session.uuid - create a session ID with UUID.randomUUID, the shared SecureRandom</li>
+ * <li>session.key - create a session key with SessionKeyGenerator, meant to be run with --threads=64</li>
+ * </ul>
+ * <p>
+ * The map benchmarks hold MAP_SIZE sessions. The String keyed lookups copy the ID first, since a
+ * request reads a new String whose hash is not cached yet.
+ * <p>
+ * Options are --benchmark=prefix (default all), --threads=N (default 1), --warmup=N iterations
+ * (default 5), --iterations=N (default 5), and --iteration-ms=N (default 1000).
+ */
+public class BenchmarkCli
+{
+	private static final Map<String, Supplier<LongUnaryOperator>> BENCHMARKS = new LinkedHashMap<>();
+	// a fixed secret, so runs are comparable
+	private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+	// sessions held by the map benchmarks, a power of two
+	private static final int MAP_SIZE = 1 << 17;
+	// keys each thread cycles through in the churn benchmarks, a power of two
+	private static final int CHURN_KEYS = 1024;
+
+	static
+	{
+		BENCHMARKS.put("token.sign", BenchmarkCli::tokenSign);
+		BENCHMARKS.put("token.verify", BenchmarkCli::tokenVerify);
+		BENCHMARKS.put("token.request", BenchmarkCli::tokenRequest);
+		BENCHMARKS.put("store.request", BenchmarkCli::storeRequest);
+		BENCHMARKS.put("map.hashmap.get", () -> mapGet(new HashMap<>()));
+		BENCHMARKS.put("map.concurrent.get", () -> mapGet(new ConcurrentHashMap<>()));
+		BENCHMARKS.put("map.session.get", BenchmarkCli::sessionMapGet);
+		BENCHMARKS.put("map.concurrent.churn", BenchmarkCli::concurrentMapChurn);
+		BENCHMARKS.put("map.session.churn", BenchmarkCli::sessionMapChurn);
+		BENCHMARKS.put("session.uuid", () -> ops -> UUID.randomUUID().getLeastSignificantBits());
+		BENCHMARKS.put("session.key", () -> ops -> SessionKey.random().getLow());
+	}
+
+	// written once per thread per iteration, keeps the results alive
+	private static volatile long sink;
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 */
+	private BenchmarkCli()
+	{
+	}
+
+	/**
+	 * Run the benchmarks and print the results.
+	 *
+	 * @param args Command line options
+	 * @throws InterruptedException if interrupted while waiting for the threads
+	 * @throws ExecutionException   if a benchmark throws
+	 */
+	public static void main(String[] args) throws InterruptedException, ExecutionException
+	{
+		String prefix = "";
+		int threads = 1;
+		int warmup = 5;
+		int iterations = 5;
+		long iterationMillis = 1000;
+		for (String arg : args)
+		{
+			String value = arg.substring(arg.indexOf('=') + 1);
+			if (arg.startsWith("--benchmark="))
+			{
+				prefix = value;
+			}
+			else if (arg.startsWith("--threads="))
+			{
+				threads = Integer.parseInt(value);
+			}
+			else if (arg.startsWith("--warmup="))
+			{
+				warmup = Integer.parseInt(value);
+			}
+			else if (arg.startsWith("--iterations="))
+			{
+				iterations = Integer.parseInt(value);
+			}
+			else if (arg.startsWith("--iteration-ms="))
+			{
+				iterationMillis = Long.parseLong(value);
+			}
+			else
+			{
+				System.err.println("Unknown option: " + arg);
+				System.err.println("Options: --benchmark=prefix --threads=N --warmup=N --iterations=N --iteration-ms=N");
+				System.err.println("Benchmarks: " + BENCHMARKS.keySet());
+				System.exit(1);
+			}
+		}
+
+		System.out.printf("%-24s %8s %14s %12s %16s%n", "Benchmark", "Threads", "ns/op", "+/-", "ops/s");
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try
+		{
+			for (Map.Entry<String, Supplier<LongUnaryOperator>> benchmark : BENCHMARKS.entrySet())
+			{
+				if (benchmark.getKey().startsWith(prefix))
+				{
+					run(pool, benchmark.getKey(), benchmark.getValue().get(), threads, warmup, iterations, iterationMillis);
+				}
+			}
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Run one benchmark and print its line.
+	 *
+	 * @param pool            The threads to run on
+	 * @param name            The benchmark name
+	 * @param operation       The operation, called with a per-thread counter
+	 * @param threads         The number of threads
+	 * @param warmup          The number of untimed iterations
+	 * @param iterations      The number of timed iterations
+	 * @param iterationMillis The length of each iteration
+	 * @throws InterruptedException if interrupted while waiting for the threads
+	 * @throws ExecutionException   if the operation throws
+	 */
+	private static void run(ExecutorService pool, String name, LongUnaryOperator operation, int threads,
+							int warmup, int iterations, long iterationMillis) throws InterruptedException, ExecutionException
+	{
+		for (int iteration = 0; iteration < warmup; iteration++)
+		{
+			iterate(pool, operation, threads, iterationMillis);
+		}
+		double[] nanosPerOp = new double[iterations];
+		double opsPerSecond = 0;
+		for (int iteration = 0; iteration < iterations; iteration++)
+		{
+			long start = System.nanoTime();
+			long ops = iterate(pool, operation, threads, iterationMillis);
+			long elapsed = System.nanoTime() - start;
+			// time per operation as one thread sees it
+			nanosPerOp[iteration] = (double) elapsed * threads / ops;
+			opsPerSecond += ops * 1_000_000_000.0 / elapsed / iterations;
+		}
+		double mean = 0;
+		for (double value : nanosPerOp)
+		{
+			mean += value / iterations;
+		}
+		double variance = 0;
+		for (double value : nanosPerOp)
+		{
+			variance += (value - mean) * (value - mean) / Math.max(1, iterations - 1);
+		}
+		System.out.printf("%-24s %8d %,14.1f %,12.1f %,16.0f%n", name, threads, mean, Math.sqrt(variance), opsPerSecond);
+	}
+
+	/**
+	 * Run the operation on every thread for one iteration.
+	 *
+	 * @param pool            The threads to run on
+	 * @param operation       The operation
+	 * @param threads         The number of threads
+	 * @param iterationMillis The length of the iteration
+	 * @return The number of operations completed
+	 * @throws InterruptedException if interrupted while waiting for the threads
+	 * @throws ExecutionException   if the operation throws
+	 */
+	private static long iterate(ExecutorService pool, LongUnaryOperator operation, int threads, long iterationMillis)
+			throws InterruptedException, ExecutionException
+	{
+		long deadline = System.nanoTime() + iterationMillis * 1_000_000;
+		List<Future<Long>> counts = new ArrayList<>();
+		for (int thread = 0; thread < threads; thread++)
+		{
+			counts.add(pool.submit(() ->
+			{
+				long ops = 0;
+				long result = 0;
+				// check the clock every 64 operations, so reading it costs little
+				while ((ops & 63) != 0 || System.nanoTime() < deadline)
+				{
+					result ^= operation.applyAsLong(ops);
+					ops++;
+				}
+				sink = result;
+				return ops;
+			}));
+		}
+		long total = 0;
+		for (Future<Long> count : counts)
+		{
+			total += count.get();
+		}
+		return total;
+	}
+
+	/**
+	 * Create a character with rolled attributes for the token benchmarks.
+	 *
+	 * @return The character
+	 */
+	private static SWNChar rolledCharacter()
+	{
+		SWNChar character = new SWNChar();
+		character.rollAttributes();
+		return character;
+	}
+
+	/**
+	 * Pack and sign a character.
+	 *
+	 * @return The operation
+	 */
+	private static LongUnaryOperator tokenSign()
+	{
+		SessionTokens tokens = new SessionTokens(SECRET);
+		SWNChar character = rolledCharacter();
+		return ops -> tokens.seal(SessionTokens.PURPOSE_CHARACTER, CharacterToken.pack(character)).length();
+	}
+
+	/**
+	 * Verify a token and unpack its character.
+	 *
+	 * @return The operation
+	 */
+	private static LongUnaryOperator tokenVerify()
+	{
+		SessionTokens tokens = new SessionTokens(SECRET);
+		String token = tokens.seal(SessionTokens.PURPOSE_CHARACTER, CharacterToken.pack(rolledCharacter()));
+		return ops -> CharacterToken.unpack(tokens.open(SessionTokens.PURPOSE_CHARACTER, token)).hashCode();
+	}
+
+	/**
+	 * A full stateless roll request.
+	 *
+	 * @return The operation
+	 */
+	private static LongUnaryOperator tokenRequest()
+	{
+		SessionTokens tokens = new SessionTokens(SECRET);
+		StatelessCharacterService service = new StatelessCharacterService(tokens);
+		String token = tokens.seal(SessionTokens.PURPOSE_CHARACTER, CharacterToken.pack(rolledCharacter()));
+		SessionKey session = SessionKey.random();
+		return ops -> service.rollAttributes(session, token).getToken().length();
+	}
+
+	/**
+	 * A roll request against a stored character, each thread with its own session.
+	 *
+	 * @return The operation
+	 */
+	private static LongUnaryOperator storeRequest()
+	{
+		CharacterService service = new CharacterService();
+		ThreadLocal<SessionKey> sessions = ThreadLocal.withInitial(SessionKey::random);
+		return ops -> service.rollAttributes(sessions.get()).size();
+	}
+
+	/**
+	 * Create the session ID strings for the map benchmarks.
+	 *
+	 * @return MAP_SIZE distinct session IDs
+	 */
+	private static String[] sessionIds()
+	{
+		String[] ids = new String[MAP_SIZE];
+		for (int index = 0; index < MAP_SIZE; index++)
+		{
+			ids[index] = SessionKey.random().toString();
+		}
+		return ids;
+	}
+
+	/**
+	 * Look up sessions in a map keyed by session ID strings. Each lookup copies the ID, as it would be
+	 * a new String read from the request, so its hash is not already cached.
+	 *
+	 * @param map The map to fill and read
+	 * @return The operation
+	 */
+	private static LongUnaryOperator mapGet(Map<String, Object> map)
+	{
+		String[] ids = sessionIds();
+		for (String id : ids)
+		{
+			map.put(id, id);
+		}
+		return ops -> map.get(new String(ids[(int) (ops * 31) & (MAP_SIZE - 1)])).hashCode();
+	}
+
+	/**
+	 * Look up sessions in a SessionMap. The keys are parsed beforehand, as SessionKeyArgumentResolver
+	 * has already parsed the cookie by the time the store is called.
+	 *
+	 * @return The operation
+	 */
+	private static LongUnaryOperator sessionMapGet()
+	{
+		SessionMap<Object> map = new SessionMap<>();
+		SessionKey[] keys = new SessionKey[MAP_SIZE];
+		for (int index = 0; index < MAP_SIZE; index++)
+		{
+			keys[index] = SessionKey.random();
+			map.put(keys[index], keys[index]);
+		}
+		return ops -> map.get(keys[(int) (ops * 31) & (MAP_SIZE - 1)]).hashCode();
+	}
+
+	/**
+	 * Replace sessions in a ConcurrentHashMap filled with MAP_SIZE sessions. Each thread cycles through
+	 * CHURN_KEYS keys of its own, half of them in the map at a time, removing one and putting another
+	 * on every operation.
+	 *
+	 * @return The operation
+	 */
+	private static LongUnaryOperator concurrentMapChurn()
+	{
+		Map<String, Object> map = new ConcurrentHashMap<>();
+		for (String id : sessionIds())
+		{
+			map.put(id, id);
+		}
+		ThreadLocal<String[]> owned = ThreadLocal.withInitial(() ->
+		{
+			String[] ids = new String[CHURN_KEYS];
+			for (int index = 0; index < CHURN_KEYS; index++)
+			{
+				ids[index] = SessionKey.random().toString();
+			}
+			return ids;
+		});
+		return ops ->
+		{
+			String[] ids = owned.get();
+			map.remove(ids[(int) ops & (CHURN_KEYS - 1)]);
+			String id = ids[(int) (ops + CHURN_KEYS / 2) & (CHURN_KEYS - 1)];
+			map.put(id, id);
+			return ops;
+		};
+	}
+
+	/**
+	 * Replace sessions in a SessionMap, as concurrentMapChurn does.
+	 *
+	 * @return The operation
+	 */
+	private static LongUnaryOperator sessionMapChurn()
+	{
+		SessionMap<Object> map = new SessionMap<>();
+		for (String id : sessionIds())
+		{
+			map.put(SessionKey.fromString(id), id);
+		}
+		ThreadLocal<SessionKey[]> owned = ThreadLocal.withInitial(() ->
+		{
+			SessionKey[] keys = new SessionKey[CHURN_KEYS];
+			for (int index = 0; index < CHURN_KEYS; index++)
+			{
+				keys[index] = SessionKey.random();
+			}
+			return keys;
+		});
+		return ops ->
+		{
+			SessionKey[] keys = owned.get();
+			map.remove(keys[(int) ops & (CHURN_KEYS - 1)]);
+			SessionKey key = keys[(int) (ops + CHURN_KEYS / 2) & (CHURN_KEYS - 1)];
+			map.put(key, key);
+			return ops;
+		};
+	}
+}
@@ -0,0 +1,338 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Command line load test of a running server, for comparing virtual thread mode against Tomcat's
+ * platform thread pool.
+ * <p>
+ * Run the server once with spring.threads.virtual.enabled=true and once without, then:
+ * gradlew loadTest --args="--clients=400 --slow-clients=200 --seconds=30"
+ * <p>
+ * Each client has its own session and loops over rolling, changing an attribute, and reading the
+ * character. Slow clients upload a character, sending the body a few bytes at a time, which is what
+ * holds a request thread for a long time. The throughput and latency percentiles of the fast
+ * clients are printed at the end.
+ * <p>
+ * Options are --url=base (default http://localhost:5050), --clients=N (default 200),
+ * --slow-clients=N (default 0), --slow-delay-ms=N between upload chunks (default 100),
+ * and --seconds=N (default 30).
+ */
+public class LoadTestCli
+{
+	private static final String[] ATTRIBUTES = {"strength", "dexterity", "constitution", "intelligence", "wisdom", "charisma"};
+	private static final String BOUNDARY = "swn-load-test-boundary";
+	// bytes a slow client sends per chunk
+	private static final int SLOW_CHUNK = 16;
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 */
+	private LoadTestCli()
+	{
+	}
+
+	/**
+	 * Run the load test and print the results.
+	 *
+	 * @param args Command line options
+	 * @throws InterruptedException if interrupted while waiting for the clients
+	 */
+	public static void main(String[] args) throws InterruptedException
+	{
+		String url = "http://localhost:5050";
+		int clients = 200;
+		int slowClients = 0;
+		long slowDelayMillis = 100;
+		int seconds = 30;
+		for (String arg : args)
+		{
+			String value = arg.substring(arg.indexOf('=') + 1);
+			if (arg.startsWith("--url="))
+			{
+				url = value;
+			}
+			else if (arg.startsWith("--clients="))
+			{
+				clients = Integer.parseInt(value);
+			}
+			else if (arg.startsWith("--slow-clients="))
+			{
+				slowClients = Integer.parseInt(value);
+			}
+			else if (arg.startsWith("--slow-delay-ms="))
+			{
+				slowDelayMillis = Long.parseLong(value);
+			}
+			else if (arg.startsWith("--seconds="))
+			{
+				seconds = Integer.parseInt(value);
+			}
+			else
+			{
+				System.err.println("Unknown option: " + arg);
+				System.err.println("Options: --url=base --clients=N --slow-clients=N --slow-delay-ms=N --seconds=N");
+				System.exit(1);
+			}
+		}
+
+		System.out.printf("Load testing %s with %d clients and %d slow uploaders for %d s%n", url, clients, slowClients, seconds);
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		LongAdder errors = new LongAdder();
+		LongAdder uploads = new LongAdder();
+		long[][] latencies = new long[clients][];
+		// the load generator uses virtual threads so it can hold far more connections than the server under test
+		ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+		for (int client = 0; client < clients; client++)
+		{
+			int index = client;
+			String base = url;
+			pool.execute(() -> latencies[index] = runClient(base, deadline, errors));
+		}
+		for (int client = 0; client < slowClients; client++)
+		{
+			String base = url;
+			long delay = slowDelayMillis;
+			pool.execute(() -> runSlowClient(base, deadline, delay, uploads, errors));
+		}
+		pool.shutdown();
+		pool.awaitTermination(seconds + 120L, TimeUnit.SECONDS);
+
+		print(latencies, seconds, uploads.sum(), errors.sum());
+	}
+
+	/**
+	 * Send requests as one fast client until the deadline.
+	 *
+	 * @param theUrl      The server base URL
+	 * @param theDeadline When to stop, in System.nanoTime
+	 * @param theErrors   Counter for failed requests
+	 * @return The latency of every request, in nanoseconds
+	 */
+	private static long[] runClient(String theUrl, long theDeadline, LongAdder theErrors)
+	{
+		HttpClient client = newClient();
+		long[] latencies = new long[1024];
+		int count = 0;
+		for (int step = 0; System.nanoTime() < theDeadline; step++)
+		{
+			HttpRequest request = switch (step % 3)
+			{
+				case 0 -> HttpRequest.newBuilder(URI.create(theUrl + "/api/roll-attributes")).GET().build();
+				case 1 -> HttpRequest.newBuilder(URI.create(theUrl + "/api/change-attribute"))
+						.header("Content-Type", "application/json")
+						.POST(HttpRequest.BodyPublishers.ofString("{\"attribute\":\"" + ATTRIBUTES[step % ATTRIBUTES.length] + "\"}"))
+						.build();
+				default -> HttpRequest.newBuilder(URI.create(theUrl + "/api/character")).GET().build();
+			};
+			long start = System.nanoTime();
+			try
+			{
+				HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+				if (response.statusCode() != 200)
+				{
+					theErrors.increment();
+				}
+			}
+			catch (IOException | InterruptedException e)
+			{
+				theErrors.increment();
+				if (e instanceof InterruptedException)
+				{
+					break;
+				}
+			}
+			if (count == latencies.length)
+			{
+				latencies = Arrays.copyOf(latencies, count * 2);
+			}
+			latencies[count++] = System.nanoTime() - start;
+		}
+		return Arrays.copyOf(latencies, count);
+	}
+
+	/**
+	 * Upload characters slowly as one client until the deadline.
+	 *
+	 * @param theUrl         The server base URL
+	 * @param theDeadline    When to stop, in System.nanoTime
+	 * @param theDelayMillis The pause between chunks of the body
+	 * @param theUploads     Counter for finished uploads
+	 * @param theErrors      Counter for failed requests
+	 */
+	private static void runSlowClient(String theUrl, long theDeadline, long theDelayMillis, LongAdder theUploads, LongAdder theErrors)
+	{
+		HttpClient client = newClient();
+		byte[] body = ("--" + BOUNDARY + "\r\n"
+					   + "Content-Disposition: form-data; name=\"file\"; filename=\"character.json\"\r\n"
+					   + "Content-Type: application/json\r\n\r\n"
+					   + "{\"mName\":\"Slow Upload\",\"mStrength\":10,\"mDexterity\":11,\"mConstitution\":12,"
+					   + "\"mIntelligence\":13,\"mWisdom\":14,\"mCharisma\":15}\r\n"
+					   + "--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8);
+		while (System.nanoTime() < theDeadline)
+		{
+			HttpRequest request = HttpRequest.newBuilder(URI.create(theUrl + "/api/upload-character"))
+					.header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+					.POST(HttpRequest.BodyPublishers.fromPublisher(
+							HttpRequest.BodyPublishers.ofInputStream(() -> new SlowInputStream(body, theDelayMillis)), body.length))
+					.build();
+			try
+			{
+				HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+				if (response.statusCode() == 200)
+				{
+					theUploads.increment();
+				}
+				else
+				{
+					theErrors.increment();
+				}
+			}
+			catch (IOException e)
+			{
+				theErrors.increment();
+			}
+			catch (InterruptedException e)
+			{
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Create an HTTP client with its own cookies, so it has its own session.
+	 *
+	 * @return The client
+	 */
+	private static HttpClient newClient()
+	{
+		return HttpClient.newBuilder()
+				.cookieHandler(new CookieManager())
+				.connectTimeout(Duration.ofSeconds(10))
+				.version(HttpClient.Version.HTTP_1_1)
+				.build();
+	}
+
+	/**
+	 * Print throughput and latency percentiles.
+	 *
+	 * @param theLatencies The latencies of each fast client, in nanoseconds
+	 * @param theSeconds   The length of the run
+	 * @param theUploads   The number of slow uploads finished
+	 * @param theErrors    The number of failed requests
+	 */
+	private static void print(long[][] theLatencies, int theSeconds, long theUploads, long theErrors)
+	{
+		int total = 0;
+		for (long[] client : theLatencies)
+		{
+			total += (client == null) ? 0 : client.length;
+		}
+		long[] all = new long[total];
+		int offset = 0;
+		for (long[] client : theLatencies)
+		{
+			if (client != null)
+			{
+				System.arraycopy(client, 0, all, offset, client.length);
+				offset += client.length;
+			}
+		}
+		Arrays.sort(all);
+
+		System.out.printf("Requests %,d (%,.0f/s), errors %,d, slow uploads %,d%n", total, (double) total / theSeconds, theErrors, theUploads);
+		if (total > 0)
+		{
+			System.out.printf("Latency ms: p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+							  percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99), percentile(all, 0.999),
+							  all[all.length - 1] / 1_000_000.0);
+		}
+	}
+
+	/**
+	 * Get a percentile of sorted latencies.
+	 *
+	 * @param theSorted   The latencies, sorted, in nanoseconds
+	 * @param theFraction The percentile as a fraction
+	 * @return The latency in milliseconds
+	 */
+	private static double percentile(long[] theSorted, double theFraction)
+	{
+		int index = (int) Math.min(theSorted.length - 1, Math.ceil(theFraction * theSorted.length) - 1);
+		return theSorted[Math.max(0, index)] / 1_000_000.0;
+	}
+
+	/**
+	 * Stream that hands out a body a few bytes at a time with a pause between, like a slow client.
+	 */
+	private static final class SlowInputStream extends InputStream
+	{
+		private final byte[] mBody;
+		private final long mDelayMillis;
+		private int mPosition;
+
+		/**
+		 * Create the stream.
+		 *
+		 * @param theBody        The bytes to send
+		 * @param theDelayMillis The pause before each chunk
+		 */
+		SlowInputStream(byte[] theBody, long theDelayMillis)
+		{
+			this.mBody = theBody;
+			this.mDelayMillis = theDelayMillis;
+		}
+
+		@Override
+		public int read()
+		{
+			byte[] single = new byte[1];
+			return (read(single, 0, 1) < 0) ? -1 : (single[0] & 0xFF);
+		}
+
+		@Override
+		public int read(byte[] theBuffer, int theOffset, int theLength)
+		{
+			if (mPosition >= mBody.length)
+			{
+				return -1;
+			}
+			try
+			{
+				Thread.sleep(mDelayMillis);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return -1;
+			}
+			int count = Math.min(Math.min(theLength, SLOW_CHUNK), mBody.length - mPosition);
+			System.arraycopy(mBody, mPosition, theBuffer, theOffset, count);
+			mPosition += count;
+			return count;
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring;
+
+import org.kuroneko.swn_char_gen.backend_spring.models.AttributeEnum;
+import org.kuroneko.swn_char_gen.backend_spring.models.RollAuditLog;
+import org.kuroneko.swn_char_gen.backend_spring.models.RollAuditReader;
+import org.kuroneko.swn_char_gen.backend_spring.models.RollAuditRecord;
+import org.kuroneko.swn_char_gen.backend_spring.models.RulesetRegistry;
+import org.kuroneko.swn_char_gen.backend_spring.models.SWNRules;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line tool to dump and verify the roll audit log.
+ * <p>
+ * Run with: gradlew rollAudit --args="verify /path/to/audit" or --args="dump /path/to/audit"
+ * <p>
+ * verify checks the sequence numbers and hash chain and exits with status 2 if the log was tampered with.
+ * dump prints every record and then verifies. The chain secret, the same base64 value as swn.audit.secret,
+ * is read from the SWN_AUDIT_SECRET environment variable so it does not show up in the process list.
+ */
+public class RollAuditCli
+{
+	/**
+	 * Private constructor to prevent instantiation.
+	 */
+	private RollAuditCli()
+	{
+	}
+
+	/**
+	 * Dump or verify an audit directory.
+	 *
+	 * @param args The command, dump or verify, and the audit directory
+	 * @throws IOException if the directory cannot be read
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length != 2 || !("dump".equals(args[0]) || "verify".equals(args[0])))
+		{
+			System.err.println("Usage: RollAuditCli dump|verify <audit directory>");
+			System.exit(1);
+		}
+		Path directory = Paths.get(args[1]);
+		byte[] secret = null;
+		try
+		{
+			secret = RollAuditLog.decodeSecret(System.getenv("SWN_AUDIT_SECRET"));
+		}
+		catch (IllegalArgumentException e)
+		{
+			System.err.println("SWN_AUDIT_SECRET: " + e.getMessage());
+			System.exit(1);
+		}
+
+		if ("dump".equals(args[0]))
+		{
+			// ruleset ids are stored as hashes, so match them against the known rulesets
+			Map<Long, String> rulesets = new HashMap<>();
+			for (SWNRules rules : RulesetRegistry.getInstance().getRulesets())
+			{
+				rulesets.put(RollAuditLog.rulesetHash(rules.getId()), rules.getId());
+			}
+			RollAuditReader.forEach(directory, record -> print(record, rulesets));
+		}
+
+		try
+		{
+			long records = RollAuditReader.verify(directory, secret);
+			System.out.printf("Verified %,d records%n", records);
+		}
+		catch (IllegalStateException e)
+		{
+			System.out.println("Verification FAILED: " + e.getMessage());
+			System.exit(2);
+		}
+	}
+
+	/**
+	 * Print one record.
+	 *
+	 * @param theRecord   The record
+	 * @param theRulesets Known ruleset ids by hash
+	 */
+	private static void print(RollAuditRecord theRecord, Map<Long, String> theRulesets)
+	{
+		StringBuilder values = new StringBuilder();
+		int[] rolled = theRecord.getValues();
+		for (int index = 0; index < AttributeEnum.COUNT; index++)
+		{
+			values.append(' ').append(AttributeEnum.values()[index].name(), 0, 3).append('=').append(rolled[index]);
+		}
+		String ruleset = theRulesets.getOrDefault(theRecord.getRulesetHash(), Long.toHexString(theRecord.getRulesetHash()));
+		String type = (theRecord.getType() == RollAuditLog.TYPE_CONSTRAINED_ROLL) ? "constrained" : "roll";
+		System.out.printf("%d %s %s %s %s v%d attempts=%d%s hash=%016x%n",
+						  theRecord.getSequence(), Instant.ofEpochMilli(theRecord.getTimestamp()), theRecord.getSessionId(),
+						  type, ruleset, theRecord.getRulesVersion(), theRecord.getAttempts(), values, theRecord.getChainHash());
+	}
+}
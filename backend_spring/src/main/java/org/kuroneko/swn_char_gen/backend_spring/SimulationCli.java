@@ -0,0 +1,169 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring;
+
+import org.kuroneko.swn_char_gen.backend_spring.models.RulesetRegistry;
+import org.kuroneko.swn_char_gen.backend_spring.models.SWNOdds;
+import org.kuroneko.swn_char_gen.backend_spring.models.SWNRules;
+import org.kuroneko.swn_char_gen.backend_spring.models.SWNSimulationResult;
+import org.kuroneko.swn_char_gen.backend_spring.models.SWNSimulator;
+import org.kuroneko.swn_char_gen.backend_spring.services.RulesFileWatcher;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Command line Monte Carlo simulation of character generation, for balancing rulesets without
+ * starting the web application.
+ * <p>
+ * Run with: gradlew simulate --args="--characters=50000000 --ruleset=swn_heroic"
+ * <p>
+ * Options are --characters=N (default 10000000), --ruleset=id (default swn), --seed=N,
+ * --threads=N (default all cores), and --rules-dir=path to load extra rulesets.
+ */
+public class SimulationCli
+{
+	private static final long DEFAULT_CHARACTERS = 10_000_000L;
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 */
+	private SimulationCli()
+	{
+	}
+
+	/**
+	 * Run the simulation and print the statistics.
+	 *
+	 * @param args Command line options
+	 * @throws IOException if the rules directory cannot be read
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		long characters = DEFAULT_CHARACTERS;
+		String rulesetId = SWNRules.DEFAULT_RULESET_ID;
+		long seed = new SplittableRandom().nextLong();
+		int threads = Runtime.getRuntime().availableProcessors();
+		String rulesDir = null;
+		for (String arg : args)
+		{
+			String value = arg.substring(arg.indexOf('=') + 1);
+			if (arg.startsWith("--characters="))
+			{
+				characters = Long.parseLong(value.replace("_", ""));
+			}
+			else if (arg.startsWith("--ruleset="))
+			{
+				rulesetId = value;
+			}
+			else if (arg.startsWith("--seed="))
+			{
+				seed = Long.parseLong(value);
+			}
+			else if (arg.startsWith("--threads="))
+			{
+				threads = Integer.parseInt(value);
+			}
+			else if (arg.startsWith("--rules-dir="))
+			{
+				rulesDir = value;
+			}
+			else
+			{
+				System.err.println("Unknown option: " + arg);
+				System.err.println("Options: --characters=N --ruleset=id --seed=N --threads=N --rules-dir=path");
+				System.exit(1);
+			}
+		}
+
+		if (rulesDir != null)
+		{
+			new RulesFileWatcher(rulesDir).reloadAll();
+		}
+		SWNRules rules = RulesetRegistry.getInstance().getRuleset(rulesetId);
+		System.out.printf("Simulating %,d characters with %s version %d (%s) on %d threads, seed %d%n",
+						  characters, rules.getId(), rules.getVersion(), rules.getDice(), threads, seed);
+
+		LongAdder progress = new LongAdder();
+		long total = characters;
+		ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable ->
+		{
+			Thread thread = new Thread(runnable, "swn-simulation-progress");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long start = System.nanoTime();
+		reporter.scheduleAtFixedRate(() ->
+		{
+			long done = progress.sum();
+			double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+			System.out.printf("  %,d / %,d (%.1f%%) %,.0f characters/s%n", done, total, 100.0 * done / total, done / seconds);
+		}, 1, 1, TimeUnit.SECONDS);
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		SWNSimulationResult result;
+		try
+		{
+			result = new SWNSimulator(rules, pool).run(characters, seed, progress);
+		}
+		finally
+		{
+			reporter.shutdownNow();
+			pool.shutdown();
+		}
+
+		print(result);
+	}
+
+	/**
+	 * Print the statistics of a run.
+	 *
+	 * @param theResult The statistics
+	 */
+	private static void print(SWNSimulationResult theResult)
+	{
+		double characters = theResult.getCharacters();
+		System.out.printf("Generated %,d characters in %.2f s (%,.0f characters/s)%n",
+						  theResult.getCharacters(), theResult.getElapsedNanos() / 1_000_000_000.0, theResult.getCharactersPerSecond());
+
+		System.out.println();
+		System.out.println("Attribute   Percent");
+		for (int value = 1; value <= theResult.getMaxAttribute(); value++)
+		{
+			if (theResult.getAttributeCount(value) > 0)
+			{
+				System.out.printf("%9d %8.4f%%%n", value, 100 * theResult.getAttributeCount(value) / characters / SWNOdds.ATTRIBUTE_COUNT);
+			}
+		}
+
+		System.out.println();
+		System.out.printf("Mean total modifier %.4f as rolled, %.4f after changing one attribute%n",
+						  theResult.getMeanModifierSum(), theResult.getMeanChangedModifierSum());
+		System.out.println("Total modifier   Rolled   Changed");
+		for (int sum = theResult.getMinModifierSum(); sum <= theResult.getMaxModifierSum(); sum++)
+		{
+			System.out.printf("%14d %8.4f%% %8.4f%%%n", sum,
+							  100 * theResult.getModifierSumCount(sum) / characters,
+							  100 * theResult.getChangedModifierSumCount(sum) / characters);
+		}
+
+		System.out.println();
+		System.out.println("Change gain   Percent");
+		for (int gain = 0; gain <= theResult.getMaxChangeGain(); gain++)
+		{
+			System.out.printf("%11d %8.4f%%%n", gain, 100 * theResult.getChangeGainCount(gain) / characters);
+		}
+	}
+}
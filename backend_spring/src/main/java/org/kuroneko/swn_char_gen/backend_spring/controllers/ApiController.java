@@ -9,54 +9,85 @@
 
 package org.kuroneko.swn_char_gen.backend_spring.controllers;
 
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterPollService;
 import org.kuroneko.swn_char_gen.backend_spring.services.CharacterService;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterShareService;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterStreamService;
+import org.kuroneko.swn_char_gen.backend_spring.services.IdempotencyCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
-import com.fasterxml.jackson.core.type.TypeReference;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.InputStream;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 /**
  * REST controller for character management endpoints.
  * This controller duplicates the endpoints from the Flask backend.
+ * <p>
+ * Serves the servlet build; the reactive profile uses ReactiveApiController instead.
+ * The caller's session comes from the signed session cookie, resolved by SessionKeyArgumentResolver,
+ * rather than the servlet HttpSession. Stateless mode uses StatelessApiController instead.
+ * <p>
+ * The POST endpoints that change a character honor an Idempotency-Key header, answering a retried
+ * request from IdempotencyCache rather than running it twice. Each passes its path and body, so a key
+ * reused for a different request is refused rather than replayed.
+ * <p>
+ * The request checks and response bodies are shared with ReactiveApiController through CharacterRequests.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "swn.stateless.enabled", havingValue = "false", matchIfMissing = true)
 @RequestMapping("/api")
 public class ApiController
 {
 	private static final Logger logger = LoggerFactory.getLogger(ApiController.class);
 	private final CharacterService characterService;
-	private final ObjectMapper objectMapper;
+	private final CharacterStreamService characterStreamService;
+	private final CharacterPollService characterPollService;
+	private final CharacterShareService characterShareService;
+	private final IdempotencyCache idempotencyCache;
+	private final CharacterRequests characterRequests;
 
 	@Autowired
-	public ApiController(CharacterService characterService)
+	public ApiController(CharacterService characterService, CharacterStreamService characterStreamService,
+						 CharacterPollService characterPollService, CharacterShareService characterShareService,
+						 IdempotencyCache idempotencyCache)
 	{
 		this.characterService = characterService;
-		this.objectMapper = new ObjectMapper();
+		this.characterStreamService = characterStreamService;
+		this.characterPollService = characterPollService;
+		this.characterShareService = characterShareService;
+		this.idempotencyCache = idempotencyCache;
+		this.characterRequests = new CharacterRequests(characterService, characterShareService);
 	}
 
 	/**
 	 * Creates a new character.
 	 *
+	 * @param session the caller's session
+	 * @param ruleset the optional id of the ruleset to use, defaults to the standard SWN rules
 	 * @return the new character data
 	 */
 	@GetMapping("/new-character")
-	public ResponseEntity<Map<String, Object>> newCharacter()
+	public ResponseEntity<Map<String, Object>> newCharacter(SessionKey session,
+															@RequestParam(value = "ruleset", required = false) String ruleset)
 	{
 		try
 		{
 			logger.info("Spring new-character");
-			Map<String, Object> character = characterService.createNewCharacter();
+			Map<String, Object> character = characterService.createNewCharacter(session, ruleset);
 			return ResponseEntity.ok(character);
 		}
 		catch (Exception e)
@@ -68,18 +99,70 @@ public class ApiController
 		}
 	}
 
+	/**
+	 * Lists the rulesets a character can be created with.
+	 *
+	 * @return the available rulesets
+	 */
+	@GetMapping("/rulesets")
+	public ResponseEntity<Map<String, Object>> getRulesets()
+	{
+		try
+		{
+			logger.info("Spring rulesets");
+			Map<String, Object> result = characterRequests.getRulesets();
+			return ResponseEntity.ok(result);
+		}
+		catch (Exception e)
+		{
+			logger.error("Error listing rulesets", e);
+			Map<String, Object> error = new HashMap<>();
+			error.put("error", e.getMessage());
+			return ResponseEntity.badRequest().body(error);
+		}
+	}
+
+	/**
+	 * Runs a Monte Carlo simulation of character generation for balancing rulesets.
+	 *
+	 * @param ruleset    the optional id of the ruleset to simulate, defaults to the standard SWN rules
+	 * @param characters the number of characters to generate
+	 * @param seed       the optional random seed, for repeatable runs
+	 * @return the simulation statistics
+	 */
+	@GetMapping("/simulate")
+	public ResponseEntity<Map<String, Object>> simulate(@RequestParam(value = "ruleset", required = false) String ruleset,
+														@RequestParam(value = "characters", defaultValue = "1000000") long characters,
+														@RequestParam(value = "seed", required = false) Long seed)
+	{
+		try
+		{
+			logger.info("Spring simulate");
+			Map<String, Object> result = characterService.simulate(ruleset, characters, seed);
+			return ResponseEntity.ok(result);
+		}
+		catch (Exception e)
+		{
+			logger.error("Error running simulation", e);
+			Map<String, Object> error = new HashMap<>();
+			error.put("error", e.getMessage());
+			return ResponseEntity.badRequest().body(error);
+		}
+	}
+
 	/**
 	 * Gets the current character.
 	 *
+	 * @param session the caller's session
 	 * @return the current character data
 	 */
 	@GetMapping("/character")
-	public ResponseEntity<Map<String, Object>> getCharacter()
+	public ResponseEntity<Map<String, Object>> getCharacter(SessionKey session)
 	{
 		try
 		{
 			logger.info("Spring character");
-			Map<String, Object> character = characterService.getCharacter();
+			Map<String, Object> character = characterService.getCharacter(session);
 			return ResponseEntity.ok(character);
 		}
 		catch (Exception e)
@@ -92,17 +175,76 @@ public class ApiController
 	}
 
 	/**
-	 * Rolls attributes for a character.
+	 * Streams the changes to the character as Server-Sent Events, starting with the whole character.
+	 * The stream is written asynchronously, so it holds no request thread while open.
+	 *
+	 * @param session the caller's session
+	 * @return the event stream
+	 */
+	@GetMapping(value = "/character/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamCharacter(SessionKey session)
+	{
+		logger.info("Spring character stream");
+		return characterStreamService.stream(session);
+	}
+
+	/**
+	 * Long-polls the changes to the character after a version, for clients that cannot use the stream.
+	 * The request waits asynchronously, holding no thread, until there is a change or it times out.
+	 *
+	 * @param session the caller's session
+	 * @param since   the last version the caller has seen, 0 for none
+	 * @return the new version and the changes after the given one, or the whole character with "reset" set
+	 */
+	@GetMapping("/character/changes")
+	public DeferredResult<Map<String, Object>> getChanges(SessionKey session,
+														 @RequestParam(value = "since", defaultValue = "0") long since)
+	{
+		logger.info("Spring character changes");
+		return characterPollService.poll(session, since);
+	}
+
+	/**
+	 * Gets the odds of the current character's rolled attributes.
+	 *
+	 * @param session the caller's session
+	 * @return the attribute percentiles, total modifier probability, and best attribute to change
+	 */
+	@GetMapping("/character/odds")
+	public ResponseEntity<Map<String, Object>> getOdds(SessionKey session)
+	{
+		try
+		{
+			logger.info("Spring character odds");
+			Map<String, Object> odds = characterService.getOdds(session);
+			return ResponseEntity.ok(odds);
+		}
+		catch (Exception e)
+		{
+			logger.error("Error getting character odds", e);
+			Map<String, Object> error = new HashMap<>();
+			error.put("error", e.getMessage());
+			return ResponseEntity.badRequest().body(error);
+		}
+	}
+
+	/**
+	 * Rolls attributes for a character, optionally rerolling on the server until the result meets constraints.
 	 *
+	 * @param session             the caller's session
+	 * @param minModifierSum      the optional lowest acceptable total modifier
+	 * @param minHighestAttribute the optional value at least one attribute must reach, for example 14
 	 * @return the updated character data
 	 */
 	@GetMapping("/roll-attributes")
-	public ResponseEntity<Map<String, Object>> rollAttributes()
+	public ResponseEntity<Map<String, Object>> rollAttributes(SessionKey session,
+															  @RequestParam(value = "minModifierSum", required = false) Integer minModifierSum,
+															  @RequestParam(value = "minHighestAttribute", required = false) Integer minHighestAttribute)
 	{
 		try
 		{
 			logger.info("Spring roll-attributes");
-			Map<String, Object> character = characterService.rollAttributes();
+			Map<String, Object> character = characterRequests.rollAttributes(session, minModifierSum, minHighestAttribute);
 			return ResponseEntity.ok(character);
 		}
 		catch (Exception e)
@@ -115,65 +257,262 @@ public class ApiController
 	}
 
 	/**
-	 * Changes a specific attribute.
+	 * Undoes the last roll or attribute change.
 	 *
-	 * @param requestBody the request body containing the attribute to change
-	 * @return the updated character data
+	 * @param session        the caller's session
+	 * @param idempotencyKey the optional Idempotency-Key header, see IdempotencyCache
+	 * @return the character data as it was before the change
 	 */
-	@PostMapping("/change-attribute")
-	public ResponseEntity<Map<String, Object>> changeAttribute(@RequestBody Map<String, String> requestBody)
+	@PostMapping("/undo")
+	public ResponseEntity<?> undo(SessionKey session,
+								  @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey)
 	{
-		try
+		return idempotencyCache.execute(session, idempotencyKey, "POST", "/api/undo", null, () ->
 		{
-			logger.info("Spring change-attribute");
-			String attribute = requestBody.get("attribute");
-			if (attribute == null || attribute.isEmpty())
+			try
+			{
+				logger.info("Spring undo");
+				Map<String, Object> character = characterService.undo(session);
+				return ResponseEntity.ok(character);
+			}
+			catch (Exception e)
 			{
+				logger.error("Error undoing change", e);
 				Map<String, Object> error = new HashMap<>();
-				error.put("error", "Attribute parameter is required");
+				error.put("error", e.getMessage());
 				return ResponseEntity.badRequest().body(error);
 			}
+		});
+	}
 
-			Map<String, Object> character = characterService.changeAttribute(attribute);
-			return ResponseEntity.ok(character);
+	/**
+	 * Redoes the last undone roll or attribute change.
+	 *
+	 * @param session        the caller's session
+	 * @param idempotencyKey the optional Idempotency-Key header, see IdempotencyCache
+	 * @return the character data as it was after the change
+	 */
+	@PostMapping("/redo")
+	public ResponseEntity<?> redo(SessionKey session,
+								  @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey)
+	{
+		return idempotencyCache.execute(session, idempotencyKey, "POST", "/api/redo", null, () ->
+		{
+			try
+			{
+				logger.info("Spring redo");
+				Map<String, Object> character = characterService.redo(session);
+				return ResponseEntity.ok(character);
+			}
+			catch (Exception e)
+			{
+				logger.error("Error redoing change", e);
+				Map<String, Object> error = new HashMap<>();
+				error.put("error", e.getMessage());
+				return ResponseEntity.badRequest().body(error);
+			}
+		});
+	}
+
+	/**
+	 * Gets the recent changes to the character, for audits.
+	 *
+	 * @param session the caller's session
+	 * @return the events still held in the character's event log, oldest first
+	 */
+	@GetMapping("/character/events")
+	public ResponseEntity<Map<String, Object>> getEvents(SessionKey session)
+	{
+		try
+		{
+			logger.info("Spring character events");
+			Map<String, Object> result = characterRequests.getEvents(session);
+			return ResponseEntity.ok(result);
 		}
 		catch (Exception e)
 		{
-			logger.error("Error changing attribute", e);
+			logger.error("Error getting character events", e);
 			Map<String, Object> error = new HashMap<>();
 			error.put("error", e.getMessage());
 			return ResponseEntity.badRequest().body(error);
 		}
 	}
 
+	/**
+	 * Changes a specific attribute.
+	 *
+	 * @param session        the caller's session
+	 * @param idempotencyKey the optional Idempotency-Key header, see IdempotencyCache
+	 * @param requestBody    the request body containing the attribute to change
+	 * @return the updated character data
+	 */
+	@PostMapping("/change-attribute")
+	public ResponseEntity<?> changeAttribute(SessionKey session,
+											 @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+											 @RequestBody Map<String, String> requestBody)
+	{
+		return idempotencyCache.execute(session, idempotencyKey, "POST", "/api/change-attribute", requestBody, () ->
+		{
+			try
+			{
+				logger.info("Spring change-attribute");
+				Map<String, Object> character = characterRequests.changeAttribute(session, requestBody);
+				return ResponseEntity.ok(character);
+			}
+			catch (Exception e)
+			{
+				logger.error("Error changing attribute", e);
+				Map<String, Object> error = new HashMap<>();
+				error.put("error", e.getMessage());
+				return ResponseEntity.badRequest().body(error);
+			}
+		});
+	}
+
 	/**
 	 * Sets a detail for a character.
 	 *
-	 * @param requestBody the request body containing the detail and value
+	 * @param session        the caller's session
+	 * @param idempotencyKey the optional Idempotency-Key header, see IdempotencyCache
+	 * @param requestBody    the request body containing the detail and value
 	 * @return the updated character data
 	 */
 	@PostMapping("/set-detail")
-	public ResponseEntity<Map<String, Object>> setDetail(@RequestBody Map<String, String> requestBody)
+	public ResponseEntity<?> setDetail(SessionKey session,
+									   @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+									   @RequestBody Map<String, String> requestBody)
+	{
+		return idempotencyCache.execute(session, idempotencyKey, "POST", "/api/set-detail", requestBody, () ->
+		{
+			try
+			{
+				logger.info("Spring set-detail");
+				Map<String, Object> character = characterRequests.setDetail(session, requestBody);
+				return ResponseEntity.ok(character);
+			}
+			catch (Exception e)
+			{
+				logger.error("Error setting detail", e);
+				Map<String, Object> error = new HashMap<>();
+				error.put("error", e.getMessage());
+				return ResponseEntity.badRequest().body(error);
+			}
+		});
+	}
+
+	/**
+	 * Uploads a character from a JSON file.
+	 *
+	 * @param session        the caller's session
+	 * @param idempotencyKey the optional Idempotency-Key header, see IdempotencyCache
+	 * @param file           the JSON file containing character data
+	 * @return the uploaded character data
+	 */
+	@PostMapping("/upload-character")
+	public ResponseEntity<?> uploadCharacter(SessionKey session,
+											 @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+											 @RequestParam("file") MultipartFile file)
+	{
+		return idempotencyCache.execute(session, idempotencyKey, "POST", "/api/upload-character", file, () ->
+		{
+			try
+			{
+				logger.info("Spring upload-character");
+				// Upload the character using the service
+				try (InputStream contents = file.getInputStream())
+				{
+					Map<String, Object> character = characterRequests.uploadCharacter(session, contents);
+					return ResponseEntity.ok(character);
+				}
+			}
+			catch (Exception e)
+			{
+				logger.error("Error uploading character", e);
+				Map<String, Object> error = new HashMap<>();
+				error.put("error", e.getMessage());
+				return ResponseEntity.badRequest().body(error);
+			}
+		});
+	}
+
+	/**
+	 * Downloads the current character as a JSON file.
+	 *
+	 * @param session the caller's session
+	 * @return the character data as a downloadable JSON file
+	 */
+	@GetMapping("/download-character")
+	public ResponseEntity<String> downloadCharacter(SessionKey session)
 	{
 		try
 		{
-			logger.info("Spring set-detail");
-			String detail = requestBody.get("detail");
-			String value = requestBody.get("value");
+			logger.info("Spring download-character");
+			// Get the current character
+			Map<String, Object> character = characterService.getCharacter(session);
+
+			// Convert the character to a JSON file
+			return characterRequests.download(character);
+		}
+		catch (Exception e)
+		{
+			logger.error("Error downloading character", e);
+			return CharacterRequests.downloadError(e);
+		}
+	}
 
-			if (detail == null || detail.isEmpty() || value == null || value.isEmpty())
+	/**
+	 * Creates a character in the caller's party.
+	 *
+	 * @param session        the caller's session
+	 * @param idempotencyKey the optional Idempotency-Key header, see IdempotencyCache
+	 * @param ruleset        the optional id of the ruleset to use, defaults to the standard SWN rules
+	 * @return the new character's id and data
+	 */
+	@PostMapping("/characters")
+	public ResponseEntity<?> createPartyCharacter(SessionKey session,
+												  @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+												  @RequestParam(value = "ruleset", required = false) String ruleset)
+	{
+		return idempotencyCache.execute(session, idempotencyKey, "POST", "/api/characters", ruleset, () ->
+		{
+			try
+			{
+				logger.info("Spring create party character");
+				Map<String, Object> result = characterService.createPartyCharacter(session, ruleset);
+				return ResponseEntity.ok(result);
+			}
+			catch (Exception e)
 			{
+				logger.error("Error creating party character", e);
 				Map<String, Object> error = new HashMap<>();
-				error.put("error", "Detail and value parameters are required");
+				error.put("error", e.getMessage());
 				return ResponseEntity.badRequest().body(error);
 			}
+		});
+	}
 
-			Map<String, Object> character = characterService.setDetail(detail, value);
-			return ResponseEntity.ok(character);
+	/**
+	 * Lists a page of the caller's party.
+	 *
+	 * @param session the caller's session
+	 * @param after   the next cursor of the previous page, or 0 for the first page
+	 * @param limit   the most characters to list
+	 * @return the characters' ids, names and rulesets, the party size and the next cursor
+	 */
+	@GetMapping("/characters")
+	public ResponseEntity<Map<String, Object>> listPartyCharacters(SessionKey session,
+																   @RequestParam(value = "after", defaultValue = "0") int after,
+																   @RequestParam(value = "limit", defaultValue = "20") int limit)
+	{
+		try
+		{
+			logger.info("Spring list party characters");
+			Map<String, Object> result = characterService.listPartyCharacters(session, after, limit);
+			return ResponseEntity.ok(result);
 		}
 		catch (Exception e)
 		{
-			logger.error("Error setting detail", e);
+			logger.error("Error listing party characters", e);
 			Map<String, Object> error = new HashMap<>();
 			error.put("error", e.getMessage());
 			return ResponseEntity.badRequest().body(error);
@@ -181,38 +520,103 @@ public class ApiController
 	}
 
 	/**
-	 * Uploads a character from a JSON file.
+	 * Gets many characters in one response, for GM screens: the caller's own party characters by id,
+	 * and other players' characters by the share tokens they made with POST /character/share.
 	 *
-	 * @param file the JSON file containing character data
-	 * @return the uploaded character data
+	 * @param session     the caller's session
+	 * @param requestBody the request body containing the ids and the share tokens to get
+	 * @return the party characters found and the ids not found, and the shared characters found and
+	 *         the tokens not honored
 	 */
-	@PostMapping("/upload-character")
-	public ResponseEntity<Map<String, Object>> uploadCharacter(@RequestParam("file") MultipartFile file)
+	@PostMapping("/characters/batch-get")
+	public ResponseEntity<Map<String, Object>> batchGetPartyCharacters(SessionKey session,
+																	   @RequestBody Map<String, List<Object>> requestBody)
 	{
 		try
 		{
-			logger.info("Spring upload-character");
-			// check for file - for now, we're not worried about file name or extension
-			if (file.isEmpty())
-			{
-				Map<String, Object> error = new HashMap<>();
-				error.put("error", "No selected file");
-				return ResponseEntity.badRequest().body(error);
-			}
+			logger.info("Spring batch get party characters");
+			Map<String, Object> result = characterRequests.batchGet(session, requestBody);
+			return ResponseEntity.ok(result);
+		}
+		catch (Exception e)
+		{
+			logger.error("Error batch getting party characters", e);
+			Map<String, Object> error = new HashMap<>();
+			error.put("error", e.getMessage());
+			return ResponseEntity.badRequest().body(error);
+		}
+	}
 
-			// Parse the JSON file to a Map
-			//noinspection JvmTaintAnalysis Is not parsing the file path, just the JSON file, Convert2Diamond I prefer knowing the classes
-			@SuppressWarnings("Convert2Diamond")
-			Map<String, Object> characterData = objectMapper.readValue(file.getInputStream(), new TypeReference<Map<String, Object>>() {});
+	/**
+	 * Makes a share token that lets another player, such as the GM, read one of the caller's
+	 * characters through batch get.
+	 *
+	 * @param session the caller's session
+	 * @param id      0 for the caller's own character, otherwise the id of a party character
+	 * @return the token and the id it shares
+	 */
+	@PostMapping("/character/share")
+	public ResponseEntity<Map<String, Object>> shareCharacter(SessionKey session,
+															  @RequestParam(value = "id", defaultValue = "0") int id)
+	{
+		try
+		{
+			logger.info("Spring share character");
+			Map<String, Object> result = characterShareService.share(session, id);
+			return ResponseEntity.ok(result);
+		}
+		catch (Exception e)
+		{
+			logger.error("Error sharing character", e);
+			Map<String, Object> error = new HashMap<>();
+			error.put("error", e.getMessage());
+			return ResponseEntity.badRequest().body(error);
+		}
+	}
 
-			// Upload the character using the service
-			Map<String, Object> character = characterService.uploadCharacter(characterData);
+	/**
+	 * Revokes every share token the caller has made.
+	 *
+	 * @param session the caller's session
+	 * @return the revoked flag
+	 */
+	@DeleteMapping("/character/share")
+	public ResponseEntity<Map<String, Object>> revokeShares(SessionKey session)
+	{
+		try
+		{
+			logger.info("Spring revoke shares");
+			Map<String, Object> result = characterShareService.revoke(session);
+			return ResponseEntity.ok(result);
+		}
+		catch (Exception e)
+		{
+			logger.error("Error revoking shares", e);
+			Map<String, Object> error = new HashMap<>();
+			error.put("error", e.getMessage());
+			return ResponseEntity.badRequest().body(error);
+		}
+	}
 
+	/**
+	 * Gets a character of the caller's party.
+	 *
+	 * @param session the caller's session
+	 * @param id      the character's id
+	 * @return the character data
+	 */
+	@GetMapping("/characters/{id}")
+	public ResponseEntity<Map<String, Object>> getPartyCharacter(SessionKey session, @PathVariable("id") int id)
+	{
+		try
+		{
+			logger.info("Spring get party character");
+			Map<String, Object> character = characterService.getPartyCharacter(session, id);
 			return ResponseEntity.ok(character);
 		}
 		catch (Exception e)
 		{
-			logger.error("Error uploading character", e);
+			logger.error("Error getting party character", e);
 			Map<String, Object> error = new HashMap<>();
 			error.put("error", e.getMessage());
 			return ResponseEntity.badRequest().body(error);
@@ -220,34 +624,147 @@ public class ApiController
 	}
 
 	/**
-	 * Downloads the current character as a JSON file.
+	 * Removes a character from the caller's party.
 	 *
-	 * @return the character data as a downloadable JSON file
+	 * @param session the caller's session
+	 * @param id      the character's id
+	 * @return the removed character's id
 	 */
-	@GetMapping("/download-character")
-	public ResponseEntity<String> downloadCharacter()
+	@DeleteMapping("/characters/{id}")
+	public ResponseEntity<Map<String, Object>> removePartyCharacter(SessionKey session, @PathVariable("id") int id)
 	{
 		try
 		{
-			logger.info("Spring download-character");
-			// Get the current character
-			Map<String, Object> character = characterService.getCharacter();
+			logger.info("Spring remove party character");
+			Map<String, Object> result = characterRequests.removePartyCharacter(session, id);
+			return ResponseEntity.ok(result);
+		}
+		catch (Exception e)
+		{
+			logger.error("Error removing party character", e);
+			Map<String, Object> error = new HashMap<>();
+			error.put("error", e.getMessage());
+			return ResponseEntity.badRequest().body(error);
+		}
+	}
 
-			// Convert the character to JSON
-			String characterJson = objectMapper.writeValueAsString(character);
+	/**
+	 * Rolls attributes for a character of the caller's party, optionally rerolling until the result meets constraints.
+	 *
+	 * @param session             the caller's session
+	 * @param id                  the character's id
+	 * @param minModifierSum      the optional lowest acceptable total modifier
+	 * @param minHighestAttribute the optional value at least one attribute must reach
+	 * @return the updated character data
+	 */
+	@GetMapping("/characters/{id}/roll-attributes")
+	public ResponseEntity<Map<String, Object>> rollPartyAttributes(SessionKey session, @PathVariable("id") int id,
+																   @RequestParam(value = "minModifierSum", required = false) Integer minModifierSum,
+																   @RequestParam(value = "minHighestAttribute", required = false) Integer minHighestAttribute)
+	{
+		try
+		{
+			logger.info("Spring party roll-attributes");
+			Map<String, Object> character = characterService.rollPartyAttributes(session, id, minModifierSum, minHighestAttribute);
+			return ResponseEntity.ok(character);
+		}
+		catch (Exception e)
+		{
+			logger.error("Error rolling party attributes", e);
+			Map<String, Object> error = new HashMap<>();
+			error.put("error", e.getMessage());
+			return ResponseEntity.badRequest().body(error);
+		}
+	}
 
-			HttpHeaders headers = new HttpHeaders();
-			headers.setContentType(MediaType.APPLICATION_JSON);
-			headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"character.json\"");
+	/**
+	 * Changes a specific attribute of a character of the caller's party.
+	 *
+	 * @param session        the caller's session
+	 * @param idempotencyKey the optional Idempotency-Key header, see IdempotencyCache
+	 * @param id             the character's id
+	 * @param requestBody    the request body containing the attribute to change
+	 * @return the updated character data
+	 */
+	@PostMapping("/characters/{id}/change-attribute")
+	public ResponseEntity<?> changePartyAttribute(SessionKey session,
+												  @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+												  @PathVariable("id") int id,
+												  @RequestBody Map<String, String> requestBody)
+	{
+		return idempotencyCache.execute(session, idempotencyKey, "POST", "/api/characters/" + id + "/change-attribute", requestBody, () ->
+		{
+			try
+			{
+				logger.info("Spring party change-attribute");
+				Map<String, Object> character = characterRequests.changePartyAttribute(session, id, requestBody);
+				return ResponseEntity.ok(character);
+			}
+			catch (Exception e)
+			{
+				logger.error("Error changing party attribute", e);
+				Map<String, Object> error = new HashMap<>();
+				error.put("error", e.getMessage());
+				return ResponseEntity.badRequest().body(error);
+			}
+		});
+	}
 
-			return new ResponseEntity<>(characterJson, headers, HttpStatus.OK);
+	/**
+	 * Sets a detail for a character of the caller's party.
+	 *
+	 * @param session        the caller's session
+	 * @param idempotencyKey the optional Idempotency-Key header, see IdempotencyCache
+	 * @param id             the character's id
+	 * @param requestBody    the request body containing the detail and value
+	 * @return the updated character data
+	 */
+	@PostMapping("/characters/{id}/set-detail")
+	public ResponseEntity<?> setPartyDetail(SessionKey session,
+											@RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+											@PathVariable("id") int id,
+											@RequestBody Map<String, String> requestBody)
+	{
+		return idempotencyCache.execute(session, idempotencyKey, "POST", "/api/characters/" + id + "/set-detail", requestBody, () ->
+		{
+			try
+			{
+				logger.info("Spring party set-detail");
+				Map<String, Object> character = characterRequests.setPartyDetail(session, id, requestBody);
+				return ResponseEntity.ok(character);
+			}
+			catch (Exception e)
+			{
+				logger.error("Error setting party detail", e);
+				Map<String, Object> error = new HashMap<>();
+				error.put("error", e.getMessage());
+				return ResponseEntity.badRequest().body(error);
+			}
+		});
+	}
+
+	/**
+	 * Gets the odds of a character of the caller's party rolling attributes at least as good as its own.
+	 *
+	 * @param session the caller's session
+	 * @param id      the character's id
+	 * @return the odds data
+	 */
+	@GetMapping("/characters/{id}/odds")
+	public ResponseEntity<Map<String, Object>> getPartyOdds(SessionKey session, @PathVariable("id") int id)
+	{
+		try
+		{
+			logger.info("Spring party odds");
+			Map<String, Object> odds = characterService.getPartyOdds(session, id);
+			return ResponseEntity.ok(odds);
 		}
 		catch (Exception e)
 		{
-			logger.error("Error downloading character", e);
+			logger.error("Error getting party odds", e);
 			Map<String, Object> error = new HashMap<>();
 			error.put("error", e.getMessage());
-			return new ResponseEntity<>(error.toString(), HttpStatus.BAD_REQUEST);
+			return ResponseEntity.badRequest().body(error);
 		}
 	}
-}
\ No newline at end of file
+}
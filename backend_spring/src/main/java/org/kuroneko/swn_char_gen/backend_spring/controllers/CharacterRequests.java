@@ -0,0 +1,322 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterService;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterShareService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Request and response mapping shared by ApiController and ReactiveApiController, so the two serve
+ * the same JSON and the same error messages for the same request.
+ * <p>
+ * Each method reads a request as the controllers receive it, checks it, runs it on the services, and
+ * builds the response body. A request missing a required parameter is refused with an
+ * IllegalArgumentException, which both controllers answer with a bad request holding its message.
+ * The controllers keep only what differs between them: how the session is found, how the call is
+ * scheduled, and how the response is written.
+ */
+final class CharacterRequests
+{
+	private final CharacterService characterService;
+	private final CharacterShareService characterShareService;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	/**
+	 * Create the mapping.
+	 *
+	 * @param characterService      the character operations
+	 * @param characterShareService the share token and batch get operations
+	 */
+	CharacterRequests(CharacterService characterService, CharacterShareService characterShareService)
+	{
+		this.characterService = characterService;
+		this.characterShareService = characterShareService;
+	}
+
+	/**
+	 * Build the body of a bad request.
+	 *
+	 * @param message the error message
+	 * @return the body, holding the message as "error"
+	 */
+	static Map<String, Object> error(String message)
+	{
+		Map<String, Object> error = new HashMap<>();
+		error.put("error", message);
+		return error;
+	}
+
+	/**
+	 * Build the response to a failed download, which is a string rather than JSON.
+	 *
+	 * @param e the failure
+	 * @return the bad request response
+	 */
+	static ResponseEntity<String> downloadError(Throwable e)
+	{
+		return new ResponseEntity<>(error(e.getMessage()).toString(), HttpStatus.BAD_REQUEST);
+	}
+
+	/**
+	 * Lists the rulesets a character can be created with.
+	 *
+	 * @return the available rulesets, as "rulesets"
+	 */
+	Map<String, Object> getRulesets()
+	{
+		Map<String, Object> result = new HashMap<>();
+		result.put("rulesets", characterService.getRulesets());
+		return result;
+	}
+
+	/**
+	 * Rolls attributes for the session's character, rerolling until the result meets any constraints given.
+	 *
+	 * @param session             the caller's session
+	 * @param minModifierSum      the optional lowest acceptable total modifier
+	 * @param minHighestAttribute the optional value at least one attribute must reach
+	 * @return the updated character data
+	 */
+	Map<String, Object> rollAttributes(SessionKey session, Integer minModifierSum, Integer minHighestAttribute)
+	{
+		if (minModifierSum == null && minHighestAttribute == null)
+		{
+			return characterService.rollAttributes(session);
+		}
+		return characterService.rollAttributes(session, minModifierSum, minHighestAttribute);
+	}
+
+	/**
+	 * Gets the recent changes to the session's character.
+	 *
+	 * @param session the caller's session
+	 * @return the events, as "events"
+	 */
+	Map<String, Object> getEvents(SessionKey session)
+	{
+		Map<String, Object> result = new HashMap<>();
+		result.put("events", characterService.getEvents(session));
+		return result;
+	}
+
+	/**
+	 * Changes the attribute named in a request body of the session's character.
+	 *
+	 * @param session     the caller's session
+	 * @param requestBody the request body containing the attribute to change
+	 * @return the updated character data
+	 * @throws IllegalArgumentException if the body has no attribute
+	 */
+	Map<String, Object> changeAttribute(SessionKey session, Map<String, String> requestBody)
+	{
+		return characterService.changeAttribute(session, attribute(requestBody));
+	}
+
+	/**
+	 * Changes the attribute named in a request body of a character of the session's party.
+	 *
+	 * @param session     the caller's session
+	 * @param id          the character's id
+	 * @param requestBody the request body containing the attribute to change
+	 * @return the updated character data
+	 * @throws IllegalArgumentException if the body has no attribute
+	 */
+	Map<String, Object> changePartyAttribute(SessionKey session, int id, Map<String, String> requestBody)
+	{
+		return characterService.changePartyAttribute(session, id, attribute(requestBody));
+	}
+
+	/**
+	 * Sets the detail named in a request body of the session's character.
+	 *
+	 * @param session     the caller's session
+	 * @param requestBody the request body containing the detail and value
+	 * @return the updated character data
+	 * @throws IllegalArgumentException if the body has no detail or value
+	 */
+	Map<String, Object> setDetail(SessionKey session, Map<String, String> requestBody)
+	{
+		checkDetail(requestBody);
+		return characterService.setDetail(session, requestBody.get("detail"), requestBody.get("value"));
+	}
+
+	/**
+	 * Sets the detail named in a request body of a character of the session's party.
+	 *
+	 * @param session     the caller's session
+	 * @param id          the character's id
+	 * @param requestBody the request body containing the detail and value
+	 * @return the updated character data
+	 * @throws IllegalArgumentException if the body has no detail or value
+	 */
+	Map<String, Object> setPartyDetail(SessionKey session, int id, Map<String, String> requestBody)
+	{
+		checkDetail(requestBody);
+		return characterService.setPartyDetail(session, id, requestBody.get("detail"), requestBody.get("value"));
+	}
+
+	/**
+	 * Uploads a character from the contents of a JSON file.
+	 *
+	 * @param session  the caller's session
+	 * @param contents the file's contents
+	 * @return the uploaded character data
+	 * @throws IllegalArgumentException if the file is empty
+	 * @throws IOException              if the file cannot be read or is not JSON
+	 */
+	Map<String, Object> uploadCharacter(SessionKey session, InputStream contents) throws IOException
+	{
+		// check for file - for now, we're not worried about file name or extension
+		PushbackInputStream in = new PushbackInputStream(contents);
+		int first = in.read();
+		if (first < 0)
+		{
+			throw new IllegalArgumentException("No selected file");
+		}
+		in.unread(first);
+
+		//noinspection JvmTaintAnalysis Is not parsing the file path, just the JSON file, Convert2Diamond I prefer knowing the classes
+		@SuppressWarnings("Convert2Diamond")
+		Map<String, Object> characterData = objectMapper.readValue(in, new TypeReference<Map<String, Object>>() {});
+		return characterService.uploadCharacter(session, characterData);
+	}
+
+	/**
+	 * Builds the download of a character as a JSON file.
+	 *
+	 * @param character the character data
+	 * @return the response, with the file name to save it as
+	 * @throws JsonProcessingException if the character cannot be written as JSON
+	 */
+	ResponseEntity<String> download(Map<String, Object> character) throws JsonProcessingException
+	{
+		String characterJson = objectMapper.writeValueAsString(character);
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"character.json\"");
+
+		return new ResponseEntity<>(characterJson, headers, HttpStatus.OK);
+	}
+
+	/**
+	 * Removes a character from the session's party.
+	 *
+	 * @param session the caller's session
+	 * @param id      the character's id
+	 * @return the removed character's id, as "id"
+	 */
+	Map<String, Object> removePartyCharacter(SessionKey session, int id)
+	{
+		characterService.removePartyCharacter(session, id);
+		Map<String, Object> result = new HashMap<>();
+		result.put("id", id);
+		return result;
+	}
+
+	/**
+	 * Gets the party characters and shared characters named in a batch get request body.
+	 *
+	 * @param session     the caller's session
+	 * @param requestBody the request body containing the ids and the share tokens to get
+	 * @return the characters, see CharacterShareService.batchGet
+	 * @throws IllegalArgumentException if the body has no ids or tokens, or one is of the wrong type
+	 */
+	Map<String, Object> batchGet(SessionKey session, Map<String, List<Object>> requestBody)
+	{
+		// returned as a Map so the message converter writes it straight to the response in one pass
+		return batch(requestBody, (ids, tokens) -> characterShareService.batchGet(session, ids, tokens));
+	}
+
+	/**
+	 * Gets the characters named in a batch get request body as batchGet does, without waiting for the
+	 * sessions to answer.
+	 *
+	 * @param session     the caller's session
+	 * @param requestBody the request body containing the ids and the share tokens to get
+	 * @return the reply, completed once every session has answered
+	 * @throws IllegalArgumentException if the body has no ids or tokens, or one is of the wrong type
+	 */
+	CompletableFuture<Map<String, Object>> batchGetAsync(SessionKey session, Map<String, List<Object>> requestBody)
+	{
+		return batch(requestBody, (ids, tokens) -> characterShareService.batchGetAsync(session, ids, tokens));
+	}
+
+	/**
+	 * Read the ids and tokens of a batch get request body and run the batch get.
+	 *
+	 * @param requestBody the request body
+	 * @param batchGet    the batch get, given the ids and tokens
+	 * @param <T>         the type of the result
+	 * @return the result of the batch get
+	 * @throws IllegalArgumentException if the body has no ids or tokens, or one is of the wrong type
+	 */
+	private static <T> T batch(Map<String, List<Object>> requestBody, BiFunction<List<Integer>, List<String>, T> batchGet)
+	{
+		List<Integer> ids = CharacterShareService.toIds(requestBody.get("ids"));
+		List<String> tokens = CharacterShareService.toTokens(requestBody.get("tokens"));
+		if ((ids == null || ids.isEmpty()) && (tokens == null || tokens.isEmpty()))
+		{
+			throw new IllegalArgumentException("Ids or tokens parameter is required");
+		}
+		return batchGet.apply(ids, tokens);
+	}
+
+	/**
+	 * Read the attribute of a change attribute request body.
+	 *
+	 * @param requestBody the request body
+	 * @return the attribute
+	 * @throws IllegalArgumentException if the body has no attribute
+	 */
+	private static String attribute(Map<String, String> requestBody)
+	{
+		String attribute = requestBody.get("attribute");
+		if (attribute == null || attribute.isEmpty())
+		{
+			throw new IllegalArgumentException("Attribute parameter is required");
+		}
+		return attribute;
+	}
+
+	/**
+	 * Check a set detail request body has a detail and a value.
+	 *
+	 * @param requestBody the request body
+	 * @throws IllegalArgumentException if the body has no detail or value
+	 */
+	private static void checkDetail(Map<String, String> requestBody)
+	{
+		String detail = requestBody.get("detail");
+		String value = requestBody.get("value");
+		if (detail == null || detail.isEmpty() || value == null || value.isEmpty())
+		{
+			throw new IllegalArgumentException("Detail and value parameters are required");
+		}
+	}
+}
@@ -0,0 +1,267 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.controllers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * WebSocket handler for editing the caller's character over one connection, instead of an HTTP request
+ * per click.
+ * <p>
+ * The client sends operation frames, JSON objects with an "op" of "get", "roll", "change", "set-detail",
+ * "undo", or "redo", the same parameters as the matching REST endpoint, and an optional "id" that is
+ * echoed back. Each operation runs through CharacterService, so it is audited and published to
+ * CharacterChanges as it would be over HTTP.
+ * <p>
+ * The reply is a delta frame holding only the character fields that differ from the last frame sent
+ * on this connection, under "delta", or an "error". The first frame, sent on connecting, holds the
+ * whole character under "character". A field removed from the character is sent as null.
+ * <p>
+ * The session key is taken from the session cookie during the handshake, see SessionKeyHandshakeInterceptor.
+ */
+public class CharacterSocketHandler extends TextWebSocketHandler
+{
+	// connection attribute holding the character as the client last saw it
+	static final String CHARACTER_ATTRIBUTE = CharacterSocketHandler.class.getName() + ".character";
+
+	private static final Logger logger = LoggerFactory.getLogger(CharacterSocketHandler.class);
+	private final CharacterService characterService;
+	private final ObjectMapper objectMapper;
+
+	/**
+	 * Create the handler.
+	 *
+	 * @param characterService the service the operations run through
+	 */
+	public CharacterSocketHandler(CharacterService characterService)
+	{
+		this.characterService = characterService;
+		this.objectMapper = new ObjectMapper();
+	}
+
+	/**
+	 * Sends the whole character as the first frame.
+	 *
+	 * @param session the connection
+	 * @throws IOException if the frame cannot be sent
+	 */
+	@Override
+	public void afterConnectionEstablished(WebSocketSession session) throws IOException
+	{
+		SessionKey key = getSessionKey(session);
+		if (key == null)
+		{
+			session.close(CloseStatus.POLICY_VIOLATION.withReason("No session"));
+			return;
+		}
+		Map<String, Object> character = characterService.getCharacter(key);
+		session.getAttributes().put(CHARACTER_ATTRIBUTE, character);
+		Map<String, Object> frame = new LinkedHashMap<>();
+		frame.put("character", character);
+		send(session, frame);
+	}
+
+	/**
+	 * Runs an operation frame and replies with a delta or error frame.
+	 *
+	 * @param session the connection
+	 * @param message the operation frame
+	 * @throws IOException if the reply cannot be sent
+	 */
+	@Override
+	protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException
+	{
+		Map<String, Object> reply = new LinkedHashMap<>();
+		try
+		{
+			@SuppressWarnings("Convert2Diamond")
+			Map<String, Object> operation = objectMapper.readValue(message.getPayload(), new TypeReference<Map<String, Object>>() {});
+			if (operation.get("id") != null)
+			{
+				reply.put("id", operation.get("id"));
+			}
+			Map<String, Object> character = runOperation(getSessionKey(session), operation);
+			reply.put("delta", delta(session, character));
+		}
+		catch (Exception e)
+		{
+			logger.debug("Error running socket operation", e);
+			reply.put("error", e.getMessage());
+		}
+		send(session, reply);
+	}
+
+	/**
+	 * Run one operation on the character.
+	 *
+	 * @param key       the caller's session
+	 * @param operation the operation frame
+	 * @return the character data after the operation
+	 * @throws IllegalArgumentException if the operation or its parameters are invalid
+	 */
+	private Map<String, Object> runOperation(SessionKey key, Map<String, Object> operation)
+	{
+		String op = required(operation, "op");
+		return switch (op)
+		{
+			case "get" -> characterService.getCharacter(key);
+			case "roll" -> rollAttributes(key, integer(operation, "minModifierSum"), integer(operation, "minHighestAttribute"));
+			case "change" -> characterService.changeAttribute(key, required(operation, "attribute"));
+			case "set-detail" -> characterService.setDetail(key, required(operation, "detail"), required(operation, "value"));
+			case "undo" -> characterService.undo(key);
+			case "redo" -> characterService.redo(key);
+			default -> throw new IllegalArgumentException("Unknown operation " + op);
+		};
+	}
+
+	/**
+	 * Roll attributes, with constraints if any are given, as the roll-attributes endpoint does.
+	 *
+	 * @param key                 the caller's session
+	 * @param minModifierSum      the optional lowest acceptable total modifier
+	 * @param minHighestAttribute the optional value at least one attribute must reach
+	 * @return the character data after the roll
+	 */
+	private Map<String, Object> rollAttributes(SessionKey key, Integer minModifierSum, Integer minHighestAttribute)
+	{
+		if (minModifierSum == null && minHighestAttribute == null)
+		{
+			return characterService.rollAttributes(key);
+		}
+		return characterService.rollAttributes(key, minModifierSum, minHighestAttribute);
+	}
+
+	/**
+	 * Get the fields of the character that changed since the last frame, and remember it for the next.
+	 *
+	 * @param session   the connection
+	 * @param character the character data after the operation
+	 * @return the changed fields
+	 */
+	private Map<String, Object> delta(WebSocketSession session, Map<String, Object> character)
+	{
+		@SuppressWarnings("unchecked")
+		Map<String, Object> previous = (Map<String, Object>) session.getAttributes().put(CHARACTER_ATTRIBUTE, character);
+		Map<String, Object> delta = new HashMap<>();
+		for (Map.Entry<String, Object> entry : character.entrySet())
+		{
+			if (previous == null || !Objects.equals(previous.get(entry.getKey()), entry.getValue()))
+			{
+				delta.put(entry.getKey(), entry.getValue());
+			}
+		}
+		if (previous != null)
+		{
+			for (String field : previous.keySet())
+			{
+				if (!character.containsKey(field))
+				{
+					delta.put(field, null);
+				}
+			}
+		}
+		return delta;
+	}
+
+	/**
+	 * Send a frame as JSON.
+	 *
+	 * @param session the connection
+	 * @param frame   the frame
+	 * @throws IOException if the frame cannot be sent
+	 */
+	private void send(WebSocketSession session, Map<String, Object> frame) throws IOException
+	{
+		session.sendMessage(new TextMessage(objectMapper.writeValueAsString(frame)));
+	}
+
+	/**
+	 * Get the session key the handshake found.
+	 *
+	 * @param session the connection
+	 * @return the key, or null if there is none
+	 */
+	private static SessionKey getSessionKey(WebSocketSession session)
+	{
+		return (SessionKey) session.getAttributes().get(SessionKeyHandshakeInterceptor.SESSION_KEY_ATTRIBUTE);
+	}
+
+	/**
+	 * Get a parameter of an operation as a string.
+	 *
+	 * @param operation the operation frame
+	 * @param name      the parameter name
+	 * @return the value, or null if it is missing
+	 */
+	private static String string(Map<String, Object> operation, String name)
+	{
+		Object value = operation.get(name);
+		return value == null ? null : value.toString();
+	}
+
+	/**
+	 * Get a parameter of an operation that must be given.
+	 *
+	 * @param operation the operation frame
+	 * @param name      the parameter name
+	 * @return the value
+	 * @throws IllegalArgumentException if it is missing or empty
+	 */
+	private static String required(Map<String, Object> operation, String name)
+	{
+		String value = string(operation, name);
+		if (value == null || value.isEmpty())
+		{
+			throw new IllegalArgumentException(name + " parameter is required");
+		}
+		return value;
+	}
+
+	/**
+	 * Get an optional whole number parameter of an operation.
+	 *
+	 * @param operation the operation frame
+	 * @param name      the parameter name
+	 * @return the value, or null if it is missing
+	 * @throws IllegalArgumentException if it is not a whole number
+	 */
+	private static Integer integer(Map<String, Object> operation, String name)
+	{
+		String value = string(operation, name);
+		if (value == null)
+		{
+			return null;
+		}
+		try
+		{
+			return Integer.valueOf(value);
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IllegalArgumentException(name + " must be a whole number");
+		}
+	}
+}
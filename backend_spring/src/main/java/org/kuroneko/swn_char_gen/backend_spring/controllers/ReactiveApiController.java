@@ -0,0 +1,552 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.controllers;
+
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterActors;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterPollService;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterService;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterShareService;
+import org.kuroneko.swn_char_gen.backend_spring.services.SessionTokens;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking REST controller for the reactive profile, serving the same endpoints and JSON as
+ * ApiController with WebFlux on Netty.
+ * <p>
+ * The session key comes from the same signed swn_session cookie as in the servlet build, checked with
+ * SessionTokens, and a request without a valid one gets a new key and the cookie for it. Character
+ * operations are sent to the session's actor and the reply completes the response, so no event loop
+ * thread waits on them. Simulations are CPU bound and run on the bounded elastic scheduler.
+ * <p>
+ * The party endpoints under /characters, batch get, the share tokens it reads, and the
+ * /character/changes long-poll are served here as in ApiController. The character event stream, the
+ * character WebSocket, and Idempotency-Key replay are served by the servlet build only.
+ * <p>
+ * The request checks and response bodies come from CharacterRequests, shared with ApiController, so
+ * only the session lookup and the scheduling of each call are written here.
+ */
+@RestController
+@RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveApiController
+{
+	private static final Logger logger = LoggerFactory.getLogger(ReactiveApiController.class);
+	private static final String SESSION_ATTRIBUTE = ReactiveApiController.class.getName() + ".key";
+	private final CharacterService characterService;
+	private final CharacterShareService characterShareService;
+	private final CharacterPollService characterPollService;
+	private final SessionTokens sessionTokens;
+	private final CharacterRequests characterRequests;
+
+	@Autowired
+	public ReactiveApiController(CharacterService characterService, CharacterShareService characterShareService,
+								 CharacterPollService characterPollService, SessionTokens sessionTokens)
+	{
+		this.characterService = characterService;
+		this.characterShareService = characterShareService;
+		this.characterPollService = characterPollService;
+		this.sessionTokens = sessionTokens;
+		this.characterRequests = new CharacterRequests(characterService, characterShareService);
+	}
+
+	/**
+	 * Get the session key from the signed session cookie, or make a new one and set its cookie on the
+	 * response. The key is kept as an exchange attribute, so asking twice gives the same one.
+	 *
+	 * @param exchange the current exchange
+	 * @return the session key
+	 */
+	private Mono<SessionKey> sessionId(ServerWebExchange exchange)
+	{
+		return Mono.fromSupplier(() -> (SessionKey) exchange.getAttributes().computeIfAbsent(SESSION_ATTRIBUTE, name ->
+		{
+			HttpCookie cookie = exchange.getRequest().getCookies().getFirst(SessionTokens.COOKIE_NAME);
+			SessionKey key = (cookie == null) ? null : sessionTokens.verify(cookie.getValue());
+			if (key == null)
+			{
+				key = SessionKey.random();
+				exchange.getResponse().addCookie(sessionTokens.cookie(key));
+			}
+			return key;
+		}));
+	}
+
+	/**
+	 * Run a character operation as a message to the session's actor.
+	 *
+	 * @param exchange  the current exchange
+	 * @param operation the operation, given the session key
+	 * @param <T>       the type of the result
+	 * @return the result of the operation
+	 */
+	private <T> Mono<T> onActor(ServerWebExchange exchange, Function<SessionKey, T> operation)
+	{
+		return sessionId(exchange).flatMap(id ->
+		{
+			Supplier<T> message = () -> operation.apply(id);
+			return Mono.fromFuture(CharacterActors.getInstance().submit(id, message));
+		});
+	}
+
+	/**
+	 * Turn a result into a response, or a failure into a bad request with the error message.
+	 *
+	 * @param result the result
+	 * @param action what was being done, for the log
+	 * @return the response
+	 */
+	private Mono<ResponseEntity<Map<String, Object>>> respond(Mono<Map<String, Object>> result, String action)
+	{
+		return result.map(ResponseEntity::ok).onErrorResume(e ->
+		{
+			logger.error("Error " + action, e);
+			return Mono.just(ResponseEntity.badRequest().body(CharacterRequests.error(e.getMessage())));
+		});
+	}
+
+	/**
+	 * Creates a new character.
+	 *
+	 * @param ruleset  the optional id of the ruleset to use, defaults to the standard SWN rules
+	 * @param exchange the current exchange
+	 * @return the new character data
+	 */
+	@GetMapping("/new-character")
+	public Mono<ResponseEntity<Map<String, Object>>> newCharacter(@RequestParam(value = "ruleset", required = false) String ruleset,
+																  ServerWebExchange exchange)
+	{
+		logger.info("Spring new-character");
+		return respond(onActor(exchange, id -> characterService.createNewCharacter(id, ruleset)), "creating new character");
+	}
+
+	/**
+	 * Lists the rulesets a character can be created with.
+	 *
+	 * @return the available rulesets
+	 */
+	@GetMapping("/rulesets")
+	public Mono<ResponseEntity<Map<String, Object>>> getRulesets()
+	{
+		logger.info("Spring rulesets");
+		return respond(Mono.fromSupplier(characterRequests::getRulesets), "listing rulesets");
+	}
+
+	/**
+	 * Runs a Monte Carlo simulation of character generation for balancing rulesets.
+	 *
+	 * @param ruleset    the optional id of the ruleset to simulate, defaults to the standard SWN rules
+	 * @param characters the number of characters to generate
+	 * @param seed       the optional random seed, for repeatable runs
+	 * @return the simulation statistics
+	 */
+	@GetMapping("/simulate")
+	public Mono<ResponseEntity<Map<String, Object>>> simulate(@RequestParam(value = "ruleset", required = false) String ruleset,
+															  @RequestParam(value = "characters", defaultValue = "1000000") long characters,
+															  @RequestParam(value = "seed", required = false) Long seed)
+	{
+		logger.info("Spring simulate");
+		return respond(Mono.fromCallable(() -> characterService.simulate(ruleset, characters, seed))
+							   .subscribeOn(Schedulers.boundedElastic()), "running simulation");
+	}
+
+	/**
+	 * Gets the current character.
+	 *
+	 * @param exchange the current exchange
+	 * @return the current character data
+	 */
+	@GetMapping("/character")
+	public Mono<ResponseEntity<Map<String, Object>>> getCharacter(ServerWebExchange exchange)
+	{
+		logger.info("Spring character");
+		return respond(onActor(exchange, characterService::getCharacter), "getting character");
+	}
+
+	/**
+	 * Long-polls the changes to the character after a version, for clients that cannot use the stream.
+	 * The response waits on the character's changes without holding a thread, until there is a change
+	 * or it times out; a client that goes away stops the wait.
+	 *
+	 * @param since    the last version the caller has seen, 0 for none
+	 * @param exchange the current exchange
+	 * @return the new version and the changes after the given one, or the whole character with "reset" set
+	 */
+	@GetMapping("/character/changes")
+	public Mono<ResponseEntity<Map<String, Object>>> getChanges(@RequestParam(value = "since", defaultValue = "0") long since,
+																ServerWebExchange exchange)
+	{
+		logger.info("Spring character changes");
+		// the timeout and a cancelled response both cancel the wait, which stops listening
+		return respond(sessionId(exchange).flatMap(id -> Mono.fromFuture(() -> characterPollService.watch(id, since))
+						.timeout(Duration.ofMillis(characterPollService.getTimeout()), Mono.fromSupplier(() -> CharacterPollService.noChanges(since)))),
+					   "getting character changes");
+	}
+
+	/**
+	 * Gets the odds of the current character's rolled attributes.
+	 *
+	 * @param exchange the current exchange
+	 * @return the attribute percentiles, total modifier probability, and best attribute to change
+	 */
+	@GetMapping("/character/odds")
+	public Mono<ResponseEntity<Map<String, Object>>> getOdds(ServerWebExchange exchange)
+	{
+		logger.info("Spring character odds");
+		return respond(onActor(exchange, characterService::getOdds), "getting character odds");
+	}
+
+	/**
+	 * Rolls attributes for a character, optionally rerolling on the server until the result meets constraints.
+	 *
+	 * @param minModifierSum      the optional lowest acceptable total modifier
+	 * @param minHighestAttribute the optional value at least one attribute must reach, for example 14
+	 * @param exchange            the current exchange
+	 * @return the updated character data
+	 */
+	@GetMapping("/roll-attributes")
+	public Mono<ResponseEntity<Map<String, Object>>> rollAttributes(@RequestParam(value = "minModifierSum", required = false) Integer minModifierSum,
+																	@RequestParam(value = "minHighestAttribute", required = false) Integer minHighestAttribute,
+																	ServerWebExchange exchange)
+	{
+		logger.info("Spring roll-attributes");
+		return respond(onActor(exchange, id -> characterRequests.rollAttributes(id, minModifierSum, minHighestAttribute)), "rolling attributes");
+	}
+
+	/**
+	 * Undoes the last roll or attribute change.
+	 *
+	 * @param exchange the current exchange
+	 * @return the character data as it was before the change
+	 */
+	@PostMapping("/undo")
+	public Mono<ResponseEntity<Map<String, Object>>> undo(ServerWebExchange exchange)
+	{
+		logger.info("Spring undo");
+		return respond(onActor(exchange, characterService::undo), "undoing change");
+	}
+
+	/**
+	 * Redoes the last undone roll or attribute change.
+	 *
+	 * @param exchange the current exchange
+	 * @return the character data as it was after the change
+	 */
+	@PostMapping("/redo")
+	public Mono<ResponseEntity<Map<String, Object>>> redo(ServerWebExchange exchange)
+	{
+		logger.info("Spring redo");
+		return respond(onActor(exchange, characterService::redo), "redoing change");
+	}
+
+	/**
+	 * Gets the recent changes to the character, for audits.
+	 *
+	 * @param exchange the current exchange
+	 * @return the events still held in the character's event log, oldest first
+	 */
+	@GetMapping("/character/events")
+	public Mono<ResponseEntity<Map<String, Object>>> getEvents(ServerWebExchange exchange)
+	{
+		logger.info("Spring character events");
+		return respond(onActor(exchange, characterRequests::getEvents), "getting character events");
+	}
+
+	/**
+	 * Changes a specific attribute.
+	 *
+	 * @param requestBody the request body containing the attribute to change
+	 * @param exchange    the current exchange
+	 * @return the updated character data
+	 */
+	@PostMapping("/change-attribute")
+	public Mono<ResponseEntity<Map<String, Object>>> changeAttribute(@RequestBody Map<String, String> requestBody,
+																	 ServerWebExchange exchange)
+	{
+		logger.info("Spring change-attribute");
+		return respond(onActor(exchange, id -> characterRequests.changeAttribute(id, requestBody)), "changing attribute");
+	}
+
+	/**
+	 * Sets a detail for a character.
+	 *
+	 * @param requestBody the request body containing the detail and value
+	 * @param exchange    the current exchange
+	 * @return the updated character data
+	 */
+	@PostMapping("/set-detail")
+	public Mono<ResponseEntity<Map<String, Object>>> setDetail(@RequestBody Map<String, String> requestBody,
+															   ServerWebExchange exchange)
+	{
+		logger.info("Spring set-detail");
+		return respond(onActor(exchange, id -> characterRequests.setDetail(id, requestBody)), "setting detail");
+	}
+
+	/**
+	 * Uploads a character from a JSON file.
+	 *
+	 * @param file     the JSON file containing character data
+	 * @param exchange the current exchange
+	 * @return the uploaded character data
+	 */
+	@PostMapping("/upload-character")
+	public Mono<ResponseEntity<Map<String, Object>>> uploadCharacter(@RequestPart("file") FilePart file,
+																	 ServerWebExchange exchange)
+	{
+		logger.info("Spring upload-character");
+		// the body arrives without holding a thread, however slowly the client sends it
+		Mono<byte[]> contents = DataBufferUtils.join(file.content()).map(buffer ->
+		{
+			byte[] bytes = new byte[buffer.readableByteCount()];
+			buffer.read(bytes);
+			DataBufferUtils.release(buffer);
+			return bytes;
+		}).defaultIfEmpty(new byte[0]);
+
+		return respond(contents.flatMap(bytes -> onActor(exchange, id ->
+		{
+			try
+			{
+				return characterRequests.uploadCharacter(id, new ByteArrayInputStream(bytes));
+			}
+			catch (IOException e)
+			{
+				throw new UncheckedIOException(e.getMessage(), e);
+			}
+		})), "uploading character");
+	}
+
+	/**
+	 * Downloads the current character as a JSON file.
+	 *
+	 * @param exchange the current exchange
+	 * @return the character data as a downloadable JSON file
+	 */
+	@GetMapping("/download-character")
+	public Mono<ResponseEntity<String>> downloadCharacter(ServerWebExchange exchange)
+	{
+		logger.info("Spring download-character");
+		return onActor(exchange, characterService::getCharacter).map(character ->
+		{
+			try
+			{
+				return characterRequests.download(character);
+			}
+			catch (IOException e)
+			{
+				throw new UncheckedIOException(e.getMessage(), e);
+			}
+		}).onErrorResume(e ->
+		{
+			logger.error("Error downloading character", e);
+			return Mono.just(CharacterRequests.downloadError(e));
+		});
+	}
+
+	/**
+	 * Creates a character in the caller's party.
+	 *
+	 * @param ruleset  the optional id of the ruleset to use, defaults to the standard SWN rules
+	 * @param exchange the current exchange
+	 * @return the new character's id and data
+	 */
+	@PostMapping("/characters")
+	public Mono<ResponseEntity<Map<String, Object>>> createPartyCharacter(@RequestParam(value = "ruleset", required = false) String ruleset,
+																		  ServerWebExchange exchange)
+	{
+		logger.info("Spring create party character");
+		return respond(onActor(exchange, id -> characterService.createPartyCharacter(id, ruleset)), "creating party character");
+	}
+
+	/**
+	 * Lists a page of the caller's party.
+	 *
+	 * @param after    the next cursor of the previous page, or 0 for the first page
+	 * @param limit    the most characters to list
+	 * @param exchange the current exchange
+	 * @return the characters' ids, names and rulesets, the party size and the next cursor
+	 */
+	@GetMapping("/characters")
+	public Mono<ResponseEntity<Map<String, Object>>> listPartyCharacters(@RequestParam(value = "after", defaultValue = "0") int after,
+																		 @RequestParam(value = "limit", defaultValue = "20") int limit,
+																		 ServerWebExchange exchange)
+	{
+		logger.info("Spring list party characters");
+		return respond(onActor(exchange, id -> characterService.listPartyCharacters(id, after, limit)), "listing party characters");
+	}
+
+	/**
+	 * Gets many characters in one response, for GM screens: the caller's own party characters by id,
+	 * and other players' characters by the share tokens they made with POST /character/share.
+	 *
+	 * @param requestBody the request body containing the ids and the share tokens to get
+	 * @param exchange    the current exchange
+	 * @return the party characters found and the ids not found, and the shared characters found and
+	 *         the tokens not honored
+	 */
+	@PostMapping("/characters/batch-get")
+	public Mono<ResponseEntity<Map<String, Object>>> batchGetPartyCharacters(@RequestBody Map<String, List<Object>> requestBody,
+																			 ServerWebExchange exchange)
+	{
+		logger.info("Spring batch get party characters");
+		// every session answers from its own actor, so no thread waits for the batch
+		return respond(sessionId(exchange).flatMap(id -> Mono.defer(() -> Mono.fromFuture(characterRequests.batchGetAsync(id, requestBody)))),
+					   "batch getting party characters");
+	}
+
+	/**
+	 * Makes a share token that lets another player, such as the GM, read one of the caller's
+	 * characters through batch get.
+	 *
+	 * @param characterId 0 for the caller's own character, otherwise the id of a party character
+	 * @param exchange    the current exchange
+	 * @return the token and the id it shares
+	 */
+	@PostMapping("/character/share")
+	public Mono<ResponseEntity<Map<String, Object>>> shareCharacter(@RequestParam(value = "id", defaultValue = "0") int characterId,
+																	ServerWebExchange exchange)
+	{
+		logger.info("Spring share character");
+		return respond(onActor(exchange, id -> characterShareService.share(id, characterId)), "sharing character");
+	}
+
+	/**
+	 * Revokes every share token the caller has made.
+	 *
+	 * @param exchange the current exchange
+	 * @return the revoked flag
+	 */
+	@DeleteMapping("/character/share")
+	public Mono<ResponseEntity<Map<String, Object>>> revokeShares(ServerWebExchange exchange)
+	{
+		logger.info("Spring revoke shares");
+		return respond(onActor(exchange, id -> characterShareService.revoke(id)), "revoking shares");
+	}
+
+	/**
+	 * Gets a character of the caller's party.
+	 *
+	 * @param characterId the character's id
+	 * @param exchange    the current exchange
+	 * @return the character data
+	 */
+	@GetMapping("/characters/{id}")
+	public Mono<ResponseEntity<Map<String, Object>>> getPartyCharacter(@PathVariable("id") int characterId,
+																	   ServerWebExchange exchange)
+	{
+		logger.info("Spring get party character");
+		return respond(onActor(exchange, id -> characterService.getPartyCharacter(id, characterId)), "getting party character");
+	}
+
+	/**
+	 * Removes a character from the caller's party.
+	 *
+	 * @param characterId the character's id
+	 * @param exchange    the current exchange
+	 * @return the removed character's id
+	 */
+	@DeleteMapping("/characters/{id}")
+	public Mono<ResponseEntity<Map<String, Object>>> removePartyCharacter(@PathVariable("id") int characterId,
+																		  ServerWebExchange exchange)
+	{
+		logger.info("Spring remove party character");
+		return respond(onActor(exchange, id -> characterRequests.removePartyCharacter(id, characterId)), "removing party character");
+	}
+
+	/**
+	 * Rolls attributes for a character of the caller's party, optionally rerolling until the result meets constraints.
+	 *
+	 * @param characterId         the character's id
+	 * @param minModifierSum      the optional lowest acceptable total modifier
+	 * @param minHighestAttribute the optional value at least one attribute must reach
+	 * @param exchange            the current exchange
+	 * @return the updated character data
+	 */
+	@GetMapping("/characters/{id}/roll-attributes")
+	public Mono<ResponseEntity<Map<String, Object>>> rollPartyAttributes(@PathVariable("id") int characterId,
+																		 @RequestParam(value = "minModifierSum", required = false) Integer minModifierSum,
+																		 @RequestParam(value = "minHighestAttribute", required = false) Integer minHighestAttribute,
+																		 ServerWebExchange exchange)
+	{
+		logger.info("Spring party roll-attributes");
+		return respond(onActor(exchange, id -> characterService.rollPartyAttributes(id, characterId, minModifierSum, minHighestAttribute)),
+					   "rolling party attributes");
+	}
+
+	/**
+	 * Changes a specific attribute of a character of the caller's party.
+	 *
+	 * @param characterId the character's id
+	 * @param requestBody the request body containing the attribute to change
+	 * @param exchange    the current exchange
+	 * @return the updated character data
+	 */
+	@PostMapping("/characters/{id}/change-attribute")
+	public Mono<ResponseEntity<Map<String, Object>>> changePartyAttribute(@PathVariable("id") int characterId,
+																		  @RequestBody Map<String, String> requestBody,
+																		  ServerWebExchange exchange)
+	{
+		logger.info("Spring party change-attribute");
+		return respond(onActor(exchange, id -> characterRequests.changePartyAttribute(id, characterId, requestBody)), "changing party attribute");
+	}
+
+	/**
+	 * Sets a detail for a character of the caller's party.
+	 *
+	 * @param characterId the character's id
+	 * @param requestBody the request body containing the detail and value
+	 * @param exchange    the current exchange
+	 * @return the updated character data
+	 */
+	@PostMapping("/characters/{id}/set-detail")
+	public Mono<ResponseEntity<Map<String, Object>>> setPartyDetail(@PathVariable("id") int characterId,
+																	@RequestBody Map<String, String> requestBody,
+																	ServerWebExchange exchange)
+	{
+		logger.info("Spring party set-detail");
+		return respond(onActor(exchange, id -> characterRequests.setPartyDetail(id, characterId, requestBody)), "setting party detail");
+	}
+
+	/**
+	 * Gets the odds of a character of the caller's party rolling attributes at least as good as its own.
+	 *
+	 * @param characterId the character's id
+	 * @param exchange    the current exchange
+	 * @return the odds data
+	 */
+	@GetMapping("/characters/{id}/odds")
+	public Mono<ResponseEntity<Map<String, Object>>> getPartyOdds(@PathVariable("id") int characterId,
+																  ServerWebExchange exchange)
+	{
+		logger.info("Spring party odds");
+		return respond(onActor(exchange, id -> characterService.getPartyOdds(id, characterId)), "getting party odds");
+	}
+}
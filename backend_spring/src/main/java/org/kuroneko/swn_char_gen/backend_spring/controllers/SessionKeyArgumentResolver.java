@@ -0,0 +1,74 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.controllers;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.kuroneko.swn_char_gen.backend_spring.services.SessionTokens;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves SessionKey controller parameters from the signed session cookie.
+ * <p>
+ * The key is read from the cookie and checked with SessionTokens, so a request never touches the
+ * servlet HttpSession or RequestContextHolder. A request without a valid cookie gets a new key and a
+ * Set-Cookie header for it. The key is kept as a request attribute, so a handler asking twice gets
+ * the same one.
+ */
+public class SessionKeyArgumentResolver implements HandlerMethodArgumentResolver
+{
+	private static final String ATTRIBUTE = SessionKeyArgumentResolver.class.getName() + ".key";
+
+	private final SessionTokens sessionTokens;
+
+	/**
+	 * Create the resolver.
+	 *
+	 * @param sessionTokens the signer for session cookies
+	 */
+	public SessionKeyArgumentResolver(SessionTokens sessionTokens)
+	{
+		this.sessionTokens = sessionTokens;
+	}
+
+	@Override
+	public boolean supportsParameter(MethodParameter parameter)
+	{
+		return SessionKey.class.equals(parameter.getParameterType());
+	}
+
+	@Override
+	public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+								  NativeWebRequest webRequest, WebDataBinderFactory binderFactory)
+	{
+		HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+		Object cached = request.getAttribute(ATTRIBUTE);
+		if (cached != null)
+		{
+			return cached;
+		}
+		SessionKey key = sessionTokens.fromCookies(request.getCookies());
+		if (key == null)
+		{
+			key = SessionKey.random();
+			HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
+			response.addHeader(HttpHeaders.SET_COOKIE, sessionTokens.cookie(key).toString());
+		}
+		request.setAttribute(ATTRIBUTE, key);
+		return key;
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.controllers;
+
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.kuroneko.swn_char_gen.backend_spring.services.SessionTokens;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+/**
+ * Finds the caller's session key from the signed session cookie when a WebSocket connects.
+ * <p>
+ * Unlike SessionKeyArgumentResolver this does not make a new session for a caller without a valid
+ * cookie, since a handshake response cannot reliably set one; the handshake is refused with 403 and
+ * the client should make any REST request first to get its cookie.
+ */
+public class SessionKeyHandshakeInterceptor implements HandshakeInterceptor
+{
+	/**
+	 * Connection attribute holding the caller's SessionKey.
+	 */
+	public static final String SESSION_KEY_ATTRIBUTE = SessionKeyHandshakeInterceptor.class.getName() + ".key";
+
+	private final SessionTokens sessionTokens;
+
+	/**
+	 * Create the interceptor.
+	 *
+	 * @param sessionTokens the signer for session cookies
+	 */
+	public SessionKeyHandshakeInterceptor(SessionTokens sessionTokens)
+	{
+		this.sessionTokens = sessionTokens;
+	}
+
+	@Override
+	public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+								   Map<String, Object> attributes)
+	{
+		SessionKey key = null;
+		if (request instanceof ServletServerHttpRequest servletRequest)
+		{
+			key = sessionTokens.fromCookies(servletRequest.getServletRequest().getCookies());
+		}
+		if (key == null)
+		{
+			response.setStatusCode(HttpStatus.FORBIDDEN);
+			return false;
+		}
+		attributes.put(SESSION_KEY_ATTRIBUTE, key);
+		return true;
+	}
+
+	@Override
+	public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+							   Exception exception)
+	{
+	}
+}
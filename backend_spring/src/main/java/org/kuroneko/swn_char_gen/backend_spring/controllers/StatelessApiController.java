@@ -0,0 +1,392 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.controllers;
+
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterService;
+import org.kuroneko.swn_char_gen.backend_spring.services.StatelessCharacterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * REST controller for character management endpoints in stateless mode, swn.stateless.enabled=true.
+ * <p>
+ * Serves the same paths and JSON as ApiController, but the character comes from the signed token in
+ * the swn_character cookie or X-SWN-Character header rather than the server's store. Every response
+ * that can change the character sends the new token back in both. Undo, redo, and the event log need
+ * history the token does not carry, so they answer with an error.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "swn.stateless.enabled", havingValue = "true")
+@RequestMapping("/api")
+public class StatelessApiController
+{
+	private static final Logger logger = LoggerFactory.getLogger(StatelessApiController.class);
+	private final StatelessCharacterService statelessService;
+	private final CharacterService characterService;
+	private final ObjectMapper objectMapper;
+
+	@Autowired
+	public StatelessApiController(StatelessCharacterService statelessService, CharacterService characterService)
+	{
+		this.statelessService = statelessService;
+		this.characterService = characterService;
+		this.objectMapper = new ObjectMapper();
+	}
+
+	/**
+	 * Pick the character token from the header or the cookie, the header first.
+	 *
+	 * @param header the token from the X-SWN-Character header
+	 * @param cookie the token from the swn_character cookie
+	 * @return the token, or null if there is neither
+	 */
+	private static String token(String header, String cookie)
+	{
+		return (header != null && !header.isEmpty()) ? header : cookie;
+	}
+
+	/**
+	 * Build a response with the character and its new token.
+	 *
+	 * @param result the character and token
+	 * @return the response
+	 */
+	private static ResponseEntity<Map<String, Object>> respond(StatelessCharacterService.Result result)
+	{
+		ResponseCookie cookie = ResponseCookie.from(StatelessCharacterService.COOKIE_NAME, result.getToken())
+				.httpOnly(true)
+				.path("/")
+				.sameSite("Lax")
+				.build();
+		return ResponseEntity.ok()
+				.header(HttpHeaders.SET_COOKIE, cookie.toString())
+				.header(StatelessCharacterService.HEADER_NAME, result.getToken())
+				.body(result.getCharacter());
+	}
+
+	/**
+	 * Build an error response.
+	 *
+	 * @param message the error message
+	 * @return the response
+	 */
+	private static ResponseEntity<Map<String, Object>> badRequest(String message)
+	{
+		Map<String, Object> error = new HashMap<>();
+		error.put("error", message);
+		return ResponseEntity.badRequest().body(error);
+	}
+
+	/**
+	 * Creates a new character.
+	 *
+	 * @param ruleset the optional id of the ruleset to use, defaults to the standard SWN rules
+	 * @return the new character data
+	 */
+	@GetMapping("/new-character")
+	public ResponseEntity<Map<String, Object>> newCharacter(@RequestParam(value = "ruleset", required = false) String ruleset)
+	{
+		try
+		{
+			logger.info("Spring stateless new-character");
+			return respond(statelessService.createNewCharacter(ruleset));
+		}
+		catch (Exception e)
+		{
+			logger.error("Error creating new character", e);
+			return badRequest(e.getMessage());
+		}
+	}
+
+	/**
+	 * Lists the rulesets a character can be created with.
+	 *
+	 * @return the available rulesets
+	 */
+	@GetMapping("/rulesets")
+	public ResponseEntity<Map<String, Object>> getRulesets()
+	{
+		try
+		{
+			logger.info("Spring stateless rulesets");
+			List<Map<String, Object>> rulesets = characterService.getRulesets();
+			Map<String, Object> result = new HashMap<>();
+			result.put("rulesets", rulesets);
+			return ResponseEntity.ok(result);
+		}
+		catch (Exception e)
+		{
+			logger.error("Error listing rulesets", e);
+			return badRequest(e.getMessage());
+		}
+	}
+
+	/**
+	 * Runs a Monte Carlo simulation of character generation for balancing rulesets.
+	 *
+	 * @param ruleset    the optional id of the ruleset to simulate, defaults to the standard SWN rules
+	 * @param characters the number of characters to generate
+	 * @param seed       the optional random seed, for repeatable runs
+	 * @return the simulation statistics
+	 */
+	@GetMapping("/simulate")
+	public ResponseEntity<Map<String, Object>> simulate(@RequestParam(value = "ruleset", required = false) String ruleset,
+														@RequestParam(value = "characters", defaultValue = "1000000") long characters,
+														@RequestParam(value = "seed", required = false) Long seed)
+	{
+		try
+		{
+			logger.info("Spring stateless simulate");
+			return ResponseEntity.ok(characterService.simulate(ruleset, characters, seed));
+		}
+		catch (Exception e)
+		{
+			logger.error("Error running simulation", e);
+			return badRequest(e.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the current character.
+	 *
+	 * @param header the character token header
+	 * @param cookie the character token cookie
+	 * @return the current character data
+	 */
+	@GetMapping("/character")
+	public ResponseEntity<Map<String, Object>> getCharacter(@RequestHeader(value = StatelessCharacterService.HEADER_NAME, required = false) String header,
+															@CookieValue(value = StatelessCharacterService.COOKIE_NAME, required = false) String cookie)
+	{
+		try
+		{
+			logger.info("Spring stateless character");
+			return respond(statelessService.getCharacter(token(header, cookie)));
+		}
+		catch (Exception e)
+		{
+			logger.error("Error getting character", e);
+			return badRequest(e.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the odds of the current character's rolled attributes.
+	 *
+	 * @param header the character token header
+	 * @param cookie the character token cookie
+	 * @return the attribute percentiles, total modifier probability, and best attribute to change
+	 */
+	@GetMapping("/character/odds")
+	public ResponseEntity<Map<String, Object>> getOdds(@RequestHeader(value = StatelessCharacterService.HEADER_NAME, required = false) String header,
+													   @CookieValue(value = StatelessCharacterService.COOKIE_NAME, required = false) String cookie)
+	{
+		try
+		{
+			logger.info("Spring stateless character odds");
+			return ResponseEntity.ok(statelessService.getOdds(token(header, cookie)));
+		}
+		catch (Exception e)
+		{
+			logger.error("Error getting character odds", e);
+			return badRequest(e.getMessage());
+		}
+	}
+
+	/**
+	 * Rolls attributes for a character, optionally rerolling on the server until the result meets constraints.
+	 *
+	 * @param session             the caller's session, for the roll audit log
+	 * @param header              the character token header
+	 * @param cookie              the character token cookie
+	 * @param minModifierSum      the optional lowest acceptable total modifier
+	 * @param minHighestAttribute the optional value at least one attribute must reach, for example 14
+	 * @return the updated character data
+	 */
+	@GetMapping("/roll-attributes")
+	public ResponseEntity<Map<String, Object>> rollAttributes(SessionKey session,
+															  @RequestHeader(value = StatelessCharacterService.HEADER_NAME, required = false) String header,
+															  @CookieValue(value = StatelessCharacterService.COOKIE_NAME, required = false) String cookie,
+															  @RequestParam(value = "minModifierSum", required = false) Integer minModifierSum,
+															  @RequestParam(value = "minHighestAttribute", required = false) Integer minHighestAttribute)
+	{
+		try
+		{
+			logger.info("Spring stateless roll-attributes");
+			StatelessCharacterService.Result result;
+			if (minModifierSum == null && minHighestAttribute == null)
+			{
+				result = statelessService.rollAttributes(session, token(header, cookie));
+			}
+			else
+			{
+				result = statelessService.rollAttributes(session, token(header, cookie), minModifierSum, minHighestAttribute);
+			}
+			return respond(result);
+		}
+		catch (Exception e)
+		{
+			logger.error("Error rolling attributes", e);
+			return badRequest(e.getMessage());
+		}
+	}
+
+	/**
+	 * Answers undo, redo, and event log requests, which need history the token does not carry.
+	 *
+	 * @return an error
+	 */
+	@RequestMapping({"/undo", "/redo", "/character/events"})
+	public ResponseEntity<Map<String, Object>> unavailable()
+	{
+		logger.info("Spring stateless history request");
+		return badRequest("Undo, redo, and events are not available in stateless mode");
+	}
+
+	/**
+	 * Changes a specific attribute.
+	 *
+	 * @param header      the character token header
+	 * @param cookie      the character token cookie
+	 * @param requestBody the request body containing the attribute to change
+	 * @return the updated character data
+	 */
+	@PostMapping("/change-attribute")
+	public ResponseEntity<Map<String, Object>> changeAttribute(@RequestHeader(value = StatelessCharacterService.HEADER_NAME, required = false) String header,
+															   @CookieValue(value = StatelessCharacterService.COOKIE_NAME, required = false) String cookie,
+															   @RequestBody Map<String, String> requestBody)
+	{
+		try
+		{
+			logger.info("Spring stateless change-attribute");
+			String attribute = requestBody.get("attribute");
+			if (attribute == null || attribute.isEmpty())
+			{
+				return badRequest("Attribute parameter is required");
+			}
+			return respond(statelessService.changeAttribute(token(header, cookie), attribute));
+		}
+		catch (Exception e)
+		{
+			logger.error("Error changing attribute", e);
+			return badRequest(e.getMessage());
+		}
+	}
+
+	/**
+	 * Sets a detail for a character.
+	 *
+	 * @param header      the character token header
+	 * @param cookie      the character token cookie
+	 * @param requestBody the request body containing the detail and value
+	 * @return the updated character data
+	 */
+	@PostMapping("/set-detail")
+	public ResponseEntity<Map<String, Object>> setDetail(@RequestHeader(value = StatelessCharacterService.HEADER_NAME, required = false) String header,
+														 @CookieValue(value = StatelessCharacterService.COOKIE_NAME, required = false) String cookie,
+														 @RequestBody Map<String, String> requestBody)
+	{
+		try
+		{
+			logger.info("Spring stateless set-detail");
+			String detail = requestBody.get("detail");
+			String value = requestBody.get("value");
+			if (detail == null || detail.isEmpty() || value == null || value.isEmpty())
+			{
+				return badRequest("Detail and value parameters are required");
+			}
+			return respond(statelessService.setDetail(token(header, cookie), detail, value));
+		}
+		catch (Exception e)
+		{
+			logger.error("Error setting detail", e);
+			return badRequest(e.getMessage());
+		}
+	}
+
+	/**
+	 * Uploads a character from a JSON file.
+	 *
+	 * @param file the JSON file containing character data
+	 * @return the uploaded character data
+	 */
+	@PostMapping("/upload-character")
+	public ResponseEntity<Map<String, Object>> uploadCharacter(@RequestParam("file") MultipartFile file)
+	{
+		try
+		{
+			logger.info("Spring stateless upload-character");
+			if (file.isEmpty())
+			{
+				return badRequest("No selected file");
+			}
+			//noinspection JvmTaintAnalysis Is not parsing the file path, just the JSON file, Convert2Diamond I prefer knowing the classes
+			@SuppressWarnings("Convert2Diamond")
+			Map<String, Object> characterData = objectMapper.readValue(file.getInputStream(), new TypeReference<Map<String, Object>>() {});
+			return respond(statelessService.uploadCharacter(characterData));
+		}
+		catch (Exception e)
+		{
+			logger.error("Error uploading character", e);
+			return badRequest(e.getMessage());
+		}
+	}
+
+	/**
+	 * Downloads the current character as a JSON file.
+	 *
+	 * @param header the character token header
+	 * @param cookie the character token cookie
+	 * @return the character data as a downloadable JSON file
+	 */
+	@GetMapping("/download-character")
+	public ResponseEntity<String> downloadCharacter(@RequestHeader(value = StatelessCharacterService.HEADER_NAME, required = false) String header,
+													@CookieValue(value = StatelessCharacterService.COOKIE_NAME, required = false) String cookie)
+	{
+		try
+		{
+			logger.info("Spring stateless download-character");
+			Map<String, Object> character = statelessService.getCharacter(token(header, cookie)).getCharacter();
+			String characterJson = objectMapper.writeValueAsString(character);
+
+			HttpHeaders headers = new HttpHeaders();
+			headers.setContentType(MediaType.APPLICATION_JSON);
+			headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"character.json\"");
+
+			return new ResponseEntity<>(characterJson, headers, HttpStatus.OK);
+		}
+		catch (Exception e)
+		{
+			logger.error("Error downloading character", e);
+			Map<String, Object> error = new HashMap<>();
+			error.put("error", e.getMessage());
+			return new ResponseEntity<>(error.toString(), HttpStatus.BAD_REQUEST);
+		}
+	}
+}
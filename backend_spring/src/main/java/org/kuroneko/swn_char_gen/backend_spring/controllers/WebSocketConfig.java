@@ -0,0 +1,60 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.controllers;
+
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterService;
+import org.kuroneko.swn_char_gen.backend_spring.services.SessionTokens;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocket configuration for the servlet build, serving CharacterSocketHandler at /api/character/socket.
+ * <p>
+ * Like ApiController it is not used in stateless mode, since it keeps the character on the server.
+ * Connections are accepted from the same origin only, unless swn.socket.allowed-origins lists others,
+ * such as the Vite dev server.
+ */
+@Configuration
+@EnableWebSocket
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "swn.stateless.enabled", havingValue = "false", matchIfMissing = true)
+public class WebSocketConfig implements WebSocketConfigurer
+{
+	private final CharacterService characterService;
+	private final SessionTokens sessionTokens;
+	private final String[] allowedOrigins;
+
+	public WebSocketConfig(CharacterService characterService, SessionTokens sessionTokens,
+						   @Value("${swn.socket.allowed-origins:}") String[] allowedOrigins)
+	{
+		this.characterService = characterService;
+		this.sessionTokens = sessionTokens;
+		this.allowedOrigins = allowedOrigins;
+	}
+
+	/**
+	 * Registers the character socket.
+	 *
+	 * @param registry the registry to add to
+	 */
+	@Override
+	public void registerWebSocketHandlers(WebSocketHandlerRegistry registry)
+	{
+		registry.addHandler(new CharacterSocketHandler(characterService), "/api/character/socket")
+				.addInterceptors(new SessionKeyHandshakeInterceptor(sessionTokens))
+				.setAllowedOrigins(allowedOrigins);
+	}
+}
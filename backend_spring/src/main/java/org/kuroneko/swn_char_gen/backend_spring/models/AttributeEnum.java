@@ -56,5 +56,11 @@ public enum AttributeEnum
 	 * Special value used to indicate no attribute is selected.
 	 * Used for initialization and default states.
 	 */
-	NONE
+	NONE;
+
+	/**
+	 * Number of real attributes, every value except NONE.
+	 * Attribute values are stored in arrays indexed by ordinal, so NONE must stay last.
+	 */
+	public static final int COUNT = values().length - 1;
 }
\ No newline at end of file
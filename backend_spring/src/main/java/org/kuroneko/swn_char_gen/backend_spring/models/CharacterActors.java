@@ -0,0 +1,220 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Singleton that runs the operations on each session's character one at a time, in the order they arrive.
+ * <p>
+ * Each session is an actor with a mailbox of messages. Sending a message to an idle session creates
+ * its mailbox and hands it to a small shared executor, which drains it; the mailbox is removed again
+ * once it is empty. So operations of one session never overlap or reorder, different sessions never
+ * wait on each other, and an idle session costs no memory here at all.
+ * <p>
+ * A busy mailbox gives up its thread after a batch of messages and goes to the back of the executor's
+ * queue, so one session sending many requests cannot starve the others.
+ */
+public final class CharacterActors
+{
+	// messages a mailbox runs before letting other sessions have the thread
+	private static final int BATCH_SIZE = 32;
+
+	private static final CharacterActors instance = new CharacterActors(
+			new ForkJoinPool(Runtime.getRuntime().availableProcessors(), ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true));
+
+	// session whose mailbox the current thread is draining, so a message can ask its own session without deadlock
+	private static final ThreadLocal<SessionKey> currentSession = new ThreadLocal<>();
+
+	// mailboxes of the sessions with messages waiting or running
+	private final Map<SessionKey, Mailbox> mMailboxes = new ConcurrentHashMap<>();
+	// runs the mailboxes
+	private volatile Executor mExecutor;
+
+	/**
+	 * Create actors drained by the given executor.
+	 *
+	 * @param theExecutor The executor
+	 */
+	CharacterActors(Executor theExecutor)
+	{
+		this.mExecutor = theExecutor;
+	}
+
+	/**
+	 * Get the singleton instance of CharacterActors.
+	 *
+	 * @return The singleton instance
+	 */
+	public static CharacterActors getInstance()
+	{
+		return instance;
+	}
+
+	/**
+	 * Change the executor that drains the mailboxes, for example to use virtual threads.
+	 * Mailboxes already scheduled finish their current batch on the old executor.
+	 *
+	 * @param theExecutor The new executor
+	 * @return The executor it replaces
+	 */
+	public Executor setExecutor(Executor theExecutor)
+	{
+		Executor previous = mExecutor;
+		mExecutor = theExecutor;
+		return previous;
+	}
+
+	/**
+	 * Queue a message for a session's actor.
+	 *
+	 * @param theSession The session key
+	 * @param theMessage The operation, which runs after every earlier message of the session
+	 * @param <T>        The type of the reply
+	 * @return The reply, completed with the result or the exception of the operation
+	 */
+	public <T> CompletableFuture<T> submit(SessionKey theSession, Supplier<T> theMessage)
+	{
+		CompletableFuture<T> reply = new CompletableFuture<>();
+		Runnable message = () ->
+		{
+			try
+			{
+				reply.complete(theMessage.get());
+			}
+			catch (Throwable e)
+			{
+				reply.completeExceptionally(e);
+			}
+		};
+
+		boolean[] created = new boolean[1];
+		Mailbox mailbox = mMailboxes.compute(theSession, (id, existing) ->
+		{
+			Mailbox target = existing;
+			if (target == null)
+			{
+				target = new Mailbox(id);
+				created[0] = true;
+			}
+			target.mMessages.add(message);
+			return target;
+		});
+		// an existing mailbox is already scheduled and will reach the message
+		if (created[0])
+		{
+			mExecutor.execute(mailbox);
+		}
+		return reply;
+	}
+
+	/**
+	 * Send a message to a session's actor and wait for the reply.
+	 *
+	 * @param theSession The session key
+	 * @param theMessage The operation, which runs after every earlier message of the session
+	 * @param <T>        The type of the reply
+	 * @return The result of the operation
+	 * @throws RuntimeException the exception the operation threw
+	 */
+	public <T> T ask(SessionKey theSession, Supplier<T> theMessage)
+	{
+		// already running as this session's actor, so queueing would wait on itself
+		if (theSession.equals(currentSession.get()))
+		{
+			return theMessage.get();
+		}
+		try
+		{
+			return submit(theSession, theMessage).join();
+		}
+		catch (CompletionException e)
+		{
+			if (e.getCause() instanceof RuntimeException cause)
+			{
+				throw cause;
+			}
+			if (e.getCause() instanceof Error cause)
+			{
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Get the number of sessions with messages waiting or running.
+	 *
+	 * @return The number of busy sessions
+	 */
+	public int getBusyCount()
+	{
+		return mMailboxes.size();
+	}
+
+	/**
+	 * Messages of one session, drained by one thread at a time.
+	 */
+	private final class Mailbox implements Runnable
+	{
+		private final SessionKey mSession;
+		private final Queue<Runnable> mMessages = new ConcurrentLinkedQueue<>();
+
+		/**
+		 * Create an empty mailbox.
+		 *
+		 * @param theSession The session key
+		 */
+		Mailbox(SessionKey theSession)
+		{
+			this.mSession = theSession;
+		}
+
+		/**
+		 * Run a batch of messages, then remove the mailbox if it is empty or reschedule it if not.
+		 */
+		@Override
+		public void run()
+		{
+			currentSession.set(mSession);
+			try
+			{
+				for (int count = 0; count < BATCH_SIZE; count++)
+				{
+					Runnable message = mMessages.poll();
+					if (message == null)
+					{
+						// removing under the map's lock means a message sent now makes a new mailbox
+						if (mMailboxes.computeIfPresent(mSession, (id, mailbox) -> mailbox.mMessages.isEmpty() ? null : mailbox) == null)
+						{
+							return;
+						}
+						continue;
+					}
+					message.run();
+				}
+			}
+			finally
+			{
+				currentSession.remove();
+			}
+			mExecutor.execute(this);
+		}
+	}
+}
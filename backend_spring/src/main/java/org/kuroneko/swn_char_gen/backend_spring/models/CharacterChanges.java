@@ -0,0 +1,289 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Singleton feed of the changes made to each session's character, for clients that follow a
+ * character rather than polling it.
+ * <p>
+ * Each session has a channel, created by its first change or subscriber. A change is a small Map
+ * describing what happened, such as the event that was applied; publishing it stamps it with the
+ * next version of the session's character, keeps it in a short ring of recent changes, and hands it
+ * to the session's listeners. Changes are published from the session's actor, so listeners see them
+ * in version order. Listeners run on the publishing thread and must not block; one that writes to a
+ * network connection should queue the change and write it elsewhere.
+ * <p>
+ * Published changes are shared by every listener and must not be changed afterwards.
+ * <p>
+ * prune releases the channels of sessions that have no listeners and have published nothing for a
+ * while, so sessions that are gone do not keep their recent changes. A session's next change or
+ * subscriber makes a new channel. Its versions carry on from the highest version of any pruned
+ * channel, so a client holding a version from before the prune is told to start again rather than
+ * being sent changes it has not seen.
+ */
+public final class CharacterChanges
+{
+	/**
+	 * Most recent changes kept per session for clients catching up from a version.
+	 */
+	public static final int RETAINED_CHANGES = 64;
+
+	private static final CharacterChanges instance = new CharacterChanges();
+
+	private final SessionMap<Channel> mChannels = new SessionMap<>();
+	// highest version of any pruned channel, where new channels start
+	private final AtomicLong mVersionFloor = new AtomicLong();
+
+	/**
+	 * Create a feed. Use getInstance rather than this, except in tests.
+	 */
+	CharacterChanges()
+	{
+	}
+
+	/**
+	 * Get the singleton instance of CharacterChanges.
+	 *
+	 * @return The singleton instance
+	 */
+	public static CharacterChanges getInstance()
+	{
+		return instance;
+	}
+
+	/**
+	 * Publish a change to a session's character.
+	 *
+	 * @param theSession The session key
+	 * @param theChange  The change, which is given a "version" entry and must not be changed afterwards
+	 * @return The character's new version
+	 */
+	public long publish(SessionKey theSession, Map<String, Object> theChange)
+	{
+		Channel channel;
+		long version;
+		while (true)
+		{
+			channel = channel(theSession);
+			synchronized (channel)
+			{
+				// pruned after it was looked up, so the next lookup makes a new one
+				if (channel.mPruned)
+				{
+					continue;
+				}
+				version = ++channel.mVersion;
+				theChange.put("version", version);
+				channel.mRecent[(int) (version % RETAINED_CHANGES)] = theChange;
+				channel.mLastUsed = System.currentTimeMillis();
+				break;
+			}
+		}
+		for (Consumer<Map<String, Object>> listener : channel.mListeners)
+		{
+			listener.accept(theChange);
+		}
+		return version;
+	}
+
+	/**
+	 * Get the current version of a session's character, the number of changes published for it.
+	 *
+	 * @param theSession The session key
+	 * @return The version, 0 if nothing has been published, or where a new channel would start if the
+	 *         session has no channel
+	 */
+	public long getVersion(SessionKey theSession)
+	{
+		Channel channel = mChannels.get(theSession);
+		if (channel == null)
+		{
+			return mVersionFloor.get();
+		}
+		synchronized (channel)
+		{
+			return channel.mVersion;
+		}
+	}
+
+	/**
+	 * Get the changes published after a version, oldest first.
+	 *
+	 * @param theSession The session key
+	 * @param theVersion The last version the caller has seen
+	 * @return The changes, empty if there are none yet, or null if the version is too old to catch up
+	 *         from or was never published, so the caller must start again from the whole character
+	 */
+	public List<Map<String, Object>> since(SessionKey theSession, long theVersion)
+	{
+		Channel channel = mChannels.get(theSession);
+		if (channel == null)
+		{
+			return theVersion == mVersionFloor.get() ? List.of() : null;
+		}
+		synchronized (channel)
+		{
+			long current = channel.mVersion;
+			if (theVersion < channel.mBase || theVersion > current || current - theVersion > RETAINED_CHANGES)
+			{
+				return null;
+			}
+			List<Map<String, Object>> changes = new ArrayList<>((int) (current - theVersion));
+			for (long version = theVersion + 1; version <= current; version++)
+			{
+				changes.add(channel.mRecent[(int) (version % RETAINED_CHANGES)]);
+			}
+			return changes;
+		}
+	}
+
+	/**
+	 * Add a listener for the changes to a session's character.
+	 *
+	 * @param theSession  The session key
+	 * @param theListener Called with each change published from now on, on the publishing thread
+	 * @return Removes the listener when run
+	 */
+	public Runnable subscribe(SessionKey theSession, Consumer<Map<String, Object>> theListener)
+	{
+		while (true)
+		{
+			Channel channel = channel(theSession);
+			synchronized (channel)
+			{
+				if (!channel.mPruned)
+				{
+					channel.mListeners.add(theListener);
+					return () -> unsubscribe(channel, theListener);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Release the channels that have no listeners and have not been used since a time.
+	 *
+	 * @param theCutoff The time in milliseconds since the epoch; channels last published to, or left
+	 *                  by their last listener, before it are released
+	 * @return The number of channels released
+	 */
+	public int prune(long theCutoff)
+	{
+		int[] pruned = new int[1];
+		mChannels.forEachValue(channel ->
+		{
+			synchronized (channel)
+			{
+				if (channel.mListeners.isEmpty() && channel.mLastUsed < theCutoff)
+				{
+					// raised before the channel leaves the map, so its replacement starts above it
+					mVersionFloor.accumulateAndGet(channel.mVersion, Math::max);
+					channel.mPruned = true;
+					mChannels.remove(channel.mSession);
+					pruned[0]++;
+				}
+			}
+		});
+		return pruned[0];
+	}
+
+	/**
+	 * Get the number of sessions with a channel.
+	 *
+	 * @return The number of channels
+	 */
+	public int getChannelCount()
+	{
+		return mChannels.size();
+	}
+
+	/**
+	 * Get the number of listeners for a session's character.
+	 *
+	 * @param theSession The session key
+	 * @return The number of listeners
+	 */
+	public int getListenerCount(SessionKey theSession)
+	{
+		Channel channel = mChannels.get(theSession);
+		return channel == null ? 0 : channel.mListeners.size();
+	}
+
+	/**
+	 * Get the channel of a session, making one if it has none. It may be pruned before the caller
+	 * locks it.
+	 *
+	 * @param theSession The session key
+	 * @return The channel
+	 */
+	private Channel channel(SessionKey theSession)
+	{
+		return mChannels.computeIfAbsent(theSession, () -> new Channel(theSession, mVersionFloor.get()));
+	}
+
+	/**
+	 * Remove a listener, starting the channel's idle time if it was the last.
+	 *
+	 * @param theChannel  The channel
+	 * @param theListener The listener
+	 */
+	private static void unsubscribe(Channel theChannel, Consumer<Map<String, Object>> theListener)
+	{
+		synchronized (theChannel)
+		{
+			if (theChannel.mListeners.remove(theListener) && theChannel.mListeners.isEmpty())
+			{
+				theChannel.mLastUsed = System.currentTimeMillis();
+			}
+		}
+	}
+
+	/**
+	 * The version, recent changes, and listeners of one session's character.
+	 */
+	private static final class Channel
+	{
+		private final SessionKey mSession;
+		// the version it started from, 0 unless channels were pruned before it; older ones are not here
+		private final long mBase;
+		// ring of the last RETAINED_CHANGES changes, indexed by version
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		private final Map<String, Object>[] mRecent = new Map[RETAINED_CHANGES];
+		// listeners are added and removed far less often than changes are published
+		private final List<Consumer<Map<String, Object>>> mListeners = new CopyOnWriteArrayList<>();
+		private long mVersion;
+		// last publish, or when the last listener left, for prune
+		private long mLastUsed;
+		// set once pruned, so callers that looked it up just before go back for a new one
+		private boolean mPruned;
+
+		/**
+		 * Create an empty channel.
+		 *
+		 * @param theSession The session key
+		 * @param theBase    The version to start from
+		 */
+		Channel(SessionKey theSession, long theBase)
+		{
+			mSession = theSession;
+			mBase = theBase;
+			mVersion = theBase;
+			mLastUsed = System.currentTimeMillis();
+		}
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+/**
+ * One immutable change to a character.
+ * <p>
+ * Events record results rather than intentions - a roll holds the values rolled, and a change holds
+ * the value the attribute was changed to under the rules at the time - so folding the same events
+ * always gives the same character, whatever the random generator or the current rules. Rolled values
+ * are packed 8 bits each into one long, which is why rulesets are limited to SWNRules.MAX_ATTRIBUTE_VALUE.
+ */
+public final class CharacterEvent
+{
+	private static final int VALUE_BITS = 8;
+	private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+	// rough heap cost of an event object, used for the global history budget
+	private static final long BASE_BYTES = 64;
+
+	// what kind of change this is
+	private final CharacterEventType mType;
+	// when the change was made, in epoch milliseconds
+	private final long mTimestamp;
+	// rolled values for ROLL_ATTRIBUTES, 8 bits each in AttributeEnum order
+	private final long mValues;
+	// attribute and new value for CHANGE_ATTRIBUTE
+	private final AttributeEnum mAttribute;
+	private final int mValue;
+	// detail and new text for SET_DETAIL
+	private final DetailEnum mDetail;
+	private final String mText;
+	// private copy of the uploaded data for UPLOAD - never changed
+	private final SWNCharData mData;
+
+	/**
+	 * Create an event. Use the factory methods.
+	 */
+	private CharacterEvent(CharacterEventType theType, long theValues, AttributeEnum theAttribute, int theValue,
+						   DetailEnum theDetail, String theText, SWNCharData theData)
+	{
+		this.mType = theType;
+		this.mTimestamp = System.currentTimeMillis();
+		this.mValues = theValues;
+		this.mAttribute = theAttribute;
+		this.mValue = theValue;
+		this.mDetail = theDetail;
+		this.mText = theText;
+		this.mData = theData;
+	}
+
+	/**
+	 * Create an event for rolled attributes.
+	 *
+	 * @param theValues The rolled values, indexed by AttributeEnum ordinal
+	 * @return The event
+	 */
+	public static CharacterEvent rollAttributes(int[] theValues)
+	{
+		long values = 0;
+		for (int index = 0; index < AttributeEnum.COUNT; index++)
+		{
+			values |= (theValues[index] & VALUE_MASK) << (index * VALUE_BITS);
+		}
+		return new CharacterEvent(CharacterEventType.ROLL_ATTRIBUTES, values, AttributeEnum.NONE, 0, null, null, null);
+	}
+
+	/**
+	 * Create an event for an attribute changed to the special value.
+	 *
+	 * @param theAttribute The attribute changed
+	 * @param theValue     The value it was changed to
+	 * @return The event
+	 */
+	public static CharacterEvent changeAttribute(AttributeEnum theAttribute, int theValue)
+	{
+		return new CharacterEvent(CharacterEventType.CHANGE_ATTRIBUTE, 0, theAttribute, theValue, null, null, null);
+	}
+
+	/**
+	 * Create an event for a detail being set.
+	 *
+	 * @param theDetail The detail set
+	 * @param theText   The new value
+	 * @return The event
+	 */
+	public static CharacterEvent setDetail(DetailEnum theDetail, String theText)
+	{
+		return new CharacterEvent(CharacterEventType.SET_DETAIL, 0, AttributeEnum.NONE, 0, theDetail, theText, null);
+	}
+
+	/**
+	 * Create an event for uploaded data replacing the character.
+	 *
+	 * @param theData The uploaded data, which is copied
+	 * @return The event
+	 */
+	static CharacterEvent upload(SWNCharData theData)
+	{
+		return new CharacterEvent(CharacterEventType.UPLOAD, 0, AttributeEnum.NONE, 0, null, null, theData.copy());
+	}
+
+	/**
+	 * Apply this change to character data.
+	 *
+	 * @param theData The data to change
+	 */
+	void applyTo(SWNCharData theData)
+	{
+		switch (mType)
+		{
+			case ROLL_ATTRIBUTES:
+				for (int index = 0; index < AttributeEnum.COUNT; index++)
+				{
+					theData.mAttributes[index] = (int) ((mValues >>> (index * VALUE_BITS)) & VALUE_MASK);
+				}
+				break;
+			case CHANGE_ATTRIBUTE:
+				// restore any previous change, then remember the value being replaced
+				if (theData.mChangedAttribute != AttributeEnum.NONE)
+				{
+					theData.mAttributes[theData.mChangedAttribute.ordinal()] = theData.mChangedAttributeOriginalValue;
+				}
+				theData.mChangedAttributeOriginalValue = theData.mAttributes[mAttribute.ordinal()];
+				theData.mAttributes[mAttribute.ordinal()] = mValue;
+				theData.mChangedAttribute = mAttribute;
+				break;
+			case SET_DETAIL:
+				if (DetailEnum.NAME == mDetail)
+				{
+					theData.mName = mText;
+				}
+				break;
+			case UPLOAD:
+				theData.copyFrom(mData);
+				break;
+		}
+	}
+
+	/**
+	 * Get the kind of change.
+	 *
+	 * @return The event type
+	 */
+	public CharacterEventType getType()
+	{
+		return mType;
+	}
+
+	/**
+	 * Get when the change was made.
+	 *
+	 * @return The time in epoch milliseconds
+	 */
+	public long getTimestamp()
+	{
+		return mTimestamp;
+	}
+
+	/**
+	 * Get the rolled values of a ROLL_ATTRIBUTES event.
+	 *
+	 * @return The values indexed by AttributeEnum ordinal, all 0 for other events
+	 */
+	public int[] getValues()
+	{
+		int[] values = new int[AttributeEnum.COUNT];
+		for (int index = 0; index < values.length; index++)
+		{
+			values[index] = (int) ((mValues >>> (index * VALUE_BITS)) & VALUE_MASK);
+		}
+		return values;
+	}
+
+	/**
+	 * Get the rolled values of a ROLL_ATTRIBUTES event as packed into the event, 8 bits each in
+	 * AttributeEnum order.
+	 *
+	 * @return The packed values
+	 */
+	long getPackedValues()
+	{
+		return mValues;
+	}
+
+	/**
+	 * Get the attribute of a CHANGE_ATTRIBUTE event.
+	 *
+	 * @return The attribute, NONE for other events
+	 */
+	public AttributeEnum getAttribute()
+	{
+		return mAttribute;
+	}
+
+	/**
+	 * Get the new value of a CHANGE_ATTRIBUTE event.
+	 *
+	 * @return The value, 0 for other events
+	 */
+	public int getValue()
+	{
+		return mValue;
+	}
+
+	/**
+	 * Get the detail of a SET_DETAIL event.
+	 *
+	 * @return The detail, null for other events
+	 */
+	public DetailEnum getDetail()
+	{
+		return mDetail;
+	}
+
+	/**
+	 * Get the new value of a SET_DETAIL event.
+	 *
+	 * @return The text, null for other events
+	 */
+	public String getText()
+	{
+		return mText;
+	}
+
+	/**
+	 * Estimate the heap used by this event, for the global history budget.
+	 *
+	 * @return The estimated bytes
+	 */
+	long estimateBytes()
+	{
+		long bytes = BASE_BYTES;
+		if (mText != null)
+		{
+			bytes += 2L * mText.length();
+		}
+		if (mData != null)
+		{
+			bytes += BASE_BYTES + 2L * ((mData.mName == null) ? 0 : mData.mName.length());
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,297 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable event log of one character, the source of its state, undo and redo, and audits.
+ * <p>
+ * The log is a snapshot followed by the events since. The current state is the fold of the snapshot
+ * and every event up to the cursor; undo and redo move the cursor, and a new event discards any
+ * undone events after it. Compaction folds the oldest events into the snapshot, which keeps replay
+ * short and memory bounded. It happens when a log passes the per-character event limit, when all logs
+ * together pass the global byte budget, and in the background for events past a retention age.
+ * Events folded into the snapshot can no longer be undone.
+ * <p>
+ * Every change returns a new log, so a log can be shared between threads and published with a
+ * compare-and-set. The events are a small copy-on-write array. The owner of a log reports each
+ * published change to the global byte budget with charge.
+ */
+public final class CharacterEventLog
+{
+	/**
+	 * Default number of events kept per character.
+	 */
+	public static final int DEFAULT_MAX_EVENTS = 64;
+
+	/**
+	 * Default byte budget for the events of all characters together.
+	 */
+	public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+	private static final CharacterEvent[] NO_EVENTS = new CharacterEvent[0];
+
+	// limits, set once at startup
+	private static volatile int maxEvents = DEFAULT_MAX_EVENTS;
+	private static volatile long maxBytes = DEFAULT_MAX_BYTES;
+	// estimated bytes of the events held by all published logs
+	private static final AtomicLong globalBytes = new AtomicLong();
+
+	// fold of every compacted event - never changed
+	private final SWNCharData mSnapshot;
+	// events since the snapshot, oldest first, including any that can be redone - never changed
+	private final CharacterEvent[] mEvents;
+	// number of events in the current state
+	private final int mCursor;
+	// number of events ever folded into the snapshot
+	private final long mCompacted;
+	// estimated bytes of the events held by this log
+	private final long mBytes;
+
+	/**
+	 * Create an empty log starting from the given state.
+	 *
+	 * @param theInitial The starting state, which is copied
+	 */
+	public CharacterEventLog(SWNCharData theInitial)
+	{
+		this(theInitial.copy(), NO_EVENTS, 0, 0, 0);
+	}
+
+	/**
+	 * Create a log from its parts.
+	 */
+	private CharacterEventLog(SWNCharData theSnapshot, CharacterEvent[] theEvents, int theCursor, long theCompacted, long theBytes)
+	{
+		this.mSnapshot = theSnapshot;
+		this.mEvents = theEvents;
+		this.mCursor = theCursor;
+		this.mCompacted = theCompacted;
+		this.mBytes = theBytes;
+	}
+
+	/**
+	 * Set the history limits.
+	 *
+	 * @param theMaxEvents The number of events kept per character, at least 1
+	 * @param theMaxBytes  The byte budget for the events of all characters together
+	 * @throws IllegalArgumentException if a limit is invalid
+	 */
+	public static void configure(int theMaxEvents, long theMaxBytes)
+	{
+		if (theMaxEvents < 1 || theMaxBytes < 0)
+		{
+			throw new IllegalArgumentException("Invalid history limits: " + theMaxEvents + " events, " + theMaxBytes + " bytes");
+		}
+		maxEvents = theMaxEvents;
+		maxBytes = theMaxBytes;
+	}
+
+	/**
+	 * Get the estimated bytes of the events held by all published logs.
+	 *
+	 * @return The estimated bytes
+	 */
+	public static long getGlobalBytes()
+	{
+		return globalBytes.get();
+	}
+
+	/**
+	 * Report that one log replaced another, to keep the global byte budget up to date.
+	 * Call once for each published change, after it is published.
+	 *
+	 * @param thePrevious The log replaced
+	 * @param theNext     The log that replaced it
+	 */
+	static void charge(CharacterEventLog thePrevious, CharacterEventLog theNext)
+	{
+		long change = theNext.mBytes - thePrevious.mBytes;
+		if (change != 0)
+		{
+			globalBytes.addAndGet(change);
+		}
+	}
+
+	/**
+	 * Add an event after the current one, discarding any undone events, and compact if over a limit.
+	 *
+	 * @param theEvent The event
+	 * @return The new log
+	 */
+	public CharacterEventLog append(CharacterEvent theEvent)
+	{
+		long bytes = theEvent.estimateBytes();
+		for (int index = mCursor; index < mEvents.length; index++)
+		{
+			bytes -= mEvents[index].estimateBytes();
+		}
+		CharacterEvent[] events = Arrays.copyOf(mEvents, mCursor + 1);
+		events[mCursor] = theEvent;
+
+		// fold the oldest events while over the per-character limit or the global budget
+		int fold = Math.max(0, events.length - maxEvents);
+		long overBudget = globalBytes.get() + bytes - maxBytes;
+		while (overBudget > 0 && fold < events.length)
+		{
+			overBudget -= events[fold].estimateBytes();
+			fold++;
+		}
+		return new CharacterEventLog(mSnapshot, events, events.length, mCompacted, mBytes + bytes).fold(fold);
+	}
+
+	/**
+	 * Check if there is an event to undo.
+	 *
+	 * @return True if undo is possible
+	 */
+	public boolean canUndo()
+	{
+		return mCursor > 0;
+	}
+
+	/**
+	 * Check if there is an undone event to redo.
+	 *
+	 * @return True if redo is possible
+	 */
+	public boolean canRedo()
+	{
+		return mCursor < mEvents.length;
+	}
+
+	/**
+	 * Step back one event.
+	 *
+	 * @return The new log
+	 * @throws IllegalArgumentException if there is nothing to undo
+	 */
+	public CharacterEventLog undo()
+	{
+		if (!canUndo())
+		{
+			throw new IllegalArgumentException("Nothing to undo");
+		}
+		return new CharacterEventLog(mSnapshot, mEvents, mCursor - 1, mCompacted, mBytes);
+	}
+
+	/**
+	 * Step forward one undone event.
+	 *
+	 * @return The new log
+	 * @throws IllegalArgumentException if there is nothing to redo
+	 */
+	public CharacterEventLog redo()
+	{
+		if (!canRedo())
+		{
+			throw new IllegalArgumentException("Nothing to redo");
+		}
+		return new CharacterEventLog(mSnapshot, mEvents, mCursor + 1, mCompacted, mBytes);
+	}
+
+	/**
+	 * Fold the snapshot and the events up to the cursor.
+	 *
+	 * @return The current state, a new copy
+	 */
+	public SWNCharData replay()
+	{
+		SWNCharData data = mSnapshot.copy();
+		for (int index = 0; index < mCursor; index++)
+		{
+			mEvents[index].applyTo(data);
+		}
+		return data;
+	}
+
+	/**
+	 * Fold applied events made before a cutoff into the snapshot.
+	 *
+	 * @param theCutoff Events with an earlier timestamp are compacted, in epoch milliseconds
+	 * @return The new log, or this log if nothing was old enough
+	 */
+	public CharacterEventLog compact(long theCutoff)
+	{
+		int fold = 0;
+		while (fold < mCursor && mEvents[fold].getTimestamp() < theCutoff)
+		{
+			fold++;
+		}
+		return fold(fold);
+	}
+
+	/**
+	 * Drop every event, keeping the current state as the snapshot.
+	 *
+	 * @return The new log
+	 */
+	public CharacterEventLog release()
+	{
+		return new CharacterEventLog(replay(), NO_EVENTS, 0, mCompacted + mCursor, 0);
+	}
+
+	/**
+	 * Get the events since the snapshot, including any that can be redone.
+	 *
+	 * @return The events, oldest first
+	 */
+	public List<CharacterEvent> getEvents()
+	{
+		return List.of(mEvents);
+	}
+
+	/**
+	 * Get the last event in the current state.
+	 *
+	 * @return The event, or null if there is none since the snapshot
+	 */
+	public CharacterEvent getLastEvent()
+	{
+		return (mCursor == 0) ? null : mEvents[mCursor - 1];
+	}
+
+	/**
+	 * Get the number of events ever folded into the snapshot, which is the sequence number of the
+	 * first event returned by getEvents.
+	 *
+	 * @return The number of compacted events
+	 */
+	public long getCompactedCount()
+	{
+		return mCompacted;
+	}
+
+	/**
+	 * Fold the oldest events into the snapshot. The cursor must be past them.
+	 *
+	 * @param theCount The number of events to fold
+	 * @return The new log, or this log if the count is 0
+	 */
+	private CharacterEventLog fold(int theCount)
+	{
+		if (theCount == 0)
+		{
+			return this;
+		}
+		SWNCharData snapshot = mSnapshot.copy();
+		long bytes = mBytes;
+		for (int index = 0; index < theCount; index++)
+		{
+			mEvents[index].applyTo(snapshot);
+			bytes -= mEvents[index].estimateBytes();
+		}
+		return new CharacterEventLog(snapshot, Arrays.copyOfRange(mEvents, theCount, mEvents.length),
+									 mCursor - theCount, mCompacted + theCount, bytes);
+	}
+}
@@ -0,0 +1,33 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+/**
+ * Kinds of change recorded in a character's event log.
+ */
+public enum CharacterEventType
+{
+	/**
+	 * All attributes were rolled, with the rolled values.
+	 */
+	ROLL_ATTRIBUTES,
+	/**
+	 * One attribute was changed to the special value.
+	 */
+	CHANGE_ATTRIBUTE,
+	/**
+	 * A detail such as the name was set.
+	 */
+	SET_DETAIL,
+	/**
+	 * The whole character was replaced by uploaded data.
+	 */
+	UPLOAD
+}
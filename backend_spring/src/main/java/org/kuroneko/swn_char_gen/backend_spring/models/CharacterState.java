@@ -0,0 +1,152 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+/**
+ * Immutable snapshot of everything an SWNChar holds.
+ * <p>
+ * SWNChar publishes a new state for every change with a compare-and-set, so a reader that takes one
+ * state sees a whole character - never a half-applied roll. The data is a private copy that is never
+ * changed once the state is built; every change copies it first.
+ */
+final class CharacterState
+{
+	// the cached fold of the event log
+	// this is an echo of the Python dataclass swn_char_data - see SWNCharData for details
+	final SWNCharData mData;
+	// system for the data's ruleset
+	final SWNSystem mSystem;
+	// version of the rules the changed attribute was last set with, 0 if it needs refreshing
+	final int mRulesVersion;
+	// every change to the data, for undo, redo, and audits
+	final CharacterEventLog mEvents;
+
+	/**
+	 * Create a state.
+	 *
+	 * @param theData         The data, which must not be changed afterwards
+	 * @param theSystem       The system for the data's ruleset
+	 * @param theRulesVersion The version of the rules the changed attribute was set with
+	 * @param theEvents       The event log
+	 */
+	CharacterState(SWNCharData theData, SWNSystem theSystem, int theRulesVersion, CharacterEventLog theEvents)
+	{
+		this.mData = theData;
+		this.mSystem = theSystem;
+		this.mRulesVersion = theRulesVersion;
+		this.mEvents = theEvents;
+	}
+
+	/**
+	 * Create the state of a new character with default values.
+	 *
+	 * @param theSystem The system for the character's ruleset
+	 * @return The state
+	 */
+	static CharacterState initial(SWNSystem theSystem)
+	{
+		SWNCharData data = new SWNCharData();
+		data.mRulesetId = theSystem.getRulesetId();
+		return new CharacterState(data, theSystem, theSystem.getRules().getVersion(), new CharacterEventLog(data));
+	}
+
+	/**
+	 * Check if the changed attribute follows the current rules.
+	 *
+	 * @return True if the rules have not changed since
+	 */
+	boolean isCurrent()
+	{
+		return mSystem.getRules().getVersion() == mRulesVersion;
+	}
+
+	/**
+	 * Bring the state up to date with the current rules. The changed attribute takes the new
+	 * changed-attribute value. Modifiers are never stored, so they follow the new table without any work here,
+	 * but a value the new table no longer covers is clamped to its nearest end so it still has a modifier.
+	 *
+	 * @return The new state, or this state if it is current
+	 */
+	CharacterState refreshed()
+	{
+		SWNRules rules = mSystem.getRules();
+		if (rules.getVersion() == mRulesVersion)
+		{
+			return this;
+		}
+		SWNCharData data = mData.copy();
+		for (int index = 0; index < AttributeEnum.COUNT; index++)
+		{
+			data.mAttributes[index] = clamp(data.mAttributes[index], rules);
+		}
+		if (data.mChangedAttribute != AttributeEnum.NONE)
+		{
+			data.mAttributes[data.mChangedAttribute.ordinal()] = rules.getChangedAttributeValue();
+			data.mChangedAttributeOriginalValue = clamp(data.mChangedAttributeOriginalValue, rules);
+		}
+		return new CharacterState(data, mSystem, rules.getVersion(), mEvents);
+	}
+
+	/**
+	 * Clamp an attribute value into a ruleset's table, leaving unset values alone.
+	 *
+	 * @param theValue The attribute value
+	 * @param theRules The rules
+	 * @return The value, or the nearest end of the table if it is outside
+	 */
+	private static int clamp(int theValue, SWNRules theRules)
+	{
+		if (theValue == 0)
+		{
+			return 0;
+		}
+		return Math.max(theRules.getMinAttribute(), Math.min(theRules.getMaxAttribute(), theValue));
+	}
+
+	/**
+	 * Apply a change and add it to the event log.
+	 *
+	 * @param theEvent        The change
+	 * @param theSystem       The system for the data's ruleset after the change
+	 * @param theRulesVersion The version of the rules after the change
+	 * @return The new state
+	 */
+	CharacterState record(CharacterEvent theEvent, SWNSystem theSystem, int theRulesVersion)
+	{
+		SWNCharData data = mData.copy();
+		theEvent.applyTo(data);
+		return new CharacterState(data, theSystem, theRulesVersion, mEvents.append(theEvent));
+	}
+
+	/**
+	 * Replace the event log with one holding the same current state, after compaction.
+	 *
+	 * @param theEvents The new event log
+	 * @return The new state, or this state if the log is the same
+	 */
+	CharacterState withEvents(CharacterEventLog theEvents)
+	{
+		return (theEvents == mEvents) ? this : new CharacterState(mData, mSystem, mRulesVersion, theEvents);
+	}
+
+	/**
+	 * Replace the event log with one at a different point, after undo or redo, and replay it.
+	 *
+	 * @param theEvents The new event log
+	 * @return The new state
+	 */
+	CharacterState moveTo(CharacterEventLog theEvents)
+	{
+		SWNCharData data = theEvents.replay();
+		SWNSystem system = data.mRulesetId.equals(mSystem.getRulesetId()) ? mSystem : new SWNSystem(data.mRulesetId);
+		// the events hold the changed value of the rules at the time, so bring it up to date on next use
+		return new CharacterState(data, system, 0, theEvents);
+	}
+}
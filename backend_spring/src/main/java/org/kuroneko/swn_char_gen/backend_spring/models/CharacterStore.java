@@ -9,16 +9,46 @@
 
 package org.kuroneko.swn_char_gen.backend_spring.models;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 /**
  * Singleton store for SWN characters.
+ * <p>
+ * Characters are keyed by SessionKey in a SessionMap, so a lookup hashes and compares two longs
+ * rather than a session id String.
+ * <p>
+ * Operations on a session's character go through mutate, mutateOrCreate, or replace. Each finds the
+ * character with one lookup and runs the operation as a message to the session's actor, so operations
+ * on one character happen one at a time without a check-then-act race between finding and changing it.
+ * <p>
+ * A session can also hold a Party of characters addressed by id, changed through mutateParty.
+ * <p>
+ * Each session has a share generation, carried by the share tokens it hands out; revokeShares raises
+ * it, so the tokens made before stop being honored.
+ * <p>
+ * Every operation through the actor records when the session was last used. evictIdle drops the
+ * character, party, and share generation of sessions unused since a cutoff, so sessions that are gone,
+ * such as clients that never send their cookie back, do not stay in memory. The actor mailboxes need no
+ * eviction: CharacterActors removes a mailbox as soon as it is empty.
  */
 public class CharacterStore
 {
-	private static CharacterStore instance;
-	private final Map<String, SWNChar> characters = new HashMap<>();
+	// volatile so getInstance only locks while creating it, not on every request
+	private static volatile CharacterStore instance;
+	// concurrent so the background compactor can walk the characters while requests store them
+	private final SessionMap<SWNChar> characters = new SessionMap<>();
+	// each session's party, apart from its character so the single character endpoints are unchanged
+	private final SessionMap<Party> parties = new SessionMap<>();
+	// each session's share generation, raised to revoke every share token the session has handed out
+	private final SessionMap<Integer> shareGenerations = new SessionMap<>();
+	// when each session with anything stored was last used, for evictIdle
+	private final SessionMap<Activity> activity = new SessionMap<>();
+	// lookups of the map since startup, to measure how many each request takes
+	private final LongAdder lookups = new LongAdder();
 
 	/**
 	 * Private constructor to prevent direct instantiation.
@@ -32,45 +62,317 @@ public class CharacterStore
 	 *
 	 * @return The singleton instance
 	 */
-	public static synchronized CharacterStore getInstance()
+	public static CharacterStore getInstance()
 	{
-		if (instance == null)
+		CharacterStore store = instance;
+		if (store == null)
 		{
-			instance = new CharacterStore();
+			synchronized (CharacterStore.class)
+			{
+				store = instance;
+				if (store == null)
+				{
+					store = new CharacterStore();
+					instance = store;
+				}
+			}
 		}
-		return instance;
+		return store;
 	}
 
 	/**
-	 * Get a character by session ID.
+	 * Get a character by session.
 	 *
-	 * @param sessionId The session ID
+	 * @param session The session key
 	 * @return The character, or null if not found
 	 */
-	public SWNChar getCharacter(String sessionId)
+	public SWNChar getCharacter(SessionKey session)
 	{
-		return characters.get(sessionId);
+		lookups.increment();
+		return characters.get(session);
 	}
 
 	/**
-	 * Store a character by session ID.
+	 * Get the character of a session, creating a new one if it has none. Callers racing to create
+	 * the character all get the same one.
 	 *
-	 * @param sessionId The session ID
+	 * @param session The session key
+	 * @return The character
+	 */
+	public SWNChar getOrCreateCharacter(SessionKey session)
+	{
+		lookups.increment();
+		return characters.computeIfAbsent(session, SWNChar::new);
+	}
+
+	/**
+	 * Run an operation on the character of a session, after every operation already queued for it.
+	 *
+	 * @param session   The session key
+	 * @param operation The operation, given the character
+	 * @param <T>       The type of the result
+	 * @return The result of the operation
+	 * @throws IllegalArgumentException if the session has no character
+	 */
+	public <T> T mutate(SessionKey session, Function<SWNChar, T> operation)
+	{
+		return CharacterActors.getInstance().ask(session, () ->
+		{
+			touch(session);
+			SWNChar character = getCharacter(session);
+			if (character == null)
+			{
+				throw new IllegalArgumentException("No character found");
+			}
+			return operation.apply(character);
+		});
+	}
+
+	/**
+	 * Run an operation on the character of a session, creating a new character if it has none.
+	 *
+	 * @param session   The session key
+	 * @param operation The operation, given the character
+	 * @param <T>       The type of the result
+	 * @return The result of the operation
+	 */
+	public <T> T mutateOrCreate(SessionKey session, Function<SWNChar, T> operation)
+	{
+		return CharacterActors.getInstance().ask(session, () ->
+		{
+			touch(session);
+			return operation.apply(getOrCreateCharacter(session));
+		});
+	}
+
+	/**
+	 * Store a new character for a session, after every operation already queued for the old one,
+	 * then run an operation on it.
+	 *
+	 * @param session   The session key
+	 * @param character The character to store
+	 * @param operation The operation, given the stored character
+	 * @param <T>       The type of the result
+	 * @return The result of the operation
+	 */
+	public <T> T replace(SessionKey session, SWNChar character, Function<SWNChar, T> operation)
+	{
+		return CharacterActors.getInstance().ask(session, () ->
+		{
+			touch(session);
+			storeCharacter(session, character);
+			return operation.apply(character);
+		});
+	}
+
+	/**
+	 * Store a character by session. A character it replaces gives back its undo history memory.
+	 *
+	 * @param session   The session key
 	 * @param character The character to store
 	 */
-	public void storeCharacter(String sessionId, SWNChar character)
+	public void storeCharacter(SessionKey session, SWNChar character)
+	{
+		lookups.increment();
+		SWNChar previous = characters.put(session, character);
+		if (previous != null && previous != character)
+		{
+			previous.releaseHistory();
+		}
+	}
+
+	/**
+	 * Run an operation on the party of a session, creating an empty party if it has none. It runs after
+	 * every operation already queued for the session, and no other operation on the session overlaps it.
+	 *
+	 * @param session   The session key
+	 * @param operation The operation, given the party
+	 * @param <T>       The type of the result
+	 * @return The result of the operation
+	 */
+	public <T> T mutateParty(SessionKey session, Function<Party, T> operation)
 	{
-		characters.put(sessionId, character);
+		return CharacterActors.getInstance().ask(session, () ->
+		{
+			touch(session);
+			lookups.increment();
+			return operation.apply(parties.computeIfAbsent(session, Party::new));
+		});
 	}
 
 	/**
-	 * Check if a character exists for a session ID.
+	 * Get the share generation of a session, 0 until it first revokes its shares.
 	 *
-	 * @param sessionId The session ID
+	 * @param session The session key
+	 * @return The share generation
+	 */
+	public int getShareGeneration(SessionKey session)
+	{
+		Integer generation = shareGenerations.get(session);
+		return generation == null ? 0 : generation;
+	}
+
+	/**
+	 * Revoke every share token a session has handed out, after every operation already queued for it.
+	 *
+	 * @param session The session key
+	 * @return The new share generation
+	 */
+	public int revokeShares(SessionKey session)
+	{
+		return CharacterActors.getInstance().ask(session, () ->
+		{
+			touch(session);
+			int generation = getShareGeneration(session) + 1;
+			shareGenerations.put(session, generation);
+			return generation;
+		});
+	}
+
+	/**
+	 * Check if a character exists for a session.
+	 *
+	 * @param session The session key
 	 * @return True if a character exists, false otherwise
 	 */
-	public boolean characterMissing(String sessionId)
+	public boolean characterMissing(SessionKey session)
 	{
-		return !characters.containsKey(sessionId);
+		lookups.increment();
+		return characters.get(session) == null;
+	}
+
+	/**
+	 * Get the number of lookups of the character map since startup. The difference across a request
+	 * is the number of lookups it took.
+	 *
+	 * @return The lookup count
+	 */
+	public long getLookupCount()
+	{
+		return lookups.sum();
+	}
+
+	/**
+	 * Fold old changes of every character into their event log snapshots.
+	 *
+	 * @param theCutoff Changes with an earlier timestamp are compacted, in epoch milliseconds
+	 * @return The number of changes compacted
+	 */
+	public int compactEvents(long theCutoff)
+	{
+		int[] compacted = new int[1];
+		characters.forEachValue(character -> compacted[0] += character.compactEvents(theCutoff));
+		parties.forEachValue(party -> party.forEach(character -> compacted[0] += character.compactEvents(theCutoff)));
+		return compacted[0];
+	}
+
+	/**
+	 * Drop everything stored for the sessions that have not been used since a cutoff. Each session is
+	 * dropped on its own actor, after the operations already queued for it, and is kept if one of them
+	 * used it. A session used again later starts afresh.
+	 *
+	 * @param theCutoff Sessions last used earlier than this are dropped, in epoch milliseconds
+	 * @return The number of sessions dropped
+	 */
+	public int evictIdle(long theCutoff)
+	{
+		List<SessionKey> idle = new ArrayList<>();
+		activity.forEachValue(entry ->
+		{
+			if (entry.mLastUsed < theCutoff)
+			{
+				idle.add(entry.mSession);
+			}
+		});
+		// every session is asked before waiting on any, so they are dropped in parallel
+		List<CompletableFuture<Boolean>> evictions = new ArrayList<>(idle.size());
+		for (SessionKey session : idle)
+		{
+			evictions.add(CharacterActors.getInstance().submit(session, () -> evict(session, theCutoff)));
+		}
+		int evicted = 0;
+		for (CompletableFuture<Boolean> eviction : evictions)
+		{
+			if (eviction.join())
+			{
+				evicted++;
+			}
+		}
+		return evicted;
+	}
+
+	/**
+	 * Get the number of sessions with anything stored.
+	 *
+	 * @return The number of sessions
+	 */
+	public int getSessionCount()
+	{
+		return activity.size();
+	}
+
+	/**
+	 * Record that a session is in use. Run it on the session's actor.
+	 *
+	 * @param session The session key
+	 */
+	private void touch(SessionKey session)
+	{
+		Activity entry = activity.get(session);
+		if (entry == null)
+		{
+			entry = activity.computeIfAbsent(session, () -> new Activity(session));
+		}
+		entry.mLastUsed = System.currentTimeMillis();
+	}
+
+	/**
+	 * Drop everything stored for a session if it is still idle. Run it on the session's actor.
+	 *
+	 * @param session   The session key
+	 * @param theCutoff The session is dropped if it was last used earlier than this
+	 * @return True if the session was dropped
+	 */
+	private boolean evict(SessionKey session, long theCutoff)
+	{
+		Activity entry = activity.get(session);
+		if (entry == null || entry.mLastUsed >= theCutoff)
+		{
+			return false;
+		}
+		activity.remove(session);
+		// give back the undo history memory, as storeCharacter does for a replaced character
+		SWNChar character = characters.remove(session);
+		if (character != null)
+		{
+			character.releaseHistory();
+		}
+		Party party = parties.remove(session);
+		if (party != null)
+		{
+			party.forEach(SWNChar::releaseHistory);
+		}
+		shareGenerations.remove(session);
+		return true;
+	}
+
+	/**
+	 * When a session was last used.
+	 */
+	private static final class Activity
+	{
+		private final SessionKey mSession;
+		// written on the session's actor, read by evictIdle from any thread
+		private volatile long mLastUsed;
+
+		/**
+		 * Create the record of a session.
+		 *
+		 * @param theSession The session key
+		 */
+		Activity(SessionKey theSession)
+		{
+			this.mSession = theSession;
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,144 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Packs a character into the small binary payload of a stateless mode token, and back.
+ * <p>
+ * The layout, all big-endian:
+ * <pre>
+ * format version      1 byte
+ * attribute values    6 bytes, in AttributeEnum order
+ * changed attribute   1 byte, AttributeEnum ordinal
+ * original value      1 byte
+ * rules version       4 bytes
+ * ruleset id          1 byte length, then UTF-8
+ * name                1 byte length, then UTF-8
+ * </pre>
+ * A default character packs to 30 bytes. Attribute values fit a byte because SWNRules rejects tables
+ * past 255. The undo history is not packed, so an unpacked character starts with none.
+ * <p>
+ * The payload is not protected here; SessionTokens signs it before it leaves the server.
+ */
+public final class CharacterToken
+{
+	/**
+	 * Longest name that can be packed, in UTF-8 bytes.
+	 */
+	public static final int MAX_NAME_BYTES = 255;
+
+	private static final byte FORMAT_VERSION = 1;
+	private static final int MAX_RULESET_ID_BYTES = 255;
+	private static final AttributeEnum[] ATTRIBUTES = AttributeEnum.values();
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 */
+	private CharacterToken()
+	{
+	}
+
+	/**
+	 * Pack a character.
+	 *
+	 * @param theCharacter The character
+	 * @return The payload
+	 * @throws IllegalArgumentException if the name is longer than MAX_NAME_BYTES
+	 */
+	public static byte[] pack(SWNChar theCharacter)
+	{
+		SWNCharData data = theCharacter.getData();
+		byte[] rulesetId = data.mRulesetId.getBytes(StandardCharsets.UTF_8);
+		byte[] name = data.mName.getBytes(StandardCharsets.UTF_8);
+		if (name.length > MAX_NAME_BYTES)
+		{
+			throw new IllegalArgumentException("Name is longer than " + MAX_NAME_BYTES + " bytes");
+		}
+		if (rulesetId.length > MAX_RULESET_ID_BYTES)
+		{
+			throw new IllegalArgumentException("Ruleset id is too long: " + data.mRulesetId);
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(9 + AttributeEnum.COUNT + rulesetId.length + name.length);
+		buffer.put(FORMAT_VERSION);
+		for (int value : data.mAttributes)
+		{
+			buffer.put((byte) value);
+		}
+		buffer.put((byte) data.mChangedAttribute.ordinal());
+		buffer.put((byte) data.mChangedAttributeOriginalValue);
+		buffer.putInt(theCharacter.getRulesVersion());
+		buffer.put((byte) rulesetId.length).put(rulesetId);
+		buffer.put((byte) name.length).put(name);
+		return buffer.array();
+	}
+
+	/**
+	 * Unpack a character.
+	 *
+	 * @param thePayload The payload
+	 * @return The character, with no undo history
+	 * @throws IllegalArgumentException if the payload is malformed or names an unknown ruleset
+	 */
+	public static SWNChar unpack(byte[] thePayload)
+	{
+		try
+		{
+			ByteBuffer buffer = ByteBuffer.wrap(thePayload);
+			if (buffer.get() != FORMAT_VERSION)
+			{
+				throw new IllegalArgumentException("Unknown character token format");
+			}
+			SWNCharData data = new SWNCharData();
+			for (int index = 0; index < AttributeEnum.COUNT; index++)
+			{
+				data.mAttributes[index] = Byte.toUnsignedInt(buffer.get());
+			}
+			int changed = Byte.toUnsignedInt(buffer.get());
+			if (changed >= ATTRIBUTES.length)
+			{
+				throw new IllegalArgumentException("Invalid changed attribute in character token");
+			}
+			data.mChangedAttribute = ATTRIBUTES[changed];
+			data.mChangedAttributeOriginalValue = Byte.toUnsignedInt(buffer.get());
+			int rulesVersion = buffer.getInt();
+			data.mRulesetId = readString(buffer, Byte.toUnsignedInt(buffer.get()));
+			data.mName = readString(buffer, Byte.toUnsignedInt(buffer.get()));
+			if (buffer.hasRemaining())
+			{
+				throw new IllegalArgumentException("Character token is too long");
+			}
+			return SWNChar.fromData(data, rulesVersion);
+		}
+		catch (BufferUnderflowException e)
+		{
+			throw new IllegalArgumentException("Character token is too short");
+		}
+	}
+
+	/**
+	 * Read a UTF-8 string.
+	 *
+	 * @param theBuffer The buffer, at the start of the string
+	 * @param theLength The length in bytes
+	 * @return The string
+	 */
+	private static String readString(ByteBuffer theBuffer, int theLength)
+	{
+		byte[] bytes = new byte[theLength];
+		theBuffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
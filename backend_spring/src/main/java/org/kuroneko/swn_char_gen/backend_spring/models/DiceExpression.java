@@ -0,0 +1,233 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable dice expression used to roll an attribute.
+ * <p>
+ * Supports "NdS" (roll N dice with S sides and add them) and "NdSkhK" (roll N dice and add the highest K),
+ * which covers the standard 3d6 as well as common house rules such as 4d6 drop lowest.
+ */
+public final class DiceExpression
+{
+	// limits keep the exact distributions and per-roll work small
+	private static final int MAX_DICE = 10;
+	private static final int MAX_SIDES = 100;
+	private static final Pattern EXPRESSION = Pattern.compile("(\\d+)d(\\d+)(?:kh(\\d+))?");
+
+	private final int mCount;
+	private final int mSides;
+	private final int mKeep;
+
+	/**
+	 * Private constructor - use parse.
+	 *
+	 * @param theCount The number of dice rolled
+	 * @param theSides The number of sides on each die
+	 * @param theKeep  The number of highest dice kept
+	 */
+	private DiceExpression(int theCount, int theSides, int theKeep)
+	{
+		this.mCount = theCount;
+		this.mSides = theSides;
+		this.mKeep = theKeep;
+	}
+
+	/**
+	 * Parse a dice expression such as "3d6" or "4d6kh3".
+	 *
+	 * @param theExpression The expression to parse
+	 * @return The parsed expression
+	 * @throws IllegalArgumentException if the expression is invalid
+	 */
+	public static DiceExpression parse(String theExpression)
+	{
+		Matcher matcher = EXPRESSION.matcher(theExpression == null ? "" : theExpression.trim().toLowerCase());
+		if (!matcher.matches())
+		{
+			throw new IllegalArgumentException("Invalid dice expression: " + theExpression);
+		}
+
+		int count = Integer.parseInt(matcher.group(1));
+		int sides = Integer.parseInt(matcher.group(2));
+		int keep = (matcher.group(3) == null) ? count : Integer.parseInt(matcher.group(3));
+		if (count < 1 || count > MAX_DICE || sides < 2 || sides > MAX_SIDES || keep < 1 || keep > count)
+		{
+			throw new IllegalArgumentException("Invalid dice expression: " + theExpression);
+		}
+		return new DiceExpression(count, sides, keep);
+	}
+
+	/**
+	 * Get the number of dice rolled.
+	 *
+	 * @return The number of dice
+	 */
+	public int getCount()
+	{
+		return mCount;
+	}
+
+	/**
+	 * Get the number of sides on each die.
+	 *
+	 * @return The number of sides
+	 */
+	public int getSides()
+	{
+		return mSides;
+	}
+
+	/**
+	 * Get the number of highest dice kept.
+	 *
+	 * @return The number of dice kept
+	 */
+	public int getKeep()
+	{
+		return mKeep;
+	}
+
+	/**
+	 * Get the lowest possible result.
+	 *
+	 * @return The lowest result
+	 */
+	public int getMinimum()
+	{
+		return mKeep;
+	}
+
+	/**
+	 * Get the highest possible result.
+	 *
+	 * @return The highest result
+	 */
+	public int getMaximum()
+	{
+		return mKeep * mSides;
+	}
+
+	/**
+	 * Roll the dice.
+	 *
+	 * @param theRandom The random number source
+	 * @return The result of the roll
+	 */
+	public int roll(RandomGenerator theRandom)
+	{
+		return roll(theRandom, (mKeep == mCount) ? null : new int[mCount]);
+	}
+
+	/**
+	 * Roll the dice using a caller-supplied array for keep-highest rolls, so hot loops do not allocate.
+	 *
+	 * @param theRandom  The random number source
+	 * @param theScratch An array of at least getCount() entries, unused if every die is kept
+	 * @return The result of the roll
+	 */
+	public int roll(RandomGenerator theRandom, int[] theScratch)
+	{
+		if (mKeep == mCount)
+		{
+			int total = 0;
+			for (int die = 0; die < mCount; die++)
+			{
+				total += theRandom.nextInt(1, mSides + 1);
+			}
+			return total;
+		}
+
+		for (int die = 0; die < mCount; die++)
+		{
+			theScratch[die] = theRandom.nextInt(1, mSides + 1);
+		}
+		Arrays.sort(theScratch, 0, mCount);
+		int total = 0;
+		for (int die = mCount - mKeep; die < mCount; die++)
+		{
+			total += theScratch[die];
+		}
+		return total;
+	}
+
+	/**
+	 * Calculate the exact probability of every result.
+	 * <p>
+	 * Faces are assigned from highest to lowest, so the first dice assigned are the ones kept. That
+	 * turns keep-highest into a small dynamic program over (dice assigned, kept total) instead of
+	 * enumerating every roll. The work is done on each call, so callers should keep the result.
+	 *
+	 * @return The probability of each result, indexed by result from 0 to getMaximum()
+	 */
+	public double[] calculateDistribution()
+	{
+		// binomial coefficients for choosing which of the remaining dice show a face
+		double[][] choose = new double[mCount + 1][mCount + 1];
+		for (int n = 0; n <= mCount; n++)
+		{
+			choose[n][0] = 1;
+			for (int k = 1; k <= n; k++)
+			{
+				choose[n][k] = choose[n - 1][k - 1] + ((k < n) ? choose[n - 1][k] : 0);
+			}
+		}
+
+		int maximum = getMaximum();
+		// ways[assigned][total] is the number of ordered rolls with that many dice assigned and that kept total
+		double[][] ways = new double[mCount + 1][maximum + 1];
+		ways[0][0] = 1;
+		for (int face = mSides; face >= 1; face--)
+		{
+			double[][] next = new double[mCount + 1][maximum + 1];
+			for (int assigned = 0; assigned <= mCount; assigned++)
+			{
+				int keptBefore = Math.min(assigned, mKeep);
+				for (int total = 0; total <= maximum; total++)
+				{
+					if (ways[assigned][total] == 0)
+					{
+						continue;
+					}
+					for (int showing = 0; assigned + showing <= mCount; showing++)
+					{
+						int kept = Math.min(assigned + showing, mKeep) - keptBefore;
+						next[assigned + showing][total + face * kept] += ways[assigned][total] * choose[mCount - assigned][showing];
+					}
+				}
+			}
+			ways = next;
+		}
+
+		double outcomes = Math.pow(mSides, mCount);
+		double[] distribution = new double[maximum + 1];
+		for (int total = 0; total <= maximum; total++)
+		{
+			distribution[total] = ways[mCount][total] / outcomes;
+		}
+		return distribution;
+	}
+
+	/**
+	 * Get the expression in its canonical text form.
+	 *
+	 * @return The expression text
+	 */
+	@Override
+	public String toString()
+	{
+		return (mKeep == mCount) ? (mCount + "d" + mSides) : (mCount + "d" + mSides + "kh" + mKeep);
+	}
+}
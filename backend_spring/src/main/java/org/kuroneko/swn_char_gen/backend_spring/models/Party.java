@@ -0,0 +1,186 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * The characters of one session, addressed by id, for GMs running a party.
+ * <p>
+ * The characters sit in a compact array of slots, and an id packs a slot index with the slot's
+ * generation: the low SLOT_BITS bits are the slot, the bits above count how many times the slot has
+ * been freed. Finding a character is one array read and one comparison, and a freed slot is reused
+ * by the next new character without an old id ever reaching it, since freeing bumps the generation.
+ * Ids start at 1, so 0 is never an id.
+ * <p>
+ * Changes are made one at a time as messages to the session's actor, see CharacterStore.mutateParty.
+ * The slot array is volatile so the event log compactor can walk it from its own thread.
+ */
+public class Party
+{
+	// bits of an id holding the slot index
+	private static final int SLOT_BITS = 10;
+	private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+	// generations wrap within what fits above the slot bits, leaving room for the 1 added to every id
+	private static final int GENERATION_MASK = (1 << (30 - SLOT_BITS)) - 1;
+
+	/**
+	 * Most characters a party can hold.
+	 */
+	public static final int MAX_CHARACTERS = 1 << SLOT_BITS;
+
+	private volatile SWNChar[] mSlots = new SWNChar[8];
+	private int[] mGenerations = new int[8];
+	private int mCount;
+
+	/**
+	 * Add a character to the first free slot.
+	 *
+	 * @param theCharacter The character
+	 * @return The character's id
+	 * @throws IllegalArgumentException if the party is full
+	 */
+	public int add(SWNChar theCharacter)
+	{
+		SWNChar[] slots = mSlots;
+		int slot = 0;
+		while (slot < slots.length && slots[slot] != null)
+		{
+			slot++;
+		}
+		if (slot == slots.length)
+		{
+			if (slots.length == MAX_CHARACTERS)
+			{
+				throw new IllegalArgumentException("A party can hold at most " + MAX_CHARACTERS + " characters");
+			}
+			mGenerations = Arrays.copyOf(mGenerations, slots.length * 2);
+			slots = Arrays.copyOf(slots, slots.length * 2);
+		}
+		slots[slot] = theCharacter;
+		mSlots = slots;
+		mCount++;
+		return toId(slot);
+	}
+
+	/**
+	 * Get a character by id.
+	 *
+	 * @param theId The character's id
+	 * @return The character, or null if there is none with the id
+	 */
+	public SWNChar get(int theId)
+	{
+		int slot = slotOf(theId);
+		return slot < 0 ? null : mSlots[slot];
+	}
+
+	/**
+	 * Remove a character by id. Its slot is reused, but the id is not.
+	 *
+	 * @param theId The character's id
+	 * @return The removed character, or null if there is none with the id
+	 */
+	public SWNChar remove(int theId)
+	{
+		int slot = slotOf(theId);
+		if (slot < 0)
+		{
+			return null;
+		}
+		SWNChar removed = mSlots[slot];
+		mSlots[slot] = null;
+		mGenerations[slot] = (mGenerations[slot] + 1) & GENERATION_MASK;
+		mCount--;
+		return removed;
+	}
+
+	/**
+	 * Get the number of characters.
+	 *
+	 * @return The number of characters
+	 */
+	public int size()
+	{
+		return mCount;
+	}
+
+	/**
+	 * Get the ids of a page of characters, in slot order.
+	 *
+	 * @param theAfterId The last id of the previous page, or 0 for the first page. It need not still be
+	 *                   in use.
+	 * @param theLimit   The most ids to return
+	 * @return The ids
+	 */
+	public int[] page(int theAfterId, int theLimit)
+	{
+		SWNChar[] slots = mSlots;
+		int[] ids = new int[Math.min(theLimit, mCount)];
+		int found = 0;
+		for (int slot = theAfterId < 1 ? 0 : ((theAfterId - 1) & SLOT_MASK) + 1; slot < slots.length && found < ids.length; slot++)
+		{
+			if (slots[slot] != null)
+			{
+				ids[found++] = toId(slot);
+			}
+		}
+		return found == ids.length ? ids : Arrays.copyOf(ids, found);
+	}
+
+	/**
+	 * Call an action with every character.
+	 *
+	 * @param theAction The action
+	 */
+	public void forEach(Consumer<? super SWNChar> theAction)
+	{
+		for (SWNChar character : mSlots)
+		{
+			if (character != null)
+			{
+				theAction.accept(character);
+			}
+		}
+	}
+
+	/**
+	 * Get the id of the character in a slot.
+	 *
+	 * @param theSlot The slot
+	 * @return The id
+	 */
+	private int toId(int theSlot)
+	{
+		return (mGenerations[theSlot] << SLOT_BITS | theSlot) + 1;
+	}
+
+	/**
+	 * Get the slot an id refers to, if it still does.
+	 *
+	 * @param theId The id
+	 * @return The slot, or -1 if the id is not in use
+	 */
+	private int slotOf(int theId)
+	{
+		if (theId < 1)
+		{
+			return -1;
+		}
+		int slot = (theId - 1) & SLOT_MASK;
+		SWNChar[] slots = mSlots;
+		if (slot >= slots.length || slots[slot] == null || toId(slot) != theId)
+		{
+			return -1;
+		}
+		return slot;
+	}
+}
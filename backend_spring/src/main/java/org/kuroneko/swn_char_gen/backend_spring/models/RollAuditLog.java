@@ -0,0 +1,578 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only, tamper-evident audit log of attribute rolls, for organized play.
+ * <p>
+ * Every roll is written as a fixed 64 byte record to a rolling set of memory-mapped files named
+ * rolls-NNNNNN.audit. Request threads only copy the roll into a slot of a lock-free ring buffer, so
+ * recording costs nanoseconds; a single drainer thread numbers the records, chains them with an
+ * HMAC-SHA256 of the previous record's hash, and copies them into the mapped file. Changing, removing,
+ * or reordering any record breaks the chain from that point on, which RollAuditReader.verify reports.
+ * The HMAC is keyed with a secret kept away from the audit files, so someone who can write the files
+ * but does not have the secret cannot recompute the chain after an edit.
+ * <p>
+ * Record layout, big-endian:
+ * <pre>
+ *  0  long  sequence number, starting at 1 - 0 marks unused space at the end of a file
+ *  8  long  timestamp, epoch milliseconds
+ * 16  long  session id, high bits of the UUID
+ * 24  long  session id, low bits of the UUID
+ * 32  byte  rolled values in AttributeEnum order, 6 bytes
+ * 38  byte  roll type, TYPE_ROLL or TYPE_CONSTRAINED_ROLL
+ * 39  byte  reserved, 0
+ * 40  int   number of rolls it took, 1 for a plain roll
+ * 44  int   rules version
+ * 48  long  ruleset id hash, see rulesetHash
+ * 56  long  chain hash - first 8 bytes of HMAC-SHA256(secret, previous chain hash, bytes 0 to 55)
+ * </pre>
+ */
+public final class RollAuditLog
+{
+	/**
+	 * Size of one record in bytes.
+	 */
+	public static final int RECORD_BYTES = 64;
+
+	/**
+	 * Bytes of a record covered by its chain hash.
+	 */
+	public static final int HASHED_BYTES = 56;
+
+	/**
+	 * Default number of records in each file, 64 MB files.
+	 */
+	public static final int DEFAULT_RECORDS_PER_FILE = 1 << 20;
+
+	/**
+	 * Fewest bytes allowed in the chain secret.
+	 */
+	public static final int MIN_SECRET_BYTES = 32;
+
+	/**
+	 * Record type of a plain roll.
+	 */
+	public static final byte TYPE_ROLL = 1;
+
+	/**
+	 * Record type of a roll repeated until it met constraints.
+	 */
+	public static final byte TYPE_CONSTRAINED_ROLL = 2;
+
+	// audit files are rolls-NNNNNN.audit, so they sort in order
+	static final String FILE_PREFIX = "rolls-";
+	static final String FILE_SUFFIX = ".audit";
+
+	// slots in the ring buffer of the shared log, a power of two
+	private static final int DEFAULT_CAPACITY = 1 << 14;
+	// longs in one ring slot - timestamp, session high, session low, values and type, attempts and version, ruleset
+	private static final int SLOT_LONGS = 6;
+	// how long an idle drainer sleeps, and how often it forces written records to disk
+	private static final long IDLE_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+	private static final long FORCE_NANOS = TimeUnit.SECONDS.toNanos(1);
+	// set in mClaimed while the log takes no records, so no slot can be claimed after the drainer stops
+	private static final long CLOSED = 1L << 62;
+
+	private static final RollAuditLog instance = new RollAuditLog(DEFAULT_CAPACITY);
+
+	// ring buffer - slot i holds ring sequence s where i = s & mMask
+	private final int mMask;
+	private final long[] mSlots;
+	// ring sequence + 1 of the record published in each slot
+	private final AtomicLongArray mPublished;
+	// next ring sequence to claim, plus CLOSED while closed, and next ring sequence to drain
+	private final AtomicLong mClaimed = new AtomicLong(CLOSED);
+	private final AtomicLong mConsumed = new AtomicLong();
+	private volatile boolean mOpen;
+	private Thread mDrainer;
+	// guards open and close, which do file IO and join the drainer - a lock rather than synchronized
+	// so a virtual thread waiting here does not pin its carrier
+	private final ReentrantLock mLifecycleLock = new ReentrantLock();
+
+	// file state, only used by the drainer while open
+	private Path mDirectory;
+	private int mRecordsPerFile;
+	private int mFileIndex;
+	private FileChannel mChannel;
+	private MappedByteBuffer mBuffer;
+	private long mNextSequence;
+	private long mChainHash;
+	private Mac mMac;
+	private long mLastForce;
+
+	/**
+	 * Create a closed log.
+	 *
+	 * @param theCapacity Slots in the ring buffer, a power of two
+	 */
+	RollAuditLog(int theCapacity)
+	{
+		if (Integer.bitCount(theCapacity) != 1)
+		{
+			throw new IllegalArgumentException("Ring capacity must be a power of two: " + theCapacity);
+		}
+		this.mMask = theCapacity - 1;
+		this.mSlots = new long[theCapacity * SLOT_LONGS];
+		this.mPublished = new AtomicLongArray(theCapacity);
+	}
+
+	/**
+	 * Get the audit log shared by the application.
+	 *
+	 * @return The shared log, closed until opened
+	 */
+	public static RollAuditLog getInstance()
+	{
+		return instance;
+	}
+
+	/**
+	 * Start writing to a directory, continuing the sequence and hash chain of any files already there.
+	 *
+	 * @param theDirectory      The directory for the audit files, created if needed
+	 * @param theRecordsPerFile The number of records in each file
+	 * @param theSecret         The secret the chain is keyed with, at least MIN_SECRET_BYTES
+	 * @throws IOException if the directory or the last file cannot be read
+	 * @throws IllegalStateException if the log is already open
+	 */
+	public void open(Path theDirectory, int theRecordsPerFile, byte[] theSecret) throws IOException
+	{
+		mLifecycleLock.lock();
+		try
+		{
+			if (mOpen)
+			{
+				throw new IllegalStateException("Roll audit log is already open");
+			}
+			if (theRecordsPerFile < 1 || (long) theRecordsPerFile * RECORD_BYTES > Integer.MAX_VALUE)
+			{
+				throw new IllegalArgumentException("Invalid records per file: " + theRecordsPerFile);
+			}
+			Mac mac = newMac(theSecret);
+			Files.createDirectories(theDirectory);
+			mDirectory = theDirectory;
+			mRecordsPerFile = theRecordsPerFile;
+			mMac = mac;
+			recover();
+
+			mOpen = true;
+			mClaimed.getAndUpdate(claimed -> claimed & ~CLOSED);
+			mDrainer = new Thread(this::drain, "swn-roll-audit");
+			mDrainer.setDaemon(true);
+			mDrainer.start();
+		}
+		finally
+		{
+			mLifecycleLock.unlock();
+		}
+	}
+
+	/**
+	 * Stop recording, write every record already made, and close the files.
+	 * Rolls recorded while the log is closing are either written or refused.
+	 *
+	 * @throws InterruptedException if interrupted while waiting for the drainer
+	 */
+	public void close() throws InterruptedException
+	{
+		mLifecycleLock.lock();
+		try
+		{
+			if (!mOpen)
+			{
+				return;
+			}
+			stopClaims();
+			mDrainer.join();
+			mDrainer = null;
+		}
+		finally
+		{
+			mLifecycleLock.unlock();
+		}
+	}
+
+	/**
+	 * Stop taking records. Rolls already claimed are still written, since the drainer only stops once
+	 * it reaches the last claimed slot.
+	 */
+	private void stopClaims()
+	{
+		mOpen = false;
+		mClaimed.getAndUpdate(claimed -> claimed | CLOSED);
+	}
+
+	/**
+	 * Check if rolls are being recorded.
+	 *
+	 * @return True if the log is open
+	 */
+	public boolean isOpen()
+	{
+		return mOpen;
+	}
+
+	/**
+	 * Record a roll. Does nothing if the log is closed. Waits, without locking, only if the drainer
+	 * has fallen a full ring behind.
+	 *
+	 * @param theSessionId The session that rolled
+	 * @param theRoll      The roll event, holding the values and time
+	 * @param theRules     The rules the roll used
+	 * @param theType      TYPE_ROLL or TYPE_CONSTRAINED_ROLL
+	 * @param theAttempts  The number of rolls it took, 1 for a plain roll
+	 * @return True if the roll was recorded
+	 */
+	public boolean record(String theSessionId, CharacterEvent theRoll, SWNRules theRules, byte theType, int theAttempts)
+	{
+		return record(SessionKey.of(theSessionId), theRoll, theRules, theType, theAttempts);
+	}
+
+	/**
+	 * Record a roll. Does nothing if the log is closed. Waits, without locking, only if the drainer
+	 * has fallen a full ring behind, and gives up if the log closes or fails while waiting.
+	 *
+	 * @param theSession  The session that rolled
+	 * @param theRoll     The roll event, holding the values and time
+	 * @param theRules    The rules the roll used
+	 * @param theType     TYPE_ROLL or TYPE_CONSTRAINED_ROLL
+	 * @param theAttempts The number of rolls it took, 1 for a plain roll
+	 * @return True if the roll was recorded
+	 */
+	public boolean record(SessionKey theSession, CharacterEvent theRoll, SWNRules theRules, byte theType, int theAttempts)
+	{
+		if (!mOpen)
+		{
+			return false;
+		}
+
+		// claim a slot only once it is free, so a claimed slot is always published and drained
+		long sequence = mClaimed.get();
+		while (true)
+		{
+			if ((sequence & CLOSED) != 0)
+			{
+				return false;
+			}
+			if (sequence - mConsumed.get() > mMask)
+			{
+				// full - wait for the drainer to free this slot
+				Thread.onSpinWait();
+				sequence = mClaimed.get();
+			}
+			else if (mClaimed.compareAndSet(sequence, sequence + 1))
+			{
+				break;
+			}
+			else
+			{
+				sequence = mClaimed.get();
+			}
+		}
+		int slot = (int) (sequence & mMask);
+		int base = slot * SLOT_LONGS;
+		mSlots[base] = theRoll.getTimestamp();
+		mSlots[base + 1] = theSession.getHigh();
+		mSlots[base + 2] = theSession.getLow();
+		mSlots[base + 3] = theRoll.getPackedValues() | ((long) theType << 48);
+		mSlots[base + 4] = ((long) theAttempts << 32) | (theRules.getVersion() & 0xFFFFFFFFL);
+		mSlots[base + 5] = rulesetHash(theRules.getId());
+		// the release store orders the slot writes before the drainer sees them
+		mPublished.lazySet(slot, sequence + 1);
+		return true;
+	}
+
+	/**
+	 * Hash a ruleset id for the fixed size record, with 64 bit FNV-1a.
+	 *
+	 * @param theRulesetId The ruleset id
+	 * @return The hash
+	 */
+	public static long rulesetHash(String theRulesetId)
+	{
+		long hash = 0xcbf29ce484222325L;
+		for (byte value : theRulesetId.getBytes(StandardCharsets.UTF_8))
+		{
+			hash ^= value & 0xFF;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * Calculate the chain hash of a record.
+	 *
+	 * @param theMac      An HMAC-SHA256 keyed with the chain secret
+	 * @param thePrevious The chain hash of the previous record, 0 for the first
+	 * @param theBuffer   The buffer holding the record
+	 * @param theOffset   The offset of the record in the buffer
+	 * @return The chain hash
+	 */
+	static long chainHash(Mac theMac, long thePrevious, ByteBuffer theBuffer, int theOffset)
+	{
+		for (int shift = 56; shift >= 0; shift -= 8)
+		{
+			theMac.update((byte) (thePrevious >>> shift));
+		}
+		theMac.update(theBuffer.duplicate().position(theOffset).limit(theOffset + HASHED_BYTES));
+		// doFinal also resets the Mac for the next record
+		return ByteBuffer.wrap(theMac.doFinal()).getLong();
+	}
+
+	/**
+	 * Create an HMAC-SHA256 keyed with the chain secret.
+	 *
+	 * @param theSecret The secret
+	 * @return The Mac
+	 * @throws IllegalArgumentException if the secret is missing or shorter than MIN_SECRET_BYTES
+	 */
+	static Mac newMac(byte[] theSecret)
+	{
+		if (theSecret == null || theSecret.length < MIN_SECRET_BYTES)
+		{
+			throw new IllegalArgumentException("Roll audit secret must be at least " + MIN_SECRET_BYTES + " bytes");
+		}
+		try
+		{
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(theSecret, "HmacSHA256"));
+			return mac;
+		}
+		catch (GeneralSecurityException e)
+		{
+			throw new IllegalStateException("HmacSHA256 is not available", e);
+		}
+	}
+
+	/**
+	 * Decode a chain secret given as base64, as in swn.audit.secret.
+	 *
+	 * @param theSecret The secret as base64
+	 * @return The secret
+	 * @throws IllegalArgumentException if the secret is missing, not base64, or shorter than MIN_SECRET_BYTES
+	 */
+	public static byte[] decodeSecret(String theSecret)
+	{
+		if (theSecret == null || theSecret.isBlank())
+		{
+			throw new IllegalArgumentException("A roll audit secret is required");
+		}
+		byte[] secret = Base64.getDecoder().decode(theSecret.trim());
+		if (secret.length < MIN_SECRET_BYTES)
+		{
+			throw new IllegalArgumentException("Roll audit secret must be at least " + MIN_SECRET_BYTES + " bytes");
+		}
+		return secret;
+	}
+
+	/**
+	 * Get the audit files in a directory, in order.
+	 *
+	 * @param theDirectory The directory
+	 * @return The files, oldest first
+	 * @throws IOException if the directory cannot be read
+	 */
+	static List<Path> listFiles(Path theDirectory) throws IOException
+	{
+		try (var files = Files.list(theDirectory))
+		{
+			return files.filter(file -> file.getFileName().toString().startsWith(FILE_PREFIX))
+						.filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX))
+						.sorted()
+						.toList();
+		}
+	}
+
+	/**
+	 * Find where the existing files end, to continue their sequence and hash chain.
+	 *
+	 * @throws IOException if a file cannot be read
+	 */
+	private void recover() throws IOException
+	{
+		mNextSequence = 1;
+		mChainHash = 0;
+		mFileIndex = 0;
+		mChannel = null;
+		mBuffer = null;
+
+		List<Path> files = listFiles(mDirectory);
+		if (!files.isEmpty())
+		{
+			String last = files.get(files.size() - 1).getFileName().toString();
+			mFileIndex = Integer.parseInt(last.substring(FILE_PREFIX.length(), last.length() - FILE_SUFFIX.length()));
+		}
+		// the last record is in the newest file that has one
+		for (int index = files.size() - 1; index >= 0; index--)
+		{
+			try (FileChannel channel = FileChannel.open(files.get(index), StandardOpenOption.READ))
+			{
+				ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				int offset = 0;
+				while (offset + RECORD_BYTES <= buffer.limit() && buffer.getLong(offset) != 0)
+				{
+					offset += RECORD_BYTES;
+				}
+				if (offset > 0)
+				{
+					mNextSequence = buffer.getLong(offset - RECORD_BYTES) + 1;
+					mChainHash = buffer.getLong(offset - RECORD_BYTES + HASHED_BYTES);
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drainer loop - copy published records to the file until closed and empty.
+	 */
+	private void drain()
+	{
+		try
+		{
+			while (true)
+			{
+				long next = mConsumed.get();
+				int slot = (int) (next & mMask);
+				if (mPublished.get(slot) == next + 1)
+				{
+					write(slot * SLOT_LONGS);
+					mConsumed.lazySet(next + 1);
+				}
+				else if (mClaimed.get() == (next | CLOSED))
+				{
+					break;
+				}
+				else
+				{
+					if (mBuffer != null && System.nanoTime() - mLastForce > FORCE_NANOS)
+					{
+						mBuffer.force();
+						mLastForce = System.nanoTime();
+					}
+					LockSupport.parkNanos(IDLE_NANOS);
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			// producers waiting on the full ring, and any after them, give up rather than spin forever
+			stopClaims();
+			throw new IllegalStateException("Roll audit log failed writing to " + mDirectory, e);
+		}
+		finally
+		{
+			closeFile();
+		}
+	}
+
+	/**
+	 * Write one record from the ring, moving to the next file if this one is full.
+	 *
+	 * @param theBase Index of the slot's first long
+	 * @throws IOException if a new file cannot be created
+	 */
+	private void write(int theBase) throws IOException
+	{
+		if (mBuffer == null || !mBuffer.hasRemaining())
+		{
+			nextFile();
+		}
+		int start = mBuffer.position();
+		long values = mSlots[theBase + 3];
+		mBuffer.putLong(mNextSequence);
+		mBuffer.putLong(mSlots[theBase]);
+		mBuffer.putLong(mSlots[theBase + 1]);
+		mBuffer.putLong(mSlots[theBase + 2]);
+		for (int index = 0; index < AttributeEnum.COUNT; index++)
+		{
+			mBuffer.put((byte) (values >>> (index * 8)));
+		}
+		mBuffer.put((byte) (values >>> 48));
+		mBuffer.put((byte) 0);
+		mBuffer.putLong(mSlots[theBase + 4]);
+		mBuffer.putLong(mSlots[theBase + 5]);
+		mChainHash = chainHash(mMac, mChainHash, mBuffer, start);
+		mBuffer.putLong(mChainHash);
+		mNextSequence++;
+	}
+
+	/**
+	 * Continue in the last file if it has room, otherwise start a new one.
+	 *
+	 * @throws IOException if the file cannot be opened
+	 */
+	private void nextFile() throws IOException
+	{
+		boolean resume = (mBuffer == null);
+		closeFile();
+		if (!resume || mFileIndex == 0)
+		{
+			mFileIndex++;
+		}
+		Path file = mDirectory.resolve(String.format("%s%06d%s", FILE_PREFIX, mFileIndex, FILE_SUFFIX));
+		mChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		mBuffer = mChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) mRecordsPerFile * RECORD_BYTES);
+		// skip the records already in a file being continued
+		while (mBuffer.hasRemaining() && mBuffer.getLong(mBuffer.position()) != 0)
+		{
+			mBuffer.position(mBuffer.position() + RECORD_BYTES);
+		}
+		if (!mBuffer.hasRemaining())
+		{
+			nextFile();
+		}
+	}
+
+	/**
+	 * Force the current file to disk and close it.
+	 */
+	private void closeFile()
+	{
+		if (mBuffer != null)
+		{
+			mBuffer.force();
+			mBuffer = null;
+		}
+		if (mChannel != null)
+		{
+			try
+			{
+				mChannel.close();
+			}
+			catch (IOException e)
+			{
+				// the records are already forced to disk
+			}
+			mChannel = null;
+		}
+		mLastForce = System.nanoTime();
+	}
+}
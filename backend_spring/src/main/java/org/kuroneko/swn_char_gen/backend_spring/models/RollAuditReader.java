@@ -0,0 +1,118 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import javax.crypto.Mac;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Reads and verifies the files written by RollAuditLog.
+ */
+public final class RollAuditReader
+{
+	/**
+	 * Private constructor to prevent instantiation.
+	 */
+	private RollAuditReader()
+	{
+	}
+
+	/**
+	 * Read every record in a directory, oldest first, without checking them.
+	 *
+	 * @param theDirectory The audit directory
+	 * @param theConsumer  Called with each record
+	 * @return The number of records read
+	 * @throws IOException if a file cannot be read
+	 */
+	public static long forEach(Path theDirectory, Consumer<RollAuditRecord> theConsumer) throws IOException
+	{
+		long count = 0;
+		for (Path file : RollAuditLog.listFiles(theDirectory))
+		{
+			ByteBuffer buffer = map(file);
+			for (int offset = 0; hasRecord(buffer, offset); offset += RollAuditLog.RECORD_BYTES)
+			{
+				theConsumer.accept(new RollAuditRecord(buffer, offset));
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Check that the records in a directory are numbered without gaps and that every chain hash matches.
+	 *
+	 * @param theDirectory The audit directory
+	 * @param theSecret    The secret the log was written with
+	 * @return The number of records verified
+	 * @throws IOException if a file cannot be read
+	 * @throws IllegalStateException naming the first record that was changed, removed, or reordered
+	 */
+	public static long verify(Path theDirectory, byte[] theSecret) throws IOException
+	{
+		Mac mac = RollAuditLog.newMac(theSecret);
+		long expectedSequence = 1;
+		long chainHash = 0;
+		for (Path file : RollAuditLog.listFiles(theDirectory))
+		{
+			ByteBuffer buffer = map(file);
+			for (int offset = 0; hasRecord(buffer, offset); offset += RollAuditLog.RECORD_BYTES)
+			{
+				long sequence = buffer.getLong(offset);
+				if (sequence != expectedSequence)
+				{
+					throw new IllegalStateException(file.getFileName() + " at byte " + offset + ": expected record "
+													+ expectedSequence + " but found " + sequence);
+				}
+				chainHash = RollAuditLog.chainHash(mac, chainHash, buffer, offset);
+				if (chainHash != buffer.getLong(offset + RollAuditLog.HASHED_BYTES))
+				{
+					throw new IllegalStateException(file.getFileName() + " at byte " + offset + ": record "
+													+ sequence + " does not match its chain hash");
+				}
+				expectedSequence++;
+			}
+		}
+		return expectedSequence - 1;
+	}
+
+	/**
+	 * Check if a buffer holds a record at an offset.
+	 *
+	 * @param theBuffer The file contents
+	 * @param theOffset The offset
+	 * @return True if a record is there, false at the end or in unused space
+	 */
+	private static boolean hasRecord(ByteBuffer theBuffer, int theOffset)
+	{
+		return theOffset + RollAuditLog.RECORD_BYTES <= theBuffer.limit() && theBuffer.getLong(theOffset) != 0;
+	}
+
+	/**
+	 * Map a file for reading.
+	 *
+	 * @param theFile The file
+	 * @return The file contents
+	 * @throws IOException if the file cannot be read
+	 */
+	private static ByteBuffer map(Path theFile) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(theFile, StandardOpenOption.READ))
+		{
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * One decoded record of the roll audit log. See RollAuditLog for the layout.
+ */
+public final class RollAuditRecord
+{
+	private final long mSequence;
+	private final long mTimestamp;
+	private final UUID mSessionId;
+	private final int[] mValues;
+	private final byte mType;
+	private final int mAttempts;
+	private final int mRulesVersion;
+	private final long mRulesetHash;
+	private final long mChainHash;
+
+	/**
+	 * Decode a record.
+	 *
+	 * @param theBuffer The buffer holding the record
+	 * @param theOffset The offset of the record in the buffer
+	 */
+	RollAuditRecord(ByteBuffer theBuffer, int theOffset)
+	{
+		this.mSequence = theBuffer.getLong(theOffset);
+		this.mTimestamp = theBuffer.getLong(theOffset + 8);
+		this.mSessionId = new UUID(theBuffer.getLong(theOffset + 16), theBuffer.getLong(theOffset + 24));
+		this.mValues = new int[AttributeEnum.COUNT];
+		for (int index = 0; index < mValues.length; index++)
+		{
+			mValues[index] = theBuffer.get(theOffset + 32 + index) & 0xFF;
+		}
+		this.mType = theBuffer.get(theOffset + 38);
+		this.mAttempts = theBuffer.getInt(theOffset + 40);
+		this.mRulesVersion = theBuffer.getInt(theOffset + 44);
+		this.mRulesetHash = theBuffer.getLong(theOffset + 48);
+		this.mChainHash = theBuffer.getLong(theOffset + RollAuditLog.HASHED_BYTES);
+	}
+
+	/**
+	 * Get the sequence number, counting every roll ever logged from 1.
+	 *
+	 * @return The sequence number
+	 */
+	public long getSequence()
+	{
+		return mSequence;
+	}
+
+	/**
+	 * Get the time of the roll.
+	 *
+	 * @return The time in epoch milliseconds
+	 */
+	public long getTimestamp()
+	{
+		return mTimestamp;
+	}
+
+	/**
+	 * Get the session that rolled.
+	 *
+	 * @return The session id
+	 */
+	public UUID getSessionId()
+	{
+		return mSessionId;
+	}
+
+	/**
+	 * Get the rolled values.
+	 *
+	 * @return The values indexed by AttributeEnum ordinal
+	 */
+	public int[] getValues()
+	{
+		return mValues.clone();
+	}
+
+	/**
+	 * Get the roll type.
+	 *
+	 * @return RollAuditLog.TYPE_ROLL or RollAuditLog.TYPE_CONSTRAINED_ROLL
+	 */
+	public byte getType()
+	{
+		return mType;
+	}
+
+	/**
+	 * Get the number of rolls it took.
+	 *
+	 * @return The attempts, 1 for a plain roll
+	 */
+	public int getAttempts()
+	{
+		return mAttempts;
+	}
+
+	/**
+	 * Get the version of the rules used.
+	 *
+	 * @return The rules version
+	 */
+	public int getRulesVersion()
+	{
+		return mRulesVersion;
+	}
+
+	/**
+	 * Get the hash of the ruleset id used.
+	 *
+	 * @return The hash, see RollAuditLog.rulesetHash
+	 */
+	public long getRulesetHash()
+	{
+		return mRulesetHash;
+	}
+
+	/**
+	 * Get the chain hash stored in the record.
+	 *
+	 * @return The chain hash
+	 */
+	public long getChainHash()
+	{
+		return mChainHash;
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Singleton registry of the compiled rulesets served by this process.
+ * <p>
+ * Each ruleset (edition or house rule) is compiled once into an immutable SWNRules snapshot. The
+ * id to ruleset map is itself immutable and published through a single volatile reference, so a
+ * lookup is one hash map read with no locking. Publishing a ruleset copies the map and swaps it in.
+ */
+public class RulesetRegistry
+{
+	// rulesets shipped on the classpath under /rulesets
+	private static final String[] BUILT_IN_RULESETS = {SWNRules.DEFAULT_RULESET_ID, "swn_heroic"};
+
+	// created eagerly so lookups never synchronize
+	private static final RulesetRegistry instance = new RulesetRegistry();
+
+	// current id to ruleset map - replaced as a whole, never modified
+	private volatile Map<String, SWNRules> rulesets;
+
+	/**
+	 * Private constructor to prevent direct instantiation.
+	 */
+	private RulesetRegistry()
+	{
+		reset();
+	}
+
+	/**
+	 * Get the singleton instance of RulesetRegistry.
+	 *
+	 * @return The singleton instance
+	 */
+	public static RulesetRegistry getInstance()
+	{
+		return instance;
+	}
+
+	/**
+	 * Get a ruleset by id.
+	 *
+	 * @param theId The ruleset id, or null for the standard SWN rules
+	 * @return The current snapshot of the ruleset
+	 * @throws IllegalArgumentException if the ruleset is unknown
+	 */
+	public SWNRules getRuleset(String theId)
+	{
+		SWNRules rules = rulesets.get(theId == null ? SWNRules.DEFAULT_RULESET_ID : theId);
+		if (rules == null)
+		{
+			throw new IllegalArgumentException("Unknown ruleset: " + theId);
+		}
+		return rules;
+	}
+
+	/**
+	 * Get the standard SWN ruleset.
+	 *
+	 * @return The current snapshot of the standard ruleset
+	 */
+	public SWNRules getDefaultRuleset()
+	{
+		return getRuleset(SWNRules.DEFAULT_RULESET_ID);
+	}
+
+	/**
+	 * Check if a ruleset is registered.
+	 *
+	 * @param theId The ruleset id, or null for the standard SWN rules, as getRuleset takes it
+	 * @return True if the ruleset exists, false otherwise
+	 */
+	public boolean hasRuleset(String theId)
+	{
+		return rulesets.containsKey(theId == null ? SWNRules.DEFAULT_RULESET_ID : theId);
+	}
+
+	/**
+	 * Get all registered rulesets ordered by id.
+	 *
+	 * @return The current ruleset snapshots
+	 */
+	public List<SWNRules> getRulesets()
+	{
+		List<SWNRules> result = new ArrayList<>(rulesets.values());
+		result.sort(Comparator.comparing(SWNRules::getId));
+		return result;
+	}
+
+	/**
+	 * Publish a ruleset, adding it or replacing an older version with the same id.
+	 * Characters using the ruleset pick up the new values the next time they are accessed.
+	 *
+	 * @param theRules The rules to publish
+	 * @return True if the rules were published, false if the registered version is the same or newer
+	 */
+	public synchronized boolean publish(SWNRules theRules)
+	{
+		if (theRules == null)
+		{
+			throw new IllegalArgumentException("Rules cannot be null");
+		}
+
+		SWNRules existing = rulesets.get(theRules.getId());
+		if (existing != null && existing.getVersion() >= theRules.getVersion())
+		{
+			return false;
+		}
+
+		Map<String, SWNRules> updated = new HashMap<>(rulesets);
+		updated.put(theRules.getId(), theRules);
+		rulesets = Map.copyOf(updated);
+		return true;
+	}
+
+	/**
+	 * Drop any published rulesets and go back to the ones shipped on the classpath.
+	 */
+	public synchronized void reset()
+	{
+		Map<String, SWNRules> builtIn = new HashMap<>();
+		for (String id : BUILT_IN_RULESETS)
+		{
+			builtIn.put(id, SWNRules.loadBuiltIn(id));
+		}
+		rulesets = Map.copyOf(builtIn);
+	}
+}
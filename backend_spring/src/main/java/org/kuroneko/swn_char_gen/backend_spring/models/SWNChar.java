@@ -16,26 +16,88 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 /**
  * Model class for SWN characters.
+ * <p>
+ * The character is held as an immutable CharacterState. Every change builds a new state and publishes
+ * it with a compare-and-set, retrying if another request changed the character first, so concurrent
+ * requests for the same session never lose a change, and readers never lock or see a half-applied one.
  */
 public class SWNChar
 {
-	// instance variable for data
-	// this is an echo of the Python dataclass swn_char_data - see SWNCharData for details
-	private final SWNCharData mData;
-	// instance variable for system defaults
-	private final SWNSystem mSystem;
+	// most rolls a constrained roll will try, about a millisecond of work
+	private static final int MAX_CONSTRAINED_ROLLS = 10_000;
+	// constrained rolls must expect at least this many matches within the limit
+	private static final double MIN_EXPECTED_MATCHES = 10;
+	// source of serial numbers, never reused while the process runs
+	private static final AtomicLong serials = new AtomicLong();
+
+	// the current state - data, system, rules version, and event log
+	private final AtomicReference<CharacterState> mState;
+	// tells this character apart from every other, even one stored later under the same session and id
+	private final long mSerial;
 
 	/**
 	 * Create a new SWNChar with default values.
 	 */
 	public SWNChar()
 	{
-		this.mData = new SWNCharData();
-		this.mSystem = new SWNSystem();
+		this(new SWNSystem());
+	}
+
+	/**
+	 * Create a new SWNChar with default values using the given system.
+	 *
+	 * @param theSystem The system for the character's ruleset
+	 */
+	private SWNChar(SWNSystem theSystem)
+	{
+		this(CharacterState.initial(theSystem));
+	}
+
+	/**
+	 * Create a SWNChar with a given state.
+	 *
+	 * @param theState The state
+	 */
+	private SWNChar(CharacterState theState)
+	{
+		this.mState = new AtomicReference<>(theState);
+		this.mSerial = serials.incrementAndGet();
+	}
+
+	/**
+	 * Create a SWNChar from unpacked data, with no history to undo.
+	 *
+	 * @param theData         The data, which must not be changed afterwards
+	 * @param theRulesVersion The version of the rules the changed attribute was set with
+	 * @return The character
+	 * @throws IllegalArgumentException if the ruleset is unknown or a value is outside its table
+	 */
+	static SWNChar fromData(SWNCharData theData, int theRulesVersion)
+	{
+		SWNSystem system = new SWNSystem(theData.mRulesetId);
+		checkValues(theData, system.getRules());
+		return new SWNChar(new CharacterState(theData, system, theRulesVersion, new CharacterEventLog(theData)));
+	}
+
+	/**
+	 * Create a new SWNChar with default values using a specific ruleset.
+	 *
+	 * @param theRulesetId The ruleset id, or null for the standard SWN rules
+	 * @return The new character
+	 * @throws IllegalArgumentException if the ruleset is unknown
+	 */
+	public static SWNChar forRuleset(String theRulesetId)
+	{
+		return new SWNChar(new SWNSystem(theRulesetId));
 	}
 
 	/**
@@ -45,8 +107,7 @@ public class SWNChar
 	 */
 	public SWNChar(Map<String, Object> theCharData) throws IOException
 	{
-		this.mData = new SWNCharData();
-		this.mSystem = new SWNSystem();
+		this(new SWNSystem());
 
 		if (theCharData != null)
 		{
@@ -65,7 +126,8 @@ public class SWNChar
 	{
 		if (DetailEnum.NAME == theDetail)
 		{
-			mData.mName = theValue;
+			CharacterEvent event = CharacterEvent.setDetail(theDetail, theValue);
+			update(state -> state.record(event, state.mSystem, state.mRulesVersion));
 		}
 		else
 		{
@@ -74,89 +136,377 @@ public class SWNChar
 	}
 
 	/**
-	 * Roll random values for all attributes and update their modifiers.
+	 * Roll random values for all attributes. The modifiers follow from the values.
 	 */
 	public void rollAttributes()
 	{
-		// Roll 3d6 for each attribute
-		mData.mStrength = mSystem.calculateAttribute();
-		mData.mDexterity = mSystem.calculateAttribute();
-		mData.mConstitution = mSystem.calculateAttribute();
-		mData.mIntelligence = mSystem.calculateAttribute();
-		mData.mWisdom = mSystem.calculateAttribute();
-		mData.mCharisma = mSystem.calculateAttribute();
-
-		// Update modifiers based on attribute values
-		mData.mStrengthModifier = mSystem.calculateModifier(mData.mStrength);
-		mData.mDexterityModifier = mSystem.calculateModifier(mData.mDexterity);
-		mData.mConstitutionModifier = mSystem.calculateModifier(mData.mConstitution);
-		mData.mIntelligenceModifier = mSystem.calculateModifier(mData.mIntelligence);
-		mData.mWisdomModifier = mSystem.calculateModifier(mData.mWisdom);
-		mData.mCharismaModifier = mSystem.calculateModifier(mData.mCharisma);
-	}
-
-	/**
-	 * Set an attribute to a specific value and update its modifier.
-	 *
-	 * @param theAttribute The attribute to set
-	 * @param theValue     The value to set
-	 * @return The old value of the attribute
-	 */
-	private int setAttribute(AttributeEnum theAttribute, int theValue)
-	{
-		int oldValue = -1;
-
-		switch (theAttribute)
-		{
-			case STRENGTH:
-				oldValue = mData.mStrength;
-				mData.mStrength = theValue;
-				mData.mStrengthModifier = mSystem.calculateModifier(mData.mStrength);
-				break;
-			case DEXTERITY:
-				oldValue = mData.mDexterity;
-				mData.mDexterity = theValue;
-				mData.mDexterityModifier = mSystem.calculateModifier(mData.mDexterity);
-				break;
-			case CONSTITUTION:
-				oldValue = mData.mConstitution;
-				mData.mConstitution = theValue;
-				mData.mConstitutionModifier = mSystem.calculateModifier(mData.mConstitution);
-				break;
-			case INTELLIGENCE:
-				oldValue = mData.mIntelligence;
-				mData.mIntelligence = theValue;
-				mData.mIntelligenceModifier = mSystem.calculateModifier(mData.mIntelligence);
-				break;
-			case WISDOM:
-				oldValue = mData.mWisdom;
-				mData.mWisdom = theValue;
-				mData.mWisdomModifier = mSystem.calculateModifier(mData.mWisdom);
-				break;
-			case CHARISMA:
-				oldValue = mData.mCharisma;
-				mData.mCharisma = theValue;
-				mData.mCharismaModifier = mSystem.calculateModifier(mData.mCharisma);
-				break;
+		update(state ->
+		{
+			// Roll 3d6 for each attribute
+			int[] values = new int[AttributeEnum.COUNT];
+			for (int index = 0; index < values.length; index++)
+			{
+				values[index] = state.mSystem.calculateAttribute();
+			}
+			return state.record(CharacterEvent.rollAttributes(values), state.mSystem, state.mSystem.getRules().getVersion());
+		});
+	}
+
+	/**
+	 * Roll random values for all attributes until they meet the given constraints.
+	 * <p>
+	 * The exact joint odds of the ruleset are checked first, so constraints that can never or almost never
+	 * be met are rejected at once instead of spinning until the attempt limit. The rolls are made against
+	 * a snapshot before the change is published, so a retry after a concurrent change does not roll again.
+	 *
+	 * @param theMinModifierSum      The lowest acceptable total modifier, Integer.MIN_VALUE for no limit
+	 * @param theMinHighestAttribute The value at least one attribute must reach, 0 for no limit
+	 * @return The number of rolls it took
+	 * @throws IllegalArgumentException if the constraints are too unlikely to meet
+	 */
+	public int rollAttributes(int theMinModifierSum, int theMinHighestAttribute)
+	{
+		CharacterState rolledState = current();
+		SWNRules rules = rolledState.mSystem.getRules();
+		double probability = rules.getOdds().getConstrainedRollProbability(theMinModifierSum, theMinHighestAttribute);
+		if (probability * MAX_CONSTRAINED_ROLLS < MIN_EXPECTED_MATCHES)
+		{
+			throw new IllegalArgumentException("Constraints are too unlikely to roll, probability " + probability);
+		}
+
+		int[] values = new int[AttributeEnum.COUNT];
+		for (int attempt = 1; attempt <= MAX_CONSTRAINED_ROLLS; attempt++)
+		{
+			int modifierSum = 0;
+			int highest = 0;
+			for (int attribute = 0; attribute < values.length; attribute++)
+			{
+				values[attribute] = rules.rollAttribute(rolledState.mSystem.getRandom());
+				modifierSum += rules.calculateModifier(values[attribute]);
+				highest = Math.max(highest, values[attribute]);
+			}
+			if (modifierSum >= theMinModifierSum && highest >= theMinHighestAttribute)
+			{
+				CharacterEvent event = CharacterEvent.rollAttributes(values);
+				// a change of ruleset meanwhile leaves the values to be brought into its table on next use
+				update(state -> state.record(event, state.mSystem,
+											 (state.mSystem == rolledState.mSystem) ? rules.getVersion() : 0));
+				return attempt;
+			}
+		}
+		throw new IllegalArgumentException("No roll met the constraints in " + MAX_CONSTRAINED_ROLLS + " attempts");
+	}
+
+	/**
+	 * Publish a change to the state, retrying against the newer state if another thread changed it first.
+	 * The change must have no side effects, since it may run more than once.
+	 *
+	 * @param theChange Builds the new state from the current one
+	 * @return The published state
+	 */
+	private CharacterState update(UnaryOperator<CharacterState> theChange)
+	{
+		while (true)
+		{
+			CharacterState current = mState.get();
+			CharacterState next = theChange.apply(current);
+			if (next == current)
+			{
+				return current;
+			}
+			if (mState.compareAndSet(current, next))
+			{
+				CharacterEventLog.charge(current.mEvents, next.mEvents);
+				return next;
+			}
 		}
+	}
+
+	/**
+	 * Get the current state, first bringing it up to date if new rules were published since it was last used.
+	 *
+	 * @return The current state
+	 */
+	private CharacterState current()
+	{
+		CharacterState state = mState.get();
+		return state.isCurrent() ? state : update(CharacterState::refreshed);
+	}
+
+	/**
+	 * Get the current data, for packing. It must not be changed.
+	 *
+	 * @return The data
+	 */
+	SWNCharData getData()
+	{
+		return current().mData;
+	}
 
-		return oldValue;
+	/**
+	 * Get the version of the rules the changed attribute was set with, for packing.
+	 *
+	 * @return The rules version
+	 */
+	int getRulesVersion()
+	{
+		return current().mRulesVersion;
+	}
+
+	/**
+	 * Check that loaded attribute values are in a ruleset's table.
+	 * Modifiers are not read from the data, so only the values need checking.
+	 *
+	 * @param theData  The data
+	 * @param theRules The rules
+	 * @throws IllegalArgumentException if a value is outside the table
+	 */
+	private static void checkValues(SWNCharData theData, SWNRules theRules)
+	{
+		for (int value : theData.mAttributes)
+		{
+			theRules.calculateModifier(value);
+		}
+		if (theData.mChangedAttribute != AttributeEnum.NONE)
+		{
+			theRules.calculateModifier(theData.mChangedAttributeOriginalValue);
+		}
+	}
+
+	/**
+	 * Get the index of an attribute in the attribute arrays.
+	 *
+	 * @param theAttribute The attribute
+	 * @return The attribute's index
+	 * @throws IllegalArgumentException if the attribute is NONE
+	 */
+	private static int attributeIndex(AttributeEnum theAttribute)
+	{
+		if (theAttribute == AttributeEnum.NONE)
+		{
+			throw new IllegalArgumentException("Invalid attribute: " + theAttribute);
+		}
+		return theAttribute.ordinal();
+	}
+
+	/**
+	 * Calculate how lucky the rolled attributes were, using the exact odds of the character's ruleset.
+	 * <p>
+	 * Reports the percentile of each attribute, the probability and percentile of the total modifier,
+	 * and the attribute to pass to changeOneAttribute for the highest total modifier.
+	 *
+	 * @return A Map of the odds
+	 * @throws IllegalArgumentException if the attributes have not been rolled
+	 */
+	public Map<String, Object> calculateOdds()
+	{
+		CharacterState state = current();
+		SWNCharData data = state.mData;
+		SWNRules rules = state.mSystem.getRules();
+		SWNOdds odds = rules.getOdds();
+		int changedModifier = rules.calculateModifier(rules.getChangedAttributeValue());
+
+		// attribute values before any change
+		int[] rolled = data.mAttributes.clone();
+		if (data.mChangedAttribute != AttributeEnum.NONE)
+		{
+			rolled[data.mChangedAttribute.ordinal()] = data.mChangedAttributeOriginalValue;
+		}
+
+		Map<String, Object> attributes = new LinkedHashMap<>();
+		int modifierSum = 0;
+		int rolledModifierSum = 0;
+		for (int index = 0; index < AttributeEnum.COUNT; index++)
+		{
+			int value = data.mAttributes[index];
+			if (value == 0)
+			{
+				throw new IllegalArgumentException("Attributes have not been rolled");
+			}
+			int modifier = rules.calculateModifier(value);
+			modifierSum += modifier;
+			rolledModifierSum += rules.calculateModifier(rolled[index]);
+
+			Map<String, Object> attributeOdds = new LinkedHashMap<>();
+			attributeOdds.put("value", value);
+			attributeOdds.put("modifier", modifier);
+			attributeOdds.put("probability", odds.getAttributeProbability(value));
+			attributeOdds.put("percentile", odds.getAttributePercentile(value));
+			attributes.put(AttributeEnum.values()[index].name(), attributeOdds);
+		}
+
+		// changing an attribute restores the previous one, so compare every option against the rolled values
+		AttributeEnum bestAttribute = AttributeEnum.NONE;
+		int bestModifierSum = Integer.MIN_VALUE;
+		for (int index = 0; index < AttributeEnum.COUNT; index++)
+		{
+			int changedSum = rolledModifierSum - rules.calculateModifier(rolled[index]) + changedModifier;
+			if (changedSum > bestModifierSum)
+			{
+				bestAttribute = AttributeEnum.values()[index];
+				bestModifierSum = changedSum;
+			}
+		}
+
+		Map<String, Object> bestChange = new LinkedHashMap<>();
+		bestChange.put("attribute", bestAttribute.name());
+		bestChange.put("modifierSum", bestModifierSum);
+		bestChange.put("gain", bestModifierSum - modifierSum);
+
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("rulesetId", rules.getId());
+		result.put("attributes", attributes);
+		result.put("modifierSum", modifierSum);
+		result.put("modifierSumProbability", odds.getModifierSumProbability(modifierSum));
+		result.put("modifierSumPercentile", odds.getModifierSumPercentile(modifierSum));
+		result.put("bestChange", bestChange);
+		return result;
 	}
 
 	/**
 	 * Change one attribute to a special value (14) and restore any previously changed attribute.
 	 *
 	 * @param theAttribute The attribute to change
+	 * @throws IllegalArgumentException if the attribute is NONE
 	 */
 	public void changeOneAttribute(AttributeEnum theAttribute)
 	{
-		if (mData.mChangedAttribute != AttributeEnum.NONE)
+		// check before restoring anything
+		attributeIndex(theAttribute);
+		update(state ->
 		{
-			setAttribute(mData.mChangedAttribute, mData.mChangedAttributeOriginalValue);
-		}
+			CharacterState refreshed = state.refreshed();
+			// the event restores any previous change
+			CharacterEvent event = CharacterEvent.changeAttribute(theAttribute, refreshed.mSystem.getChangedAttributeValue());
+			return refreshed.record(event, refreshed.mSystem, refreshed.mRulesVersion);
+		});
+	}
 
-		mData.mChangedAttributeOriginalValue = setAttribute(theAttribute, mSystem.getChangedAttributeValue());
-		mData.mChangedAttribute = theAttribute;
+	/**
+	 * Undo the last change.
+	 *
+	 * @throws IllegalArgumentException if there is nothing to undo
+	 */
+	public void undo()
+	{
+		update(state -> state.moveTo(state.mEvents.undo()));
+	}
+
+	/**
+	 * Redo the last undone change.
+	 *
+	 * @throws IllegalArgumentException if there is nothing to redo
+	 */
+	public void redo()
+	{
+		update(state -> state.moveTo(state.mEvents.redo()));
+	}
+
+	/**
+	 * Check if there is a change to undo.
+	 *
+	 * @return True if undo is possible
+	 */
+	public boolean canUndo()
+	{
+		return mState.get().mEvents.canUndo();
+	}
+
+	/**
+	 * Check if there is an undone change to redo.
+	 *
+	 * @return True if redo is possible
+	 */
+	public boolean canRedo()
+	{
+		return mState.get().mEvents.canRedo();
+	}
+
+	/**
+	 * Get the changes still held in the event log, for audits and replays.
+	 *
+	 * @return The events, oldest first, including any that can be redone
+	 */
+	public List<CharacterEvent> getEvents()
+	{
+		return mState.get().mEvents.getEvents();
+	}
+
+	/**
+	 * Get the last change made to the character, for example to audit a roll.
+	 *
+	 * @return The event, or null if there is none to undo
+	 */
+	public CharacterEvent getLastEvent()
+	{
+		return mState.get().mEvents.getLastEvent();
+	}
+
+	/**
+	 * Get the character's name, for listings that do not need the whole character.
+	 *
+	 * @return The name
+	 */
+	public String getName()
+	{
+		return mState.get().mData.mName;
+	}
+
+	/**
+	 * Get the id of the character's ruleset, for listings that do not need the whole character.
+	 *
+	 * @return The ruleset id
+	 */
+	public String getRulesetId()
+	{
+		return mState.get().mData.mRulesetId;
+	}
+
+	/**
+	 * Get the serial number of the character, unique among the characters made since startup. A share
+	 * token carries it, so the token stops working when the character it was made for is replaced.
+	 *
+	 * @return The serial number
+	 */
+	public long getSerial()
+	{
+		return mSerial;
+	}
+
+	/**
+	 * Get the current snapshot of the character's ruleset.
+	 *
+	 * @return The current rules
+	 */
+	public SWNRules getRules()
+	{
+		return mState.get().mSystem.getRules();
+	}
+
+	/**
+	 * Fold changes made before a cutoff into the event log's snapshot. They can no longer be undone.
+	 *
+	 * @param theCutoff Changes with an earlier timestamp are compacted, in epoch milliseconds
+	 * @return The number of changes compacted
+	 */
+	public int compactEvents(long theCutoff)
+	{
+		int[] compacted = new int[1];
+		update(state ->
+		{
+			CharacterEventLog events = state.mEvents.compact(theCutoff);
+			compacted[0] = (int) (events.getCompactedCount() - state.mEvents.getCompactedCount());
+			return state.withEvents(events);
+		});
+		return compacted[0];
+	}
+
+	/**
+	 * Drop the undo history and return its memory, for when the character is discarded.
+	 */
+	public void releaseHistory()
+	{
+		update(state -> state.withEvents(state.mEvents.release()));
 	}
 
 	/**
@@ -166,6 +516,7 @@ public class SWNChar
 	 */
 	public Map<String, Object> toMap() throws IllegalArgumentException
 	{
+		CharacterState state = current();
 		// TODO: Move the mapper functionality somewhere better.
 		ObjectMapper mapper = new ObjectMapper();
 		// null means don't change member variable names - we want it to match the Python output
@@ -175,7 +526,7 @@ public class SWNChar
 		mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
 
 		//noinspection Convert2Diamond
-		return mapper.convertValue(this.mData, new TypeReference<Map<String,Object>>() {});
+		return mapper.convertValue(state.mData, new TypeReference<Map<String,Object>>() {});
 	}
 
 	/**
@@ -196,7 +547,18 @@ public class SWNChar
 		// Convert Map to JsonNode
 		JsonNode node = mapper.valueToTree(theData);
 
-		// Update the existing object with Map data
-		mapper.readerForUpdating(this.mData).readValue(node);
+		// Update a copy of the current data with Map data, so nothing changes if it is invalid
+		SWNCharData data = mapper.readerForUpdating(mState.get().mData.copy()).readValue(node);
+		// switch to the ruleset named in the data, this also rejects unknown rulesets
+		if (data.mRulesetId == null)
+		{
+			data.mRulesetId = SWNRules.DEFAULT_RULESET_ID;
+		}
+		SWNSystem system = new SWNSystem(data.mRulesetId);
+		SWNRules rules = system.getRules();
+		checkValues(data, rules);
+		// the upload replaces the whole character, so a change published meanwhile is simply overwritten
+		CharacterEvent event = CharacterEvent.upload(data);
+		update(state -> state.record(event, system, rules.getVersion()));
 	}
 }
\ No newline at end of file
@@ -9,6 +9,9 @@
 
 package org.kuroneko.swn_char_gen.backend_spring.models;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 /**
  * Data class for SWN character data.
  * <p>
@@ -17,7 +20,12 @@ package org.kuroneko.swn_char_gen.backend_spring.models;
  * can change, without the dict (used for export and import) being affected.
  * <p>
  * Java doesn't really have a setup for that, so I'm using this for now by using default (package) access.
+ * <p>
+ * The attributes are stored in arrays indexed by AttributeEnum ordinal so operations on them are loops
+ * rather than a switch per attribute. SWNCharDataJson keeps the exported field names the same as the Python output.
  */
+@JsonSerialize(using = SWNCharDataJson.Serializer.class)
+@JsonDeserialize(using = SWNCharDataJson.Deserializer.class)
 public class SWNCharData
 {
 	// ####
@@ -29,67 +37,24 @@ public class SWNCharData
 	String mName = "Default Name";
 
 	// ####
-	// Attributes section
+	// System section
 	// ####
 	/**
-	 * The character's Strength attribute value. Defaults to 0.
-	 */
-	int mStrength = 0;
-	
-	/**
-	 * The character's Dexterity attribute value. Defaults to 0.
+	 * Id of the ruleset used for the character. Defaults to the standard SWN rules.
 	 */
-	int mDexterity = 0;
-	
-	/**
-	 * The character's Constitution attribute value. Defaults to 0.
-	 */
-	int mConstitution = 0;
-	
-	/**
-	 * The character's Intelligence attribute value. Defaults to 0.
-	 */
-	int mIntelligence = 0;
-	
-	/**
-	 * The character's Wisdom attribute value. Defaults to 0.
-	 */
-	int mWisdom = 0;
-	
-	/**
-	 * The character's Charisma attribute value. Defaults to 0.
-	 */
-	int mCharisma = 0;
+	String mRulesetId = SWNRules.DEFAULT_RULESET_ID;
 
+	// ####
+	// Attributes section
+	// ####
 	/**
-	 * The modifier for the character's Strength attribute. Calculated based on the Strength value.
-	 */
-	int mStrengthModifier = 0;
-	
-	/**
-	 * The modifier for the character's Dexterity attribute. Calculated based on the Dexterity value.
-	 */
-	int mDexterityModifier = 0;
-	
-	/**
-	 * The modifier for the character's Constitution attribute. Calculated based on the Constitution value.
-	 */
-	int mConstitutionModifier = 0;
-	
-	/**
-	 * The modifier for the character's Intelligence attribute. Calculated based on the Intelligence value.
-	 */
-	int mIntelligenceModifier = 0;
-	
-	/**
-	 * The modifier for the character's Wisdom attribute. Calculated based on the Wisdom value.
-	 */
-	int mWisdomModifier = 0;
-	
-	/**
-	 * The modifier for the character's Charisma attribute. Calculated based on the Charisma value.
+	 * The character's attribute values, indexed by AttributeEnum ordinal. Default to 0.
+	 * Exported as mStrength, mDexterity, and so on - see SWNCharDataJson.
+	 * <p>
+	 * The modifiers are not stored. They are a pure function of the value and the ruleset, so they
+	 * are looked up when the data is exported as mStrengthModifier, mDexterityModifier, and so on.
 	 */
-	int mCharismaModifier = 0;
+	final int[] mAttributes = new int[AttributeEnum.COUNT];
 
 	/**
 	 * Tracks which attribute has been changed to a special value (14).
@@ -103,4 +68,29 @@ public class SWNCharData
 	 */
 	int mChangedAttributeOriginalValue = 0;
 
+	/**
+	 * Make an independent copy of this data.
+	 *
+	 * @return The copy
+	 */
+	SWNCharData copy()
+	{
+		SWNCharData data = new SWNCharData();
+		data.copyFrom(this);
+		return data;
+	}
+
+	/**
+	 * Replace this data with a copy of other data.
+	 *
+	 * @param theOther The data to copy
+	 */
+	void copyFrom(SWNCharData theOther)
+	{
+		mName = theOther.mName;
+		mRulesetId = theOther.mRulesetId;
+		System.arraycopy(theOther.mAttributes, 0, mAttributes, 0, mAttributes.length);
+		mChangedAttribute = theOther.mChangedAttribute;
+		mChangedAttributeOriginalValue = theOther.mChangedAttributeOriginalValue;
+	}
 }
\ No newline at end of file
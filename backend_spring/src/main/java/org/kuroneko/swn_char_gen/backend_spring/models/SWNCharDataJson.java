@@ -0,0 +1,164 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JSON mapping for SWNCharData.
+ * <p>
+ * The attribute array is written and read as the individual fields the Python output uses
+ * (mStrength, mDexterity, and so on), in the same order as before the array existed. The modifier
+ * fields are written from the character's ruleset and ignored when read, so an upload can never
+ * carry modifiers that disagree with its attributes.
+ */
+public final class SWNCharDataJson
+{
+	// field names of the attribute values and modifiers, indexed by AttributeEnum ordinal
+	private static final String[] ATTRIBUTE_FIELDS = new String[AttributeEnum.COUNT];
+	private static final String[] MODIFIER_FIELDS = new String[AttributeEnum.COUNT];
+	// field name to AttributeEnum ordinal, for reading
+	private static final Map<String, Integer> ATTRIBUTE_INDEX = new HashMap<>();
+	// modifier field names, skipped when reading
+	private static final Set<String> MODIFIER_NAMES = new HashSet<>();
+
+	static
+	{
+		for (int index = 0; index < AttributeEnum.COUNT; index++)
+		{
+			String name = AttributeEnum.values()[index].name();
+			// STRENGTH becomes mStrength
+			ATTRIBUTE_FIELDS[index] = "m" + name.charAt(0) + name.substring(1).toLowerCase();
+			MODIFIER_FIELDS[index] = ATTRIBUTE_FIELDS[index] + "Modifier";
+			ATTRIBUTE_INDEX.put(ATTRIBUTE_FIELDS[index], index);
+			MODIFIER_NAMES.add(MODIFIER_FIELDS[index]);
+		}
+	}
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 */
+	private SWNCharDataJson()
+	{
+	}
+
+	/**
+	 * Writes SWNCharData with one JSON field per attribute and modifier.
+	 */
+	public static class Serializer extends StdSerializer<SWNCharData>
+	{
+		/**
+		 * Create the serializer.
+		 */
+		public Serializer()
+		{
+			super(SWNCharData.class);
+		}
+
+		@Override
+		public void serialize(SWNCharData theData, JsonGenerator theGenerator, SerializerProvider theProvider) throws IOException
+		{
+			theGenerator.writeStartObject();
+			theGenerator.writeStringField("mName", theData.mName);
+			theGenerator.writeStringField("mRulesetId", theData.mRulesetId);
+			for (int index = 0; index < AttributeEnum.COUNT; index++)
+			{
+				theGenerator.writeNumberField(ATTRIBUTE_FIELDS[index], theData.mAttributes[index]);
+			}
+			SWNRules rules = RulesetRegistry.getInstance().getRuleset(theData.mRulesetId);
+			for (int index = 0; index < AttributeEnum.COUNT; index++)
+			{
+				theGenerator.writeNumberField(MODIFIER_FIELDS[index], rules.calculateModifier(theData.mAttributes[index]));
+			}
+			theGenerator.writeStringField("mChangedAttribute", theData.mChangedAttribute.name());
+			theGenerator.writeNumberField("mChangedAttributeOriginalValue", theData.mChangedAttributeOriginalValue);
+			theGenerator.writeEndObject();
+		}
+	}
+
+	/**
+	 * Reads SWNCharData from one JSON field per attribute and modifier, including updating an existing object.
+	 */
+	public static class Deserializer extends StdDeserializer<SWNCharData>
+	{
+		/**
+		 * Create the deserializer.
+		 */
+		public Deserializer()
+		{
+			super(SWNCharData.class);
+		}
+
+		@Override
+		public SWNCharData deserialize(JsonParser theParser, DeserializationContext theContext) throws IOException
+		{
+			return deserialize(theParser, theContext, new SWNCharData());
+		}
+
+		@Override
+		public SWNCharData deserialize(JsonParser theParser, DeserializationContext theContext, SWNCharData theData) throws IOException
+		{
+			JsonToken token = theParser.currentToken();
+			if (token == JsonToken.START_OBJECT)
+			{
+				token = theParser.nextToken();
+			}
+			for (; token == JsonToken.FIELD_NAME; token = theParser.nextToken())
+			{
+				String field = theParser.currentName();
+				theParser.nextToken();
+				switch (field)
+				{
+					case "mName":
+						theData.mName = theContext.readValue(theParser, String.class);
+						break;
+					case "mRulesetId":
+						theData.mRulesetId = theContext.readValue(theParser, String.class);
+						break;
+					case "mChangedAttribute":
+						theData.mChangedAttribute = theContext.readValue(theParser, AttributeEnum.class);
+						break;
+					case "mChangedAttributeOriginalValue":
+						theData.mChangedAttributeOriginalValue = theContext.readValue(theParser, int.class);
+						break;
+					default:
+						if (ATTRIBUTE_INDEX.containsKey(field))
+						{
+							theData.mAttributes[ATTRIBUTE_INDEX.get(field)] = theContext.readValue(theParser, int.class);
+						}
+						else if (MODIFIER_NAMES.contains(field))
+						{
+							// derived from the attribute values, so whatever was uploaded is ignored
+							theParser.skipChildren();
+						}
+						else
+						{
+							// fails or skips the value, depending on FAIL_ON_UNKNOWN_PROPERTIES
+							theContext.handleUnknownProperty(theParser, this, SWNCharData.class, field);
+						}
+						break;
+				}
+			}
+			return theData;
+		}
+	}
+}
@@ -0,0 +1,338 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+/**
+ * Immutable, exact odds tables for one ruleset.
+ * <p>
+ * Built once when a ruleset is compiled: the attribute distribution comes straight from the dice,
+ * and the distribution of the total modifier is that attribute's modifier distribution convolved
+ * once per attribute. The same convolution of only the values below each attribute value gives the
+ * joint odds of a constrained roll. Every lookup afterwards is an array read.
+ */
+public final class SWNOdds
+{
+	/**
+	 * Number of attributes rolled for a character.
+	 */
+	public static final int ATTRIBUTE_COUNT = AttributeEnum.COUNT;
+
+	// probability of each attribute value, indexed by value
+	private final double[] mAttributeProbability;
+	// probability of rolling below each attribute value, indexed by value
+	private final double[] mAttributeBelow;
+	// lowest possible total modifier, the offset into the modifier sum tables
+	private final int mMinModifierSum;
+	// probability of each total modifier, indexed by total minus mMinModifierSum
+	private final double[] mModifierSumProbability;
+	// probability of a total modifier below each total, indexed like mModifierSumProbability
+	private final double[] mModifierSumBelow;
+	// probability of a total modifier at or above each total, summed from the top to keep the tail precise
+	private final double[] mModifierSumAtLeast;
+	// probability of every attribute being below a value and the total modifier being at or above each total,
+	// indexed by attribute value and then like mModifierSumProbability
+	private final double[][] mAllBelowModifierSumAtLeast;
+
+	/**
+	 * Private constructor - use calculate.
+	 *
+	 * @param theAttributeProbability      The probability of each attribute value
+	 * @param theMinModifierSum            The lowest possible total modifier
+	 * @param theModifierSumProbability    The probability of each total modifier
+	 * @param theAllBelowModifierSumAtLeast The probability of every attribute being below each value and the total reaching each total
+	 */
+	private SWNOdds(double[] theAttributeProbability, int theMinModifierSum, double[] theModifierSumProbability,
+					double[][] theAllBelowModifierSumAtLeast)
+	{
+		this.mAttributeProbability = theAttributeProbability;
+		this.mAttributeBelow = cumulativeBelow(theAttributeProbability);
+		this.mMinModifierSum = theMinModifierSum;
+		this.mModifierSumProbability = theModifierSumProbability;
+		this.mModifierSumBelow = cumulativeBelow(theModifierSumProbability);
+		this.mModifierSumAtLeast = cumulativeAtLeast(theModifierSumProbability);
+		this.mAllBelowModifierSumAtLeast = theAllBelowModifierSumAtLeast;
+	}
+
+	/**
+	 * Calculate the odds tables for a ruleset.
+	 *
+	 * @param theDice      The dice rolled for each attribute
+	 * @param theModifiers The modifier table indexed by attribute value, covering every result of the dice
+	 * @return The odds tables
+	 */
+	static SWNOdds calculate(DiceExpression theDice, int[] theModifiers)
+	{
+		double[] attributeProbability = theDice.calculateDistribution();
+
+		int minModifier = Integer.MAX_VALUE;
+		int maxModifier = Integer.MIN_VALUE;
+		for (int value = theDice.getMinimum(); value <= theDice.getMaximum(); value++)
+		{
+			minModifier = Math.min(minModifier, theModifiers[value]);
+			maxModifier = Math.max(maxModifier, theModifiers[value]);
+		}
+
+		// modifier distribution of a single attribute, indexed by modifier minus minModifier
+		double[] modifierProbability = new double[maxModifier - minModifier + 1];
+		for (int value = theDice.getMinimum(); value <= theDice.getMaximum(); value++)
+		{
+			modifierProbability[theModifiers[value] - minModifier] += attributeProbability[value];
+		}
+
+		// the same for only the values below each attribute value, one past the highest roll covers them all
+		double[][] allBelowSumAtLeast = new double[theDice.getMaximum() + 2][];
+		double[] belowProbability = new double[modifierProbability.length];
+		for (int highest = 0; highest < allBelowSumAtLeast.length; highest++)
+		{
+			int value = highest - 1;
+			if (value >= theDice.getMinimum())
+			{
+				belowProbability[theModifiers[value] - minModifier] += attributeProbability[value];
+			}
+			allBelowSumAtLeast[highest] = cumulativeAtLeast(sumDistribution(belowProbability));
+		}
+
+		return new SWNOdds(attributeProbability, ATTRIBUTE_COUNT * minModifier, sumDistribution(modifierProbability),
+						   allBelowSumAtLeast);
+	}
+
+	/**
+	 * Get the probability of rolling an attribute value.
+	 *
+	 * @param theAttributeValue The attribute value
+	 * @return The probability, 0 for values the dice cannot roll
+	 */
+	public double getAttributeProbability(int theAttributeValue)
+	{
+		if (theAttributeValue < 0 || theAttributeValue >= mAttributeProbability.length)
+		{
+			return 0;
+		}
+		return mAttributeProbability[theAttributeValue];
+	}
+
+	/**
+	 * Get the percentile of an attribute value among all rolls.
+	 * Ties count half, so the middle of a symmetric distribution is the 50th percentile.
+	 *
+	 * @param theAttributeValue The attribute value
+	 * @return The percentile, from 0 to 100
+	 */
+	public double getAttributePercentile(int theAttributeValue)
+	{
+		return percentile(mAttributeProbability, mAttributeBelow, theAttributeValue);
+	}
+
+	/**
+	 * Get the probability that at least one of a character's rolled attributes reaches a value.
+	 *
+	 * @param theAttributeValue The attribute value
+	 * @return The probability
+	 */
+	public double getHighestAttributeAtLeastProbability(int theAttributeValue)
+	{
+		double allBelow;
+		if (theAttributeValue <= 0)
+		{
+			allBelow = 0;
+		}
+		else if (theAttributeValue >= mAttributeBelow.length)
+		{
+			allBelow = 1;
+		}
+		else
+		{
+			allBelow = Math.pow(mAttributeBelow[theAttributeValue], ATTRIBUTE_COUNT);
+		}
+		return 1 - allBelow;
+	}
+
+	/**
+	 * Get the lowest possible total modifier for a rolled character.
+	 *
+	 * @return The lowest total modifier
+	 */
+	public int getMinModifierSum()
+	{
+		return mMinModifierSum;
+	}
+
+	/**
+	 * Get the highest possible total modifier for a rolled character.
+	 *
+	 * @return The highest total modifier
+	 */
+	public int getMaxModifierSum()
+	{
+		return mMinModifierSum + mModifierSumProbability.length - 1;
+	}
+
+	/**
+	 * Get the probability of a rolled character having a total modifier.
+	 *
+	 * @param theModifierSum The total of all attribute modifiers
+	 * @return The probability, 0 for totals that cannot be rolled
+	 */
+	public double getModifierSumProbability(int theModifierSum)
+	{
+		int index = theModifierSum - mMinModifierSum;
+		if (index < 0 || index >= mModifierSumProbability.length)
+		{
+			return 0;
+		}
+		return mModifierSumProbability[index];
+	}
+
+	/**
+	 * Get the probability of a rolled character having at least a total modifier.
+	 *
+	 * @param theModifierSum The total of all attribute modifiers
+	 * @return The probability
+	 */
+	public double getModifierSumAtLeastProbability(int theModifierSum)
+	{
+		int index = theModifierSum - mMinModifierSum;
+		if (index <= 0)
+		{
+			return 1;
+		}
+		if (index >= mModifierSumAtLeast.length)
+		{
+			return 0;
+		}
+		return mModifierSumAtLeast[index];
+	}
+
+	/**
+	 * Get the exact probability of a rolled character meeting both constraints of a constrained roll:
+	 * a total modifier of at least a total, and at least one attribute reaching a value.
+	 *
+	 * @param theMinModifierSum      The lowest acceptable total modifier, Integer.MIN_VALUE for no limit
+	 * @param theMinHighestAttribute The value at least one attribute must reach, 0 for no limit
+	 * @return The probability
+	 */
+	public double getConstrainedRollProbability(int theMinModifierSum, int theMinHighestAttribute)
+	{
+		long offset = (long) theMinModifierSum - mMinModifierSum;
+		if (offset >= mModifierSumAtLeast.length)
+		{
+			return 0;
+		}
+		int index = (int) Math.max(0, offset);
+		int highest = Math.max(0, Math.min(theMinHighestAttribute, mAllBelowModifierSumAtLeast.length - 1));
+		// rolls reaching the total, less those that reach it with every attribute below the highest value
+		return Math.max(0, mModifierSumAtLeast[index] - mAllBelowModifierSumAtLeast[highest][index]);
+	}
+
+	/**
+	 * Get the percentile of a total modifier among all rolled characters.
+	 * Ties count half, as for getAttributePercentile.
+	 *
+	 * @param theModifierSum The total of all attribute modifiers
+	 * @return The percentile, from 0 to 100
+	 */
+	public double getModifierSumPercentile(int theModifierSum)
+	{
+		return percentile(mModifierSumProbability, mModifierSumBelow, theModifierSum - mMinModifierSum);
+	}
+
+	/**
+	 * Look up a percentile in a table.
+	 *
+	 * @param theProbability The probability table
+	 * @param theBelow       The cumulative probability below each index
+	 * @param theIndex       The index to look up
+	 * @return The percentile, from 0 to 100
+	 */
+	private static double percentile(double[] theProbability, double[] theBelow, int theIndex)
+	{
+		if (theIndex < 0)
+		{
+			return 0;
+		}
+		if (theIndex >= theProbability.length)
+		{
+			return 100;
+		}
+		return 100 * (theBelow[theIndex] + theProbability[theIndex] / 2);
+	}
+
+	/**
+	 * Build the probability of being below each index.
+	 *
+	 * @param theProbability The probability table
+	 * @return The cumulative probability strictly below each index
+	 */
+	private static double[] cumulativeBelow(double[] theProbability)
+	{
+		double[] below = new double[theProbability.length];
+		double total = 0;
+		for (int index = 0; index < theProbability.length; index++)
+		{
+			below[index] = total;
+			total += theProbability[index];
+		}
+		return below;
+	}
+
+	/**
+	 * Build the probability of being at or above each index, summed from the top to keep the tail precise.
+	 *
+	 * @param theProbability The probability table
+	 * @return The cumulative probability at or above each index
+	 */
+	private static double[] cumulativeAtLeast(double[] theProbability)
+	{
+		double[] atLeast = new double[theProbability.length];
+		double total = 0;
+		for (int index = theProbability.length - 1; index >= 0; index--)
+		{
+			total += theProbability[index];
+			atLeast[index] = total;
+		}
+		return atLeast;
+	}
+
+	/**
+	 * Build the distribution of the total modifier from the distribution of one attribute's modifier.
+	 *
+	 * @param theModifierProbability The modifier distribution of one attribute, indexed from its lowest modifier
+	 * @return The distribution of the total, indexed from the lowest total
+	 */
+	private static double[] sumDistribution(double[] theModifierProbability)
+	{
+		double[] sumProbability = {1.0};
+		for (int attribute = 0; attribute < ATTRIBUTE_COUNT; attribute++)
+		{
+			sumProbability = convolve(sumProbability, theModifierProbability);
+		}
+		return sumProbability;
+	}
+
+	/**
+	 * Convolve two distributions, giving the distribution of the sum of independent values.
+	 *
+	 * @param theFirst  The first distribution, indexed from its lowest value
+	 * @param theSecond The second distribution, indexed from its lowest value
+	 * @return The distribution of the sum, indexed from the sum of the lowest values
+	 */
+	private static double[] convolve(double[] theFirst, double[] theSecond)
+	{
+		double[] result = new double[theFirst.length + theSecond.length - 1];
+		for (int first = 0; first < theFirst.length; first++)
+		{
+			for (int second = 0; second < theSecond.length; second++)
+			{
+				result[first + second] += theFirst[first] * theSecond[second];
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,416 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.random.RandomGenerator;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, compiled snapshot of one SWN ruleset.
+ * <p>
+ * The rules data lives in a versioned properties file (see rulesets/swn.properties) rather than in code,
+ * so an errata or house rule only needs a new file. A snapshot is never changed after it is built;
+ * RulesetRegistry publishes a new snapshot instead, so readers never need to lock.
+ */
+public final class SWNRules
+{
+	/**
+	 * Id of the standard SWN ruleset.
+	 */
+	public static final String DEFAULT_RULESET_ID = "swn";
+
+	/**
+	 * Classpath location of the standard rules file.
+	 */
+	public static final String DEFAULT_RULES_RESOURCE = "/rulesets/swn.properties";
+
+	/**
+	 * Highest attribute value any ruleset may use, so a value fits in the 8 bits CharacterEvent packs it into.
+	 */
+	public static final int MAX_ATTRIBUTE_VALUE = 255;
+
+	// ruleset ids are also used as file names and URL parameters
+	private static final Pattern VALID_ID = Pattern.compile("[a-z0-9_\\-]{1,32}");
+
+	// property keys used in the rules file
+	private static final String KEY_ID = "id";
+	private static final String KEY_NAME = "name";
+	private static final String KEY_VERSION = "version";
+	private static final String KEY_DICE = "dice";
+	private static final String KEY_CHANGED_ATTRIBUTE_VALUE = "changed_attribute_value";
+	private static final String KEY_MODIFIER_PREFIX = "modifier.";
+
+	// id and display name of the ruleset
+	private final String mId;
+	private final String mName;
+	// version of the rules file this snapshot was compiled from
+	private final int mVersion;
+	// dice rolled for each attribute
+	private final DiceExpression mDice;
+	// lowest and highest valid attribute values
+	private final int mMinAttribute;
+	private final int mMaxAttribute;
+	// modifier table indexed directly by attribute value
+	private final int[] mModifiers;
+	// value used when one attribute is changed
+	private final int mChangedAttributeValue;
+	// exact odds tables, calculated once per snapshot
+	private final SWNOdds mOdds;
+
+	/**
+	 * Private constructor - use one of the load methods.
+	 *
+	 * @param theId                    The ruleset id
+	 * @param theName                  The ruleset display name
+	 * @param theVersion               The rules file version
+	 * @param theDice                  The dice rolled for each attribute
+	 * @param theMinAttribute          The lowest valid attribute value
+	 * @param theMaxAttribute          The highest valid attribute value
+	 * @param theModifiers             The modifier table indexed by attribute value
+	 * @param theChangedAttributeValue The value for a changed attribute
+	 */
+	private SWNRules(String theId, String theName, int theVersion, DiceExpression theDice,
+					 int theMinAttribute, int theMaxAttribute, int[] theModifiers, int theChangedAttributeValue)
+	{
+		this.mId = theId;
+		this.mName = theName;
+		this.mVersion = theVersion;
+		this.mDice = theDice;
+		this.mMinAttribute = theMinAttribute;
+		this.mMaxAttribute = theMaxAttribute;
+		this.mModifiers = theModifiers;
+		this.mChangedAttributeValue = theChangedAttributeValue;
+		this.mOdds = SWNOdds.calculate(theDice, theModifiers);
+	}
+
+	/**
+	 * Load the standard rules shipped on the classpath.
+	 *
+	 * @return The default rules snapshot
+	 * @throws IllegalStateException if the default rules file is missing or invalid
+	 */
+	public static SWNRules loadDefault()
+	{
+		return loadResource(DEFAULT_RULES_RESOURCE);
+	}
+
+	/**
+	 * Load a ruleset shipped on the classpath under /rulesets.
+	 *
+	 * @param theId The ruleset id
+	 * @return The rules snapshot
+	 * @throws IllegalStateException if the rules file is missing or invalid
+	 */
+	public static SWNRules loadBuiltIn(String theId)
+	{
+		return loadResource("/rulesets/" + theId + ".properties");
+	}
+
+	/**
+	 * Load rules from a classpath resource.
+	 *
+	 * @param theResource The resource name
+	 * @return The rules snapshot
+	 * @throws IllegalStateException if the resource is missing or invalid
+	 */
+	private static SWNRules loadResource(String theResource)
+	{
+		try (InputStream stream = SWNRules.class.getResourceAsStream(theResource))
+		{
+			if (stream == null)
+			{
+				throw new IllegalStateException("Missing rules resource: " + theResource);
+			}
+			return load(stream);
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException("Unable to read rules resource: " + theResource, e);
+		}
+	}
+
+	/**
+	 * Load rules from a file.
+	 *
+	 * @param thePath The rules file
+	 * @return The compiled rules snapshot
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if the file contents are invalid
+	 */
+	public static SWNRules load(Path thePath) throws IOException
+	{
+		try (InputStream stream = Files.newInputStream(thePath))
+		{
+			return load(stream);
+		}
+	}
+
+	/**
+	 * Load rules from a stream in properties format.
+	 *
+	 * @param theStream The stream to read
+	 * @return The compiled rules snapshot
+	 * @throws IOException if the stream cannot be read
+	 * @throws IllegalArgumentException if the contents are invalid
+	 */
+	public static SWNRules load(InputStream theStream) throws IOException
+	{
+		Properties properties = new Properties();
+		properties.load(theStream);
+		return compile(properties);
+	}
+
+	/**
+	 * Compile rules properties into a snapshot, validating them along the way.
+	 *
+	 * @param theProperties The rules properties
+	 * @return The compiled rules snapshot
+	 * @throws IllegalArgumentException if the properties are invalid
+	 */
+	public static SWNRules compile(Properties theProperties)
+	{
+		String id = parseString(theProperties, KEY_ID);
+		if (!VALID_ID.matcher(id).matches())
+		{
+			throw new IllegalArgumentException("Invalid ruleset id: " + id);
+		}
+		String name = theProperties.getProperty(KEY_NAME, id).trim();
+		DiceExpression dice = DiceExpression.parse(parseString(theProperties, KEY_DICE));
+		int version = parseInt(theProperties, KEY_VERSION);
+		if (version < 1)
+		{
+			throw new IllegalArgumentException("Rules version must be positive: " + version);
+		}
+		int changedValue = parseInt(theProperties, KEY_CHANGED_ATTRIBUTE_VALUE);
+
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		for (String key : theProperties.stringPropertyNames())
+		{
+			if (key.startsWith(KEY_MODIFIER_PREFIX))
+			{
+				int attributeValue = parseKeySuffix(key);
+				min = Math.min(min, attributeValue);
+				max = Math.max(max, attributeValue);
+			}
+		}
+		if (min > max)
+		{
+			throw new IllegalArgumentException("Rules contain no modifier entries");
+		}
+		if (min < 1)
+		{
+			// 0 is reserved for unset attributes
+			throw new IllegalArgumentException("Attribute values must be positive: " + min);
+		}
+		if (max > MAX_ATTRIBUTE_VALUE)
+		{
+			throw new IllegalArgumentException("Attribute values must be at most " + MAX_ATTRIBUTE_VALUE + ": " + max);
+		}
+
+		int[] modifiers = new int[max + 1];
+		for (int value = min; value <= max; value++)
+		{
+			// the table must be contiguous so every rollable value has a modifier
+			modifiers[value] = parseInt(theProperties, KEY_MODIFIER_PREFIX + value);
+		}
+		if (changedValue < min || changedValue > max)
+		{
+			throw new IllegalArgumentException("Changed attribute value out of range: " + changedValue);
+		}
+		if (dice.getMinimum() < min || dice.getMaximum() > max)
+		{
+			throw new IllegalArgumentException("Dice " + dice + " can roll values outside the modifier table");
+		}
+
+		return new SWNRules(id, name, version, dice, min, max, modifiers, changedValue);
+	}
+
+	/**
+	 * Get the ruleset id.
+	 *
+	 * @return The ruleset id
+	 */
+	public String getId()
+	{
+		return mId;
+	}
+
+	/**
+	 * Get the ruleset display name.
+	 *
+	 * @return The ruleset name
+	 */
+	public String getName()
+	{
+		return mName;
+	}
+
+	/**
+	 * Get the dice rolled for each attribute.
+	 *
+	 * @return The attribute dice
+	 */
+	public DiceExpression getDice()
+	{
+		return mDice;
+	}
+
+	/**
+	 * Roll a random attribute value.
+	 *
+	 * @param theRandom The random number source
+	 * @return A random attribute value
+	 */
+	public int rollAttribute(RandomGenerator theRandom)
+	{
+		return mDice.roll(theRandom);
+	}
+
+	/**
+	 * Get the version of the rules file this snapshot came from.
+	 *
+	 * @return The rules version
+	 */
+	public int getVersion()
+	{
+		return mVersion;
+	}
+
+	/**
+	 * Get the lowest valid attribute value.
+	 *
+	 * @return The lowest attribute value
+	 */
+	public int getMinAttribute()
+	{
+		return mMinAttribute;
+	}
+
+	/**
+	 * Get the highest valid attribute value.
+	 *
+	 * @return The highest attribute value
+	 */
+	public int getMaxAttribute()
+	{
+		return mMaxAttribute;
+	}
+
+	/**
+	 * Get the value for a changed attribute.
+	 *
+	 * @return The value for a changed attribute
+	 */
+	public int getChangedAttributeValue()
+	{
+		return mChangedAttributeValue;
+	}
+
+	/**
+	 * Get the exact odds tables for this ruleset.
+	 *
+	 * @return The odds tables
+	 */
+	public SWNOdds getOdds()
+	{
+		return mOdds;
+	}
+
+	/**
+	 * Calculate the modifier for an attribute value.
+	 *
+	 * @param theAttributeValue The attribute value
+	 * @return The modifier for the attribute value
+	 * @throws IllegalArgumentException if the attribute value is invalid
+	 */
+	public int calculateModifier(int theAttributeValue)
+	{
+		if (theAttributeValue == 0)
+		{
+			// unset attribute value
+			return 0;
+		}
+
+		if (theAttributeValue < mMinAttribute || theAttributeValue > mMaxAttribute)
+		{
+			throw new IllegalArgumentException("Invalid attribute value: " + theAttributeValue);
+		}
+
+		return mModifiers[theAttributeValue];
+	}
+
+	/**
+	 * Read a required text entry from the rules properties.
+	 *
+	 * @param theProperties The rules properties
+	 * @param theKey        The key to read
+	 * @return The trimmed value
+	 * @throws IllegalArgumentException if the entry is missing
+	 */
+	private static String parseString(Properties theProperties, String theKey)
+	{
+		String value = theProperties.getProperty(theKey);
+		if (value == null || value.isBlank())
+		{
+			throw new IllegalArgumentException("Missing rules entry: " + theKey);
+		}
+		return value.trim();
+	}
+
+	/**
+	 * Read a required integer entry from the rules properties.
+	 *
+	 * @param theProperties The rules properties
+	 * @param theKey        The key to read
+	 * @return The parsed value
+	 * @throws IllegalArgumentException if the entry is missing or not an integer
+	 */
+	private static int parseInt(Properties theProperties, String theKey)
+	{
+		String value = theProperties.getProperty(theKey);
+		if (value == null)
+		{
+			throw new IllegalArgumentException("Missing rules entry: " + theKey);
+		}
+		try
+		{
+			return Integer.parseInt(value.trim());
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IllegalArgumentException("Invalid rules entry: " + theKey + "=" + value, e);
+		}
+	}
+
+	/**
+	 * Get the attribute value from a modifier key such as "modifier.14".
+	 *
+	 * @param theKey The modifier key
+	 * @return The attribute value
+	 * @throws IllegalArgumentException if the suffix is not an integer
+	 */
+	private static int parseKeySuffix(String theKey)
+	{
+		try
+		{
+			return Integer.parseInt(theKey.substring(KEY_MODIFIER_PREFIX.length()));
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IllegalArgumentException("Invalid rules key: " + theKey, e);
+		}
+	}
+}
@@ -0,0 +1,247 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+/**
+ * Immutable result of a Monte Carlo run of character generation.
+ * <p>
+ * All statistics are primitive histograms. The "changed" histogram is the total modifier after using
+ * the changeOneAttribute rule on the lowest attribute, when doing so helps.
+ */
+public final class SWNSimulationResult
+{
+	// ruleset the characters were generated with
+	private final String mRulesetId;
+	private final int mRulesVersion;
+	// number of characters generated and how long it took
+	private final long mCharacters;
+	private final long mElapsedNanos;
+	// count of each attribute value, indexed by value
+	private final long[] mAttributeCounts;
+	// lowest possible total modifier, the offset into the total modifier histograms
+	private final int mMinModifierSum;
+	// count of each total modifier as rolled, indexed by total minus mMinModifierSum
+	private final long[] mModifierSumCounts;
+	// count of each total modifier after the best attribute change, indexed like mModifierSumCounts
+	private final long[] mChangedModifierSumCounts;
+	// count of each gain from the attribute change, indexed by gain
+	private final long[] mChangeGainCounts;
+
+	/**
+	 * Create a result. The arrays are owned by the result and must not be changed afterwards.
+	 *
+	 * @param theRulesetId                The ruleset id
+	 * @param theRulesVersion             The ruleset version
+	 * @param theCharacters               The number of characters generated
+	 * @param theElapsedNanos             The run time in nanoseconds
+	 * @param theAttributeCounts          The count of each attribute value
+	 * @param theMinModifierSum           The lowest possible total modifier
+	 * @param theModifierSumCounts        The count of each total modifier as rolled
+	 * @param theChangedModifierSumCounts The count of each total modifier after the attribute change
+	 * @param theChangeGainCounts         The count of each gain from the attribute change
+	 */
+	SWNSimulationResult(String theRulesetId, int theRulesVersion, long theCharacters, long theElapsedNanos,
+						long[] theAttributeCounts, int theMinModifierSum, long[] theModifierSumCounts,
+						long[] theChangedModifierSumCounts, long[] theChangeGainCounts)
+	{
+		this.mRulesetId = theRulesetId;
+		this.mRulesVersion = theRulesVersion;
+		this.mCharacters = theCharacters;
+		this.mElapsedNanos = theElapsedNanos;
+		this.mAttributeCounts = theAttributeCounts;
+		this.mMinModifierSum = theMinModifierSum;
+		this.mModifierSumCounts = theModifierSumCounts;
+		this.mChangedModifierSumCounts = theChangedModifierSumCounts;
+		this.mChangeGainCounts = theChangeGainCounts;
+	}
+
+	/**
+	 * Get the id of the ruleset the characters were generated with.
+	 *
+	 * @return The ruleset id
+	 */
+	public String getRulesetId()
+	{
+		return mRulesetId;
+	}
+
+	/**
+	 * Get the version of the ruleset the characters were generated with.
+	 *
+	 * @return The ruleset version
+	 */
+	public int getRulesVersion()
+	{
+		return mRulesVersion;
+	}
+
+	/**
+	 * Get the number of characters generated.
+	 *
+	 * @return The number of characters
+	 */
+	public long getCharacters()
+	{
+		return mCharacters;
+	}
+
+	/**
+	 * Get the run time.
+	 *
+	 * @return The run time in nanoseconds
+	 */
+	public long getElapsedNanos()
+	{
+		return mElapsedNanos;
+	}
+
+	/**
+	 * Get the throughput of the run.
+	 *
+	 * @return Characters generated per second
+	 */
+	public double getCharactersPerSecond()
+	{
+		return (mElapsedNanos == 0) ? 0 : mCharacters * 1_000_000_000.0 / mElapsedNanos;
+	}
+
+	/**
+	 * Get the number of times an attribute value was rolled.
+	 *
+	 * @param theAttributeValue The attribute value
+	 * @return The count, 0 for values the dice cannot roll
+	 */
+	public long getAttributeCount(int theAttributeValue)
+	{
+		return count(mAttributeCounts, theAttributeValue);
+	}
+
+	/**
+	 * Get the highest attribute value in the histogram.
+	 *
+	 * @return The highest attribute value
+	 */
+	public int getMaxAttribute()
+	{
+		return mAttributeCounts.length - 1;
+	}
+
+	/**
+	 * Get the lowest total modifier in the histograms.
+	 *
+	 * @return The lowest total modifier
+	 */
+	public int getMinModifierSum()
+	{
+		return mMinModifierSum;
+	}
+
+	/**
+	 * Get the highest total modifier in the histograms.
+	 *
+	 * @return The highest total modifier
+	 */
+	public int getMaxModifierSum()
+	{
+		return mMinModifierSum + mModifierSumCounts.length - 1;
+	}
+
+	/**
+	 * Get the number of characters rolled with a total modifier.
+	 *
+	 * @param theModifierSum The total modifier
+	 * @return The count
+	 */
+	public long getModifierSumCount(int theModifierSum)
+	{
+		return count(mModifierSumCounts, theModifierSum - mMinModifierSum);
+	}
+
+	/**
+	 * Get the number of characters with a total modifier after the best attribute change.
+	 *
+	 * @param theModifierSum The total modifier
+	 * @return The count
+	 */
+	public long getChangedModifierSumCount(int theModifierSum)
+	{
+		return count(mChangedModifierSumCounts, theModifierSum - mMinModifierSum);
+	}
+
+	/**
+	 * Get the highest gain from the attribute change in the histogram.
+	 *
+	 * @return The highest gain
+	 */
+	public int getMaxChangeGain()
+	{
+		return mChangeGainCounts.length - 1;
+	}
+
+	/**
+	 * Get the number of characters whose best attribute change gained a given amount.
+	 *
+	 * @param theGain The gain in total modifier, 0 when no change helps
+	 * @return The count
+	 */
+	public long getChangeGainCount(int theGain)
+	{
+		return count(mChangeGainCounts, theGain);
+	}
+
+	/**
+	 * Get the mean total modifier as rolled.
+	 *
+	 * @return The mean total modifier
+	 */
+	public double getMeanModifierSum()
+	{
+		return mean(mModifierSumCounts, mMinModifierSum);
+	}
+
+	/**
+	 * Get the mean total modifier after the best attribute change.
+	 *
+	 * @return The mean total modifier
+	 */
+	public double getMeanChangedModifierSum()
+	{
+		return mean(mChangedModifierSumCounts, mMinModifierSum);
+	}
+
+	/**
+	 * Read a histogram entry.
+	 *
+	 * @param theCounts The histogram
+	 * @param theIndex  The index
+	 * @return The count, 0 outside the histogram
+	 */
+	private static long count(long[] theCounts, int theIndex)
+	{
+		return (theIndex < 0 || theIndex >= theCounts.length) ? 0 : theCounts[theIndex];
+	}
+
+	/**
+	 * Calculate the mean of a histogram.
+	 *
+	 * @param theCounts The histogram
+	 * @param theOffset The value of the first entry
+	 * @return The mean value
+	 */
+	private double mean(long[] theCounts, int theOffset)
+	{
+		double total = 0;
+		for (int index = 0; index < theCounts.length; index++)
+		{
+			total += (double) theCounts[index] * (index + theOffset);
+		}
+		return total / mCharacters;
+	}
+}
@@ -0,0 +1,227 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monte Carlo simulation of character generation for balancing rulesets.
+ * <p>
+ * Rolls characters straight from an SWNRules snapshot without creating SWNChar objects. The work is
+ * split into fork-join tasks that each get their own SplittableRandom, split from the seed, and their
+ * own primitive histograms, so the tasks share nothing until the results are merged. A run with the
+ * same seed gives the same result however many threads run it.
+ */
+public final class SWNSimulator
+{
+	// characters rolled by one task before it stops splitting
+	private static final long TASK_SIZE = 1L << 16;
+	// characters rolled between progress updates
+	private static final int PROGRESS_INTERVAL = 4096;
+
+	private final SWNRules mRules;
+	private final ForkJoinPool mPool;
+	// modifier for each attribute value, copied out of the rules for the inner loop
+	private final int[] mModifiers;
+	private final int mMinModifier;
+	private final int mChangedModifier;
+	private final int mMaxChangeGain;
+
+	/**
+	 * Create a simulator that runs on the common fork-join pool.
+	 *
+	 * @param theRules The rules to generate characters with
+	 */
+	public SWNSimulator(SWNRules theRules)
+	{
+		this(theRules, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Create a simulator that runs on a specific fork-join pool.
+	 *
+	 * @param theRules The rules to generate characters with
+	 * @param thePool  The pool to run on
+	 */
+	public SWNSimulator(SWNRules theRules, ForkJoinPool thePool)
+	{
+		this.mRules = theRules;
+		this.mPool = thePool;
+
+		DiceExpression dice = theRules.getDice();
+		this.mModifiers = new int[dice.getMaximum() + 1];
+		int minModifier = Integer.MAX_VALUE;
+		for (int value = dice.getMinimum(); value <= dice.getMaximum(); value++)
+		{
+			mModifiers[value] = theRules.calculateModifier(value);
+			minModifier = Math.min(minModifier, mModifiers[value]);
+		}
+		this.mMinModifier = minModifier;
+		this.mChangedModifier = theRules.calculateModifier(theRules.getChangedAttributeValue());
+		this.mMaxChangeGain = Math.max(0, mChangedModifier - minModifier);
+	}
+
+	/**
+	 * Generate characters and collect their statistics.
+	 *
+	 * @param theCharacters The number of characters to generate
+	 * @param theSeed       The random seed
+	 * @param theProgress   Counter the run adds generated characters to as it goes, or null
+	 * @return The statistics of the run
+	 * @throws IllegalArgumentException if the number of characters is not positive
+	 */
+	public SWNSimulationResult run(long theCharacters, long theSeed, LongAdder theProgress)
+	{
+		if (theCharacters < 1)
+		{
+			throw new IllegalArgumentException("Number of characters must be positive: " + theCharacters);
+		}
+
+		long start = System.nanoTime();
+		Histograms histograms = mPool.invoke(new SimulationTask(theCharacters, new SplittableRandom(theSeed), theProgress));
+		long elapsed = System.nanoTime() - start;
+
+		return new SWNSimulationResult(mRules.getId(), mRules.getVersion(), theCharacters, elapsed,
+									   histograms.mAttributes, SWNOdds.ATTRIBUTE_COUNT * mMinModifier,
+									   histograms.mModifierSums, histograms.mChangedModifierSums, histograms.mChangeGains);
+	}
+
+	/**
+	 * Histograms filled by one task.
+	 */
+	private final class Histograms
+	{
+		private final long[] mAttributes = new long[mModifiers.length];
+		private final long[] mModifierSums;
+		private final long[] mChangedModifierSums;
+		private final long[] mChangeGains = new long[mMaxChangeGain + 1];
+
+		/**
+		 * Create empty histograms sized for the rules.
+		 */
+		private Histograms()
+		{
+			// the changed attribute value may be above anything the dice can roll
+			int maxModifier = mChangedModifier;
+			for (int value = mRules.getDice().getMinimum(); value < mModifiers.length; value++)
+			{
+				maxModifier = Math.max(maxModifier, mModifiers[value]);
+			}
+			int sums = SWNOdds.ATTRIBUTE_COUNT * (maxModifier - mMinModifier) + 1;
+			this.mModifierSums = new long[sums];
+			this.mChangedModifierSums = new long[sums];
+		}
+
+		/**
+		 * Add another task's counts to these histograms.
+		 *
+		 * @param theOther The histograms to add
+		 */
+		private void add(Histograms theOther)
+		{
+			addCounts(mAttributes, theOther.mAttributes);
+			addCounts(mModifierSums, theOther.mModifierSums);
+			addCounts(mChangedModifierSums, theOther.mChangedModifierSums);
+			addCounts(mChangeGains, theOther.mChangeGains);
+		}
+
+		/**
+		 * Add one histogram to another.
+		 *
+		 * @param theTarget The histogram to add to
+		 * @param theSource The histogram to add
+		 */
+		private static void addCounts(long[] theTarget, long[] theSource)
+		{
+			for (int index = 0; index < theTarget.length; index++)
+			{
+				theTarget[index] += theSource[index];
+			}
+		}
+	}
+
+	/**
+	 * Fork-join task that generates a share of the characters.
+	 */
+	private final class SimulationTask extends RecursiveTask<Histograms>
+	{
+		private final long mCount;
+		private final SplittableRandom mRandom;
+		private final LongAdder mProgress;
+
+		/**
+		 * Create a task.
+		 *
+		 * @param theCount    The number of characters to generate
+		 * @param theRandom   The random source, used only by this task
+		 * @param theProgress The progress counter, or null
+		 */
+		private SimulationTask(long theCount, SplittableRandom theRandom, LongAdder theProgress)
+		{
+			this.mCount = theCount;
+			this.mRandom = theRandom;
+			this.mProgress = theProgress;
+		}
+
+		@Override
+		protected Histograms compute()
+		{
+			if (mCount > TASK_SIZE)
+			{
+				long half = mCount / 2;
+				// split before forking so the random streams do not depend on scheduling
+				SimulationTask first = new SimulationTask(half, mRandom.split(), mProgress);
+				SimulationTask second = new SimulationTask(mCount - half, mRandom, mProgress);
+				first.fork();
+				Histograms histograms = second.compute();
+				histograms.add(first.join());
+				return histograms;
+			}
+
+			Histograms histograms = new Histograms();
+			DiceExpression dice = mRules.getDice();
+			int[] scratch = new int[dice.getCount()];
+			int minModifierSum = SWNOdds.ATTRIBUTE_COUNT * mMinModifier;
+			int sinceProgress = 0;
+			for (long character = 0; character < mCount; character++)
+			{
+				int modifierSum = 0;
+				int lowestModifier = Integer.MAX_VALUE;
+				for (int attribute = 0; attribute < SWNOdds.ATTRIBUTE_COUNT; attribute++)
+				{
+					int value = dice.roll(mRandom, scratch);
+					int modifier = mModifiers[value];
+					histograms.mAttributes[value]++;
+					modifierSum += modifier;
+					lowestModifier = Math.min(lowestModifier, modifier);
+				}
+				// the best use of changeOneAttribute is on the lowest modifier, and only if it helps
+				int gain = Math.max(0, mChangedModifier - lowestModifier);
+				histograms.mModifierSums[modifierSum - minModifierSum]++;
+				histograms.mChangedModifierSums[modifierSum + gain - minModifierSum]++;
+				histograms.mChangeGains[gain]++;
+
+				if (mProgress != null && ++sinceProgress == PROGRESS_INTERVAL)
+				{
+					mProgress.add(sinceProgress);
+					sinceProgress = 0;
+				}
+			}
+			if (mProgress != null)
+			{
+				mProgress.add(sinceProgress);
+			}
+			return histograms;
+		}
+	}
+}
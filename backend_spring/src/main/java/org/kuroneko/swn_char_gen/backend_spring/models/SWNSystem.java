@@ -9,51 +9,79 @@
 
 package org.kuroneko.swn_char_gen.backend_spring.models;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
 
 /**
  * System rules and calculations for SWN characters.
+ * <p>
+ * An SWNSystem is bound to one ruleset id. Each call reads the current snapshot of that ruleset
+ * from RulesetRegistry, so a rules reload is picked up without locking or rebuilding the system.
  */
 public class SWNSystem
 {
-	// Dictionary mapping attribute values to modifiers
-	private static final Map<Integer, Integer> M_ATTRIBUTE_MODIFIERS = new HashMap<>();
+	// id of the ruleset used for all calculations
+	private final String rulesetId;
 
-	// SWN number mapping of attributes bonuses
-	static
+	private final Random random = new Random();
+
+	/**
+	 * Create a system using the standard SWN rules.
+	 */
+	public SWNSystem()
 	{
-		M_ATTRIBUTE_MODIFIERS.put(3, -2);
-		M_ATTRIBUTE_MODIFIERS.put(4, -1);
-		M_ATTRIBUTE_MODIFIERS.put(5, -1);
-		M_ATTRIBUTE_MODIFIERS.put(6, -1);
-		M_ATTRIBUTE_MODIFIERS.put(7, -1);
-		M_ATTRIBUTE_MODIFIERS.put(8, 0);
-		M_ATTRIBUTE_MODIFIERS.put(9, 0);
-		M_ATTRIBUTE_MODIFIERS.put(10, 0);
-		M_ATTRIBUTE_MODIFIERS.put(11, 0);
-		M_ATTRIBUTE_MODIFIERS.put(12, 0);
-		M_ATTRIBUTE_MODIFIERS.put(13, 0);
-		M_ATTRIBUTE_MODIFIERS.put(14, 1);
-		M_ATTRIBUTE_MODIFIERS.put(15, 1);
-		M_ATTRIBUTE_MODIFIERS.put(16, 1);
-		M_ATTRIBUTE_MODIFIERS.put(17, 1);
-		M_ATTRIBUTE_MODIFIERS.put(18, 2);
+		this(SWNRules.DEFAULT_RULESET_ID);
 	}
 
-	private final Random random = new Random();
+	/**
+	 * Create a system using a specific ruleset.
+	 *
+	 * @param theRulesetId The ruleset id
+	 * @throws IllegalArgumentException if the ruleset is unknown
+	 */
+	public SWNSystem(String theRulesetId)
+	{
+		// fail now rather than on first use
+		this.rulesetId = RulesetRegistry.getInstance().getRuleset(theRulesetId).getId();
+	}
+
+	/**
+	 * Get the id of the ruleset used by this system.
+	 *
+	 * @return The ruleset id
+	 */
+	public String getRulesetId()
+	{
+		return rulesetId;
+	}
+
+	/**
+	 * Get the current snapshot of this system's ruleset.
+	 *
+	 * @return The current rules
+	 */
+	public SWNRules getRules()
+	{
+		return RulesetRegistry.getInstance().getRuleset(rulesetId);
+	}
 
 	/**
-	 * Calculate a random attribute value (3d6).
+	 * Get the random number source used for rolls.
 	 *
-	 * @return A random attribute value between 3 and 18
+	 * @return The random number source
+	 */
+	public Random getRandom()
+	{
+		return random;
+	}
+
+	/**
+	 * Calculate a random attribute value using the ruleset dice (3d6 in the standard rules).
+	 *
+	 * @return A random attribute value, between 3 and 18 in the standard rules
 	 */
 	public int calculateAttribute()
 	{
-		return random.nextInt(1, 6) +
-			   random.nextInt(1, 6) +
-			   random.nextInt(1, 6);
+		return getRules().rollAttribute(random);
 	}
 
 	/**
@@ -65,28 +93,16 @@ public class SWNSystem
 	 */
 	public int calculateModifier(int theAttributeValue)
 	{
-		if (theAttributeValue == 0)
-		{
-			// unset attribute value
-			return 0;
-		}
-
-		if (!M_ATTRIBUTE_MODIFIERS.containsKey(theAttributeValue))
-		{
-			throw new IllegalArgumentException("Invalid attribute value: " + theAttributeValue);
-		}
-
-		return M_ATTRIBUTE_MODIFIERS.get(theAttributeValue);
+		return getRules().calculateModifier(theAttributeValue);
 	}
 
 	/**
-	 * Get the value for a changed attribute (always 14).
+	 * Get the value for a changed attribute (14 in the standard rules).
 	 *
 	 * @return The value for a changed attribute
 	 */
-	@SuppressWarnings("SameReturnValue")
 	public int getChangedAttributeValue()
 	{
-		return 14;
+		return getRules().getChangedAttributeValue();
 	}
-}
\ No newline at end of file
+}
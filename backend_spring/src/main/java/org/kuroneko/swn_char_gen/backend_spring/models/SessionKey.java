@@ -0,0 +1,130 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Session identifier held as two longs, 128 bits in all.
+ * <p>
+ * Keeping the key primitive means a lookup hashes and compares two longs instead of a 36 character
+ * String. The string form is the familiar UUID layout, for logs and older callers.
+ */
+public final class SessionKey
+{
+	private final long mHigh;
+	private final long mLow;
+
+	/**
+	 * Create a key from its two halves.
+	 *
+	 * @param theHigh The high 64 bits
+	 * @param theLow  The low 64 bits
+	 */
+	public SessionKey(long theHigh, long theLow)
+	{
+		this.mHigh = theHigh;
+		this.mLow = theLow;
+	}
+
+	/**
+	 * Create a random key, from the SessionKeyGenerator.
+	 *
+	 * @return The key
+	 */
+	public static SessionKey random()
+	{
+		return SessionKeyGenerator.getInstance().next();
+	}
+
+	/**
+	 * Parse a key from its string form.
+	 *
+	 * @param theValue The key in UUID layout
+	 * @return The key
+	 * @throws IllegalArgumentException if the value is not a UUID
+	 */
+	public static SessionKey fromString(String theValue)
+	{
+		if (theValue == null || theValue.length() != 36)
+		{
+			throw new IllegalArgumentException("Invalid session key: " + theValue);
+		}
+		UUID uuid = UUID.fromString(theValue);
+		return new SessionKey(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Get the key for a session id from an older source, such as the servlet session. Ids in UUID
+	 * layout are parsed; anything else is hashed into a name-based UUID, so the same id always gives
+	 * the same key.
+	 *
+	 * @param theId The session id
+	 * @return The key
+	 */
+	public static SessionKey of(String theId)
+	{
+		UUID uuid;
+		try
+		{
+			uuid = UUID.fromString(theId);
+		}
+		catch (IllegalArgumentException e)
+		{
+			uuid = UUID.nameUUIDFromBytes(theId.getBytes(StandardCharsets.UTF_8));
+		}
+		return new SessionKey(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Get the high 64 bits.
+	 *
+	 * @return The high bits
+	 */
+	public long getHigh()
+	{
+		return mHigh;
+	}
+
+	/**
+	 * Get the low 64 bits.
+	 *
+	 * @return The low bits
+	 */
+	public long getLow()
+	{
+		return mLow;
+	}
+
+	@Override
+	public boolean equals(Object theOther)
+	{
+		return (theOther instanceof SessionKey other) && other.mHigh == mHigh && other.mLow == mLow;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Long.hashCode(mHigh * 31 + mLow);
+	}
+
+	/**
+	 * Get the key in UUID layout.
+	 *
+	 * @return The string form
+	 */
+	@Override
+	public String toString()
+	{
+		return new UUID(mHigh, mLow).toString();
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Generator of random session keys that does not funnel every thread through one lock.
+ * <p>
+ * UUID.randomUUID draws from a single shared SecureRandom, which on Linux is NativePRNG reading
+ * /dev/urandom under a global lock, so a burst of new sessions queues threads there. This generator
+ * keeps a set of stripes instead, each with its own DRBG (a NIST SP 800-90A generator seeded from the
+ * system entropy source) and its own lock. A thread starts at the stripe its thread ID picks and moves
+ * on to the next one if that stripe is busy, so threads only wait when every stripe is in use.
+ * <p>
+ * Each stripe draws random bytes a batch of keys at a time, and reseeds its DRBG from the entropy
+ * source after a fixed number of keys. Stripes rather than a ThreadLocal keep the number of DRBG
+ * instances bounded when requests run on virtual threads, which are created per request.
+ */
+public final class SessionKeyGenerator
+{
+	// bytes in a key
+	private static final int KEY_BYTES = 16;
+	// keys drawn from the DRBG at once
+	private static final int BATCH_KEYS = 32;
+	// keys a stripe hands out before reseeding
+	private static final long DEFAULT_RESEED_INTERVAL = 1L << 20;
+
+	// about four stripes per processor, rounded up to a power of two
+	private static final SessionKeyGenerator instance = new SessionKeyGenerator(
+			Math.min(256, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1),
+			DEFAULT_RESEED_INTERVAL);
+
+	private final Stripe[] mStripes;
+	private final long mReseedInterval;
+
+	/**
+	 * Create a generator.
+	 *
+	 * @param theStripeCount    The number of stripes, a power of two
+	 * @param theReseedInterval The number of keys a stripe hands out before reseeding
+	 */
+	SessionKeyGenerator(int theStripeCount, long theReseedInterval)
+	{
+		if (Integer.bitCount(theStripeCount) != 1)
+		{
+			throw new IllegalArgumentException("Stripe count must be a power of two: " + theStripeCount);
+		}
+		mStripes = new Stripe[theStripeCount];
+		for (int index = 0; index < theStripeCount; index++)
+		{
+			mStripes[index] = new Stripe();
+		}
+		mReseedInterval = theReseedInterval;
+	}
+
+	/**
+	 * Get the singleton instance of SessionKeyGenerator.
+	 *
+	 * @return The singleton instance
+	 */
+	public static SessionKeyGenerator getInstance()
+	{
+		return instance;
+	}
+
+	/**
+	 * Generate a random key, all 128 bits unpredictable.
+	 *
+	 * @return The key
+	 */
+	public SessionKey next()
+	{
+		int mask = mStripes.length - 1;
+		int start = (int) Thread.currentThread().threadId() & mask;
+		for (int offset = 0; offset < mStripes.length; offset++)
+		{
+			Stripe stripe = mStripes[(start + offset) & mask];
+			if (stripe.mLock.tryLock())
+			{
+				try
+				{
+					return stripe.next(mReseedInterval);
+				}
+				finally
+				{
+					stripe.mLock.unlock();
+				}
+			}
+		}
+		// every stripe is busy, so wait for the thread's own
+		Stripe stripe = mStripes[start];
+		stripe.mLock.lock();
+		try
+		{
+			return stripe.next(mReseedInterval);
+		}
+		finally
+		{
+			stripe.mLock.unlock();
+		}
+	}
+
+	/**
+	 * Get the number of times the stripes have reseeded.
+	 *
+	 * @return The reseed count
+	 */
+	long getReseedCount()
+	{
+		long count = 0;
+		for (Stripe stripe : mStripes)
+		{
+			stripe.mLock.lock();
+			try
+			{
+				count += stripe.mReseeds;
+			}
+			finally
+			{
+				stripe.mLock.unlock();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Create a DRBG seeded from the system entropy source.
+	 *
+	 * @return The DRBG
+	 */
+	private static SecureRandom newDrbg()
+	{
+		try
+		{
+			return SecureRandom.getInstance("DRBG",
+					DrbgParameters.instantiation(256, DrbgParameters.Capability.RESEED_ONLY, null));
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException("DRBG is not available", e);
+		}
+	}
+
+	/**
+	 * One DRBG with its batch of random bytes, used under its lock.
+	 */
+	private static final class Stripe
+	{
+		private final ReentrantLock mLock = new ReentrantLock();
+		private final SecureRandom mRandom = newDrbg();
+		private final ByteBuffer mBatch = ByteBuffer.allocate(KEY_BYTES * BATCH_KEYS).order(ByteOrder.BIG_ENDIAN);
+		private long mKeysSinceReseed;
+		private long mReseeds;
+
+		/**
+		 * Create a stripe with an empty batch.
+		 */
+		Stripe()
+		{
+			mBatch.position(mBatch.limit());
+		}
+
+		/**
+		 * Take the next key from the batch, refilling and reseeding as needed. The caller holds the lock.
+		 *
+		 * @param theReseedInterval The number of keys to hand out before reseeding
+		 * @return The key
+		 */
+		SessionKey next(long theReseedInterval)
+		{
+			if (!mBatch.hasRemaining())
+			{
+				if (mKeysSinceReseed >= theReseedInterval)
+				{
+					mRandom.reseed();
+					mKeysSinceReseed = 0;
+					mReseeds++;
+				}
+				mRandom.nextBytes(mBatch.array());
+				mBatch.clear();
+			}
+			mKeysSinceReseed++;
+			SessionKey key = new SessionKey(mBatch.getLong(), mBatch.getLong());
+			// wipe the bytes handed out, so the batch never holds keys already in use
+			mBatch.putLong(mBatch.position() - KEY_BYTES, 0).putLong(mBatch.position() - 8, 0);
+			return key;
+		}
+	}
+}
@@ -0,0 +1,543 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Concurrent hash map from session keys to values, with the keys held as primitive longs.
+ * <p>
+ * A lookup hashes two longs and compares two longs, rather than hashing and comparing a 36 character
+ * String, and an entry costs two longs and a reference in flat arrays rather than a String and a map
+ * node. The table uses open addressing with linear probing: slot i holds its key at keys[2i] and
+ * keys[2i + 1] and its value at values[i], and a null value marks an empty slot. Removal shifts later
+ * entries back rather than leaving tombstones, so lookups never probe past deleted entries.
+ * <p>
+ * The map is split into segments by the top bits of the hash, each with its own table and StampedLock.
+ * Reads are optimistic - they take no lock and retry under the read lock only if a write to the same
+ * segment overlapped them. Writes lock one segment, and a segment that fills up grows under its own
+ * lock while the other segments go on serving reads and writes.
+ *
+ * @param <V> The value type
+ */
+public final class SessionMap<V>
+{
+	// must be a power of two
+	private static final int SEGMENT_COUNT = 16;
+	private static final int SEGMENT_SHIFT = 64 - Integer.numberOfTrailingZeros(SEGMENT_COUNT);
+	// slots per segment to start with, a power of two
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final Segment<V>[] mSegments;
+
+	/**
+	 * Create an empty map.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public SessionMap()
+	{
+		mSegments = new Segment[SEGMENT_COUNT];
+		for (int index = 0; index < SEGMENT_COUNT; index++)
+		{
+			mSegments[index] = new Segment<>();
+		}
+	}
+
+	/**
+	 * Get the value for a key.
+	 *
+	 * @param theKey The key
+	 * @return The value, or null if there is none
+	 */
+	public V get(SessionKey theKey)
+	{
+		return get(theKey.getHigh(), theKey.getLow());
+	}
+
+	/**
+	 * Get the value for a key.
+	 *
+	 * @param theHigh The high 64 bits of the key
+	 * @param theLow  The low 64 bits of the key
+	 * @return The value, or null if there is none
+	 */
+	public V get(long theHigh, long theLow)
+	{
+		long hash = hash(theHigh, theLow);
+		return segment(hash).get(theHigh, theLow, hash);
+	}
+
+	/**
+	 * Set the value for a key.
+	 *
+	 * @param theKey   The key
+	 * @param theValue The value, not null
+	 * @return The previous value, or null if there was none
+	 */
+	public V put(SessionKey theKey, V theValue)
+	{
+		return put(theKey.getHigh(), theKey.getLow(), theValue);
+	}
+
+	/**
+	 * Set the value for a key.
+	 *
+	 * @param theHigh  The high 64 bits of the key
+	 * @param theLow   The low 64 bits of the key
+	 * @param theValue The value, not null
+	 * @return The previous value, or null if there was none
+	 * @throws IllegalArgumentException if the value is null
+	 */
+	public V put(long theHigh, long theLow, V theValue)
+	{
+		if (theValue == null)
+		{
+			throw new IllegalArgumentException("Values cannot be null");
+		}
+		long hash = hash(theHigh, theLow);
+		return segment(hash).put(theHigh, theLow, hash, theValue);
+	}
+
+	/**
+	 * Get the value for a key, creating it if there is none. Two threads asking for the same missing key
+	 * get the same value, since the factory runs under a lock and only the first call to get it runs it.
+	 *
+	 * @param theKey     The key
+	 * @param theFactory Creates the value, must not return null
+	 * @return The existing or created value
+	 * @throws IllegalArgumentException if the factory returns null
+	 */
+	public V computeIfAbsent(SessionKey theKey, Supplier<? extends V> theFactory)
+	{
+		return computeIfAbsent(theKey.getHigh(), theKey.getLow(), theFactory);
+	}
+
+	/**
+	 * Get the value for a key, creating it if there is none.
+	 *
+	 * @param theHigh    The high 64 bits of the key
+	 * @param theLow     The low 64 bits of the key
+	 * @param theFactory Creates the value, must not return null
+	 * @return The existing or created value
+	 * @throws IllegalArgumentException if the factory returns null
+	 */
+	public V computeIfAbsent(long theHigh, long theLow, Supplier<? extends V> theFactory)
+	{
+		long hash = hash(theHigh, theLow);
+		return segment(hash).computeIfAbsent(theHigh, theLow, hash, theFactory);
+	}
+
+	/**
+	 * Remove the value for a key.
+	 *
+	 * @param theKey The key
+	 * @return The removed value, or null if there was none
+	 */
+	public V remove(SessionKey theKey)
+	{
+		return remove(theKey.getHigh(), theKey.getLow());
+	}
+
+	/**
+	 * Remove the value for a key.
+	 *
+	 * @param theHigh The high 64 bits of the key
+	 * @param theLow  The low 64 bits of the key
+	 * @return The removed value, or null if there was none
+	 */
+	public V remove(long theHigh, long theLow)
+	{
+		long hash = hash(theHigh, theLow);
+		return segment(hash).remove(theHigh, theLow, hash);
+	}
+
+	/**
+	 * Get the number of entries. Writes running at the same time may or may not be counted.
+	 *
+	 * @return The number of entries
+	 */
+	public int size()
+	{
+		int size = 0;
+		for (Segment<V> segment : mSegments)
+		{
+			size += segment.mSize;
+		}
+		return size;
+	}
+
+	/**
+	 * Call an action with every value. Each segment's values are copied under its read lock and the
+	 * action runs after, so a slow action does not hold up writers. Values added or removed meanwhile
+	 * may or may not be seen.
+	 *
+	 * @param theAction The action
+	 */
+	public void forEachValue(Consumer<? super V> theAction)
+	{
+		List<V> values = new ArrayList<>();
+		for (Segment<V> segment : mSegments)
+		{
+			values.clear();
+			segment.copyValues(values);
+			values.forEach(theAction);
+		}
+	}
+
+	/**
+	 * Get the segment for a hash.
+	 *
+	 * @param theHash The hash
+	 * @return The segment
+	 */
+	private Segment<V> segment(long theHash)
+	{
+		return mSegments[(int) (theHash >>> SEGMENT_SHIFT)];
+	}
+
+	/**
+	 * Hash a key. Random session keys are already well mixed, but this also spreads keys parsed from
+	 * other sources, using the MurmurHash3 finalizer.
+	 *
+	 * @param theHigh The high 64 bits of the key
+	 * @param theLow  The low 64 bits of the key
+	 * @return The hash, the top bits pick the segment and the low bits the slot
+	 */
+	static long hash(long theHigh, long theLow)
+	{
+		long hash = theHigh * 0x9E3779B97F4A7C15L + theLow;
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB9FE1A85EC53L;
+		return hash ^ (hash >>> 33);
+	}
+
+	/**
+	 * Slot arrays of a segment. A resize builds new ones, so a reader always sees keys and values of the
+	 * same size.
+	 */
+	private static final class Table
+	{
+		final long[] mKeys;
+		final Object[] mValues;
+
+		/**
+		 * Create empty slot arrays.
+		 *
+		 * @param theCapacity The number of slots, a power of two
+		 */
+		Table(int theCapacity)
+		{
+			mKeys = new long[theCapacity * 2];
+			mValues = new Object[theCapacity];
+		}
+	}
+
+	/**
+	 * One segment of the map, an open addressing table behind its own lock.
+	 *
+	 * @param <V> The value type
+	 */
+	private static final class Segment<V>
+	{
+		private final StampedLock mLock = new StampedLock();
+		private volatile Table mTable = new Table(INITIAL_CAPACITY);
+		private volatile int mSize;
+
+		/**
+		 * Get the value for a key, without locking unless a write overlaps.
+		 *
+		 * @param theHigh The high 64 bits of the key
+		 * @param theLow  The low 64 bits of the key
+		 * @param theHash The hash of the key
+		 * @return The value, or null if there is none
+		 */
+		V get(long theHigh, long theLow, long theHash)
+		{
+			long stamp = mLock.tryOptimisticRead();
+			// an overlapping write can show a half-moved entry, so the result only counts if validated
+			Object value = find(mTable, theHigh, theLow, theHash);
+			if (!mLock.validate(stamp))
+			{
+				stamp = mLock.readLock();
+				try
+				{
+					value = find(mTable, theHigh, theLow, theHash);
+				}
+				finally
+				{
+					mLock.unlockRead(stamp);
+				}
+			}
+			@SuppressWarnings("unchecked")
+			V result = (V) value;
+			return result;
+		}
+
+		/**
+		 * Find the value for a key in slot arrays. Safe to call during a write, since every probe
+		 * stays within the arrays and the probe count is bounded, but the answer may then be wrong.
+		 *
+		 * @param theTable The slot arrays
+		 * @param theHigh  The high 64 bits of the key
+		 * @param theLow   The low 64 bits of the key
+		 * @param theHash  The hash of the key
+		 * @return The value, or null if there is none
+		 */
+		private static Object find(Table theTable, long theHigh, long theLow, long theHash)
+		{
+			long[] keys = theTable.mKeys;
+			Object[] values = theTable.mValues;
+			int mask = values.length - 1;
+			int slot = (int) theHash & mask;
+			for (int probe = 0; probe < values.length; probe++)
+			{
+				Object value = values[slot];
+				if (value == null)
+				{
+					return null;
+				}
+				if (keys[slot * 2] == theHigh && keys[slot * 2 + 1] == theLow)
+				{
+					return value;
+				}
+				slot = (slot + 1) & mask;
+			}
+			return null;
+		}
+
+		/**
+		 * Set the value for a key.
+		 *
+		 * @param theHigh  The high 64 bits of the key
+		 * @param theLow   The low 64 bits of the key
+		 * @param theHash  The hash of the key
+		 * @param theValue The value
+		 * @return The previous value, or null if there was none
+		 */
+		V put(long theHigh, long theLow, long theHash, V theValue)
+		{
+			long stamp = mLock.writeLock();
+			try
+			{
+				Table table = mTable;
+				long[] keys = table.mKeys;
+				Object[] values = table.mValues;
+				int mask = values.length - 1;
+				int slot = (int) theHash & mask;
+				while (values[slot] != null)
+				{
+					if (keys[slot * 2] == theHigh && keys[slot * 2 + 1] == theLow)
+					{
+						@SuppressWarnings("unchecked")
+						V previous = (V) values[slot];
+						values[slot] = theValue;
+						return previous;
+					}
+					slot = (slot + 1) & mask;
+				}
+				insert(table, slot, theHigh, theLow, theValue);
+				return null;
+			}
+			finally
+			{
+				mLock.unlockWrite(stamp);
+			}
+		}
+
+		/**
+		 * Get the value for a key, creating it if there is none. A key that is present is found with an
+		 * optimistic read; only a missing key takes the write lock, and is looked for again under it.
+		 *
+		 * @param theHigh    The high 64 bits of the key
+		 * @param theLow     The low 64 bits of the key
+		 * @param theHash    The hash of the key
+		 * @param theFactory Creates the value, called under the segment's write lock
+		 * @return The existing or created value
+		 */
+		V computeIfAbsent(long theHigh, long theLow, long theHash, Supplier<? extends V> theFactory)
+		{
+			V existing = get(theHigh, theLow, theHash);
+			if (existing != null)
+			{
+				return existing;
+			}
+			long stamp = mLock.writeLock();
+			try
+			{
+				Table table = mTable;
+				long[] keys = table.mKeys;
+				Object[] values = table.mValues;
+				int mask = values.length - 1;
+				int slot = (int) theHash & mask;
+				while (values[slot] != null)
+				{
+					if (keys[slot * 2] == theHigh && keys[slot * 2 + 1] == theLow)
+					{
+						@SuppressWarnings("unchecked")
+						V found = (V) values[slot];
+						return found;
+					}
+					slot = (slot + 1) & mask;
+				}
+				V created = theFactory.get();
+				if (created == null)
+				{
+					throw new IllegalArgumentException("Values cannot be null");
+				}
+				insert(table, slot, theHigh, theLow, created);
+				return created;
+			}
+			finally
+			{
+				mLock.unlockWrite(stamp);
+			}
+		}
+
+		/**
+		 * Fill an empty slot, growing the table if it is now too full. The caller holds the write lock.
+		 *
+		 * @param theTable The current slot arrays
+		 * @param theSlot  The empty slot at the end of the key's probe run
+		 * @param theHigh  The high 64 bits of the key
+		 * @param theLow   The low 64 bits of the key
+		 * @param theValue The value
+		 */
+		private void insert(Table theTable, int theSlot, long theHigh, long theLow, Object theValue)
+		{
+			theTable.mKeys[theSlot * 2] = theHigh;
+			theTable.mKeys[theSlot * 2 + 1] = theLow;
+			theTable.mValues[theSlot] = theValue;
+			int size = mSize + 1;
+			mSize = size;
+			// grow at two thirds full, linear probing slows quickly past that
+			if (size * 3 >= theTable.mValues.length * 2)
+			{
+				mTable = resize(theTable);
+			}
+		}
+
+		/**
+		 * Remove the value for a key, shifting back later entries of the probe run into the gap.
+		 *
+		 * @param theHigh The high 64 bits of the key
+		 * @param theLow  The low 64 bits of the key
+		 * @param theHash The hash of the key
+		 * @return The removed value, or null if there was none
+		 */
+		V remove(long theHigh, long theLow, long theHash)
+		{
+			long stamp = mLock.writeLock();
+			try
+			{
+				Table table = mTable;
+				long[] keys = table.mKeys;
+				Object[] values = table.mValues;
+				int mask = values.length - 1;
+				int slot = (int) theHash & mask;
+				while (values[slot] != null && (keys[slot * 2] != theHigh || keys[slot * 2 + 1] != theLow))
+				{
+					slot = (slot + 1) & mask;
+				}
+				if (values[slot] == null)
+				{
+					return null;
+				}
+				@SuppressWarnings("unchecked")
+				V removed = (V) values[slot];
+
+				// Knuth's algorithm R: move back any later entry whose home slot is not between the gap and it
+				int gap = slot;
+				int next = (gap + 1) & mask;
+				while (values[next] != null)
+				{
+					int home = (int) hash(keys[next * 2], keys[next * 2 + 1]) & mask;
+					if (((next - home) & mask) >= ((next - gap) & mask))
+					{
+						keys[gap * 2] = keys[next * 2];
+						keys[gap * 2 + 1] = keys[next * 2 + 1];
+						values[gap] = values[next];
+						gap = next;
+					}
+					next = (next + 1) & mask;
+				}
+				values[gap] = null;
+				mSize = mSize - 1;
+				return removed;
+			}
+			finally
+			{
+				mLock.unlockWrite(stamp);
+			}
+		}
+
+		/**
+		 * Copy the values into a list.
+		 *
+		 * @param theValues The list to add to
+		 */
+		void copyValues(List<V> theValues)
+		{
+			long stamp = mLock.readLock();
+			try
+			{
+				for (Object value : mTable.mValues)
+				{
+					if (value != null)
+					{
+						@SuppressWarnings("unchecked")
+						V typed = (V) value;
+						theValues.add(typed);
+					}
+				}
+			}
+			finally
+			{
+				mLock.unlockRead(stamp);
+			}
+		}
+
+		/**
+		 * Build slot arrays twice the size holding the same entries.
+		 *
+		 * @param theTable The full slot arrays
+		 * @return The new slot arrays
+		 */
+		private static Table resize(Table theTable)
+		{
+			Table table = new Table(theTable.mValues.length * 2);
+			int mask = table.mValues.length - 1;
+			for (int old = 0; old < theTable.mValues.length; old++)
+			{
+				Object value = theTable.mValues[old];
+				if (value != null)
+				{
+					long high = theTable.mKeys[old * 2];
+					long low = theTable.mKeys[old * 2 + 1];
+					int slot = (int) hash(high, low) & mask;
+					while (table.mValues[slot] != null)
+					{
+						slot = (slot + 1) & mask;
+					}
+					table.mKeys[slot * 2] = high;
+					table.mKeys[slot * 2 + 1] = low;
+					table.mValues[slot] = value;
+				}
+			}
+			return table;
+		}
+	}
+}
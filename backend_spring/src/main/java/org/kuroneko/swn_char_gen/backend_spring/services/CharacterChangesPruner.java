@@ -0,0 +1,55 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterChanges;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background pruner for the CharacterChanges channels.
+ * <p>
+ * Every swn.changes.prune-interval-ms it releases the channels of sessions with no listeners that have
+ * published nothing for swn.changes.idle-ms, so sessions that are gone do not keep their recent
+ * changes in memory.
+ */
+@Component
+public class CharacterChangesPruner
+{
+	private static final Logger logger = LoggerFactory.getLogger(CharacterChangesPruner.class);
+	private final long idleMillis;
+
+	/**
+	 * Create the pruner.
+	 *
+	 * @param theIdleMillis How long a channel must be idle to release, in milliseconds
+	 */
+	public CharacterChangesPruner(@Value("${swn.changes.idle-ms:900000}") long theIdleMillis)
+	{
+		this.idleMillis = theIdleMillis;
+	}
+
+	/**
+	 * Release every channel that has no listeners and has been idle for the idle time.
+	 */
+	@Scheduled(fixedDelayString = "${swn.changes.prune-interval-ms:60000}")
+	public void prune()
+	{
+		int pruned = CharacterChanges.getInstance().prune(System.currentTimeMillis() - idleMillis);
+		if (pruned > 0)
+		{
+			logger.debug("Released {} idle change channels", pruned);
+		}
+	}
+}
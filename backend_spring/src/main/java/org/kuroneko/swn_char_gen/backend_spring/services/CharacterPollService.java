@@ -0,0 +1,180 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterChanges;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Long-polls the changes to a session's character, for clients that cannot use the event stream or
+ * the WebSocket.
+ * <p>
+ * The client passes the last version it has seen. Changes it has not seen are answered at once;
+ * otherwise the request is parked as a DeferredResult, an async servlet response that holds no thread,
+ * with a one-shot listener on CharacterChanges. A change wakes only the waiters of its own session, and
+ * waking one just sets its result, so the response is written on a container thread rather than the
+ * session's actor. After swn.poll.timeout-ms with no change the request is answered with no changes.
+ * The reactive controller waits on the same listener through watch.
+ * <p>
+ * A client whose version is too old for the changes still kept, or from before a restart, is sent the
+ * whole character with "reset" set, and carries on from its version.
+ */
+@Service
+public class CharacterPollService
+{
+	private final CharacterService characterService;
+	private final long timeout;
+
+	/**
+	 * Create the service.
+	 *
+	 * @param characterService The service the whole characters come from
+	 * @param theTimeout       Milliseconds a request waits for a change
+	 */
+	public CharacterPollService(CharacterService characterService,
+								@Value("${swn.poll.timeout-ms:30000}") long theTimeout)
+	{
+		this.characterService = characterService;
+		this.timeout = theTimeout;
+	}
+
+	/**
+	 * Get the changes to a session's character after a version, waiting for one if there are none yet.
+	 *
+	 * @param session The session key
+	 * @param since   The last version the client has seen, 0 for none
+	 * @return The result, set to the new version and its changes, or the whole character on a reset
+	 */
+	public DeferredResult<Map<String, Object>> poll(SessionKey session, long since)
+	{
+		DeferredResult<Map<String, Object>> result = new DeferredResult<>(timeout);
+		CompletableFuture<Map<String, Object>> changes = watch(session, since);
+		changes.whenComplete((answer, error) ->
+		{
+			if (error == null)
+			{
+				result.setResult(answer);
+			}
+			else if (!(error instanceof CancellationException))
+			{
+				result.setErrorResult(error);
+			}
+		});
+		// called after a timeout or error as well, and stops listening
+		result.onCompletion(() -> changes.cancel(false));
+		result.onTimeout(() -> result.setResult(noChanges(since)));
+		return result;
+	}
+
+	/**
+	 * Get the changes to a session's character after a version, once there are any. This is the wait
+	 * behind poll, for callers that time it out themselves, such as the reactive controller.
+	 *
+	 * @param session The session key
+	 * @param since   The last version the client has seen, 0 for none
+	 * @return The reply, completed with the new version and its changes, or the whole character on a
+	 *         reset; cancel it to stop waiting
+	 */
+	public CompletableFuture<Map<String, Object>> watch(SessionKey session, long since)
+	{
+		CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+		CharacterChanges changes = CharacterChanges.getInstance();
+		// listen before looking, so a change published in between still wakes the request
+		Runnable unsubscribe = changes.subscribe(session, change ->
+		{
+			if (!result.isDone())
+			{
+				answer(result, session, since);
+			}
+		});
+		// runs once the reply is completed, cancelled, or failed
+		result.whenComplete((answer, error) -> unsubscribe.run());
+		List<Map<String, Object>> newer = changes.since(session, since);
+		if (newer == null || !newer.isEmpty())
+		{
+			answer(result, session, since);
+		}
+		return result;
+	}
+
+	/**
+	 * Get the milliseconds a request waits for a change.
+	 *
+	 * @return The timeout
+	 */
+	public long getTimeout()
+	{
+		return timeout;
+	}
+
+	/**
+	 * Build the answer for a request that timed out with no changes.
+	 *
+	 * @param since The last version the client has seen
+	 * @return The answer, the same version and no changes
+	 */
+	public static Map<String, Object> noChanges(long since)
+	{
+		return toResult(since, List.of());
+	}
+
+	/**
+	 * Answer a request with the changes after its version, or the whole character if they are not kept.
+	 *
+	 * @param result  The request's reply
+	 * @param session The session key
+	 * @param since   The last version the client has seen
+	 */
+	private void answer(CompletableFuture<Map<String, Object>> result, SessionKey session, long since)
+	{
+		try
+		{
+			List<Map<String, Object>> newer = CharacterChanges.getInstance().since(session, since);
+			if (newer != null)
+			{
+				result.complete(toResult(newer.isEmpty() ? since : (Long) newer.get(newer.size() - 1).get("version"), newer));
+				return;
+			}
+			// a listener may get here on the session's actor, which CharacterActors lets ask its own session
+			Map<String, Object> reset = new LinkedHashMap<>(characterService.getVersionedCharacter(session));
+			reset.put("reset", true);
+			result.complete(reset);
+		}
+		catch (RuntimeException e)
+		{
+			result.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * Build the answer for a list of changes.
+	 *
+	 * @param version The version after the changes
+	 * @param changes The changes, oldest first
+	 * @return The answer
+	 */
+	private static Map<String, Object> toResult(long version, List<Map<String, Object>> changes)
+	{
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("version", version);
+		result.put("changes", changes);
+		return result;
+	}
+}
@@ -10,175 +10,665 @@
 package org.kuroneko.swn_char_gen.backend_spring.services;
 
 import org.kuroneko.swn_char_gen.backend_spring.models.AttributeEnum;
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterChanges;
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterEvent;
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterEventType;
 import org.kuroneko.swn_char_gen.backend_spring.models.CharacterStore;
 import org.kuroneko.swn_char_gen.backend_spring.models.DetailEnum;
+import org.kuroneko.swn_char_gen.backend_spring.models.Party;
+import org.kuroneko.swn_char_gen.backend_spring.models.RollAuditLog;
+import org.kuroneko.swn_char_gen.backend_spring.models.RulesetRegistry;
 import org.kuroneko.swn_char_gen.backend_spring.models.SWNChar;
+import org.kuroneko.swn_char_gen.backend_spring.models.SWNRules;
+import org.kuroneko.swn_char_gen.backend_spring.models.SWNSimulationResult;
+import org.kuroneko.swn_char_gen.backend_spring.models.SWNSimulator;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
 import org.springframework.stereotype.Service;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
-
-import jakarta.servlet.http.HttpSession;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.SplittableRandom;
+import java.util.function.Function;
 
 /**
  * Service for SWN character operations.
+ * <p>
+ * Operations on a session's character go through CharacterStore.mutate and its siblings, which find
+ * the character with one lookup and run the operation as a message to the session's actor, so they
+ * happen one at a time and in order without locking the store.
+ * <p>
+ * Each operation takes the session key, which the controllers resolve from the session cookie, so
+ * the service does not depend on the servlet request.
+ * <p>
+ * The party operations work on the session's Party, the characters it holds by id.
+ * <p>
+ * Each change to a session's character is published to CharacterChanges, for clients following it.
  */
 @Service
 public class CharacterService
 {
+	/**
+	 * Largest simulation run for a single request, about a second of work per core.
+	 */
+	public static final long MAX_SIMULATED_CHARACTERS = 100_000_000L;
 
 	/**
-	 * Get the current HTTP session.
-	 *
-	 * @return The current HTTP session
+	 * Most party characters listed on one page.
 	 */
-	private HttpSession getCurrentSession()
-	{
-		ServletRequestAttributes attr = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
-		return attr.getRequest().getSession(true);
-	}
+	public static final int MAX_PAGE_SIZE = 100;
 
 	/**
-	 * Get or create a session ID.
-	 *
-	 * @return The session ID
+	 * Most party characters fetched by one batch get, enough for a whole party.
 	 */
-	public String getOrCreateSessionId()
-	{
-		HttpSession session = getCurrentSession();
-		String sessionId = (String) session.getAttribute("session_id");
-		if (sessionId == null)
-		{
-			sessionId = UUID.randomUUID().toString();
-			session.setAttribute("session_id", sessionId);
-		}
-		return sessionId;
-	}
+	public static final int MAX_BATCH_SIZE = Party.MAX_CHARACTERS;
 
 	/**
 	 * Upload a character from JSON data.
 	 *
+	 * @param session       The session key
 	 * @param characterData A Map containing character data
 	 * @return The uploaded character data as a Map
 	 */
-	public Map<String, Object> uploadCharacter(Map<String, Object> characterData) throws IOException
+	public Map<String, Object> uploadCharacter(SessionKey session, Map<String, Object> characterData) throws IOException
 	{
-		String sessionId = getOrCreateSessionId();
 		// Create a new character from the uploaded data
 		SWNChar character = new SWNChar(characterData);
-		// Store the character
-		CharacterStore.getInstance().storeCharacter(sessionId, character);
-		return character.toMap();
+		// Store the character, after any operation already queued for the old one
+		return CharacterStore.getInstance().replace(session, character, stored -> publishChange(session, stored, "UPLOAD"));
 	}
 
 	/**
-	 * Create a new character.
+	 * Create a new character using a specific ruleset.
 	 *
+	 * @param session   The session key
+	 * @param rulesetId The ruleset id, or null for the standard SWN rules
 	 * @return The new character data as a Map
+	 * @throws IllegalArgumentException if the ruleset is unknown
 	 */
-	public Map<String, Object> createNewCharacter()
+	public Map<String, Object> createNewCharacter(SessionKey session, String rulesetId)
 	{
-		String sessionId = getOrCreateSessionId();
-		SWNChar character = new SWNChar();
-		CharacterStore.getInstance().storeCharacter(sessionId, character);
-		return character.toMap();
+		SWNChar character = SWNChar.forRuleset(rulesetId);
+		return CharacterStore.getInstance().replace(session, character, stored -> publishChange(session, stored, "NEW"));
 	}
 
 	/**
-	 * Get the current character.
+	 * Get a summary of the available rulesets.
 	 *
-	 * @return The current character data as a Map
+	 * @return A list of ruleset summaries ordered by id
 	 */
-	public Map<String, Object> getCharacter()
+	public List<Map<String, Object>> getRulesets()
 	{
-		String sessionId = getOrCreateSessionId();
-		CharacterStore store = CharacterStore.getInstance();
+		List<Map<String, Object>> result = new ArrayList<>();
+		for (SWNRules rules : RulesetRegistry.getInstance().getRulesets())
+		{
+			Map<String, Object> summary = new LinkedHashMap<>();
+			summary.put("id", rules.getId());
+			summary.put("name", rules.getName());
+			summary.put("version", rules.getVersion());
+			summary.put("dice", rules.getDice().toString());
+			summary.put("changedAttributeValue", rules.getChangedAttributeValue());
+			result.add(summary);
+		}
+		return result;
+	}
 
-		if (store.characterMissing(sessionId))
+	/**
+	 * Run a Monte Carlo simulation of character generation for a ruleset.
+	 *
+	 * @param rulesetId  The ruleset id, or null for the standard SWN rules
+	 * @param characters The number of characters to generate
+	 * @param seed       The random seed, or null for a random run
+	 * @return The simulation statistics as a Map
+	 * @throws IllegalArgumentException if the ruleset is unknown or the number of characters is out of range
+	 */
+	public Map<String, Object> simulate(String rulesetId, long characters, Long seed)
+	{
+		if (characters < 1 || characters > MAX_SIMULATED_CHARACTERS)
 		{
-			SWNChar character = new SWNChar();
-			store.storeCharacter(sessionId, character);
-			return character.toMap();
+			throw new IllegalArgumentException("Number of characters must be between 1 and " + MAX_SIMULATED_CHARACTERS);
 		}
-		else
+
+		SWNRules rules = RulesetRegistry.getInstance().getRuleset(rulesetId);
+		long runSeed = (seed == null) ? new SplittableRandom().nextLong() : seed;
+		SWNSimulationResult result = new SWNSimulator(rules).run(characters, runSeed, null);
+		return toSimulationMap(result, runSeed);
+	}
+
+	/**
+	 * Convert simulation statistics to a Map for JSON serialization.
+	 *
+	 * @param result The simulation statistics
+	 * @param seed   The seed the simulation ran with
+	 * @return The statistics as a Map
+	 */
+	private Map<String, Object> toSimulationMap(SWNSimulationResult result, long seed)
+	{
+		Map<String, Long> attributeCounts = new LinkedHashMap<>();
+		for (int value = 1; value <= result.getMaxAttribute(); value++)
 		{
-			SWNChar character = store.getCharacter(sessionId);
-			return character.toMap();
+			if (result.getAttributeCount(value) > 0)
+			{
+				attributeCounts.put(String.valueOf(value), result.getAttributeCount(value));
+			}
+		}
+		Map<String, Long> modifierSumCounts = new LinkedHashMap<>();
+		Map<String, Long> changedModifierSumCounts = new LinkedHashMap<>();
+		for (int sum = result.getMinModifierSum(); sum <= result.getMaxModifierSum(); sum++)
+		{
+			modifierSumCounts.put(String.valueOf(sum), result.getModifierSumCount(sum));
+			changedModifierSumCounts.put(String.valueOf(sum), result.getChangedModifierSumCount(sum));
+		}
+		Map<String, Long> changeGainCounts = new LinkedHashMap<>();
+		for (int gain = 0; gain <= result.getMaxChangeGain(); gain++)
+		{
+			changeGainCounts.put(String.valueOf(gain), result.getChangeGainCount(gain));
 		}
+
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("rulesetId", result.getRulesetId());
+		summary.put("rulesVersion", result.getRulesVersion());
+		summary.put("seed", seed);
+		summary.put("characters", result.getCharacters());
+		summary.put("elapsedMillis", result.getElapsedNanos() / 1_000_000);
+		summary.put("charactersPerSecond", result.getCharactersPerSecond());
+		summary.put("attributeCounts", attributeCounts);
+		summary.put("meanModifierSum", result.getMeanModifierSum());
+		summary.put("modifierSumCounts", modifierSumCounts);
+		summary.put("meanChangedModifierSum", result.getMeanChangedModifierSum());
+		summary.put("changedModifierSumCounts", changedModifierSumCounts);
+		summary.put("changeGainCounts", changeGainCounts);
+		return summary;
+	}
+
+	/**
+	 * Get the current character.
+	 *
+	 * @param session The session key
+	 * @return The current character data as a Map
+	 */
+	public Map<String, Object> getCharacter(SessionKey session)
+	{
+		return CharacterStore.getInstance().mutateOrCreate(session, SWNChar::toMap);
 	}
 
 	/**
 	 * Roll attributes for the current character.
 	 *
+	 * @param session The session key
 	 * @return The updated character data as a Map
 	 */
-	public Map<String, Object> rollAttributes()
+	public Map<String, Object> rollAttributes(SessionKey session)
 	{
-		String sessionId = getOrCreateSessionId();
-		CharacterStore store = CharacterStore.getInstance();
-
-		if (store.characterMissing(sessionId))
+		return CharacterStore.getInstance().mutateOrCreate(session, character ->
 		{
-			SWNChar character = new SWNChar();
-			store.storeCharacter(sessionId, character);
 			character.rollAttributes();
-			return character.toMap();
+			auditRoll(session, character, RollAuditLog.TYPE_ROLL, 1);
+			return publishChange(session, character, null);
+		});
+	}
+
+	/**
+	 * Roll attributes for the current character until they meet the given constraints.
+	 * The rerolling happens here rather than in repeated requests from the client.
+	 *
+	 * @param session             The session key
+	 * @param minModifierSum      The lowest acceptable total modifier, or null for no limit
+	 * @param minHighestAttribute The value at least one attribute must reach, or null for no limit
+	 * @return The updated character data as a Map
+	 * @throws IllegalArgumentException if the constraints are too unlikely to meet
+	 */
+	public Map<String, Object> rollAttributes(SessionKey session, Integer minModifierSum, Integer minHighestAttribute)
+	{
+		return CharacterStore.getInstance().mutateOrCreate(session, character ->
+		{
+			int attempts = character.rollAttributes(minModifierSum == null ? Integer.MIN_VALUE : minModifierSum,
+													minHighestAttribute == null ? 0 : minHighestAttribute);
+			auditRoll(session, character, RollAuditLog.TYPE_CONSTRAINED_ROLL, attempts);
+			return publishChange(session, character, null);
+		});
+	}
+
+	/**
+	 * Record the character's last roll in the roll audit log, if it is open.
+	 *
+	 * @param session   The session that rolled
+	 * @param character The character rolled
+	 * @param type      The roll type, see RollAuditLog
+	 * @param attempts  The number of rolls it took
+	 */
+	static void auditRoll(SessionKey session, SWNChar character, byte type, int attempts)
+	{
+		RollAuditLog auditLog = RollAuditLog.getInstance();
+		if (!auditLog.isOpen())
+		{
+			return;
 		}
-		else
+		CharacterEvent roll = character.getLastEvent();
+		if (roll != null && roll.getType() == CharacterEventType.ROLL_ATTRIBUTES)
 		{
-			SWNChar character = store.getCharacter(sessionId);
-			character.rollAttributes();
-			return character.toMap();
+			auditLog.record(session, roll, character.getRules(), type, attempts);
 		}
 	}
 
 	/**
 	 * Change an attribute for the current character.
 	 *
+	 * @param session       The session key
 	 * @param attributeName The name of the attribute to change
 	 * @return The updated character data as a Map
 	 * @throws IllegalArgumentException if no character is found or the attribute is invalid
 	 */
-	public Map<String, Object> changeAttribute(String attributeName)
+	public Map<String, Object> changeAttribute(SessionKey session, String attributeName)
 	{
-		String sessionId = getOrCreateSessionId();
-		CharacterStore store = CharacterStore.getInstance();
+		return CharacterStore.getInstance().mutate(session, character ->
+		{
+			AttributeEnum attributeEnum = AttributeEnum.valueOf(attributeName.toUpperCase());
+			character.changeOneAttribute(attributeEnum);
+			return publishChange(session, character, null);
+		});
+	}
 
-		if (store.characterMissing(sessionId))
+	/**
+	 * Undo the last roll or attribute change of the current character.
+	 *
+	 * @param session The session key
+	 * @return The character data as a Map
+	 * @throws IllegalArgumentException if no character is found or there is nothing to undo
+	 */
+	public Map<String, Object> undo(SessionKey session)
+	{
+		return CharacterStore.getInstance().mutate(session, character ->
 		{
-			throw new IllegalArgumentException("No character found");
+			character.undo();
+			return publishChange(session, character, "UNDO");
+		});
+	}
+
+	/**
+	 * Redo the last undone roll or attribute change of the current character.
+	 *
+	 * @param session The session key
+	 * @return The character data as a Map
+	 * @throws IllegalArgumentException if no character is found or there is nothing to redo
+	 */
+	public Map<String, Object> redo(SessionKey session)
+	{
+		return CharacterStore.getInstance().mutate(session, character ->
+		{
+			character.redo();
+			return publishChange(session, character, "REDO");
+		});
+	}
+
+	/**
+	 * Get the changes still held in the current character's event log, for audits.
+	 *
+	 * @param session The session key
+	 * @return The events as a List of Maps, oldest first
+	 * @throws IllegalArgumentException if no character is found
+	 */
+	public List<Map<String, Object>> getEvents(SessionKey session)
+	{
+		return CharacterStore.getInstance().mutate(session, character ->
+		{
+			List<Map<String, Object>> events = new ArrayList<>();
+			for (CharacterEvent event : character.getEvents())
+			{
+				events.add(toEventMap(event));
+			}
+			return events;
+		});
+	}
+
+	/**
+	 * Publish a change to the session's character to its followers, see CharacterChanges, and get the
+	 * character's data. Runs on the session's actor, so changes are published in the order they are made.
+	 *
+	 * @param session   The session key
+	 * @param character The changed character
+	 * @param type      The type of a change that replaces the whole character, such as "UNDO", or null
+	 *                  to describe the change by the character's last event
+	 * @return The character data as a Map
+	 */
+	private Map<String, Object> publishChange(SessionKey session, SWNChar character, String type)
+	{
+		Map<String, Object> data = character.toMap();
+		CharacterEvent event = (type == null) ? character.getLastEvent() : null;
+		Map<String, Object> change;
+		if (event != null)
+		{
+			change = toEventMap(event);
+		}
+		else
+		{
+			change = new LinkedHashMap<>();
+			change.put("type", type == null ? "CHARACTER" : type);
+			change.put("character", data);
 		}
+		CharacterChanges.getInstance().publish(session, change);
+		return data;
+	}
 
-		SWNChar character = store.getCharacter(sessionId);
-		AttributeEnum attributeEnum = AttributeEnum.valueOf(attributeName.toUpperCase());
-		character.changeOneAttribute(attributeEnum);
-		return character.toMap();
+	/**
+	 * Get the session's character with its version, the starting point for following its changes.
+	 * Creates the character if there is none.
+	 *
+	 * @param session The session key
+	 * @return The version and the character data
+	 */
+	public Map<String, Object> getVersionedCharacter(SessionKey session)
+	{
+		return CharacterStore.getInstance().mutateOrCreate(session, character ->
+		{
+			Map<String, Object> result = new LinkedHashMap<>();
+			// read on the actor, so no change is published between the version and the data
+			result.put("version", CharacterChanges.getInstance().getVersion(session));
+			result.put("character", character.toMap());
+			return result;
+		});
+	}
+
+	/**
+	 * Convert a character event to a Map for JSON serialization.
+	 *
+	 * @param event The event
+	 * @return The event as a Map
+	 */
+	private Map<String, Object> toEventMap(CharacterEvent event)
+	{
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("type", event.getType().name());
+		map.put("timestamp", event.getTimestamp());
+		if (event.getType() == CharacterEventType.ROLL_ATTRIBUTES)
+		{
+			Map<String, Integer> values = new LinkedHashMap<>();
+			int[] rolled = event.getValues();
+			for (int index = 0; index < AttributeEnum.COUNT; index++)
+			{
+				values.put(AttributeEnum.values()[index].name(), rolled[index]);
+			}
+			map.put("values", values);
+		}
+		else if (event.getType() == CharacterEventType.CHANGE_ATTRIBUTE)
+		{
+			map.put("attribute", event.getAttribute().name());
+			map.put("value", event.getValue());
+		}
+		else if (event.getType() == CharacterEventType.SET_DETAIL)
+		{
+			map.put("detail", event.getDetail().name());
+			map.put("value", event.getText());
+		}
+		return map;
+	}
+
+	/**
+	 * Get the odds of the current character's rolled attributes.
+	 *
+	 * @param session The session key
+	 * @return The odds as a Map
+	 * @throws IllegalArgumentException if no character is found or its attributes have not been rolled
+	 */
+	public Map<String, Object> getOdds(SessionKey session)
+	{
+		return CharacterStore.getInstance().mutate(session, SWNChar::calculateOdds);
 	}
 
 	/**
 	 * Set a detail for the current character.
 	 *
+	 * @param session     The session key
 	 * @param detailName  The name of the detail to set
 	 * @param detailValue The value to set
 	 * @return The updated character data as a Map
 	 * @throws IllegalArgumentException if no character is found or the detail is invalid
 	 */
-	public Map<String, Object> setDetail(String detailName, String detailValue)
+	public Map<String, Object> setDetail(SessionKey session, String detailName, String detailValue)
 	{
-		String sessionId = getOrCreateSessionId();
-		CharacterStore store = CharacterStore.getInstance();
+		return CharacterStore.getInstance().mutate(session, character ->
+		{
+			DetailEnum detailEnum = DetailEnum.valueOf(detailName.toUpperCase());
+			character.setDetail(detailEnum, detailValue);
+			return publishChange(session, character, null);
+		});
+	}
 
-		if (store.characterMissing(sessionId))
+	/**
+	 * Create a character in the session's party.
+	 *
+	 * @param session   The session key
+	 * @param rulesetId The ruleset id, or null for the standard SWN rules
+	 * @return The new character's id and data
+	 * @throws IllegalArgumentException if the ruleset is unknown or the party is full
+	 */
+	public Map<String, Object> createPartyCharacter(SessionKey session, String rulesetId)
+	{
+		SWNChar character = SWNChar.forRuleset(rulesetId);
+		return CharacterStore.getInstance().mutateParty(session, party ->
 		{
-			throw new IllegalArgumentException("No character found");
+			int id = party.add(character);
+			Map<String, Object> result = new LinkedHashMap<>();
+			result.put("id", id);
+			result.put("character", character.toMap());
+			return result;
+		});
+	}
+
+	/**
+	 * List a page of the session's party, with the name and ruleset of each character rather than
+	 * the whole character.
+	 *
+	 * @param session The session key
+	 * @param after   The last id of the previous page, or 0 for the first page
+	 * @param limit   The most characters to list
+	 * @return The page, with the party size and the cursor of the next page if there is one
+	 * @throws IllegalArgumentException if the limit is out of range
+	 */
+	public Map<String, Object> listPartyCharacters(SessionKey session, int after, int limit)
+	{
+		if (limit < 1 || limit > MAX_PAGE_SIZE)
+		{
+			throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+		}
+		return CharacterStore.getInstance().mutateParty(session, party ->
+		{
+			// one more than asked for shows whether there is another page
+			int[] ids = party.page(after, limit + 1);
+			List<Map<String, Object>> characters = new ArrayList<>();
+			for (int index = 0; index < Math.min(limit, ids.length); index++)
+			{
+				SWNChar character = party.get(ids[index]);
+				Map<String, Object> summary = new LinkedHashMap<>();
+				summary.put("id", ids[index]);
+				summary.put("name", character.getName());
+				summary.put("rulesetId", character.getRulesetId());
+				characters.add(summary);
+			}
+			Map<String, Object> result = new LinkedHashMap<>();
+			result.put("characters", characters);
+			result.put("count", party.size());
+			result.put("next", ids.length > limit ? ids[limit - 1] : null);
+			return result;
+		});
+	}
+
+	/**
+	 * Get a character of the session's party.
+	 *
+	 * @param session The session key
+	 * @param id      The character's id
+	 * @return The character data as a Map
+	 * @throws IllegalArgumentException if the party has no character with the id
+	 */
+	public Map<String, Object> getPartyCharacter(SessionKey session, int id)
+	{
+		return mutatePartyCharacter(session, id, SWNChar::toMap);
+	}
+
+	/**
+	 * Get many characters of the session's party at once, for GM screens showing every player.
+	 * The party is reached once for the whole batch rather than once per character.
+	 *
+	 * @param session The session key
+	 * @param ids     The characters' ids
+	 * @return The characters found, each with its id, in the order asked for, and the ids not found
+	 * @throws IllegalArgumentException if there are no ids or more than MAX_BATCH_SIZE
+	 */
+	public Map<String, Object> batchGetPartyCharacters(SessionKey session, List<Integer> ids)
+	{
+		if (ids == null || ids.isEmpty() || ids.size() > MAX_BATCH_SIZE)
+		{
+			throw new IllegalArgumentException("Between 1 and " + MAX_BATCH_SIZE + " ids are required");
 		}
+		return CharacterStore.getInstance().mutateParty(session, party ->
+		{
+			List<Map<String, Object>> characters = new ArrayList<>(ids.size());
+			List<Integer> missing = new ArrayList<>();
+			for (Integer id : ids)
+			{
+				SWNChar character = id == null ? null : party.get(id);
+				if (character == null)
+				{
+					missing.add(id);
+				}
+				else
+				{
+					Map<String, Object> entry = new LinkedHashMap<>();
+					entry.put("id", id);
+					entry.put("character", character.toMap());
+					characters.add(entry);
+				}
+			}
+			Map<String, Object> result = new LinkedHashMap<>();
+			result.put("characters", characters);
+			result.put("missing", missing);
+			return result;
+		});
+	}
 
-		SWNChar character = store.getCharacter(sessionId);
-		DetailEnum detailEnum = DetailEnum.valueOf(detailName.toUpperCase());
-		character.setDetail(detailEnum, detailValue);
-		return character.toMap();
+	/**
+	 * Remove a character from the session's party.
+	 *
+	 * @param session The session key
+	 * @param id      The character's id
+	 * @throws IllegalArgumentException if the party has no character with the id
+	 */
+	public void removePartyCharacter(SessionKey session, int id)
+	{
+		CharacterStore.getInstance().mutateParty(session, party ->
+		{
+			SWNChar removed = party.remove(id);
+			if (removed == null)
+			{
+				throw new IllegalArgumentException("No character found with id " + id);
+			}
+			removed.releaseHistory();
+			return removed;
+		});
+	}
+
+	/**
+	 * Roll attributes for a character of the session's party, until they meet the given constraints.
+	 *
+	 * @param session             The session key
+	 * @param id                  The character's id
+	 * @param minModifierSum      The lowest acceptable total modifier, or null for no limit
+	 * @param minHighestAttribute The value at least one attribute must reach, or null for no limit
+	 * @return The updated character data as a Map
+	 * @throws IllegalArgumentException if the party has no character with the id or the constraints are too unlikely to meet
+	 */
+	public Map<String, Object> rollPartyAttributes(SessionKey session, int id, Integer minModifierSum, Integer minHighestAttribute)
+	{
+		return mutatePartyCharacter(session, id, character ->
+		{
+			if (minModifierSum == null && minHighestAttribute == null)
+			{
+				character.rollAttributes();
+				auditRoll(session, character, RollAuditLog.TYPE_ROLL, 1);
+			}
+			else
+			{
+				int attempts = character.rollAttributes(minModifierSum == null ? Integer.MIN_VALUE : minModifierSum,
+														minHighestAttribute == null ? 0 : minHighestAttribute);
+				auditRoll(session, character, RollAuditLog.TYPE_CONSTRAINED_ROLL, attempts);
+			}
+			return character.toMap();
+		});
+	}
+
+	/**
+	 * Change an attribute of a character of the session's party.
+	 *
+	 * @param session       The session key
+	 * @param id            The character's id
+	 * @param attributeName The name of the attribute to change
+	 * @return The updated character data as a Map
+	 * @throws IllegalArgumentException if the party has no character with the id or the attribute is invalid
+	 */
+	public Map<String, Object> changePartyAttribute(SessionKey session, int id, String attributeName)
+	{
+		return mutatePartyCharacter(session, id, character ->
+		{
+			character.changeOneAttribute(AttributeEnum.valueOf(attributeName.toUpperCase()));
+			return character.toMap();
+		});
+	}
+
+	/**
+	 * Set a detail of a character of the session's party.
+	 *
+	 * @param session     The session key
+	 * @param id          The character's id
+	 * @param detailName  The name of the detail to set
+	 * @param detailValue The value to set
+	 * @return The updated character data as a Map
+	 * @throws IllegalArgumentException if the party has no character with the id or the detail is invalid
+	 */
+	public Map<String, Object> setPartyDetail(SessionKey session, int id, String detailName, String detailValue)
+	{
+		return mutatePartyCharacter(session, id, character ->
+		{
+			character.setDetail(DetailEnum.valueOf(detailName.toUpperCase()), detailValue);
+			return character.toMap();
+		});
+	}
+
+	/**
+	 * Get the odds of the rolled attributes of a character of the session's party.
+	 *
+	 * @param session The session key
+	 * @param id      The character's id
+	 * @return The odds as a Map
+	 * @throws IllegalArgumentException if the party has no character with the id or its attributes have not been rolled
+	 */
+	public Map<String, Object> getPartyOdds(SessionKey session, int id)
+	{
+		return mutatePartyCharacter(session, id, SWNChar::calculateOdds);
+	}
+
+	/**
+	 * Run an operation on a character of the session's party.
+	 *
+	 * @param session   The session key
+	 * @param id        The character's id
+	 * @param operation The operation, given the character
+	 * @param <T>       The type of the result
+	 * @return The result of the operation
+	 * @throws IllegalArgumentException if the party has no character with the id
+	 */
+	private <T> T mutatePartyCharacter(SessionKey session, int id, Function<SWNChar, T> operation)
+	{
+		return CharacterStore.getInstance().mutateParty(session, party ->
+		{
+			SWNChar character = party.get(id);
+			if (character == null)
+			{
+				throw new IllegalArgumentException("No character found with id " + id);
+			}
+			return operation.apply(character);
+		});
 	}
-}
\ No newline at end of file
+}
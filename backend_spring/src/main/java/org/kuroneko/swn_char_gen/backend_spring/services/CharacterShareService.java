@@ -0,0 +1,391 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterActors;
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterStore;
+import org.kuroneko.swn_char_gen.backend_spring.models.SWNChar;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+
+/**
+ * Lets a player hand a character to another session, such as their GM's, through a share token.
+ * <p>
+ * A share token is sealed by SessionTokens and names the owner's session, the character, the
+ * character's serial number, the owner's share generation when it was made, and when it expires. The
+ * character is id 0 for the session's own character, otherwise the id of a party character. Whoever
+ * holds the token can read the character through batchGet for swn.share.ttl-ms, until the owner
+ * revokes their shares, which raises the share generation, or removes or replaces the character. The
+ * serial number is what catches a replacement: a new or uploaded own character is a new SWNChar with a
+ * new serial, so the token does not follow the session on to it. The token cannot be used as the
+ * owner's session cookie, which has a different purpose.
+ * <p>
+ * batchGet looks up the caller's own party characters and the shared characters in one call. The
+ * tokens are grouped by owner, and each owner gets one message on its actor for all of its tokens.
+ * Every message is queued before waiting on any of them, so the sessions answer in parallel, each in
+ * order with its own changes.
+ */
+@Service
+public class CharacterShareService
+{
+	/**
+	 * Id of the session's own character in a share token; party ids start at 1.
+	 */
+	public static final int OWN_CHARACTER = 0;
+
+	/**
+	 * Most share tokens resolved by one batch get.
+	 */
+	public static final int MAX_TOKENS = CharacterService.MAX_BATCH_SIZE;
+
+	// owner high and low, character id, character serial, share generation, expiry in epoch milliseconds
+	private static final int PAYLOAD_BYTES = 8 + 8 + 4 + 8 + 4 + 8;
+
+	private final CharacterService characterService;
+	private final SessionTokens sessionTokens;
+	private final long ttl;
+	private final LongSupplier clock;
+
+	/**
+	 * Create the service.
+	 *
+	 * @param characterService the service for the caller's party characters
+	 * @param sessionTokens    the signer for share tokens
+	 * @param ttl              milliseconds a share token is honored for
+	 */
+	@Autowired
+	public CharacterShareService(CharacterService characterService, SessionTokens sessionTokens,
+								 @Value("${swn.share.ttl-ms:86400000}") long ttl)
+	{
+		this(characterService, sessionTokens, ttl, System::currentTimeMillis);
+	}
+
+	/**
+	 * Create the service with a clock, for tests.
+	 *
+	 * @param characterService the service for the caller's party characters
+	 * @param sessionTokens    the signer for share tokens
+	 * @param ttl              milliseconds a share token is honored for
+	 * @param clock            epoch millisecond clock
+	 */
+	CharacterShareService(CharacterService characterService, SessionTokens sessionTokens, long ttl, LongSupplier clock)
+	{
+		if (ttl < 1)
+		{
+			throw new IllegalArgumentException("Share token time to live must be positive");
+		}
+		this.characterService = characterService;
+		this.sessionTokens = sessionTokens;
+		this.ttl = ttl;
+		this.clock = clock;
+	}
+
+	/**
+	 * Make a share token for one of the session's characters.
+	 *
+	 * @param session The session key
+	 * @param id      OWN_CHARACTER for the session's own character, otherwise a party character's id
+	 * @return The token, the id it shares, and when it expires in epoch milliseconds
+	 * @throws IllegalArgumentException if the session has no character with the id
+	 */
+	public Map<String, Object> share(SessionKey session, int id)
+	{
+		long expires = clock.getAsLong() + ttl;
+		ByteBuffer payload = CharacterActors.getInstance().ask(session, () ->
+		{
+			SWNChar character = findCharacter(session, id);
+			if (character == null)
+			{
+				throw new IllegalArgumentException("No character found with id " + id);
+			}
+			ByteBuffer buffer = ByteBuffer.allocate(PAYLOAD_BYTES);
+			buffer.putLong(session.getHigh()).putLong(session.getLow()).putInt(id).putLong(character.getSerial())
+					.putInt(CharacterStore.getInstance().getShareGeneration(session)).putLong(expires);
+			return buffer;
+		});
+
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("token", sessionTokens.seal(SessionTokens.PURPOSE_SHARE, payload.array()));
+		result.put("id", id);
+		result.put("expires", expires);
+		return result;
+	}
+
+	/**
+	 * Revoke every share token the session has handed out.
+	 *
+	 * @param session The session key
+	 * @return The revoked flag
+	 */
+	public Map<String, Object> revoke(SessionKey session)
+	{
+		CharacterStore.getInstance().revokeShares(session);
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("revoked", true);
+		return result;
+	}
+
+	/**
+	 * Get many characters at once, for GM screens showing every player: the session's own party
+	 * characters by id, and other sessions' characters by share token.
+	 *
+	 * @param session The session key
+	 * @param ids     The ids of the session's party characters, or null for none
+	 * @param tokens  The share tokens, or null for none
+	 * @return The party characters found and the ids not found, as batchGetPartyCharacters, and the
+	 *         shared characters found, each with its token and id, and the tokens that are forged,
+	 *         expired, revoked, or name a removed or replaced character, all in the order asked for
+	 * @throws IllegalArgumentException if there are no ids or tokens, or more than MAX_BATCH_SIZE ids
+	 *                                  or MAX_TOKENS tokens
+	 */
+	public Map<String, Object> batchGet(SessionKey session, List<Integer> ids, List<String> tokens)
+	{
+		try
+		{
+			return batchGetAsync(session, ids, tokens).join();
+		}
+		catch (CompletionException e)
+		{
+			if (e.getCause() instanceof RuntimeException cause)
+			{
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Get many characters at once as batchGet does, without waiting for the sessions to answer.
+	 *
+	 * @param session The session key
+	 * @param ids     The ids of the session's party characters, or null for none
+	 * @param tokens  The share tokens, or null for none
+	 * @return The reply, completed once every session has answered
+	 * @throws IllegalArgumentException if there are no ids or tokens, or more than MAX_BATCH_SIZE ids
+	 *                                  or MAX_TOKENS tokens
+	 */
+	public CompletableFuture<Map<String, Object>> batchGetAsync(SessionKey session, List<Integer> ids, List<String> tokens)
+	{
+		int idCount = ids == null ? 0 : ids.size();
+		int tokenCount = tokens == null ? 0 : tokens.size();
+		if (idCount + tokenCount == 0 || idCount > CharacterService.MAX_BATCH_SIZE || tokenCount > MAX_TOKENS)
+		{
+			throw new IllegalArgumentException("Between 1 and " + CharacterService.MAX_BATCH_SIZE
+													   + " ids or " + MAX_TOKENS + " tokens are required");
+		}
+
+		// every session is asked before waiting on any, so they answer in parallel
+		CompletableFuture<Map<String, Object>> party;
+		if (idCount > 0)
+		{
+			party = CharacterActors.getInstance().submit(session, () -> characterService.batchGetPartyCharacters(session, ids));
+		}
+		else
+		{
+			Map<String, Object> empty = new LinkedHashMap<>();
+			empty.put("characters", List.of());
+			empty.put("missing", List.of());
+			party = CompletableFuture.completedFuture(empty);
+		}
+		// one message per owner, however many of its characters are asked for
+		long now = clock.getAsLong();
+		Map<SessionKey, List<Share>> owners = new LinkedHashMap<>();
+		Share[] shares = new Share[tokenCount];
+		for (int i = 0; i < tokenCount; i++)
+		{
+			shares[i] = open(tokens.get(i), now);
+			if (shares[i] != null)
+			{
+				owners.computeIfAbsent(shares[i].owner, owner -> new ArrayList<>()).add(shares[i]);
+			}
+		}
+		List<CompletableFuture<Void>> lookups = new ArrayList<>(owners.size());
+		for (Map.Entry<SessionKey, List<Share>> owner : owners.entrySet())
+		{
+			lookups.add(lookup(owner.getKey(), owner.getValue()));
+		}
+
+		return CompletableFuture.allOf(lookups.toArray(new CompletableFuture<?>[0])).thenCombine(party, (done, result) ->
+		{
+			List<Map<String, Object>> shared = new ArrayList<>(tokenCount);
+			List<String> invalid = new ArrayList<>();
+			for (int i = 0; i < tokenCount; i++)
+			{
+				// the owner's message has completed, so the entry is safe to read here
+				Map<String, Object> entry = shares[i] == null ? null : shares[i].entry;
+				if (entry == null)
+				{
+					invalid.add(tokens.get(i));
+				}
+				else
+				{
+					entry.put("token", tokens.get(i));
+					shared.add(entry);
+				}
+			}
+			result.put("shared", shared);
+			result.put("invalid", invalid);
+			return result;
+		});
+	}
+
+	/**
+	 * Read the ids of a batch get request body.
+	 *
+	 * @param values The "ids" of the body as parsed from JSON, or null
+	 * @return The ids, or null if there are none
+	 * @throws IllegalArgumentException if an id is not a whole number
+	 */
+	public static List<Integer> toIds(List<?> values)
+	{
+		if (values == null)
+		{
+			return null;
+		}
+		List<Integer> ids = new ArrayList<>(values.size());
+		for (Object value : values)
+		{
+			if (!(value instanceof Integer id))
+			{
+				throw new IllegalArgumentException("Ids must be whole numbers");
+			}
+			ids.add(id);
+		}
+		return ids;
+	}
+
+	/**
+	 * Read the share tokens of a batch get request body.
+	 *
+	 * @param values The "tokens" of the body as parsed from JSON, or null
+	 * @return The tokens, or null if there are none
+	 * @throws IllegalArgumentException if a token is not a string
+	 */
+	public static List<String> toTokens(List<?> values)
+	{
+		if (values == null)
+		{
+			return null;
+		}
+		List<String> tokens = new ArrayList<>(values.size());
+		for (Object value : values)
+		{
+			if (!(value instanceof String token))
+			{
+				throw new IllegalArgumentException("Tokens must be strings");
+			}
+			tokens.add(token);
+		}
+		return tokens;
+	}
+
+	/**
+	 * Open a share token, if it is genuine and has not expired.
+	 *
+	 * @param token The share token
+	 * @param now   The time in epoch milliseconds
+	 * @return What the token shares, or null if it is not honored
+	 */
+	private Share open(String token, long now)
+	{
+		byte[] payload = sessionTokens.open(SessionTokens.PURPOSE_SHARE, token);
+		if (payload == null || payload.length != PAYLOAD_BYTES)
+		{
+			return null;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(payload);
+		Share share = new Share(new SessionKey(buffer.getLong(), buffer.getLong()), buffer.getInt(), buffer.getLong(),
+								buffer.getInt());
+		return (buffer.getLong() > now) ? share : null;
+	}
+
+	/**
+	 * Look up the characters an owner's share tokens name, in one message to the owner's actor. Each
+	 * share found gets its entry, the character's id and data.
+	 *
+	 * @param owner  The owner's session key
+	 * @param shares The owner's shares
+	 * @return Completes once the shares are looked up
+	 */
+	private CompletableFuture<Void> lookup(SessionKey owner, List<Share> shares)
+	{
+		return CharacterActors.getInstance().submit(owner, () ->
+		{
+			int current = CharacterStore.getInstance().getShareGeneration(owner);
+			for (Share share : shares)
+			{
+				if (share.generation != current)
+				{
+					continue;
+				}
+				SWNChar character = findCharacter(owner, share.id);
+				if (character == null || character.getSerial() != share.serial)
+				{
+					continue;
+				}
+				Map<String, Object> entry = new LinkedHashMap<>();
+				entry.put("id", share.id);
+				entry.put("character", character.toMap());
+				share.entry = entry;
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Find a character of a session. Run it on the session's actor.
+	 *
+	 * @param session The session key
+	 * @param id      OWN_CHARACTER for the session's own character, otherwise a party character's id
+	 * @return The character, or null if there is none with the id
+	 */
+	private static SWNChar findCharacter(SessionKey session, int id)
+	{
+		CharacterStore store = CharacterStore.getInstance();
+		if (id == OWN_CHARACTER)
+		{
+			return store.getCharacter(session);
+		}
+		return store.mutateParty(session, party -> party.get(id));
+	}
+
+	/**
+	 * What one share token names, and once looked up, what it found.
+	 */
+	private static final class Share
+	{
+		final SessionKey owner;
+		final int id;
+		final long serial;
+		final int generation;
+		// written on the owner's actor, read after its reply completes
+		Map<String, Object> entry;
+
+		Share(SessionKey owner, int id, long serial, int generation)
+		{
+			this.owner = owner;
+			this.id = id;
+			this.serial = serial;
+			this.generation = generation;
+		}
+	}
+}
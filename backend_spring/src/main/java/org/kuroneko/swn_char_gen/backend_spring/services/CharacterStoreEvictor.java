@@ -0,0 +1,55 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background evictor for the sessions held in the CharacterStore.
+ * <p>
+ * Every swn.store.evict-interval-ms it drops the character, party, and share generation of each
+ * session that has not been used for swn.store.idle-ms. A client that never sends its session cookie
+ * back gets a new session on every request, and without this each one would stay in memory.
+ */
+@Component
+public class CharacterStoreEvictor
+{
+	private static final Logger logger = LoggerFactory.getLogger(CharacterStoreEvictor.class);
+	private final long idleMillis;
+
+	/**
+	 * Create the evictor.
+	 *
+	 * @param theIdleMillis How long a session must be unused to drop, in milliseconds
+	 */
+	public CharacterStoreEvictor(@Value("${swn.store.idle-ms:86400000}") long theIdleMillis)
+	{
+		this.idleMillis = theIdleMillis;
+	}
+
+	/**
+	 * Drop every session that has been unused for the idle time.
+	 */
+	@Scheduled(fixedDelayString = "${swn.store.evict-interval-ms:60000}")
+	public void evict()
+	{
+		int evicted = CharacterStore.getInstance().evictIdle(System.currentTimeMillis() - idleMillis);
+		if (evicted > 0)
+		{
+			logger.debug("Dropped {} idle sessions", evicted);
+		}
+	}
+}
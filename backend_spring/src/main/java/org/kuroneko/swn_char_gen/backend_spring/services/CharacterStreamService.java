@@ -0,0 +1,212 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import jakarta.annotation.PreDestroy;
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterChanges;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes the changes to a session's character to its followers as Server-Sent Events, so GM views
+ * and other tabs need not poll.
+ * <p>
+ * Each stream is an async servlet response, so an open stream holds no request thread. It listens to
+ * CharacterChanges and starts with a "snapshot" event of the whole character and its version, then
+ * sends a "change" event for each later change. Changes are queued by the session's actor and written
+ * by a virtual thread, one stream at a time, so a slow client never holds up the character. A client
+ * that falls more than MAX_PENDING changes behind has its stream closed, and on reconnecting starts
+ * again from a snapshot.
+ * <p>
+ * swn.stream.timeout-ms sets how long a stream stays open before the client must reconnect.
+ */
+@Service
+public class CharacterStreamService
+{
+	/**
+	 * Most changes waiting to be written to one stream before it is closed.
+	 */
+	public static final int MAX_PENDING = 256;
+
+	private static final Logger logger = LoggerFactory.getLogger(CharacterStreamService.class);
+	private final CharacterService characterService;
+	private final long timeout;
+	private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * Create the service.
+	 *
+	 * @param characterService The service the snapshots come from
+	 * @param theTimeout       Milliseconds a stream stays open
+	 */
+	public CharacterStreamService(CharacterService characterService,
+								  @Value("${swn.stream.timeout-ms:1800000}") long theTimeout)
+	{
+		this.characterService = characterService;
+		this.timeout = theTimeout;
+	}
+
+	/**
+	 * Open a stream of the changes to a session's character. Creates the character if there is none.
+	 *
+	 * @param session The session key
+	 * @return The stream
+	 */
+	public SseEmitter stream(SessionKey session)
+	{
+		SseEmitter emitter = new SseEmitter(timeout);
+		Subscriber subscriber = new Subscriber(emitter);
+		// listen before taking the snapshot so no change falls between them
+		Runnable unsubscribe = CharacterChanges.getInstance().subscribe(session, subscriber::offer);
+		// called after a timeout or network error as well
+		emitter.onCompletion(unsubscribe);
+		subscriber.start(characterService.getVersionedCharacter(session));
+		return emitter;
+	}
+
+	/**
+	 * Stop writing to the streams.
+	 */
+	@PreDestroy
+	public void stop()
+	{
+		sender.shutdownNow();
+	}
+
+	/**
+	 * One stream's queue of changes, written by at most one virtual thread at a time.
+	 */
+	private final class Subscriber
+	{
+		private final SseEmitter emitter;
+		private final Queue<Map<String, Object>> pending = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger pendingCount = new AtomicInteger();
+		// true while a thread is writing, or for good once the stream has failed
+		private final AtomicBoolean sending = new AtomicBoolean();
+		private final AtomicBoolean closed = new AtomicBoolean();
+		// whole character and version to send first, null until known
+		private volatile Map<String, Object> snapshot;
+		// only read and written by the sending thread
+		private long snapshotVersion = -1;
+
+		/**
+		 * Create the queue for a stream.
+		 *
+		 * @param emitter The stream
+		 */
+		Subscriber(SseEmitter emitter)
+		{
+			this.emitter = emitter;
+		}
+
+		/**
+		 * Queue a change to be written, on the session's actor.
+		 *
+		 * @param change The change
+		 */
+		void offer(Map<String, Object> change)
+		{
+			if (closed.get())
+			{
+				return;
+			}
+			if (pendingCount.incrementAndGet() > MAX_PENDING)
+			{
+				// the client reconnects and starts again from a snapshot
+				if (closed.compareAndSet(false, true))
+				{
+					emitter.complete();
+				}
+				return;
+			}
+			pending.add(change);
+			schedule();
+		}
+
+		/**
+		 * Start writing, beginning with the snapshot.
+		 *
+		 * @param theSnapshot The character's version and data
+		 */
+		void start(Map<String, Object> theSnapshot)
+		{
+			snapshot = theSnapshot;
+			schedule();
+		}
+
+		/**
+		 * Hand the queue to a virtual thread unless one is already writing it or the snapshot is not known.
+		 */
+		private void schedule()
+		{
+			if (snapshot != null && sending.compareAndSet(false, true))
+			{
+				sender.execute(this::drain);
+			}
+		}
+
+		/**
+		 * Write the snapshot if not yet written, then every queued change newer than it.
+		 */
+		private void drain()
+		{
+			try
+			{
+				if (snapshotVersion < 0)
+				{
+					snapshotVersion = (Long) snapshot.get("version");
+					emitter.send(SseEmitter.event().id(Long.toString(snapshotVersion)).name("snapshot")
+											 .data(snapshot, MediaType.APPLICATION_JSON));
+				}
+				Map<String, Object> change;
+				while ((change = pending.poll()) != null)
+				{
+					pendingCount.decrementAndGet();
+					long version = (Long) change.get("version");
+					if (version > snapshotVersion)
+					{
+						emitter.send(SseEmitter.event().id(Long.toString(version)).name("change")
+												 .data(change, MediaType.APPLICATION_JSON));
+					}
+				}
+			}
+			catch (IOException | IllegalStateException e)
+			{
+				// the client went away; leave sending set so nothing more is written
+				logger.debug("Closing character stream", e);
+				closed.set(true);
+				pending.clear();
+				emitter.completeWithError(e);
+				return;
+			}
+			sending.set(false);
+			// a change queued after the last poll but before sending was cleared
+			if (!pending.isEmpty())
+			{
+				schedule();
+			}
+		}
+	}
+}
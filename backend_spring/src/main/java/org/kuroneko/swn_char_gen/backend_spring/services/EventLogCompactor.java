@@ -0,0 +1,54 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background compactor for the character event logs.
+ * <p>
+ * Every swn.history.compact-interval-ms it folds changes older than swn.history.retention-ms into each
+ * character's snapshot, so idle characters do not keep their events and replays stay short. The event
+ * logs also compact themselves when they pass their limits; this only handles the age limit.
+ */
+@Component
+public class EventLogCompactor
+{
+	private static final Logger logger = LoggerFactory.getLogger(EventLogCompactor.class);
+	private final long retentionMillis;
+
+	/**
+	 * Create the compactor.
+	 *
+	 * @param theRetentionMillis How old a change must be to compact, in milliseconds
+	 */
+	public EventLogCompactor(@Value("${swn.history.retention-ms:900000}") long theRetentionMillis)
+	{
+		this.retentionMillis = theRetentionMillis;
+	}
+
+	/**
+	 * Compact the changes of every stored character that are past the retention age.
+	 */
+	@Scheduled(fixedDelayString = "${swn.history.compact-interval-ms:60000}")
+	public void compact()
+	{
+		int compacted = CharacterStore.getInstance().compactEvents(System.currentTimeMillis() - retentionMillis);
+		if (compacted > 0)
+		{
+			logger.debug("Compacted {} character events", compacted);
+		}
+	}
+}
@@ -0,0 +1,36 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterEventLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies the undo history limits from the application properties.
+ * <p>
+ * swn.history.max-events caps the events kept per character, and swn.history.max-bytes caps the
+ * memory of the events of all characters together. Older events are folded into snapshots.
+ */
+@Component
+public class HistoryLimits
+{
+	/**
+	 * Apply the limits.
+	 *
+	 * @param theMaxEvents The number of events kept per character
+	 * @param theMaxBytes  The byte budget for the events of all characters together
+	 */
+	public HistoryLimits(@Value("${swn.history.max-events:" + CharacterEventLog.DEFAULT_MAX_EVENTS + "}") int theMaxEvents,
+						 @Value("${swn.history.max-bytes:" + CharacterEventLog.DEFAULT_MAX_BYTES + "}") long theMaxBytes)
+	{
+		CharacterEventLog.configure(theMaxEvents, theMaxBytes);
+	}
+}
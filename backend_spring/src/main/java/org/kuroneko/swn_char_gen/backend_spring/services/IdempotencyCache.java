@@ -0,0 +1,490 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the responses to recent requests carrying an Idempotency-Key header, so a retried request is
+ * answered from here rather than run again.
+ * <p>
+ * Keys belong to the session that sent them, so one client cannot replay another's responses. The first
+ * request with a key runs, and its response is kept as serialized JSON; a retry gets the same status and
+ * bytes back with an Idempotent-Replayed header, without parsing, running, or serializing anything. A
+ * retry arriving while the first request is still running waits up to swn.idempotency.wait-ms for its
+ * response, and is answered with 409 Conflict if it is not ready by then. Server errors are not kept, so
+ * a retry after one runs again.
+ * <p>
+ * Each entry also keeps the fingerprint of its request, a hash of the method, path, and body or
+ * parameters made by fingerprint. A request that reuses a key with a different fingerprint is answered
+ * with 422 Unprocessable Entity, rather than with another request's response.
+ * <p>
+ * At most swn.idempotency.max-entries responses are kept, each for swn.idempotency.ttl-ms. The
+ * entries are split into stripes by session, each with its own lock, so requests of different sessions
+ * rarely wait on each other. Every entry lives as long, so each stripe is kept in insertion order and its
+ * eldest entry is always the next to expire. A stripe drops its expired entries when it takes a new one,
+ * and its eldest entry when the cache as a whole is full, or the eldest of another stripe if it has none.
+ */
+@Service
+public class IdempotencyCache
+{
+	/**
+	 * Request header holding the client's key for the operation.
+	 */
+	public static final String HEADER = "Idempotency-Key";
+
+	/**
+	 * Response header set on a response replayed from the cache.
+	 */
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+	/**
+	 * Longest key accepted.
+	 */
+	public static final int MAX_KEY_LENGTH = 255;
+
+	// must be a power of two
+	private static final int STRIPES = 16;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	// sorts map keys, so the same body fingerprints the same whatever order the client sent it in
+	private final ObjectMapper fingerprintMapper = new ObjectMapper().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+	private final int maxEntries;
+	private final long ttlNanos;
+	private final long waitMillis;
+	private final LongSupplier clock;
+	// each guarded by itself, picked by session
+	private final List<LinkedHashMap<CacheKey, Entry>> stripes = new ArrayList<>(STRIPES);
+	// entries across every stripe
+	private final AtomicInteger size = new AtomicInteger();
+
+	/**
+	 * Create the cache.
+	 *
+	 * @param theMaxEntries Most responses kept
+	 * @param theTtl        Milliseconds each response is kept
+	 * @param theWait       Milliseconds a retry waits for the first request's response
+	 */
+	@Autowired
+	public IdempotencyCache(@Value("${swn.idempotency.max-entries:10000}") int theMaxEntries,
+							@Value("${swn.idempotency.ttl-ms:3600000}") long theTtl,
+							@Value("${swn.idempotency.wait-ms:5000}") long theWait)
+	{
+		this(theMaxEntries, theTtl, theWait, System::nanoTime);
+	}
+
+	/**
+	 * Create the cache with a clock, for tests.
+	 *
+	 * @param theMaxEntries Most responses kept
+	 * @param theTtl        Milliseconds each response is kept
+	 * @param theWait       Milliseconds a retry waits for the first request's response
+	 * @param theClock      Nanosecond clock
+	 */
+	IdempotencyCache(int theMaxEntries, long theTtl, long theWait, LongSupplier theClock)
+	{
+		if (theMaxEntries < 1 || theTtl < 1 || theWait < 0)
+		{
+			throw new IllegalArgumentException("Idempotency cache size and time to live must be positive, and the wait not negative");
+		}
+		this.maxEntries = theMaxEntries;
+		this.ttlNanos = theTtl * 1_000_000L;
+		this.waitMillis = theWait;
+		this.clock = theClock;
+		for (int index = 0; index < STRIPES; index++)
+		{
+			stripes.add(new LinkedHashMap<>());
+		}
+	}
+
+	/**
+	 * Run an operation once per key, or answer from the cache if it already ran.
+	 *
+	 * @param session   The caller's session
+	 * @param key       The Idempotency-Key header, or null to just run the operation
+	 * @param method    The request method, for the fingerprint
+	 * @param path      The request path, with any path variables filled in
+	 * @param body      The request body or parameters as parsed, an uploaded file, or null
+	 * @param operation Runs the request, returning a response with a JSON body
+	 * @return The response, serialized to JSON if a key was given, 422 if the key was used for a
+	 *         request with another fingerprint, or 409 if the first request with the key is still running
+	 */
+	public ResponseEntity<?> execute(SessionKey session, String key, String method, String path, Object body,
+									 Supplier<? extends ResponseEntity<?>> operation)
+	{
+		if (key == null)
+		{
+			return operation.get();
+		}
+		if (key.isEmpty() || key.length() > MAX_KEY_LENGTH)
+		{
+			Map<String, Object> error = new HashMap<>();
+			error.put("error", HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+			return ResponseEntity.badRequest().body(error);
+		}
+		String fingerprint;
+		try
+		{
+			fingerprint = fingerprint(method, path, body);
+		}
+		catch (IOException e)
+		{
+			Map<String, Object> error = new HashMap<>();
+			error.put("error", e.getMessage());
+			return ResponseEntity.badRequest().body(error);
+		}
+		CacheKey cacheKey = new CacheKey(session, key);
+		LinkedHashMap<CacheKey, Entry> entries = stripe(session);
+		Entry entry;
+		boolean first = false;
+		synchronized (entries)
+		{
+			long now = clock.getAsLong();
+			evictExpired(entries, now);
+			entry = entries.get(cacheKey);
+			if (entry == null)
+			{
+				entry = new Entry(now + ttlNanos, fingerprint);
+				entries.put(cacheKey, entry);
+				first = true;
+				// the eldest of this stripe makes room if it has one besides the new entry
+				if (size.incrementAndGet() > maxEntries && entries.size() > 1)
+				{
+					Iterator<Entry> eldest = entries.values().iterator();
+					eldest.next();
+					eldest.remove();
+					size.decrementAndGet();
+				}
+			}
+		}
+		if (first && size.get() > maxEntries)
+		{
+			trim(session);
+		}
+		if (!first)
+		{
+			if (!Objects.equals(entry.fingerprint, fingerprint))
+			{
+				Map<String, Object> error = new HashMap<>();
+				error.put("error", HEADER + " was already used for a different request");
+				return ResponseEntity.unprocessableEntity().body(error);
+			}
+			try
+			{
+				return entry.response.get(waitMillis, TimeUnit.MILLISECONDS).toResponseEntity(true);
+			}
+			catch (ExecutionException e)
+			{
+				// the first request failed outright, so this one fails the same way
+				throw (e.getCause() instanceof RuntimeException cause) ? cause : new IllegalStateException(e.getCause());
+			}
+			catch (TimeoutException e)
+			{
+				return inProgress();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return inProgress();
+			}
+		}
+		try
+		{
+			CachedResponse response = serialize(operation.get());
+			if (response.status >= 500)
+			{
+				remove(cacheKey, entry);
+			}
+			entry.response.complete(response);
+			return response.toResponseEntity(false);
+		}
+		catch (RuntimeException e)
+		{
+			remove(cacheKey, entry);
+			entry.response.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Make the fingerprint of a request, to tell a retry from another request sent with the same key.
+	 *
+	 * @param method The request method
+	 * @param path   The request path, with any path variables filled in
+	 * @param body   The request body or parameters as parsed, an uploaded file, or null
+	 * @return The fingerprint, a base64 SHA-256 hash
+	 * @throws IOException if an uploaded file cannot be read
+	 */
+	public String fingerprint(String method, String path, Object body) throws IOException
+	{
+		MessageDigest digest;
+		try
+		{
+			digest = MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+		digest.update(method.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) ' ');
+		digest.update(path.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) '\n');
+		if (body instanceof InputStreamSource file)
+		{
+			// an upload is hashed as it is read rather than held in memory
+			try (InputStream in = new DigestInputStream(file.getInputStream(), digest))
+			{
+				in.transferTo(OutputStream.nullOutputStream());
+			}
+		}
+		else
+		{
+			digest.update(fingerprintMapper.writeValueAsBytes(body));
+		}
+		return Base64.getEncoder().encodeToString(digest.digest());
+	}
+
+	/**
+	 * Get the number of responses kept or being made.
+	 *
+	 * @return The number of entries
+	 */
+	public int size()
+	{
+		return size.get();
+	}
+
+	/**
+	 * Build the response to a retry whose first request is still running.
+	 *
+	 * @return The 409 response
+	 */
+	private static ResponseEntity<Map<String, Object>> inProgress()
+	{
+		Map<String, Object> error = new HashMap<>();
+		error.put("error", "The request with this " + HEADER + " is still running");
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+	}
+
+	/**
+	 * Get the stripe holding a session's entries.
+	 *
+	 * @param session The session
+	 * @return The stripe
+	 */
+	private LinkedHashMap<CacheKey, Entry> stripe(SessionKey session)
+	{
+		return stripes.get(session.hashCode() & (STRIPES - 1));
+	}
+
+	/**
+	 * Drop the eldest entries of the other stripes until the cache is back to its size. Only one stripe
+	 * is locked at a time, so two requests trimming at once cannot wait on each other.
+	 *
+	 * @param session The session whose stripe is already full of new entries
+	 */
+	private void trim(SessionKey session)
+	{
+		int start = session.hashCode() & (STRIPES - 1);
+		for (int offset = 1; offset < STRIPES && size.get() > maxEntries; offset++)
+		{
+			LinkedHashMap<CacheKey, Entry> entries = stripes.get((start + offset) & (STRIPES - 1));
+			synchronized (entries)
+			{
+				Iterator<Entry> eldest = entries.values().iterator();
+				if (eldest.hasNext())
+				{
+					eldest.next();
+					eldest.remove();
+					size.decrementAndGet();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drop the entries of a stripe that have expired. Must hold the lock on the stripe.
+	 *
+	 * @param entries The stripe
+	 * @param now     The current time from the clock
+	 */
+	private void evictExpired(LinkedHashMap<CacheKey, Entry> entries, long now)
+	{
+		Iterator<Entry> eldest = entries.values().iterator();
+		while (eldest.hasNext() && eldest.next().expires - now <= 0)
+		{
+			eldest.remove();
+			size.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Drop an entry, unless another has since replaced it.
+	 *
+	 * @param cacheKey The entry's key
+	 * @param entry    The entry
+	 */
+	private void remove(CacheKey cacheKey, Entry entry)
+	{
+		LinkedHashMap<CacheKey, Entry> entries = stripe(cacheKey.session);
+		synchronized (entries)
+		{
+			if (entries.remove(cacheKey, entry))
+			{
+				size.decrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Serialize a response's body to JSON.
+	 *
+	 * @param response The response
+	 * @return The status and JSON
+	 */
+	private CachedResponse serialize(ResponseEntity<?> response)
+	{
+		try
+		{
+			return new CachedResponse(response.getStatusCode().value(), objectMapper.writeValueAsBytes(response.getBody()));
+		}
+		catch (JsonProcessingException e)
+		{
+			throw new IllegalStateException("Response cannot be serialized", e);
+		}
+	}
+
+	/**
+	 * The status and JSON body of a response.
+	 */
+	private static final class CachedResponse
+	{
+		private final int status;
+		private final byte[] body;
+
+		/**
+		 * Create a cached response.
+		 *
+		 * @param status The status code
+		 * @param body   The JSON body
+		 */
+		CachedResponse(int status, byte[] body)
+		{
+			this.status = status;
+			this.body = body;
+		}
+
+		/**
+		 * Build a response to send.
+		 *
+		 * @param replayed True if this answers a retry
+		 * @return The response
+		 */
+		ResponseEntity<byte[]> toResponseEntity(boolean replayed)
+		{
+			ResponseEntity.BodyBuilder builder = ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON);
+			if (replayed)
+			{
+				builder.header(REPLAYED_HEADER, "true");
+			}
+			return builder.body(body);
+		}
+	}
+
+	/**
+	 * A response being made or made, the fingerprint of its request, and when it expires.
+	 */
+	private static final class Entry
+	{
+		private final CompletableFuture<CachedResponse> response = new CompletableFuture<>();
+		private final long expires;
+		private final String fingerprint;
+
+		/**
+		 * Create an entry.
+		 *
+		 * @param expires     When it expires on the cache's clock
+		 * @param fingerprint The fingerprint of its request
+		 */
+		Entry(long expires, String fingerprint)
+		{
+			this.expires = expires;
+			this.fingerprint = fingerprint;
+		}
+	}
+
+	/**
+	 * A session and one of its keys.
+	 */
+	private static final class CacheKey
+	{
+		private final SessionKey session;
+		private final String key;
+
+		/**
+		 * Create a cache key.
+		 *
+		 * @param session The session
+		 * @param key     The client's key
+		 */
+		CacheKey(SessionKey session, String key)
+		{
+			this.session = session;
+			this.key = key;
+		}
+
+		@Override
+		public boolean equals(Object other)
+		{
+			return other instanceof CacheKey that && session.equals(that.session) && key.equals(that.key);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(session, key);
+		}
+	}
+}
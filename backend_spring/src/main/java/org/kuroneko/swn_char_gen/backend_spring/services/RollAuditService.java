@@ -0,0 +1,83 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.kuroneko.swn_char_gen.backend_spring.models.RollAuditLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Opens the roll audit log for the life of the application.
+ * <p>
+ * Disabled unless swn.audit.dir is set. swn.audit.records-per-file sets the size of each file,
+ * 64 bytes per record. swn.audit.secret, base64 of at least 32 bytes, keys the hash chain and is
+ * required with swn.audit.dir; keep it away from the audit files, since anyone holding it can
+ * rewrite the chain.
+ */
+@Component
+public class RollAuditService
+{
+	private static final Logger logger = LoggerFactory.getLogger(RollAuditService.class);
+	private final Path auditDir;
+	private final int recordsPerFile;
+	private final byte[] secret;
+
+	/**
+	 * Create the service.
+	 *
+	 * @param theAuditDir       Path to the audit directory, or empty to not audit rolls
+	 * @param theRecordsPerFile The number of records in each file
+	 * @param theSecret         The chain secret as base64, required with a directory
+	 * @throws IllegalArgumentException if a directory is set without a valid secret
+	 */
+	public RollAuditService(@Value("${swn.audit.dir:}") String theAuditDir,
+							@Value("${swn.audit.records-per-file:" + RollAuditLog.DEFAULT_RECORDS_PER_FILE + "}") int theRecordsPerFile,
+							@Value("${swn.audit.secret:}") String theSecret)
+	{
+		this.auditDir = (theAuditDir == null || theAuditDir.isBlank()) ? null : Paths.get(theAuditDir).toAbsolutePath();
+		this.recordsPerFile = theRecordsPerFile;
+		this.secret = (auditDir == null) ? null : RollAuditLog.decodeSecret(theSecret);
+	}
+
+	/**
+	 * Open the audit log.
+	 *
+	 * @throws IOException if the directory cannot be used
+	 */
+	@PostConstruct
+	public void start() throws IOException
+	{
+		if (auditDir == null)
+		{
+			return;
+		}
+		RollAuditLog.getInstance().open(auditDir, recordsPerFile, secret);
+		logger.info("Auditing rolls to {}", auditDir);
+	}
+
+	/**
+	 * Write any outstanding records and close the audit log.
+	 *
+	 * @throws InterruptedException if interrupted while closing
+	 */
+	@PreDestroy
+	public void stop() throws InterruptedException
+	{
+		RollAuditLog.getInstance().close();
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.kuroneko.swn_char_gen.backend_spring.models.RulesetRegistry;
+import org.kuroneko.swn_char_gen.backend_spring.models.SWNRules;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Watches a directory of ruleset files and publishes a new SWNRules snapshot whenever one changes.
+ * <p>
+ * Disabled unless swn.rules.dir is set. Every *.properties file in the directory is a ruleset; a file
+ * can add a new ruleset or replace a built-in one by using its id with a higher version. Only newer
+ * versions are published, and a file that fails to parse leaves the current rules in place.
+ */
+@Component
+public class RulesFileWatcher
+{
+	private static final Logger logger = LoggerFactory.getLogger(RulesFileWatcher.class);
+	private static final String RULES_EXTENSION = ".properties";
+	private final Path rulesDir;
+	private WatchService watchService;
+	private Thread watchThread;
+
+	/**
+	 * Create the watcher.
+	 *
+	 * @param theRulesDir Path to the rules directory, or empty to use only the built-in rules
+	 */
+	public RulesFileWatcher(@Value("${swn.rules.dir:}") String theRulesDir)
+	{
+		this.rulesDir = (theRulesDir == null || theRulesDir.isBlank()) ? null : Paths.get(theRulesDir).toAbsolutePath();
+	}
+
+	/**
+	 * Load the rules files and start watching the directory.
+	 *
+	 * @throws IOException if the directory cannot be read or watched
+	 */
+	@PostConstruct
+	public void start() throws IOException
+	{
+		if (rulesDir == null)
+		{
+			return;
+		}
+
+		reloadAll();
+		watchService = FileSystems.getDefault().newWatchService();
+		rulesDir.register(watchService,
+						  StandardWatchEventKinds.ENTRY_CREATE,
+						  StandardWatchEventKinds.ENTRY_MODIFY);
+		watchThread = new Thread(this::watch, "swn-rules-watcher");
+		watchThread.setDaemon(true);
+		watchThread.start();
+		logger.info("Watching rules directory {}", rulesDir);
+	}
+
+	/**
+	 * Stop watching the rules directory.
+	 *
+	 * @throws IOException if the watch service cannot be closed
+	 */
+	@PreDestroy
+	public void stop() throws IOException
+	{
+		if (watchService != null)
+		{
+			// closing the service wakes the watch thread with ClosedWatchServiceException
+			watchService.close();
+		}
+	}
+
+	/**
+	 * Read every rules file in the directory and publish the newer ones.
+	 *
+	 * @return The number of rulesets published
+	 * @throws IOException if the directory cannot be listed
+	 */
+	public int reloadAll() throws IOException
+	{
+		if (rulesDir == null)
+		{
+			return 0;
+		}
+
+		int published = 0;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(rulesDir, "*" + RULES_EXTENSION))
+		{
+			for (Path file : files)
+			{
+				if (reload(file))
+				{
+					published++;
+				}
+			}
+		}
+		return published;
+	}
+
+	/**
+	 * Read a rules file and publish it if it is a newer version than the registered ruleset.
+	 *
+	 * @param theFile The rules file
+	 * @return True if new rules were published, false otherwise
+	 */
+	public boolean reload(Path theFile)
+	{
+		try
+		{
+			SWNRules rules = SWNRules.load(theFile);
+			if (!RulesetRegistry.getInstance().publish(rules))
+			{
+				logger.info("Ignoring {} version {}, it is not newer than the registered version", rules.getId(), rules.getVersion());
+				return false;
+			}
+			logger.info("Published ruleset {} version {}", rules.getId(), rules.getVersion());
+			return true;
+		}
+		catch (IOException | IllegalArgumentException e)
+		{
+			// a half-written file will fail here, the next modify event retries
+			logger.warn("Unable to load rules file {}, keeping current rules", theFile, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Watch loop run on the background thread.
+	 */
+	private void watch()
+	{
+		try
+		{
+			while (true)
+			{
+				WatchKey key = watchService.take();
+				for (WatchEvent<?> event : key.pollEvents())
+				{
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+					{
+						// events were lost, so check everything
+						reloadAll();
+					}
+					else if (event.context() instanceof Path file && file.toString().endsWith(RULES_EXTENSION))
+					{
+						reload(rulesDir.resolve(file));
+					}
+				}
+				if (!key.reset())
+				{
+					logger.warn("Rules directory is no longer accessible, stopped watching {}", rulesDir);
+					return;
+				}
+			}
+		}
+		catch (ClosedWatchServiceException e)
+		{
+			// normal shutdown
+		}
+		catch (IOException e)
+		{
+			logger.error("Stopped watching rules directory {}", rulesDir, e);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
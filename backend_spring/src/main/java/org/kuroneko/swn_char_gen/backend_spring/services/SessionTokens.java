@@ -0,0 +1,278 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import jakarta.servlet.http.Cookie;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Signs and verifies the compact tokens handed to clients: the session cookie, the share tokens of
+ * CharacterShareService, and in stateless mode the character itself.
+ * <p>
+ * A token is its payload followed by the first 16 bytes of an HMAC-SHA256, in URL safe base64. The
+ * HMAC also covers the token's purpose, so a session token is never accepted as a character token or
+ * the other way round. A session token is the 16 byte session key, 43 characters in all. A client
+ * cannot make up a token or change one without the secret.
+ * swn.session.secret sets the secret as base64, so every node of a deployment accepts the same
+ * tokens; without it a random secret is made at startup, and sessions end on restart, as the
+ * characters held in memory do.
+ */
+@Component
+public class SessionTokens
+{
+	/**
+	 * Name of the session cookie.
+	 */
+	public static final String COOKIE_NAME = "swn_session";
+
+	/**
+	 * Purpose of session key tokens.
+	 */
+	public static final byte PURPOSE_SESSION = 1;
+
+	/**
+	 * Purpose of stateless mode character tokens.
+	 */
+	public static final byte PURPOSE_CHARACTER = 2;
+
+	/**
+	 * Purpose of share tokens, which let another session read a character.
+	 */
+	public static final byte PURPOSE_SHARE = 3;
+
+	private static final Logger logger = LoggerFactory.getLogger(SessionTokens.class);
+	private static final String ALGORITHM = "HmacSHA256";
+	private static final int KEY_BYTES = 16;
+	private static final int MAC_BYTES = 16;
+	private static final int TOKEN_BYTES = KEY_BYTES + MAC_BYTES;
+	private static final int TOKEN_LENGTH = (TOKEN_BYTES * 4 + 2) / 3;
+
+	private final SecretKeySpec secret;
+	// Mac is not thread safe, so each call clones this initialised one - cheaper than looking up the
+	// provider and keying a new Mac, and unlike a per-thread Mac it leaves nothing behind on virtual threads
+	private final Mac prototype;
+
+	/**
+	 * Create the token signer.
+	 *
+	 * @param theSecret The secret as base64, or empty for a random one
+	 * @throws IllegalArgumentException if the secret is not base64 or shorter than 32 bytes
+	 */
+	public SessionTokens(@Value("${swn.session.secret:}") String theSecret)
+	{
+		byte[] bytes;
+		if (theSecret == null || theSecret.isBlank())
+		{
+			bytes = new byte[32];
+			new SecureRandom().nextBytes(bytes);
+			logger.info("No swn.session.secret set, sessions will not survive a restart");
+		}
+		else
+		{
+			bytes = Base64.getDecoder().decode(theSecret.trim());
+			if (bytes.length < 32)
+			{
+				throw new IllegalArgumentException("swn.session.secret must be at least 32 bytes");
+			}
+		}
+		this.secret = new SecretKeySpec(bytes, ALGORITHM);
+		this.prototype = newMac();
+	}
+
+	/**
+	 * Create a token for a session key.
+	 *
+	 * @param theKey The session key
+	 * @return The token
+	 */
+	public String sign(SessionKey theKey)
+	{
+		ByteBuffer key = ByteBuffer.allocate(KEY_BYTES);
+		key.putLong(theKey.getHigh()).putLong(theKey.getLow());
+		return seal(PURPOSE_SESSION, key.array());
+	}
+
+	/**
+	 * Create the session cookie for a session key, as both the servlet and the reactive builds set it.
+	 *
+	 * @param theKey The session key
+	 * @return The cookie, HTTP only and sent for the whole site
+	 */
+	public ResponseCookie cookie(SessionKey theKey)
+	{
+		return ResponseCookie.from(COOKIE_NAME, sign(theKey))
+				.httpOnly(true)
+				.path("/")
+				.sameSite("Lax")
+				.build();
+	}
+
+	/**
+	 * Get the session key of a token, if the signature is good.
+	 *
+	 * @param theToken The token
+	 * @return The session key, or null if the token is malformed or forged
+	 */
+	public SessionKey verify(String theToken)
+	{
+		// the length check is cheap, and turns away most junk before any decoding
+		if (theToken == null || theToken.length() != TOKEN_LENGTH)
+		{
+			return null;
+		}
+		byte[] payload = open(PURPOSE_SESSION, theToken);
+		if (payload == null || payload.length != KEY_BYTES)
+		{
+			return null;
+		}
+		ByteBuffer key = ByteBuffer.wrap(payload);
+		return new SessionKey(key.getLong(), key.getLong());
+	}
+
+	/**
+	 * Get the session key of a request's session cookie, if it has one and the signature is good.
+	 *
+	 * @param theCookies The request's cookies, or null if it has none
+	 * @return The session key, or null if there is no session cookie or it does not verify
+	 */
+	public SessionKey fromCookies(Cookie[] theCookies)
+	{
+		if (theCookies == null)
+		{
+			return null;
+		}
+		for (Cookie cookie : theCookies)
+		{
+			if (COOKIE_NAME.equals(cookie.getName()))
+			{
+				return verify(cookie.getValue());
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Sign a payload.
+	 *
+	 * @param thePurpose What the token is for, such as PURPOSE_SESSION
+	 * @param thePayload The payload
+	 * @return The token
+	 */
+	public String seal(byte thePurpose, byte[] thePayload)
+	{
+		byte[] token = Arrays.copyOf(thePayload, thePayload.length + MAC_BYTES);
+		System.arraycopy(mac(thePurpose, thePayload, thePayload.length), 0, token, thePayload.length, MAC_BYTES);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+	}
+
+	/**
+	 * Get the payload of a token, if the signature is good.
+	 *
+	 * @param thePurpose What the token must be for
+	 * @param theToken   The token
+	 * @return The payload, or null if the token is malformed, forged, or for another purpose
+	 */
+	public byte[] open(byte thePurpose, String theToken)
+	{
+		if (theToken == null)
+		{
+			return null;
+		}
+		byte[] bytes;
+		try
+		{
+			bytes = Base64.getUrlDecoder().decode(theToken);
+		}
+		catch (IllegalArgumentException e)
+		{
+			return null;
+		}
+		int length = bytes.length - MAC_BYTES;
+		if (length < 0)
+		{
+			return null;
+		}
+		byte[] expected = Arrays.copyOf(mac(thePurpose, bytes, length), MAC_BYTES);
+		// constant time, so the signature cannot be guessed a byte at a time
+		if (!MessageDigest.isEqual(expected, Arrays.copyOfRange(bytes, length, bytes.length)))
+		{
+			return null;
+		}
+		return Arrays.copyOf(bytes, length);
+	}
+
+	/**
+	 * Calculate the HMAC of a payload.
+	 *
+	 * @param thePurpose What the token is for
+	 * @param thePayload The bytes holding the payload, the payload first
+	 * @param theLength  The length of the payload
+	 * @return The full HMAC
+	 */
+	private byte[] mac(byte thePurpose, byte[] thePayload, int theLength)
+	{
+		Mac mac = copyMac();
+		mac.update(thePurpose);
+		mac.update(thePayload, 0, theLength);
+		return mac.doFinal();
+	}
+
+	/**
+	 * Get a Mac of its own for the caller, cloned from the prototype.
+	 *
+	 * @return The Mac
+	 */
+	private Mac copyMac()
+	{
+		try
+		{
+			return (Mac) prototype.clone();
+		}
+		catch (CloneNotSupportedException e)
+		{
+			// providers are not required to support cloning
+			return newMac();
+		}
+	}
+
+	/**
+	 * Create a Mac with the secret.
+	 *
+	 * @return The Mac
+	 */
+	private Mac newMac()
+	{
+		try
+		{
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(secret);
+			return mac;
+		}
+		catch (GeneralSecurityException e)
+		{
+			throw new IllegalStateException("HmacSHA256 is not available", e);
+		}
+	}
+}
@@ -0,0 +1,259 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import org.kuroneko.swn_char_gen.backend_spring.models.AttributeEnum;
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterToken;
+import org.kuroneko.swn_char_gen.backend_spring.models.DetailEnum;
+import org.kuroneko.swn_char_gen.backend_spring.models.RollAuditLog;
+import org.kuroneko.swn_char_gen.backend_spring.models.SWNChar;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Service for SWN character operations in stateless mode, where the server keeps no characters.
+ * <p>
+ * The character travels with every request as a signed token, see CharacterToken and SessionTokens.
+ * Each operation verifies the token, unpacks the character, changes it, and signs a new token for the
+ * client to send next time. Nothing is stored, so any node can serve any request and no memory is
+ * held per user. The token carries no history, so undo, redo, and the event log are not available.
+ */
+@Service
+public class StatelessCharacterService
+{
+	/**
+	 * Name of the cookie carrying the character token.
+	 */
+	public static final String COOKIE_NAME = "swn_character";
+
+	/**
+	 * Name of the header carrying the character token, for clients that do not keep cookies.
+	 */
+	public static final String HEADER_NAME = "X-SWN-Character";
+
+	private final SessionTokens sessionTokens;
+
+	@Autowired
+	public StatelessCharacterService(SessionTokens sessionTokens)
+	{
+		this.sessionTokens = sessionTokens;
+	}
+
+	/**
+	 * A character and the token to send back to the client.
+	 */
+	public static final class Result
+	{
+		private final String token;
+		private final Map<String, Object> character;
+
+		/**
+		 * Create a result.
+		 *
+		 * @param token     The signed character token
+		 * @param character The character data as a Map
+		 */
+		Result(String token, Map<String, Object> character)
+		{
+			this.token = token;
+			this.character = character;
+		}
+
+		/**
+		 * Get the signed character token.
+		 *
+		 * @return The token
+		 */
+		public String getToken()
+		{
+			return token;
+		}
+
+		/**
+		 * Get the character data.
+		 *
+		 * @return The character data as a Map
+		 */
+		public Map<String, Object> getCharacter()
+		{
+			return character;
+		}
+	}
+
+	/**
+	 * Upload a character from JSON data.
+	 *
+	 * @param characterData A Map containing character data
+	 * @return The uploaded character
+	 * @throws IllegalArgumentException if the name is too long for a token
+	 */
+	public Result uploadCharacter(Map<String, Object> characterData) throws IOException
+	{
+		return seal(new SWNChar(characterData));
+	}
+
+	/**
+	 * Create a new character using a specific ruleset.
+	 *
+	 * @param rulesetId The ruleset id, or null for the standard SWN rules
+	 * @return The new character
+	 * @throws IllegalArgumentException if the ruleset is unknown
+	 */
+	public Result createNewCharacter(String rulesetId)
+	{
+		return seal(SWNChar.forRuleset(rulesetId));
+	}
+
+	/**
+	 * Get the character of a token.
+	 *
+	 * @param token The character token, or null for a new character
+	 * @return The character
+	 * @throws IllegalArgumentException if the token is invalid
+	 */
+	public Result getCharacter(String token)
+	{
+		return seal(open(token, true));
+	}
+
+	/**
+	 * Roll attributes for the character of a token.
+	 *
+	 * @param session The session key, for the roll audit log
+	 * @param token   The character token, or null for a new character
+	 * @return The updated character
+	 * @throws IllegalArgumentException if the token is invalid
+	 */
+	public Result rollAttributes(SessionKey session, String token)
+	{
+		SWNChar character = open(token, true);
+		character.rollAttributes();
+		CharacterService.auditRoll(session, character, RollAuditLog.TYPE_ROLL, 1);
+		return seal(character);
+	}
+
+	/**
+	 * Roll attributes for the character of a token until they meet the given constraints.
+	 *
+	 * @param session             The session key, for the roll audit log
+	 * @param token               The character token, or null for a new character
+	 * @param minModifierSum      The lowest acceptable total modifier, or null for no limit
+	 * @param minHighestAttribute The value at least one attribute must reach, or null for no limit
+	 * @return The updated character
+	 * @throws IllegalArgumentException if the token is invalid or the constraints are too unlikely to meet
+	 */
+	public Result rollAttributes(SessionKey session, String token, Integer minModifierSum, Integer minHighestAttribute)
+	{
+		SWNChar character = open(token, true);
+		int attempts = character.rollAttributes(minModifierSum == null ? Integer.MIN_VALUE : minModifierSum,
+												minHighestAttribute == null ? 0 : minHighestAttribute);
+		CharacterService.auditRoll(session, character, RollAuditLog.TYPE_CONSTRAINED_ROLL, attempts);
+		return seal(character);
+	}
+
+	/**
+	 * Change an attribute for the character of a token.
+	 *
+	 * @param token         The character token
+	 * @param attributeName The name of the attribute to change
+	 * @return The updated character
+	 * @throws IllegalArgumentException if there is no token, the token is invalid, or the attribute is invalid
+	 */
+	public Result changeAttribute(String token, String attributeName)
+	{
+		SWNChar character = open(token, false);
+		AttributeEnum attributeEnum = AttributeEnum.valueOf(attributeName.toUpperCase());
+		character.changeOneAttribute(attributeEnum);
+		return seal(character);
+	}
+
+	/**
+	 * Set a detail for the character of a token.
+	 *
+	 * @param token       The character token
+	 * @param detailName  The name of the detail to set
+	 * @param detailValue The value to set
+	 * @return The updated character
+	 * @throws IllegalArgumentException if there is no token, the token is invalid, or the detail is invalid
+	 */
+	public Result setDetail(String token, String detailName, String detailValue)
+	{
+		SWNChar character = open(token, false);
+		DetailEnum detailEnum = DetailEnum.valueOf(detailName.toUpperCase());
+		character.setDetail(detailEnum, detailValue);
+		return seal(character);
+	}
+
+	/**
+	 * Get the odds of the rolled attributes of the character of a token.
+	 *
+	 * @param token The character token
+	 * @return The odds as a Map
+	 * @throws IllegalArgumentException if there is no token, the token is invalid, or the attributes have not been rolled
+	 */
+	public Map<String, Object> getOdds(String token)
+	{
+		SWNChar character = open(token, false);
+		Map<String, Object> odds = character.calculateOdds();
+		character.releaseHistory();
+		return odds;
+	}
+
+	/**
+	 * Verify a token and unpack its character.
+	 *
+	 * @param token  The character token
+	 * @param create True to start a new character if there is no token
+	 * @return The character
+	 * @throws IllegalArgumentException if there is no token and create is false, or the token is invalid
+	 */
+	private SWNChar open(String token, boolean create)
+	{
+		if (token == null || token.isEmpty())
+		{
+			if (create)
+			{
+				return new SWNChar();
+			}
+			throw new IllegalArgumentException("No character found");
+		}
+		byte[] payload = sessionTokens.open(SessionTokens.PURPOSE_CHARACTER, token);
+		if (payload == null)
+		{
+			throw new IllegalArgumentException("Invalid character token");
+		}
+		return CharacterToken.unpack(payload);
+	}
+
+	/**
+	 * Pack and sign a character, and drop the history its changes recorded.
+	 *
+	 * @param character The character
+	 * @return The character and its new token
+	 * @throws IllegalArgumentException if the character is too large for a token
+	 */
+	private Result seal(SWNChar character)
+	{
+		try
+		{
+			String token = sessionTokens.seal(SessionTokens.PURPOSE_CHARACTER, CharacterToken.pack(character));
+			return new Result(token, character.toMap());
+		}
+		finally
+		{
+			character.releaseHistory();
+		}
+	}
+}
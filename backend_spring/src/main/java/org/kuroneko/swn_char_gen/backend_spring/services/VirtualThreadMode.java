@@ -0,0 +1,90 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterActors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Moves the character actors onto virtual threads when the application runs in virtual thread mode.
+ * <p>
+ * spring.threads.virtual.enabled=true makes Tomcat serve each request on its own virtual thread, so
+ * a slow client uploading a character holds a cheap virtual thread rather than one of a fixed pool of
+ * platform threads. This component follows the same property for the work CharacterService hands to
+ * the session actors. Simulations stay on the fork-join pool, since they are pure CPU work.
+ */
+@Component
+public class VirtualThreadMode
+{
+	private static final Logger logger = LoggerFactory.getLogger(VirtualThreadMode.class);
+	private final boolean enabled;
+	private ExecutorService virtualExecutor;
+	private Executor previousExecutor;
+
+	/**
+	 * Create the component.
+	 *
+	 * @param theEnabled True to run on virtual threads
+	 */
+	public VirtualThreadMode(@Value("${spring.threads.virtual.enabled:false}") boolean theEnabled)
+	{
+		this.enabled = theEnabled;
+	}
+
+	/**
+	 * Switch the actors to virtual threads if enabled.
+	 */
+	@PostConstruct
+	public void start()
+	{
+		if (!enabled)
+		{
+			return;
+		}
+		virtualExecutor = Executors.newVirtualThreadPerTaskExecutor();
+		previousExecutor = CharacterActors.getInstance().setExecutor(virtualExecutor);
+		logger.info("Running character actors on virtual threads");
+	}
+
+	/**
+	 * Switch the actors back and let the virtual threads finish.
+	 */
+	@PreDestroy
+	public void stop()
+	{
+		if (virtualExecutor == null)
+		{
+			return;
+		}
+		CharacterActors.getInstance().setExecutor(previousExecutor);
+		virtualExecutor.shutdown();
+		virtualExecutor = null;
+	}
+
+	/**
+	 * Check if virtual thread mode is on.
+	 *
+	 * @return True if the actors run on virtual threads
+	 */
+	public boolean isEnabled()
+	{
+		return enabled;
+	}
+}
@@ -9,14 +9,13 @@
 
 package org.kuroneko.swn_char_gen.backend_spring;
 
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpSession;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.kuroneko.swn_char_gen.backend_spring.controllers.ApiController;
 import org.kuroneko.swn_char_gen.backend_spring.models.CharacterStore;
 import org.kuroneko.swn_char_gen.backend_spring.models.SWNChar;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
 import org.kuroneko.swn_char_gen.backend_spring.services.CharacterService;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
@@ -24,16 +23,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ConfigurableApplicationContext;
-import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -65,6 +61,8 @@ class BackendSpringApplicationTests
 
 	private CharacterService mCharacterService;
 
+	private final SessionKey mSession = SessionKey.random();
+
 	@Autowired
 	private ApiController mApiController;
 
@@ -77,18 +75,6 @@ class BackendSpringApplicationTests
         this.mCharacterService = Mockito.spy(this.mCharacterServiceOriginal);
 
         this.mMockMvc = MockMvcBuilders.webAppContextSetup(this.mWebApplicationContext).build();
-
-		// Set up mock request and session
-        HttpServletRequest mockRequest = mock(HttpServletRequest.class);
-        HttpSession mockSession = new MockHttpSession();
-		when(mockRequest.getSession(true)).thenReturn(mockSession);
-
-		// Set up RequestContextHolder with mock request
-		ServletRequestAttributes servletRequestAttributes = new ServletRequestAttributes(mockRequest);
-		RequestContextHolder.setRequestAttributes(servletRequestAttributes);
-
-		// Mock the getOrCreateSessionId method to return a fixed session ID
-		doReturn(UUID.randomUUID().toString()).when(this.mCharacterService).getOrCreateSessionId();
 	}
 
 	/**
@@ -147,17 +133,19 @@ class BackendSpringApplicationTests
 	{
 		// Mock the CharacterStore
 		CharacterStore mockStore = mock(CharacterStore.class);
+		when(mockStore.replace(any(SessionKey.class), any(SWNChar.class), any()))
+				.thenAnswer(invocation -> invocation.<Function<SWNChar, Object>>getArgument(2).apply(invocation.getArgument(1)));
 
 		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
 		{
 			mockedStatic.when(CharacterStore::getInstance).thenReturn(mockStore);
 
 			// Call the method under test
-			Map<String, Object> character = this.mCharacterService.createNewCharacter();
+			Map<String, Object> character = this.mCharacterService.createNewCharacter(this.mSession, null);
 
 			// Verify the result
 			assertNotNull(character, "Created character should not be null");
-			verify(mockStore).storeCharacter(anyString(), any(SWNChar.class));
+			verify(mockStore).replace(any(SessionKey.class), any(SWNChar.class), any());
 		}
 	}
 
@@ -172,7 +160,7 @@ class BackendSpringApplicationTests
 		// Mock the CharacterService to return a test character
 		Map<String, Object> mockCharacter = new HashMap<>();
 		mockCharacter.put("name", "Test Character");
-		doReturn(mockCharacter).when(this.mCharacterService).createNewCharacter();
+		doReturn(mockCharacter).when(this.mCharacterService).createNewCharacter(any(SessionKey.class), isNull());
 
 		// Test the endpoint with the correct path
 		this.mMockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/api/new-character"))
@@ -213,8 +201,8 @@ class BackendSpringApplicationTests
 		mockCharacter.put("attributes", attributes);
 
 		// Configure mocks
-		when(mockStore.characterMissing(anyString())).thenReturn(false);
-		when(mockStore.getCharacter(anyString())).thenReturn(mockChar);
+		when(mockStore.mutateOrCreate(any(SessionKey.class), any()))
+				.thenAnswer(invocation -> invocation.<Function<SWNChar, Object>>getArgument(1).apply(mockChar));
 		when(mockChar.toMap()).thenReturn(mockCharacter);
 
 		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
@@ -222,7 +210,7 @@ class BackendSpringApplicationTests
 			mockedStatic.when(CharacterStore::getInstance).thenReturn(mockStore);
 
 			// Call the method under test
-			Map<String, Object> result = this.mCharacterService.rollAttributes();
+			Map<String, Object> result = this.mCharacterService.rollAttributes(this.mSession);
 
 			// Verify the result
 			assertNotNull(result, "Character with rolled attributes should not be null");
@@ -13,20 +13,39 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterChanges;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterPollService;
 import org.kuroneko.swn_char_gen.backend_spring.services.CharacterService;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterShareService;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterStreamService;
+import org.kuroneko.swn_char_gen.backend_spring.services.IdempotencyCache;
+import org.kuroneko.swn_char_gen.backend_spring.services.SessionTokens;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import jakarta.servlet.http.Cookie;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -43,7 +62,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * <p>
  * The tests use MockMvc with a standalone setup to test the controller in isolation,
  * with the CharacterService mocked to control its behavior and avoid dependencies
- * on the actual service implementation.
+ * on the actual service implementation. The session cookie resolver is registered as it is in
+ * WebConfig, so each request is given a session key.
  * <p>
  * Each endpoint has both happy path tests (successful requests) and error case tests
  * (invalid inputs or service exceptions) to ensure comprehensive coverage.
@@ -56,13 +76,27 @@ public class ApiControllerTest
 	@Mock
 	private CharacterService characterService;
 
+	@Mock
+	private CharacterStreamService characterStreamService;
+
+	@Mock
+	private CharacterPollService characterPollService;
+
+	@Mock
+	private CharacterShareService characterShareService;
+
+	@Spy
+	private IdempotencyCache idempotencyCache = new IdempotencyCache(100, 60_000, 5_000);
+
 	@InjectMocks
 	private ApiController apiController;
 
 	@BeforeEach
 	void setUp()
 	{
-		mockMvc = MockMvcBuilders.standaloneSetup(apiController).build();
+		mockMvc = MockMvcBuilders.standaloneSetup(apiController)
+				.setCustomArgumentResolvers(new SessionKeyArgumentResolver(new SessionTokens("")))
+				.build();
 	}
 
 	/**
@@ -78,7 +112,7 @@ public class ApiControllerTest
 		mockCharacter.put("name", "Test Character");
 
 		// Configure mock service
-		when(characterService.createNewCharacter()).thenReturn(mockCharacter);
+		when(characterService.createNewCharacter(any(SessionKey.class), any())).thenReturn(mockCharacter);
 
 		// Perform request and validate response
 		mockMvc.perform(get("/api/new-character"))
@@ -88,6 +122,66 @@ public class ApiControllerTest
 				.andExpect(jsonPath("$.name").value("Test Character"));
 	}
 
+	/**
+	 * Tests the /api/new-character endpoint with a ruleset parameter.
+	 */
+	@Test
+	@DisplayName("New Character Endpoint With Ruleset")
+	void testNewCharacterWithRulesetEndpoint() throws Exception
+	{
+		// Prepare mock response
+		Map<String, Object> mockCharacter = new HashMap<>();
+		mockCharacter.put("mRulesetId", "swn_heroic");
+
+		// Configure mock service
+		when(characterService.createNewCharacter(any(SessionKey.class), eq("swn_heroic"))).thenReturn(mockCharacter);
+
+		// Perform request and validate response
+		mockMvc.perform(get("/api/new-character").param("ruleset", "swn_heroic"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.mRulesetId").value("swn_heroic"));
+	}
+
+	/**
+	 * Tests the /api/new-character endpoint with an unknown ruleset.
+	 */
+	@Test
+	@DisplayName("New Character Endpoint With Unknown Ruleset")
+	void testNewCharacterWithUnknownRulesetEndpoint() throws Exception
+	{
+		// Configure mock service to throw exception
+		when(characterService.createNewCharacter(any(SessionKey.class), eq("no_such_rules")))
+				.thenThrow(new IllegalArgumentException("Unknown ruleset: no_such_rules"));
+
+		// Perform request and validate response
+		mockMvc.perform(get("/api/new-character").param("ruleset", "no_such_rules"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("Unknown ruleset: no_such_rules"));
+	}
+
+	/**
+	 * Tests the /api/rulesets endpoint for listing rulesets.
+	 */
+	@Test
+	@DisplayName("Rulesets Endpoint")
+	void testRulesetsEndpoint() throws Exception
+	{
+		// Prepare mock response
+		Map<String, Object> ruleset = new HashMap<>();
+		ruleset.put("id", "swn");
+		ruleset.put("dice", "3d6");
+
+		// Configure mock service
+		when(characterService.getRulesets()).thenReturn(List.of(ruleset));
+
+		// Perform request and validate response
+		mockMvc.perform(get("/api/rulesets"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.rulesets[0].id").value("swn"))
+				.andExpect(jsonPath("$.rulesets[0].dice").value("3d6"));
+	}
+
 	/**
 	 * Tests the /api/get endpoint for retrieving the current character.
 	 */
@@ -101,7 +195,7 @@ public class ApiControllerTest
 		mockCharacter.put("name", "Test Character");
 
 		// Configure mock service
-		when(characterService.getCharacter()).thenReturn(mockCharacter);
+		when(characterService.getCharacter(any(SessionKey.class))).thenReturn(mockCharacter);
 
 		// Perform request and validate response
 		mockMvc.perform(get("/api/character"))
@@ -130,7 +224,7 @@ public class ApiControllerTest
 		mockCharacter.put("attributes", attributes);
 
 		// Configure mock service
-		when(characterService.rollAttributes()).thenReturn(mockCharacter);
+		when(characterService.rollAttributes(any(SessionKey.class))).thenReturn(mockCharacter);
 
 		// Perform request and validate response
 		mockMvc.perform(get("/api/roll-attributes"))
@@ -158,7 +252,7 @@ public class ApiControllerTest
 		mockCharacter.put("attributes", attributes);
 
 		// Configure mock service
-		when(characterService.changeAttribute(anyString())).thenReturn(mockCharacter);
+		when(characterService.changeAttribute(any(SessionKey.class), anyString())).thenReturn(mockCharacter);
 
 		// Prepare request body
 		String requestBody = "{\"attribute\":\"strength\"}";
@@ -172,6 +266,191 @@ public class ApiControllerTest
 				.andExpect(jsonPath("$.attributes.strength").value(16));
 	}
 
+	/**
+	 * Tests the /api/roll-attributes endpoint with constraints.
+	 */
+	@Test
+	@DisplayName("Constrained Roll Attributes Endpoint")
+	void testConstrainedRollAttributesEndpoint() throws Exception
+	{
+		// Prepare mock response
+		Map<String, Object> mockCharacter = new HashMap<>();
+		mockCharacter.put("mStrength", 15);
+
+		// Configure mock service
+		when(characterService.rollAttributes(any(SessionKey.class), isNull(), eq(14))).thenReturn(mockCharacter);
+
+		// Perform request and validate response
+		mockMvc.perform(get("/api/roll-attributes").param("minHighestAttribute", "14"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.mStrength").value(15));
+	}
+
+	/**
+	 * Tests the /api/roll-attributes endpoint with constraints that cannot be met.
+	 */
+	@Test
+	@DisplayName("Constrained Roll Attributes Endpoint With Impossible Constraints")
+	void testConstrainedRollAttributesEndpointError() throws Exception
+	{
+		// Configure mock service to throw exception
+		when(characterService.rollAttributes(any(SessionKey.class), eq(12), isNull()))
+				.thenThrow(new IllegalArgumentException("Constraints are too unlikely to roll"));
+
+		// Perform request and validate response
+		mockMvc.perform(get("/api/roll-attributes").param("minModifierSum", "12"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("Constraints are too unlikely to roll"));
+	}
+
+	/**
+	 * Tests the /api/character/odds endpoint.
+	 */
+	@Test
+	@DisplayName("Character Odds Endpoint")
+	void testCharacterOddsEndpoint() throws Exception
+	{
+		// Prepare mock response
+		Map<String, Object> bestChange = new HashMap<>();
+		bestChange.put("attribute", "CHARISMA");
+		Map<String, Object> mockOdds = new HashMap<>();
+		mockOdds.put("modifierSum", -2);
+		mockOdds.put("bestChange", bestChange);
+
+		// Configure mock service
+		when(characterService.getOdds(any(SessionKey.class))).thenReturn(mockOdds);
+
+		// Perform request and validate response
+		mockMvc.perform(get("/api/character/odds"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.modifierSum").value(-2))
+				.andExpect(jsonPath("$.bestChange.attribute").value("CHARISMA"));
+	}
+
+	/**
+	 * Tests the /api/character/odds endpoint when the attributes have not been rolled.
+	 */
+	@Test
+	@DisplayName("Character Odds Endpoint Before Rolling")
+	void testCharacterOddsEndpointError() throws Exception
+	{
+		// Configure mock service to throw exception
+		when(characterService.getOdds(any(SessionKey.class))).thenThrow(new IllegalArgumentException("Attributes have not been rolled"));
+
+		// Perform request and validate response
+		mockMvc.perform(get("/api/character/odds"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("Attributes have not been rolled"));
+	}
+
+	/**
+	 * Tests the /api/undo and /api/redo endpoints.
+	 */
+	@Test
+	@DisplayName("Undo and Redo Endpoints")
+	void testUndoRedoEndpoints() throws Exception
+	{
+		// Prepare mock responses
+		Map<String, Object> undone = new HashMap<>();
+		undone.put("mStrength", 10);
+		Map<String, Object> redone = new HashMap<>();
+		redone.put("mStrength", 14);
+
+		// Configure mock service
+		when(characterService.undo(any(SessionKey.class))).thenReturn(undone);
+		when(characterService.redo(any(SessionKey.class))).thenReturn(redone);
+
+		// Perform requests and validate responses
+		mockMvc.perform(post("/api/undo"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.mStrength").value(10));
+		mockMvc.perform(post("/api/redo"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.mStrength").value(14));
+	}
+
+	/**
+	 * Tests the /api/undo endpoint when there is nothing to undo.
+	 */
+	@Test
+	@DisplayName("Undo Endpoint with Nothing to Undo")
+	void testUndoEndpointError() throws Exception
+	{
+		// Configure mock service to throw exception
+		when(characterService.undo(any(SessionKey.class))).thenThrow(new IllegalArgumentException("Nothing to undo"));
+
+		// Perform request and validate response
+		mockMvc.perform(post("/api/undo"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("Nothing to undo"));
+	}
+
+	/**
+	 * Tests the /api/character/events endpoint.
+	 */
+	@Test
+	@DisplayName("Character Events Endpoint")
+	void testCharacterEventsEndpoint() throws Exception
+	{
+		// Prepare mock response
+		Map<String, Object> event = new HashMap<>();
+		event.put("type", "SET_DETAIL");
+		event.put("value", "Test Character");
+
+		// Configure mock service
+		when(characterService.getEvents(any(SessionKey.class))).thenReturn(List.of(event));
+
+		// Perform request and validate response
+		mockMvc.perform(get("/api/character/events"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.events[0].type").value("SET_DETAIL"))
+				.andExpect(jsonPath("$.events[0].value").value("Test Character"));
+	}
+
+	/**
+	 * Tests the /api/simulate endpoint.
+	 */
+	@Test
+	@DisplayName("Simulate Endpoint")
+	void testSimulateEndpoint() throws Exception
+	{
+		// Prepare mock response
+		Map<String, Object> mockResult = new HashMap<>();
+		mockResult.put("rulesetId", "swn_heroic");
+		mockResult.put("characters", 5000);
+
+		// Configure mock service
+		when(characterService.simulate("swn_heroic", 5000L, 42L)).thenReturn(mockResult);
+
+		// Perform request and validate response
+		mockMvc.perform(get("/api/simulate")
+								.param("ruleset", "swn_heroic")
+								.param("characters", "5000")
+								.param("seed", "42"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.rulesetId").value("swn_heroic"))
+				.andExpect(jsonPath("$.characters").value(5000));
+	}
+
+	/**
+	 * Tests the /api/simulate endpoint with too many characters.
+	 */
+	@Test
+	@DisplayName("Simulate Endpoint With Too Many Characters")
+	void testSimulateEndpointError() throws Exception
+	{
+		// Configure mock service to throw exception
+		when(characterService.simulate(any(), anyLong(), any()))
+				.thenThrow(new IllegalArgumentException("Number of characters must be between 1 and 100000000"));
+
+		// Perform request and validate response
+		mockMvc.perform(get("/api/simulate").param("characters", "1000000000"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("Number of characters must be between 1 and 100000000"));
+	}
+
 	/**
 	 * Tests the /api/set endpoint for setting a character detail.
 	 */
@@ -186,7 +465,7 @@ public class ApiControllerTest
 		mockCharacter.put("details", details);
 
 		// Configure mock service
-		when(characterService.setDetail(anyString(), anyString())).thenReturn(mockCharacter);
+		when(characterService.setDetail(any(SessionKey.class), anyString(), anyString())).thenReturn(mockCharacter);
 
 		// Prepare request body
 		String requestBody = "{\"detail\":\"name\",\"value\":\"John Doe\"}";
@@ -213,7 +492,7 @@ public class ApiControllerTest
 		mockCharacter.put("name", "Uploaded Character");
 
 		// Configure mock service
-		when(characterService.uploadCharacter(any())).thenReturn(mockCharacter);
+		when(characterService.uploadCharacter(any(SessionKey.class), any())).thenReturn(mockCharacter);
 
 		// Prepare mock file
 		MockMultipartFile file = new MockMultipartFile(
@@ -244,7 +523,7 @@ public class ApiControllerTest
 		mockCharacter.put("name", "Download Character");
 
 		// Configure mock service
-		when(characterService.getCharacter()).thenReturn(mockCharacter);
+		when(characterService.getCharacter(any(SessionKey.class))).thenReturn(mockCharacter);
 
 		// Perform request and validate response
 		mockMvc.perform(get("/api/download-character"))
@@ -263,7 +542,7 @@ public class ApiControllerTest
 	void testChangeAttributeErrorHandling() throws Exception
 	{
 		// Configure mock service to throw exception
-		when(characterService.changeAttribute(anyString()))
+		when(characterService.changeAttribute(any(SessionKey.class), anyString()))
 				.thenThrow(new IllegalArgumentException("Invalid attribute"));
 
 		// Prepare request body
@@ -285,7 +564,7 @@ public class ApiControllerTest
 	void testSetDetailErrorHandling() throws Exception
 	{
 		// Configure mock service to throw exception
-		when(characterService.setDetail(anyString(), anyString()))
+		when(characterService.setDetail(any(SessionKey.class), anyString(), anyString()))
 				.thenThrow(new IllegalArgumentException("Invalid detail"));
 
 		// Prepare request body
@@ -298,4 +577,296 @@ public class ApiControllerTest
 				.andExpect(status().isBadRequest())
 				.andExpect(jsonPath("$.error").exists());
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Tests that a session cookie is issued on the first request and that later requests carrying it
+	 * reach the same session, while a forged cookie is replaced.
+	 */
+	@Test
+	@DisplayName("Session Cookie Is Issued And Reused")
+	void testSessionCookie() throws Exception
+	{
+		// Configure mock service
+		when(characterService.getCharacter(any(SessionKey.class))).thenReturn(new HashMap<>());
+
+		// First request has no cookie, so one is issued
+		MvcResult first = mockMvc.perform(get("/api/character"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists("Set-Cookie"))
+				.andReturn();
+		String setCookie = first.getResponse().getHeader("Set-Cookie");
+		assertTrue(setCookie.contains("HttpOnly"), "Session cookie should not be readable from scripts");
+		String token = setCookie.substring(setCookie.indexOf('=') + 1, setCookie.indexOf(';'));
+
+		// Second request sends the cookie back, so it is not issued again
+		mockMvc.perform(get("/api/character").cookie(new Cookie(SessionTokens.COOKIE_NAME, token)))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist("Set-Cookie"));
+
+		// A forged cookie is replaced with a new session
+		mockMvc.perform(get("/api/character").cookie(new Cookie(SessionTokens.COOKIE_NAME, "forged")))
+				.andExpect(status().isOk())
+				.andExpect(header().exists("Set-Cookie"));
+
+		ArgumentCaptor<SessionKey> sessions = ArgumentCaptor.forClass(SessionKey.class);
+		verify(characterService, times(3)).getCharacter(sessions.capture());
+		assertEquals(sessions.getAllValues().get(0), sessions.getAllValues().get(1),
+					 "The cookie should bring the caller back to the same session");
+		assertNotEquals(sessions.getAllValues().get(0), sessions.getAllValues().get(2),
+						"A forged cookie should not reach an existing session");
+	}
+
+	/**
+	 * Tests the /api/characters endpoints for creating and listing party characters.
+	 */
+	@Test
+	@DisplayName("Create And List Party Characters Endpoints")
+	void testCreateAndListPartyCharacters() throws Exception
+	{
+		// Prepare mock responses
+		Map<String, Object> created = new HashMap<>();
+		created.put("id", 1);
+		created.put("character", new HashMap<>());
+		Map<String, Object> page = new HashMap<>();
+		page.put("characters", List.of(Map.of("id", 1, "name", "Test Character")));
+		page.put("count", 1);
+
+		// Configure mock service
+		when(characterService.createPartyCharacter(any(SessionKey.class), eq("swn_heroic"))).thenReturn(created);
+		when(characterService.listPartyCharacters(any(SessionKey.class), eq(0), eq(20))).thenReturn(page);
+
+		// Perform requests and validate responses
+		mockMvc.perform(post("/api/characters").param("ruleset", "swn_heroic"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.id").value(1));
+		mockMvc.perform(get("/api/characters"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.count").value(1))
+				.andExpect(jsonPath("$.characters[0].name").value("Test Character"));
+	}
+
+	/**
+	 * Tests the /api/characters/{id} endpoints for one party character.
+	 */
+	@Test
+	@DisplayName("Party Character Endpoints")
+	void testPartyCharacterEndpoints() throws Exception
+	{
+		// Prepare mock response
+		Map<String, Object> mockCharacter = new HashMap<>();
+		mockCharacter.put("name", "Test Character");
+
+		// Configure mock service
+		when(characterService.getPartyCharacter(any(SessionKey.class), eq(7))).thenReturn(mockCharacter);
+		when(characterService.changePartyAttribute(any(SessionKey.class), eq(7), eq("strength"))).thenReturn(mockCharacter);
+		when(characterService.getPartyCharacter(any(SessionKey.class), eq(8)))
+				.thenThrow(new IllegalArgumentException("No character found with id 8"));
+
+		// Perform requests and validate responses
+		mockMvc.perform(get("/api/characters/7"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name").value("Test Character"));
+		mockMvc.perform(post("/api/characters/7/change-attribute")
+								.contentType(MediaType.APPLICATION_JSON)
+								.content("{\"attribute\":\"strength\"}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(delete("/api/characters/7"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.id").value(7));
+		mockMvc.perform(get("/api/characters/8"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("No character found with id 8"));
+
+		verify(characterService).removePartyCharacter(any(SessionKey.class), eq(7));
+	}
+
+	/**
+	 * Tests the /api/characters/batch-get endpoint for fetching party characters by id and shared
+	 * characters by token at once.
+	 */
+	@Test
+	@DisplayName("Batch Get Party Characters Endpoint")
+	void testBatchGetPartyCharacters() throws Exception
+	{
+		// Prepare mock response
+		Map<String, Object> result = new HashMap<>();
+		result.put("characters", List.of(Map.of("id", 1, "character", Map.of("mName", "Test Character"))));
+		result.put("missing", List.of(2));
+		result.put("shared", List.of(Map.of("token", "good", "id", 0, "character", Map.of("mName", "Player Character"))));
+		result.put("invalid", List.of("revoked"));
+
+		// Configure mock service
+		when(characterShareService.batchGet(any(SessionKey.class), eq(List.of(1, 2)), eq(List.of("good", "revoked"))))
+				.thenReturn(result);
+
+		// Perform requests and validate responses
+		mockMvc.perform(post("/api/characters/batch-get")
+								.contentType(MediaType.APPLICATION_JSON)
+								.content("{\"ids\":[1,2],\"tokens\":[\"good\",\"revoked\"]}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.characters[0].character.mName").value("Test Character"))
+				.andExpect(jsonPath("$.missing[0]").value(2))
+				.andExpect(jsonPath("$.shared[0].character.mName").value("Player Character"))
+				.andExpect(jsonPath("$.invalid[0]").value("revoked"));
+		mockMvc.perform(post("/api/characters/batch-get")
+								.contentType(MediaType.APPLICATION_JSON)
+								.content("{}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("Ids or tokens parameter is required"));
+		mockMvc.perform(post("/api/characters/batch-get")
+								.contentType(MediaType.APPLICATION_JSON)
+								.content("{\"ids\":[\"one\"]}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("Ids must be whole numbers"));
+	}
+
+	/**
+	 * Tests the /api/character/share endpoint makes a share token, and revokes them on DELETE.
+	 */
+	@Test
+	@DisplayName("Share Character Endpoint")
+	void testShareCharacter() throws Exception
+	{
+		Map<String, Object> share = new HashMap<>();
+		share.put("token", "token");
+		share.put("id", 0);
+		when(characterShareService.share(any(SessionKey.class), eq(0))).thenReturn(share);
+		when(characterShareService.share(any(SessionKey.class), eq(7)))
+				.thenThrow(new IllegalArgumentException("No character found with id 7"));
+		when(characterShareService.revoke(any(SessionKey.class))).thenReturn(Map.of("revoked", true));
+
+		mockMvc.perform(post("/api/character/share"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.token").value("token"))
+				.andExpect(jsonPath("$.id").value(0));
+		mockMvc.perform(post("/api/character/share").param("id", "7"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("No character found with id 7"));
+		mockMvc.perform(delete("/api/character/share"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.revoked").value(true));
+	}
+
+	/**
+	 * Tests the /api/character/stream endpoint, with a real stream service, sends the snapshot and then
+	 * each change as Server-Sent Events without finishing the request.
+	 */
+	@Test
+	@DisplayName("Character Stream Endpoint")
+	void testCharacterStream() throws Exception
+	{
+		CharacterStreamService streamService = new CharacterStreamService(characterService, 60_000);
+		MockMvc streamMvc = MockMvcBuilders.standaloneSetup(new ApiController(characterService, streamService, characterPollService, characterShareService, idempotencyCache))
+				.setCustomArgumentResolvers(new SessionKeyArgumentResolver(new SessionTokens("")))
+				.build();
+		Map<String, Object> snapshot = new HashMap<>();
+		snapshot.put("version", 0L);
+		snapshot.put("character", Map.of("mName", "Test Character"));
+		when(characterService.getVersionedCharacter(any(SessionKey.class))).thenReturn(snapshot);
+
+		try
+		{
+			// Open the stream, which stays open
+			MvcResult result = streamMvc.perform(get("/api/character/stream"))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+			ArgumentCaptor<SessionKey> session = ArgumentCaptor.forClass(SessionKey.class);
+			verify(characterService).getVersionedCharacter(session.capture());
+
+			// Publish a change to the streamed character
+			Map<String, Object> change = new HashMap<>();
+			change.put("type", "SET_DETAIL");
+			CharacterChanges.getInstance().publish(session.getValue(), change);
+
+			// The events are written by a virtual thread, so wait for them
+			long deadline = System.currentTimeMillis() + 5_000;
+			while (!result.getResponse().getContentAsString().contains("event:change") && System.currentTimeMillis() < deadline)
+			{
+				Thread.sleep(10);
+			}
+			String content = result.getResponse().getContentAsString();
+			assertTrue(content.contains("event:snapshot"), "The stream should start with the whole character");
+			assertTrue(content.contains("Test Character"));
+			assertTrue(content.contains("event:change"), "The change should be pushed");
+			assertTrue(content.contains("SET_DETAIL"));
+			assertEquals(1, CharacterChanges.getInstance().getListenerCount(session.getValue()));
+		}
+		finally
+		{
+			streamService.stop();
+		}
+	}
+
+	/**
+	 * Tests the /api/character/changes endpoint answers asynchronously with the poll's result.
+	 */
+	@Test
+	@DisplayName("Character Changes Endpoint")
+	void testCharacterChanges() throws Exception
+	{
+		// Prepare mock response
+		Map<String, Object> answer = new HashMap<>();
+		answer.put("version", 3L);
+		answer.put("changes", List.of(Map.of("type", "SET_DETAIL", "version", 3L)));
+		DeferredResult<Map<String, Object>> result = new DeferredResult<>();
+
+		// Configure mock service
+		when(characterPollService.poll(any(SessionKey.class), eq(2L))).thenReturn(result);
+
+		// Perform request, which waits until the result is set
+		MvcResult pending = mockMvc.perform(get("/api/character/changes").param("since", "2"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		result.setResult(answer);
+		mockMvc.perform(asyncDispatch(pending))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.version").value(3))
+				.andExpect(jsonPath("$.changes[0].type").value("SET_DETAIL"));
+	}
+
+	/**
+	 * Tests that a change-attribute retried with the same Idempotency-Key is answered without running again,
+ * and that the key is refused for a different attribute.
+	 */
+	@Test
+	@DisplayName("Change Attribute With Idempotency Key")
+	void testChangeAttributeWithIdempotencyKey() throws Exception
+	{
+		// Prepare mock response
+		Map<String, Object> mockCharacter = new HashMap<>();
+		mockCharacter.put("mChangedAttribute", "STRENGTH");
+
+		// Configure mock service
+		when(characterService.changeAttribute(any(SessionKey.class), eq("strength"))).thenReturn(mockCharacter);
+
+		// Perform the request, then retry it with the session cookie and key
+		MvcResult first = mockMvc.perform(post("/api/change-attribute")
+												  .header(IdempotencyCache.HEADER, "retry-1")
+												  .contentType(MediaType.APPLICATION_JSON)
+												  .content("{\"attribute\":\"strength\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.mChangedAttribute").value("STRENGTH"))
+				.andExpect(header().doesNotExist(IdempotencyCache.REPLAYED_HEADER))
+				.andReturn();
+		String setCookie = first.getResponse().getHeader("Set-Cookie");
+		String token = setCookie.substring(setCookie.indexOf('=') + 1, setCookie.indexOf(';'));
+		mockMvc.perform(post("/api/change-attribute")
+								.cookie(new Cookie(SessionTokens.COOKIE_NAME, token))
+								.header(IdempotencyCache.HEADER, "retry-1")
+								.contentType(MediaType.APPLICATION_JSON)
+								.content("{\"attribute\":\"strength\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.mChangedAttribute").value("STRENGTH"))
+				.andExpect(header().string(IdempotencyCache.REPLAYED_HEADER, "true"));
+		mockMvc.perform(post("/api/change-attribute")
+								.cookie(new Cookie(SessionTokens.COOKIE_NAME, token))
+								.header(IdempotencyCache.HEADER, "retry-1")
+								.contentType(MediaType.APPLICATION_JSON)
+								.content("{\"attribute\":\"dexterity\"}"))
+				.andExpect(status().isUnprocessableEntity())
+				.andExpect(jsonPath("$.error").value(IdempotencyCache.HEADER + " was already used for a different request"));
+
+		verify(characterService, times(1)).changeAttribute(any(SessionKey.class), eq("strength"));
+		verify(characterService, times(0)).changeAttribute(any(SessionKey.class), eq("dexterity"));
+	}
+}
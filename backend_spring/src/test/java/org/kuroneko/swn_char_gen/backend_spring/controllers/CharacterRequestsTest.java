@@ -0,0 +1,100 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterService;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterShareService;
+import org.kuroneko.swn_char_gen.backend_spring.services.SessionTokens;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the CharacterRequests class, the request checks and response bodies both API controllers
+ * share, with the real CharacterStore and a fresh session for each test.
+ */
+class CharacterRequestsTest
+{
+	private final CharacterService characterService = new CharacterService();
+	private final CharacterRequests requests = new CharacterRequests(characterService,
+			new CharacterShareService(characterService, new SessionTokens(""), 60_000));
+	private final SessionKey session = SessionKey.random();
+
+	@Test
+	@DisplayName("Test requests missing a parameter are refused with the controllers' error messages")
+	void testMissingParameters()
+	{
+		characterService.createNewCharacter(session, null);
+
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> requests.changeAttribute(session, new HashMap<>()));
+		assertEquals("Attribute parameter is required", e.getMessage());
+		e = assertThrows(IllegalArgumentException.class, () -> requests.changePartyAttribute(session, 1, Map.of("attribute", "")));
+		assertEquals("Attribute parameter is required", e.getMessage());
+		e = assertThrows(IllegalArgumentException.class, () -> requests.setDetail(session, Map.of("detail", "NAME")));
+		assertEquals("Detail and value parameters are required", e.getMessage());
+		e = assertThrows(IllegalArgumentException.class, () -> requests.setPartyDetail(session, 1, Map.of("value", "Test")));
+		assertEquals("Detail and value parameters are required", e.getMessage());
+		e = assertThrows(IllegalArgumentException.class, () -> requests.batchGet(session, Map.of("ids", List.of())));
+		assertEquals("Ids or tokens parameter is required", e.getMessage());
+		e = assertThrows(IllegalArgumentException.class, () -> requests.batchGetAsync(session, new HashMap<>()));
+		assertEquals("Ids or tokens parameter is required", e.getMessage());
+		e = assertThrows(IllegalArgumentException.class, () -> requests.uploadCharacter(session, new ByteArrayInputStream(new byte[0])));
+		assertEquals("No selected file", e.getMessage());
+
+		assertEquals(Map.of("error", "Some message"), CharacterRequests.error("Some message"));
+	}
+
+	@Test
+	@DisplayName("Test a downloaded character uploads back as the same character")
+	void testDownloadAndUpload() throws Exception
+	{
+		characterService.createNewCharacter(session, null);
+		Map<String, Object> character = requests.setDetail(session, Map.of("detail", "NAME", "value", "Round Trip"));
+
+		ResponseEntity<String> download = requests.download(character);
+		assertEquals(HttpStatus.OK, download.getStatusCode());
+		assertEquals("attachment; filename=\"character.json\"", download.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+
+		SessionKey other = SessionKey.random();
+		Map<String, Object> uploaded = requests.uploadCharacter(other,
+				new ByteArrayInputStream(download.getBody().getBytes(StandardCharsets.UTF_8)));
+		assertEquals("Round Trip", uploaded.get("mName"));
+		assertEquals("Round Trip", characterService.getCharacter(other).get("mName"));
+	}
+
+	@Test
+	@DisplayName("Test the response bodies built around the service results")
+	void testResponseBodies()
+	{
+		assertFalse(((List<?>) requests.getRulesets().get("rulesets")).isEmpty());
+
+		characterService.createNewCharacter(session, null);
+		requests.rollAttributes(session, null, null);
+		requests.rollAttributes(session, -3, null);
+		assertEquals(2, ((List<?>) requests.getEvents(session).get("events")).size(), "Both rolls should be in the event log");
+
+		int id = (Integer) characterService.createPartyCharacter(session, null).get("id");
+		assertEquals(Map.of("id", id), requests.removePartyCharacter(session, id));
+		Map<String, Object> result = requests.batchGet(session, Map.of("ids", List.of(id)));
+		assertEquals(List.of(id), result.get("missing"), "The removed character should not be found");
+	}
+}
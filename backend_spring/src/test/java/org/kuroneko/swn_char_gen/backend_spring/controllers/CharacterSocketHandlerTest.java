@@ -0,0 +1,175 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.controllers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterService;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the CharacterSocketHandler.
+ * <p>
+ * The WebSocket connection and CharacterService are mocked, and the frames sent are captured and
+ * parsed, so the operations and deltas can be checked without a server.
+ */
+@ExtendWith(MockitoExtension.class)
+public class CharacterSocketHandlerTest
+{
+	@Mock
+	private CharacterService characterService;
+
+	@Mock
+	private WebSocketSession socket;
+
+	private final SessionKey key = SessionKey.random();
+	private final Map<String, Object> attributes = new HashMap<>();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private CharacterSocketHandler handler;
+
+	@BeforeEach
+	void setUp()
+	{
+		handler = new CharacterSocketHandler(characterService);
+		lenient().when(socket.getAttributes()).thenReturn(attributes);
+		attributes.put(SessionKeyHandshakeInterceptor.SESSION_KEY_ATTRIBUTE, key);
+	}
+
+	/**
+	 * Make character data with the given name and strength.
+	 *
+	 * @param theName     The name
+	 * @param theStrength The strength
+	 * @return The character data
+	 */
+	private static Map<String, Object> character(String theName, int theStrength)
+	{
+		Map<String, Object> character = new LinkedHashMap<>();
+		character.put("mName", theName);
+		character.put("mStrength", theStrength);
+		return character;
+	}
+
+	/**
+	 * Get the frames sent so far, parsed.
+	 *
+	 * @return The frames, oldest first
+	 */
+	private List<Map<String, Object>> sentFrames() throws Exception
+	{
+		ArgumentCaptor<TextMessage> messages = ArgumentCaptor.forClass(TextMessage.class);
+		verify(socket, atLeastOnce()).sendMessage(messages.capture());
+		List<Map<String, Object>> frames = new ArrayList<>();
+		for (TextMessage message : messages.getAllValues())
+		{
+			frames.add(objectMapper.readValue(message.getPayload(), new TypeReference<Map<String, Object>>() {}));
+		}
+		return frames;
+	}
+
+	/**
+	 * Tests that connecting sends the whole character, and operations send back only what changed.
+	 */
+	@Test
+	@DisplayName("Operations Send Deltas")
+	void testOperationsSendDeltas() throws Exception
+	{
+		when(characterService.getCharacter(key)).thenReturn(character("", 0));
+		when(characterService.rollAttributes(key)).thenReturn(character("", 12));
+		when(characterService.setDetail(key, "name", "Test Character")).thenReturn(character("Test Character", 12));
+
+		handler.afterConnectionEstablished(socket);
+		handler.handleTextMessage(socket, new TextMessage("{\"op\":\"roll\",\"id\":1}"));
+		handler.handleTextMessage(socket, new TextMessage("{\"op\":\"set-detail\",\"detail\":\"name\",\"value\":\"Test Character\"}"));
+
+		List<Map<String, Object>> frames = sentFrames();
+		assertEquals(3, frames.size());
+		assertEquals(character("", 0), frames.get(0).get("character"), "The first frame should hold the whole character");
+		assertEquals(1, frames.get(1).get("id"), "The frame id should be echoed");
+		assertEquals(Map.of("mStrength", 12), frames.get(1).get("delta"), "Only the rolled field should be sent");
+		assertEquals(Map.of("mName", "Test Character"), frames.get(2).get("delta"));
+	}
+
+	/**
+	 * Tests that constrained rolls pass their constraints on.
+	 */
+	@Test
+	@DisplayName("Constrained Roll")
+	void testConstrainedRoll() throws Exception
+	{
+		when(characterService.rollAttributes(key, 2, null)).thenReturn(character("", 14));
+
+		handler.handleTextMessage(socket, new TextMessage("{\"op\":\"roll\",\"minModifierSum\":2}"));
+
+		assertEquals(character("", 14), sentFrames().get(0).get("delta"),
+					 "Without an earlier frame the whole character should be sent");
+	}
+
+	/**
+	 * Tests that invalid operations are answered with an error frame and leave the connection open.
+	 */
+	@Test
+	@DisplayName("Invalid Operations Send Errors")
+	void testInvalidOperations() throws Exception
+	{
+		when(characterService.changeAttribute(eq(key), eq("invalid")))
+				.thenThrow(new IllegalArgumentException("No enum constant"));
+
+		handler.handleTextMessage(socket, new TextMessage("{\"op\":\"fly\",\"id\":\"a\"}"));
+		handler.handleTextMessage(socket, new TextMessage("{\"op\":\"change\"}"));
+		handler.handleTextMessage(socket, new TextMessage("{\"op\":\"change\",\"attribute\":\"invalid\"}"));
+		handler.handleTextMessage(socket, new TextMessage("not json"));
+
+		List<Map<String, Object>> frames = sentFrames();
+		assertEquals("a", frames.get(0).get("id"));
+		assertEquals("Unknown operation fly", frames.get(0).get("error"));
+		assertEquals("attribute parameter is required", frames.get(1).get("error"));
+		assertEquals("No enum constant", frames.get(2).get("error"));
+		assertTrue(frames.get(3).containsKey("error"));
+		verify(socket, never()).close(any(CloseStatus.class));
+	}
+
+	/**
+	 * Tests that a connection without a session is closed.
+	 */
+	@Test
+	@DisplayName("Connection Without Session Is Closed")
+	void testNoSession() throws Exception
+	{
+		attributes.clear();
+
+		handler.afterConnectionEstablished(socket);
+
+		verify(socket).close(any(CloseStatus.class));
+		verify(socket, never()).sendMessage(any());
+	}
+}
@@ -0,0 +1,372 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.controllers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterPollService;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterService;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterShareService;
+import org.kuroneko.swn_char_gen.backend_spring.services.SessionTokens;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the ReactiveApiController.
+ * <p>
+ * These tests check that the reactive endpoints give the same responses as ApiController, and that
+ * the session comes from the signed session cookie. The tests use WebTestClient bound to the controller,
+ * with the CharacterService mocked.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReactiveApiControllerTest
+{
+	private WebTestClient client;
+
+	@Mock
+	private CharacterService characterService;
+
+	@Mock
+	private CharacterShareService characterShareService;
+
+	@Mock
+	private CharacterPollService characterPollService;
+
+	private final SessionTokens sessionTokens = new SessionTokens("");
+
+	@BeforeEach
+	void setUp()
+	{
+		ReactiveApiController reactiveApiController =
+				new ReactiveApiController(characterService, characterShareService, characterPollService, sessionTokens);
+		client = WebTestClient.bindToController(reactiveApiController).build();
+	}
+
+	/**
+	 * Build character data as the service returns it.
+	 *
+	 * @param theName The character name
+	 * @return The character data
+	 */
+	private static Map<String, Object> character(String theName)
+	{
+		Map<String, Object> character = new HashMap<>();
+		character.put("mName", theName);
+		character.put("mStrength", 10);
+		character.put("mStrengthModifier", 0);
+		return character;
+	}
+
+	/**
+	 * Tests that a session is created on the first request and reused when its signed cookie is sent
+	 * back, and that a forged cookie starts a new session.
+	 */
+	@Test
+	@DisplayName("Character Endpoint Keeps The Session")
+	void testCharacterEndpointSession()
+	{
+		when(characterService.getCharacter(any(SessionKey.class))).thenReturn(character("Test Character"));
+
+		EntityExchangeResult<byte[]> first = client.get().uri("/api/character").exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.mName").isEqualTo("Test Character")
+				.jsonPath("$.mStrength").isEqualTo(10)
+				.jsonPath("$.mStrengthModifier").isEqualTo(0)
+				.returnResult();
+		ResponseCookie cookie = first.getResponseCookies().getFirst(SessionTokens.COOKIE_NAME);
+		assertNotNull(cookie, "The first request should set the session cookie");
+		assertTrue(cookie.isHttpOnly(), "Scripts should not read the session cookie");
+		assertNotNull(sessionTokens.verify(cookie.getValue()), "The cookie should be signed");
+
+		EntityExchangeResult<byte[]> second = client.get().uri("/api/character")
+				.cookie(SessionTokens.COOKIE_NAME, cookie.getValue()).exchange()
+				.expectStatus().isOk()
+				.expectBody().returnResult();
+		assertNull(second.getResponseCookies().getFirst(SessionTokens.COOKIE_NAME), "A good cookie should be kept");
+
+		String forged = (cookie.getValue().startsWith("A") ? "B" : "A") + cookie.getValue().substring(1);
+		client.get().uri("/api/character").cookie(SessionTokens.COOKIE_NAME, forged).exchange()
+				.expectStatus().isOk()
+				.expectCookie().exists(SessionTokens.COOKIE_NAME);
+
+		ArgumentCaptor<SessionKey> sessionIds = ArgumentCaptor.forClass(SessionKey.class);
+		verify(characterService, times(3)).getCharacter(sessionIds.capture());
+		assertEquals(sessionIds.getAllValues().get(0), sessionIds.getAllValues().get(1),
+					 "Both requests should use the same session ID");
+		assertNotEquals(sessionIds.getAllValues().get(0), sessionIds.getAllValues().get(2),
+						"A forged cookie should get a new session");
+	}
+
+	/**
+	 * Tests the /api/new-character endpoint with a ruleset and with an unknown ruleset.
+	 */
+	@Test
+	@DisplayName("New Character Endpoint")
+	void testNewCharacterEndpoint()
+	{
+		Map<String, Object> heroic = new HashMap<>();
+		heroic.put("mRulesetId", "swn_heroic");
+		when(characterService.createNewCharacter(any(SessionKey.class), eq("swn_heroic"))).thenReturn(heroic);
+		when(characterService.createNewCharacter(any(SessionKey.class), eq("no_such_rules")))
+				.thenThrow(new IllegalArgumentException("Unknown ruleset: no_such_rules"));
+
+		client.get().uri("/api/new-character?ruleset=swn_heroic").exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.mRulesetId").isEqualTo("swn_heroic");
+		client.get().uri("/api/new-character?ruleset=no_such_rules").exchange()
+				.expectStatus().isBadRequest()
+				.expectBody().jsonPath("$.error").isEqualTo("Unknown ruleset: no_such_rules");
+	}
+
+	/**
+	 * Tests the /api/rulesets endpoint.
+	 */
+	@Test
+	@DisplayName("Rulesets Endpoint")
+	void testRulesetsEndpoint()
+	{
+		Map<String, Object> ruleset = new HashMap<>();
+		ruleset.put("id", "swn");
+		when(characterService.getRulesets()).thenReturn(List.of(ruleset));
+
+		client.get().uri("/api/rulesets").exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.rulesets[0].id").isEqualTo("swn");
+	}
+
+	/**
+	 * Tests the /api/roll-attributes endpoint with and without constraints.
+	 */
+	@Test
+	@DisplayName("Roll Attributes Endpoint")
+	void testRollAttributesEndpoint()
+	{
+		when(characterService.rollAttributes(any(SessionKey.class))).thenReturn(character("Rolled"));
+		when(characterService.rollAttributes(any(SessionKey.class), eq(2), isNull())).thenReturn(character("Constrained"));
+
+		client.get().uri("/api/roll-attributes").exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.mName").isEqualTo("Rolled");
+		client.get().uri("/api/roll-attributes?minModifierSum=2").exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.mName").isEqualTo("Constrained");
+	}
+
+	/**
+	 * Tests that service errors become bad requests with the error message.
+	 */
+	@Test
+	@DisplayName("Undo Endpoint Error")
+	void testUndoEndpointError()
+	{
+		when(characterService.undo(any(SessionKey.class))).thenThrow(new IllegalArgumentException("Nothing to undo"));
+
+		client.post().uri("/api/undo").exchange()
+				.expectStatus().isBadRequest()
+				.expectBody().jsonPath("$.error").isEqualTo("Nothing to undo");
+	}
+
+	/**
+	 * Tests the /api/change-attribute endpoint, including a missing attribute.
+	 */
+	@Test
+	@DisplayName("Change Attribute Endpoint")
+	void testChangeAttributeEndpoint()
+	{
+		when(characterService.changeAttribute(any(SessionKey.class), eq("strength"))).thenReturn(character("Changed"));
+
+		client.post().uri("/api/change-attribute").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("attribute", "strength")).exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.mName").isEqualTo("Changed");
+		client.post().uri("/api/change-attribute").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of()).exchange()
+				.expectStatus().isBadRequest()
+				.expectBody().jsonPath("$.error").isEqualTo("Attribute parameter is required");
+	}
+
+	/**
+	 * Tests the /api/set-detail endpoint with a missing value.
+	 */
+	@Test
+	@DisplayName("Set Detail Endpoint Missing Value")
+	void testSetDetailEndpointMissingValue()
+	{
+		client.post().uri("/api/set-detail").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("detail", "name")).exchange()
+				.expectStatus().isBadRequest()
+				.expectBody().jsonPath("$.error").isEqualTo("Detail and value parameters are required");
+	}
+
+	/**
+	 * Tests the /api/upload-character endpoint with a multipart file.
+	 */
+	@Test
+	@DisplayName("Upload Character Endpoint")
+	void testUploadCharacterEndpoint() throws Exception
+	{
+		when(characterService.uploadCharacter(any(SessionKey.class), any())).thenReturn(character("Uploaded"));
+
+		MultipartBodyBuilder builder = new MultipartBodyBuilder();
+		builder.part("file", new ByteArrayResource("{\"mName\":\"Uploaded\"}".getBytes(StandardCharsets.UTF_8))
+		{
+			@Override
+			public String getFilename()
+			{
+				return "character.json";
+			}
+		}).contentType(MediaType.APPLICATION_JSON);
+
+		client.post().uri("/api/upload-character").body(BodyInserters.fromMultipartData(builder.build())).exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.mName").isEqualTo("Uploaded");
+	}
+
+	/**
+	 * Tests the /api/download-character endpoint returns the character as an attachment.
+	 */
+	@Test
+	@DisplayName("Download Character Endpoint")
+	void testDownloadCharacterEndpoint()
+	{
+		when(characterService.getCharacter(any(SessionKey.class))).thenReturn(character("Downloaded"));
+
+		client.get().uri("/api/download-character").exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"character.json\"")
+				.expectBody().jsonPath("$.mName").isEqualTo("Downloaded");
+	}
+
+	/**
+	 * Tests the party endpoints create, change, get, and remove characters by id, as in ApiController.
+	 */
+	@Test
+	@DisplayName("Party Endpoints")
+	void testPartyEndpoints()
+	{
+		Map<String, Object> created = new HashMap<>();
+		created.put("id", 65537);
+		created.put("character", character("Party Member"));
+		when(characterService.createPartyCharacter(any(SessionKey.class), isNull())).thenReturn(created);
+		when(characterService.changePartyAttribute(any(SessionKey.class), eq(65537), eq("strength"))).thenReturn(character("Changed"));
+		when(characterService.getPartyCharacter(any(SessionKey.class), eq(7)))
+				.thenThrow(new IllegalArgumentException("No party character with id 7"));
+
+		client.post().uri("/api/characters").exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.id").isEqualTo(65537)
+				.jsonPath("$.character.mName").isEqualTo("Party Member");
+		client.post().uri("/api/characters/65537/change-attribute").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("attribute", "strength")).exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.mName").isEqualTo("Changed");
+		client.get().uri("/api/characters/7").exchange()
+				.expectStatus().isBadRequest()
+				.expectBody().jsonPath("$.error").isEqualTo("No party character with id 7");
+		client.delete().uri("/api/characters/65537").exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.id").isEqualTo(65537);
+
+		verify(characterService).removePartyCharacter(any(SessionKey.class), eq(65537));
+	}
+
+	/**
+	 * Tests a share token is made through the reactive controller and batch get reads party
+	 * characters and shared characters in one call.
+	 */
+	@Test
+	@DisplayName("Test share and batch get")
+	void testShareAndBatchGet()
+	{
+		Map<String, Object> share = new HashMap<>();
+		share.put("token", "good");
+		share.put("id", 0);
+		when(characterShareService.share(any(SessionKey.class), eq(0))).thenReturn(share);
+		Map<String, Object> result = new HashMap<>();
+		result.put("characters", List.of(Map.of("id", 1, "character", character("Party Member"))));
+		result.put("missing", List.of());
+		result.put("shared", List.of(Map.of("token", "good", "id", 0, "character", character("Player Character"))));
+		result.put("invalid", List.of());
+		when(characterShareService.batchGetAsync(any(SessionKey.class), eq(List.of(1)), eq(List.of("good"))))
+				.thenReturn(CompletableFuture.completedFuture(result));
+
+		client.post().uri("/api/character/share").exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.token").isEqualTo("good");
+		client.post().uri("/api/characters/batch-get").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("ids", List.of(1), "tokens", List.of("good"))).exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.characters[0].character.mName").isEqualTo("Party Member")
+				.jsonPath("$.shared[0].character.mName").isEqualTo("Player Character");
+		client.post().uri("/api/characters/batch-get").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of()).exchange()
+				.expectStatus().isBadRequest()
+				.expectBody().jsonPath("$.error").isEqualTo("Ids or tokens parameter is required");
+	}
+
+	/**
+	 * Tests the long-poll answers with the changes once there are any, and with no changes on a timeout.
+	 */
+	@Test
+	@DisplayName("Test character changes long-poll")
+	void testCharacterChanges()
+	{
+		Map<String, Object> changes = new HashMap<>();
+		changes.put("version", 2L);
+		changes.put("changes", List.of(Map.of("type", "CHANGE_ATTRIBUTE")));
+		when(characterPollService.watch(any(SessionKey.class), eq(1L))).thenReturn(CompletableFuture.completedFuture(changes));
+		CompletableFuture<Map<String, Object>> waiting = new CompletableFuture<>();
+		when(characterPollService.watch(any(SessionKey.class), eq(2L))).thenReturn(waiting);
+		when(characterPollService.getTimeout()).thenReturn(50L);
+
+		client.get().uri("/api/character/changes?since=1").exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.version").isEqualTo(2)
+				.jsonPath("$.changes[0].type").isEqualTo("CHANGE_ATTRIBUTE");
+		client.get().uri("/api/character/changes?since=2").exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.version").isEqualTo(2)
+				.jsonPath("$.changes").isEmpty();
+
+		assertTrue(waiting.isCancelled(), "The timeout should cancel the wait");
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.controllers;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kuroneko.swn_char_gen.backend_spring.services.CharacterService;
+import org.kuroneko.swn_char_gen.backend_spring.services.SessionTokens;
+import org.kuroneko.swn_char_gen.backend_spring.services.StatelessCharacterService;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the StatelessApiController.
+ * <p>
+ * The controller is tested with a real StatelessCharacterService, since the token it hands back is
+ * the whole point: each test carries the token from one response into the next request, the way a
+ * client in stateless mode does.
+ */
+public class StatelessApiControllerTest
+{
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp()
+	{
+		SessionTokens sessionTokens = new SessionTokens("");
+		StatelessApiController controller = new StatelessApiController(new StatelessCharacterService(sessionTokens),
+																		 new CharacterService());
+		mockMvc = MockMvcBuilders.standaloneSetup(controller)
+				.setCustomArgumentResolvers(new SessionKeyArgumentResolver(sessionTokens))
+				.build();
+	}
+
+	/**
+	 * Tests that the character travels in the header from one request to the next.
+	 */
+	@Test
+	@DisplayName("Character Carried In Header")
+	void testHeaderToken() throws Exception
+	{
+		String token = mockMvc.perform(get("/api/roll-attributes"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(StatelessCharacterService.HEADER_NAME))
+				.andExpect(header().exists("Set-Cookie"))
+				.andReturn().getResponse().getHeader(StatelessCharacterService.HEADER_NAME);
+
+		token = mockMvc.perform(post("/api/change-attribute")
+										.header(StatelessCharacterService.HEADER_NAME, token)
+										.contentType(MediaType.APPLICATION_JSON)
+										.content("{\"attribute\":\"charisma\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.mCharisma").value(14))
+				.andReturn().getResponse().getHeader(StatelessCharacterService.HEADER_NAME);
+
+		mockMvc.perform(get("/api/character").header(StatelessCharacterService.HEADER_NAME, token))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.mChangedAttribute").value("CHARISMA"));
+	}
+
+	/**
+	 * Tests that the character travels in the cookie when there is no header.
+	 */
+	@Test
+	@DisplayName("Character Carried In Cookie")
+	void testCookieToken() throws Exception
+	{
+		Cookie cookie = mockMvc.perform(get("/api/new-character").param("ruleset", "swn_heroic"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getCookie(StatelessCharacterService.COOKIE_NAME);
+		assertNotNull(cookie, "The token should be sent as a cookie");
+		assertTrue(cookie.isHttpOnly(), "The token cookie should not be readable from scripts");
+
+		mockMvc.perform(post("/api/set-detail")
+								.cookie(cookie)
+								.contentType(MediaType.APPLICATION_JSON)
+								.content("{\"detail\":\"name\",\"value\":\"Cookie Hero\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.mName").value("Cookie Hero"))
+				.andExpect(jsonPath("$.mRulesetId").value("swn_heroic"));
+	}
+
+	/**
+	 * Tests that forged tokens and history requests are refused.
+	 */
+	@Test
+	@DisplayName("Forged Tokens And History Requests Rejected")
+	void testErrors() throws Exception
+	{
+		mockMvc.perform(get("/api/character").header(StatelessCharacterService.HEADER_NAME, "forged"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("Invalid character token"));
+		mockMvc.perform(post("/api/change-attribute")
+								.contentType(MediaType.APPLICATION_JSON)
+								.content("{\"attribute\":\"charisma\"}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("No character found"));
+		mockMvc.perform(post("/api/undo"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").exists());
+		mockMvc.perform(get("/api/character/events"))
+				.andExpect(status().isBadRequest());
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the CharacterActors class.
+ */
+class CharacterActorsTest
+{
+	private ExecutorService executor;
+	private CharacterActors actors;
+
+	/**
+	 * Creates actors drained by a small pool before each test.
+	 */
+	@BeforeEach
+	void setUp()
+	{
+		executor = Executors.newFixedThreadPool(4);
+		actors = new CharacterActors(executor);
+	}
+
+	/**
+	 * Stops the pool after each test.
+	 */
+	@AfterEach
+	void tearDown()
+	{
+		executor.shutdownNow();
+	}
+
+	@Test
+	@DisplayName("Test messages of one session run one at a time in order")
+	void testOrdering()
+	{
+		List<Integer> order = new ArrayList<>();
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger overlaps = new AtomicInteger();
+		List<CompletableFuture<Integer>> replies = new ArrayList<>();
+		for (int index = 0; index < 1000; index++)
+		{
+			int value = index;
+			replies.add(actors.submit(SessionKey.of("session"), () ->
+			{
+				if (running.incrementAndGet() > 1)
+				{
+					overlaps.incrementAndGet();
+				}
+				// not thread safe, so a lost or reordered add shows up
+				order.add(value);
+				running.decrementAndGet();
+				return value;
+			}));
+		}
+		replies.forEach(CompletableFuture::join);
+
+		assertEquals(0, overlaps.get(), "Messages of one session should never overlap");
+		for (int index = 0; index < 1000; index++)
+		{
+			assertEquals(index, (int) order.get(index), "Messages should run in the order sent");
+		}
+	}
+
+	@Test
+	@DisplayName("Test different sessions run at the same time")
+	void testSessionsIndependent()
+	{
+		CountDownLatch latch = new CountDownLatch(1);
+		CompletableFuture<Boolean> waiting = actors.submit(SessionKey.of("first"), () ->
+		{
+			try
+			{
+				return latch.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e)
+			{
+				return false;
+			}
+		});
+		actors.ask(SessionKey.of("second"), () ->
+		{
+			latch.countDown();
+			return null;
+		});
+
+		assertTrue(waiting.join(), "A busy session should not hold up another");
+	}
+
+	@Test
+	@DisplayName("Test idle sessions hold no mailbox")
+	void testIdleSessionsRemoved() throws InterruptedException
+	{
+		for (int index = 0; index < 100; index++)
+		{
+			int session = index;
+			actors.ask(SessionKey.of("session " + session), () -> session);
+		}
+
+		// the drainer removes the mailbox just after replying
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (actors.getBusyCount() > 0 && System.currentTimeMillis() < deadline)
+		{
+			Thread.sleep(1);
+		}
+		assertEquals(0, actors.getBusyCount(), "Idle sessions should have no mailbox");
+	}
+
+	@Test
+	@DisplayName("Test ask returns the result and rethrows the exception")
+	void testAsk()
+	{
+		assertEquals("reply", actors.ask(SessionKey.of("session"), () -> "reply"));
+		IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+				actors.ask(SessionKey.of("session"), () ->
+				{
+					throw new IllegalArgumentException("No character found");
+				}));
+		assertEquals("No character found", exception.getMessage());
+		assertEquals("still running", actors.ask(SessionKey.of("session"), () -> "still running"),
+					 "A failed message should not stop the session");
+	}
+
+	@Test
+	@DisplayName("Test a message can ask its own session")
+	void testReentrantAsk()
+	{
+		assertEquals("inner", actors.ask(SessionKey.of("session"), () -> actors.ask(SessionKey.of("session"), () -> "inner")),
+					 "Asking the same session from its own message should not deadlock");
+	}
+}
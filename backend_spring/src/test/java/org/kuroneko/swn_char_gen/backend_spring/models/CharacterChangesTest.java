@@ -0,0 +1,152 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the CharacterChanges class.
+ */
+class CharacterChangesTest
+{
+	/**
+	 * Make a change of the given type.
+	 *
+	 * @param theType The type
+	 * @return The change
+	 */
+	private static Map<String, Object> change(String theType)
+	{
+		Map<String, Object> change = new HashMap<>();
+		change.put("type", theType);
+		return change;
+	}
+
+	@Test
+	@DisplayName("Test publish stamps each session's versions in order")
+	void testPublish()
+	{
+		CharacterChanges changes = new CharacterChanges();
+		SessionKey first = SessionKey.random();
+		SessionKey second = SessionKey.random();
+
+		assertEquals(0, changes.getVersion(first), "A session with no changes should be at version 0");
+		assertEquals(1, changes.publish(first, change("ROLL_ATTRIBUTES")));
+		Map<String, Object> published = change("SET_DETAIL");
+		assertEquals(2, changes.publish(first, published));
+		assertEquals(1, changes.publish(second, change("UNDO")), "Each session should count its own versions");
+
+		assertEquals(2L, published.get("version"), "The change should carry its version");
+		assertEquals(2, changes.getVersion(first));
+		assertEquals(1, changes.getVersion(second));
+	}
+
+	@Test
+	@DisplayName("Test since returns only the newer changes")
+	void testSince()
+	{
+		CharacterChanges changes = new CharacterChanges();
+		SessionKey session = SessionKey.random();
+
+		assertEquals(List.of(), changes.since(session, 0), "A session with no changes should have nothing new");
+		assertNull(changes.since(session, 5), "A version never published should need a restart");
+
+		changes.publish(session, change("ROLL_ATTRIBUTES"));
+		changes.publish(session, change("CHANGE_ATTRIBUTE"));
+		changes.publish(session, change("SET_DETAIL"));
+
+		List<Map<String, Object>> newer = changes.since(session, 1);
+		assertEquals(2, newer.size());
+		assertEquals("CHANGE_ATTRIBUTE", newer.get(0).get("type"));
+		assertEquals("SET_DETAIL", newer.get(1).get("type"));
+		assertEquals(List.of(), changes.since(session, 3), "A current version should have nothing new");
+		assertNull(changes.since(session, 4), "A version from the future should need a restart");
+		assertNull(changes.since(session, -1));
+	}
+
+	@Test
+	@DisplayName("Test since needs a restart once the changes are no longer kept")
+	void testSinceTooOld()
+	{
+		CharacterChanges changes = new CharacterChanges();
+		SessionKey session = SessionKey.random();
+		for (int index = 0; index < CharacterChanges.RETAINED_CHANGES + 1; index++)
+		{
+			changes.publish(session, change("SET_DETAIL"));
+		}
+
+		assertNull(changes.since(session, 0), "The first change should no longer be kept");
+		List<Map<String, Object>> kept = changes.since(session, 1);
+		assertEquals(CharacterChanges.RETAINED_CHANGES, kept.size());
+		assertEquals(2L, kept.get(0).get("version"));
+		assertEquals((long) CharacterChanges.RETAINED_CHANGES + 1, kept.get(kept.size() - 1).get("version"));
+	}
+
+	@Test
+	@DisplayName("Test listeners see changes until unsubscribed")
+	void testSubscribe()
+	{
+		CharacterChanges changes = new CharacterChanges();
+		SessionKey session = SessionKey.random();
+		SessionKey other = SessionKey.random();
+		List<Object> seen = new ArrayList<>();
+
+		Runnable unsubscribe = changes.subscribe(session, change -> seen.add(change.get("version")));
+		assertEquals(1, changes.getListenerCount(session));
+		changes.publish(session, change("ROLL_ATTRIBUTES"));
+		changes.publish(other, change("ROLL_ATTRIBUTES"));
+		changes.publish(session, change("SET_DETAIL"));
+		unsubscribe.run();
+		changes.publish(session, change("SET_DETAIL"));
+
+		assertEquals(List.of(1L, 2L), seen, "Only the session's changes before unsubscribing should be seen");
+		assertEquals(0, changes.getListenerCount(session));
+		assertEquals(0, changes.getListenerCount(SessionKey.random()));
+	}
+
+	@Test
+	@DisplayName("Test prune releases idle channels without listeners")
+	void testPrune()
+	{
+		CharacterChanges changes = new CharacterChanges();
+		SessionKey idle = SessionKey.random();
+		SessionKey followed = SessionKey.random();
+		changes.publish(idle, change("ROLL_ATTRIBUTES"));
+		changes.publish(idle, change("SET_DETAIL"));
+		changes.publish(idle, change("SET_DETAIL"));
+		Runnable unsubscribe = changes.subscribe(followed, change -> { });
+		assertEquals(2, changes.getChannelCount());
+
+		assertEquals(0, changes.prune(System.currentTimeMillis() - 60_000), "Recently used channels should be kept");
+		assertEquals(1, changes.prune(System.currentTimeMillis() + 1), "The idle channel should be released");
+		assertEquals(1, changes.getChannelCount(), "A channel with a listener should be kept");
+
+		assertEquals(3, changes.getVersion(idle), "A released session should carry on from its last version");
+		assertEquals(List.of(), changes.since(idle, 3), "A client that saw every change has nothing new");
+		assertNull(changes.since(idle, 2), "A client behind the released changes should start again");
+		assertEquals(4, changes.publish(idle, change("UNDO")), "A new channel should carry on from the released one");
+		assertNull(changes.since(idle, 1));
+		assertEquals(1, changes.since(idle, 3).size());
+		assertEquals(4, changes.publish(SessionKey.random(), change("UNDO")), "Every new channel should start above the released one");
+
+		unsubscribe.run();
+		assertEquals(3, changes.prune(System.currentTimeMillis() + 1), "Once its listener leaves the channel should be released");
+		assertEquals(0, changes.getChannelCount());
+	}
+}
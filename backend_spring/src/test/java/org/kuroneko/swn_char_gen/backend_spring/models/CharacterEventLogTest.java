@@ -0,0 +1,174 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the CharacterEventLog class.
+ */
+class CharacterEventLogTest
+{
+	/**
+	 * Restores the default limits after each test.
+	 */
+	@AfterEach
+	void tearDown()
+	{
+		CharacterEventLog.configure(CharacterEventLog.DEFAULT_MAX_EVENTS, CharacterEventLog.DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * Build an event that sets the name.
+	 *
+	 * @param theName The name
+	 * @return The event
+	 */
+	private static CharacterEvent name(String theName)
+	{
+		return CharacterEvent.setDetail(DetailEnum.NAME, theName);
+	}
+
+	/**
+	 * Charge a change to the global byte budget, as the owner of a log does once it is published.
+	 *
+	 * @param thePrevious The log replaced
+	 * @param theNext     The log that replaced it
+	 * @return The new log
+	 */
+	private static CharacterEventLog publish(CharacterEventLog thePrevious, CharacterEventLog theNext)
+	{
+		CharacterEventLog.charge(thePrevious, theNext);
+		return theNext;
+	}
+
+	@Test
+	@DisplayName("Test undo and redo replay the events")
+	void testUndoRedo()
+	{
+		CharacterEventLog log = new CharacterEventLog(new SWNCharData());
+		assertFalse(log.canUndo(), "A new log has nothing to undo");
+		assertThrows(IllegalArgumentException.class, log::undo);
+
+		log = log.append(name("first")).append(name("second"));
+		assertEquals("second", log.replay().mName);
+		log = log.undo();
+		assertEquals("first", log.replay().mName);
+		log = log.undo();
+		assertEquals("Default Name", log.replay().mName);
+		assertFalse(log.canUndo());
+		log = log.redo();
+		assertEquals("first", log.replay().mName);
+		log = log.redo();
+		assertEquals("second", log.replay().mName);
+		assertThrows(IllegalArgumentException.class, log::redo);
+	}
+
+	@Test
+	@DisplayName("Test changes return new logs and leave the old ones unchanged")
+	void testImmutable()
+	{
+		CharacterEventLog empty = new CharacterEventLog(new SWNCharData());
+		CharacterEventLog first = empty.append(name("first"));
+		CharacterEventLog second = first.append(name("second"));
+		CharacterEventLog undone = second.undo();
+
+		assertEquals("Default Name", empty.replay().mName);
+		assertEquals(0, empty.getEvents().size());
+		assertEquals("first", first.replay().mName);
+		assertEquals("second", second.replay().mName);
+		assertFalse(second.canRedo());
+		assertEquals("first", undone.replay().mName);
+		assertTrue(undone.canRedo());
+		assertNotSame(first.replay(), first.replay(), "Replay should return a new copy each time");
+	}
+
+	@Test
+	@DisplayName("Test a new event discards the undone events")
+	void testAppendClearsRedo()
+	{
+		CharacterEventLog log = new CharacterEventLog(new SWNCharData());
+		log = log.append(name("first")).append(name("second")).undo();
+
+		log = log.append(name("third"));
+		assertFalse(log.canRedo(), "Nothing should be left to redo");
+		assertEquals(2, log.getEvents().size());
+		assertEquals("first", log.undo().replay().mName);
+	}
+
+	@Test
+	@DisplayName("Test the oldest events fold into the snapshot at the event limit")
+	void testEventLimit()
+	{
+		CharacterEventLog.configure(3, CharacterEventLog.DEFAULT_MAX_BYTES);
+		CharacterEventLog log = new CharacterEventLog(new SWNCharData());
+		for (int index = 0; index < 10; index++)
+		{
+			log = log.append(name("name " + index));
+		}
+
+		assertEquals(3, log.getEvents().size(), "Only the limit should be kept");
+		assertEquals(7, log.getCompactedCount(), "The rest should be in the snapshot");
+		assertEquals("name 9", log.replay().mName, "Compaction should not change the state");
+		log = log.undo().undo().undo();
+		assertEquals("name 6", log.replay().mName, "The snapshot should hold the folded events");
+		assertFalse(log.canUndo());
+	}
+
+	@Test
+	@DisplayName("Test published logs share the global byte budget")
+	void testGlobalBudget()
+	{
+		long before = CharacterEventLog.getGlobalBytes();
+		long eventBytes = name("a").estimateBytes();
+		CharacterEventLog.configure(CharacterEventLog.DEFAULT_MAX_EVENTS, before + 2 * eventBytes);
+		CharacterEventLog first = new CharacterEventLog(new SWNCharData());
+		CharacterEventLog second = new CharacterEventLog(new SWNCharData());
+
+		first = publish(first, first.append(name("a")));
+		first = publish(first, first.append(name("b")));
+		assertEquals(before + 2 * eventBytes, CharacterEventLog.getGlobalBytes(), "Published events should be charged");
+		second = publish(second, second.append(name("c")));
+		assertEquals(before + 2 * eventBytes, CharacterEventLog.getGlobalBytes(), "The budget should hold");
+		assertEquals("c", second.replay().mName, "Compaction should not change the state");
+
+		CharacterEventLog released = first.release();
+		publish(first, released);
+		publish(second, second.release());
+		assertEquals(before, CharacterEventLog.getGlobalBytes(), "Release should return the memory");
+		assertEquals("b", released.replay().mName, "Release should keep the current state");
+	}
+
+	@Test
+	@DisplayName("Test compaction by age keeps undone events")
+	void testCompact()
+	{
+		CharacterEventLog log = new CharacterEventLog(new SWNCharData());
+		log = log.append(name("first")).append(name("second")).undo();
+
+		assertSame(log, log.compact(0), "Nothing should be older than the cutoff");
+		log = log.compact(Long.MAX_VALUE);
+		assertEquals(1, log.getCompactedCount(), "Only applied events should be compacted");
+		assertFalse(log.canUndo());
+		assertEquals("second", log.redo().replay().mName, "The undone event should still be redoable");
+	}
+
+	@Test
+	@DisplayName("Test invalid limits are rejected")
+	void testConfigureRejectsInvalidLimits()
+	{
+		assertThrows(IllegalArgumentException.class, () -> CharacterEventLog.configure(0, 1024));
+		assertThrows(IllegalArgumentException.class, () -> CharacterEventLog.configure(64, -1));
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the CharacterEvent class.
+ */
+class CharacterEventTest
+{
+	@Test
+	@DisplayName("Test roll events keep the rolled values")
+	void testRollAttributes()
+	{
+		int[] rolled = {3, 18, 10, 255, 1, 14};
+		CharacterEvent event = CharacterEvent.rollAttributes(rolled);
+		SWNCharData data = new SWNCharData();
+
+		event.applyTo(data);
+		assertEquals(CharacterEventType.ROLL_ATTRIBUTES, event.getType());
+		assertArrayEquals(rolled, event.getValues(), "Values should survive packing");
+		assertArrayEquals(rolled, data.mAttributes, "Applying should set every attribute");
+	}
+
+	@Test
+	@DisplayName("Test change events restore the previous change")
+	void testChangeAttribute()
+	{
+		SWNCharData data = new SWNCharData();
+		CharacterEvent.rollAttributes(new int[]{8, 9, 10, 11, 12, 13}).applyTo(data);
+
+		CharacterEvent.changeAttribute(AttributeEnum.STRENGTH, 14).applyTo(data);
+		assertEquals(14, data.mAttributes[AttributeEnum.STRENGTH.ordinal()]);
+		assertEquals(8, data.mChangedAttributeOriginalValue);
+
+		CharacterEvent.changeAttribute(AttributeEnum.CHARISMA, 14).applyTo(data);
+		assertEquals(8, data.mAttributes[AttributeEnum.STRENGTH.ordinal()], "The previous change should be restored");
+		assertEquals(14, data.mAttributes[AttributeEnum.CHARISMA.ordinal()]);
+		assertEquals(AttributeEnum.CHARISMA, data.mChangedAttribute);
+		assertEquals(13, data.mChangedAttributeOriginalValue);
+	}
+
+	@Test
+	@DisplayName("Test detail and upload events")
+	void testSetDetailAndUpload()
+	{
+		SWNCharData data = new SWNCharData();
+		CharacterEvent.setDetail(DetailEnum.NAME, "Test Character").applyTo(data);
+		assertEquals("Test Character", data.mName);
+
+		SWNCharData uploaded = new SWNCharData();
+		uploaded.mName = "Uploaded";
+		uploaded.mAttributes[0] = 12;
+		CharacterEvent upload = CharacterEvent.upload(uploaded);
+		uploaded.mName = "Changed later";
+
+		upload.applyTo(data);
+		assertEquals("Uploaded", data.mName, "The event should keep its own copy of the data");
+		assertEquals(12, data.mAttributes[0]);
+		assertTrue(upload.estimateBytes() > CharacterEvent.setDetail(DetailEnum.NAME, "").estimateBytes());
+	}
+}
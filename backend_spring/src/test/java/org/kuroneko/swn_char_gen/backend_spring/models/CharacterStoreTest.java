@@ -14,7 +14,6 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.BeforeEach;
 
 import java.lang.reflect.Field;
-import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -24,7 +23,7 @@ import static org.junit.jupiter.api.Assertions.*;
 class CharacterStoreTest
 {
 
-	private static final String TEST_SESSION_ID = "test-session-id";
+	private static final SessionKey TEST_SESSION_ID = SessionKey.of("test-session-id");
 
 	/**
 	 * Reset the singleton instance before each test to ensure test isolation.
@@ -79,7 +78,7 @@ class CharacterStoreTest
 		CharacterStore store = CharacterStore.getInstance();
 
 		// Generate a random session ID that doesn't exist
-		String nonExistentSessionId = UUID.randomUUID().toString();
+		SessionKey nonExistentSessionId = SessionKey.random();
 
 		// Try to retrieve a character with a non-existent session ID
 		SWNChar retrievedCharacter = store.getCharacter(nonExistentSessionId);
@@ -96,7 +95,7 @@ class CharacterStoreTest
 		CharacterStore store = CharacterStore.getInstance();
 
 		// Generate a random session ID that doesn't exist
-		String nonExistentSessionId = UUID.randomUUID().toString();
+		SessionKey nonExistentSessionId = SessionKey.random();
 
 		// Verify characterMissing returns true for a non-existent session ID
 		assertTrue(store.characterMissing(nonExistentSessionId),
@@ -119,9 +118,9 @@ class CharacterStoreTest
 		CharacterStore store = CharacterStore.getInstance();
 
 		// Create multiple session IDs and characters
-		String sessionId1 = "session-1";
-		String sessionId2 = "session-2";
-		String sessionId3 = "session-3";
+		SessionKey sessionId1 = SessionKey.of("session-1");
+		SessionKey sessionId2 = SessionKey.of("session-2");
+		SessionKey sessionId3 = SessionKey.of("session-3");
 
 		SWNChar character1 = new SWNChar();
 		SWNChar character2 = new SWNChar();
@@ -170,4 +169,166 @@ class CharacterStoreTest
 		assertNotSame(character1, store.getCharacter(TEST_SESSION_ID),
 					  "getCharacter should not return the first character after overwriting");
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Test that a replaced character gives back its undo history.
+	 */
+	@Test
+	@DisplayName("Test overwrite releases history")
+	void testOverwriteReleasesHistory()
+	{
+		CharacterStore store = CharacterStore.getInstance();
+		SWNChar character1 = new SWNChar();
+		character1.rollAttributes();
+		store.storeCharacter(TEST_SESSION_ID, character1);
+
+		store.storeCharacter(TEST_SESSION_ID, new SWNChar());
+
+		assertFalse(character1.canUndo(), "The replaced character's history should be released");
+	}
+
+	/**
+	 * Test that compaction reaches every stored character.
+	 */
+	@Test
+	@DisplayName("Test compact events")
+	void testCompactEvents()
+	{
+		CharacterStore store = CharacterStore.getInstance();
+		SWNChar character = new SWNChar();
+		character.rollAttributes();
+		store.storeCharacter(TEST_SESSION_ID, character);
+
+		assertTrue(store.compactEvents(Long.MAX_VALUE) >= 1, "The stored character should be compacted");
+		assertFalse(character.canUndo(), "Compacted changes cannot be undone");
+	}
+
+	/**
+	 * Test that get-or-create returns the stored character, and creates one only when there is none.
+	 */
+	@Test
+	@DisplayName("Test get or create character")
+	void testGetOrCreateCharacter()
+	{
+		CharacterStore store = CharacterStore.getInstance();
+		SWNChar created = store.getOrCreateCharacter(TEST_SESSION_ID);
+
+		assertNotNull(created, "A missing character should be created");
+		assertSame(created, store.getCharacter(TEST_SESSION_ID), "The created character should be stored");
+		assertSame(created, store.getOrCreateCharacter(TEST_SESSION_ID), "An existing character should be returned");
+	}
+
+	/**
+	 * Test that mutate runs on the stored character and rejects a session without one.
+	 */
+	@Test
+	@DisplayName("Test mutate character")
+	void testMutate()
+	{
+		CharacterStore store = CharacterStore.getInstance();
+		SessionKey missing = SessionKey.random();
+
+		Exception exception = assertThrows(IllegalArgumentException.class, () -> store.mutate(missing, SWNChar::toMap));
+		assertEquals("No character found", exception.getMessage());
+		assertTrue(store.characterMissing(missing), "mutate should not create a character");
+
+		SWNChar rolled = store.mutateOrCreate(TEST_SESSION_ID, character ->
+		{
+			character.rollAttributes();
+			return character;
+		});
+		assertSame(rolled, store.mutate(TEST_SESSION_ID, character -> character), "mutate should see the same character");
+		assertTrue(rolled.canUndo(), "The roll should have been applied");
+	}
+
+	/**
+	 * Test that replace stores the new character and runs the operation on it.
+	 */
+	@Test
+	@DisplayName("Test replace character")
+	void testReplace()
+	{
+		CharacterStore store = CharacterStore.getInstance();
+		SWNChar first = store.getOrCreateCharacter(TEST_SESSION_ID);
+		first.rollAttributes();
+		SWNChar second = new SWNChar();
+
+		assertSame(second, store.replace(TEST_SESSION_ID, second, character -> character));
+		assertSame(second, store.getCharacter(TEST_SESSION_ID), "The new character should be stored");
+		assertFalse(first.canUndo(), "The replaced character's history should be released");
+	}
+
+	/**
+	 * Test that each of the mutate methods looks the character up once.
+	 */
+	@Test
+	@DisplayName("Test one lookup per operation")
+	void testOneLookupPerOperation()
+	{
+		CharacterStore store = CharacterStore.getInstance();
+
+		long before = store.getLookupCount();
+		store.mutateOrCreate(TEST_SESSION_ID, SWNChar::toMap);
+		assertEquals(1, store.getLookupCount() - before, "Creating the character should take one lookup");
+
+		before = store.getLookupCount();
+		store.mutate(TEST_SESSION_ID, SWNChar::toMap);
+		assertEquals(1, store.getLookupCount() - before, "Changing the character should take one lookup");
+
+		before = store.getLookupCount();
+		store.replace(TEST_SESSION_ID, new SWNChar(), SWNChar::toMap);
+		assertEquals(1, store.getLookupCount() - before, "Replacing the character should take one lookup");
+	}
+
+	/**
+	 * Test that each session has its own party, kept apart from its single character.
+	 */
+	@Test
+	@DisplayName("Test mutate party")
+	void testMutateParty()
+	{
+		CharacterStore store = CharacterStore.getInstance();
+		SWNChar character = new SWNChar();
+
+		int id = store.mutateParty(TEST_SESSION_ID, party -> party.add(character));
+
+		assertSame(character, store.mutateParty(TEST_SESSION_ID, party -> party.get(id)));
+		assertEquals(0, store.mutateParty(SessionKey.of("other-session-id"), Party::size).intValue(),
+					 "Other sessions should not see the party");
+		assertNull(store.getCharacter(TEST_SESSION_ID), "The party should not be the session's character");
+
+		long before = store.getLookupCount();
+		store.mutateParty(TEST_SESSION_ID, Party::size);
+		assertEquals(1, store.getLookupCount() - before, "Reaching the party should take one lookup");
+	}
+
+	/**
+	 * Test that sessions unused since the cutoff lose their character, party, and share generation,
+	 * and that sessions used since are kept.
+	 */
+	@Test
+	@DisplayName("Test evict idle sessions")
+	void testEvictIdle()
+	{
+		CharacterStore store = CharacterStore.getInstance();
+		SWNChar character = store.mutateOrCreate(TEST_SESSION_ID, created ->
+		{
+			created.rollAttributes();
+			return created;
+		});
+		store.mutateParty(TEST_SESSION_ID, party -> party.add(new SWNChar()));
+		store.revokeShares(TEST_SESSION_ID);
+		assertEquals(1, store.getSessionCount());
+
+		assertEquals(0, store.evictIdle(System.currentTimeMillis() - 60_000), "A session in use should be kept");
+		assertSame(character, store.getCharacter(TEST_SESSION_ID));
+
+		assertEquals(1, store.evictIdle(System.currentTimeMillis() + 1), "An idle session should be dropped");
+		assertEquals(0, store.getSessionCount());
+		assertNull(store.getCharacter(TEST_SESSION_ID), "The character should be dropped");
+		assertFalse(character.canUndo(), "The dropped character should give back its history");
+		assertEquals(0, store.mutateParty(TEST_SESSION_ID, Party::size).intValue(), "The party should be dropped");
+		assertEquals(0, store.getShareGeneration(TEST_SESSION_ID), "The share generation should be dropped");
+		assertEquals(1, store.getSessionCount(), "Using the session again should start it afresh");
+	}
+}
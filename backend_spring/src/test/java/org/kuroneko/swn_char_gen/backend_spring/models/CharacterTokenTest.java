@@ -0,0 +1,84 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the CharacterToken class.
+ */
+class CharacterTokenTest
+{
+	@Test
+	@DisplayName("Test unpacked character matches the packed one")
+	void testRoundTrip()
+	{
+		SWNChar character = SWNChar.forRuleset("swn_heroic");
+		character.rollAttributes();
+		character.changeOneAttribute(AttributeEnum.WISDOM);
+		character.setDetail(DetailEnum.NAME, "\u00dcn\u00efc\u00f6d\u00e9 Name");
+
+		SWNChar unpacked = CharacterToken.unpack(CharacterToken.pack(character));
+
+		assertEquals(character.toMap(), unpacked.toMap(), "Unpacked character should have the same data");
+		assertFalse(unpacked.canUndo(), "Unpacked character should have no history");
+	}
+
+	@Test
+	@DisplayName("Test a default character packs small")
+	void testDefaultSize()
+	{
+		assertEquals(30, CharacterToken.pack(new SWNChar()).length, "Default character should pack to 30 bytes");
+	}
+
+	@Test
+	@DisplayName("Test names too long to pack are rejected")
+	void testLongName()
+	{
+		SWNChar character = new SWNChar();
+		character.setDetail(DetailEnum.NAME, "x".repeat(CharacterToken.MAX_NAME_BYTES));
+		assertDoesNotThrow(() -> CharacterToken.pack(character));
+
+		character.setDetail(DetailEnum.NAME, "x".repeat(CharacterToken.MAX_NAME_BYTES + 1));
+		assertThrows(IllegalArgumentException.class, () -> CharacterToken.pack(character));
+	}
+
+	@Test
+	@DisplayName("Test malformed payloads are rejected")
+	void testMalformed()
+	{
+		byte[] payload = CharacterToken.pack(new SWNChar());
+
+		assertThrows(IllegalArgumentException.class, () -> CharacterToken.unpack(new byte[0]));
+		assertThrows(IllegalArgumentException.class, () -> CharacterToken.unpack(Arrays.copyOf(payload, payload.length - 1)),
+					 "A truncated payload should be rejected");
+		assertThrows(IllegalArgumentException.class, () -> CharacterToken.unpack(Arrays.copyOf(payload, payload.length + 1)),
+					 "A payload with trailing bytes should be rejected");
+
+		byte[] badVersion = payload.clone();
+		badVersion[0] = 99;
+		assertThrows(IllegalArgumentException.class, () -> CharacterToken.unpack(badVersion));
+
+		byte[] badValue = payload.clone();
+		badValue[1] = (byte) 200;
+		assertThrows(IllegalArgumentException.class, () -> CharacterToken.unpack(badValue),
+					 "Values outside the ruleset's table should be rejected");
+
+		byte[] badAttribute = payload.clone();
+		badAttribute[1 + AttributeEnum.COUNT] = 42;
+		assertThrows(IllegalArgumentException.class, () -> CharacterToken.unpack(badAttribute));
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the DiceExpression class.
+ */
+class DiceExpressionTest
+{
+	@Test
+	@DisplayName("Test parsing a plain dice expression")
+	void testParsePlain()
+	{
+		DiceExpression dice = DiceExpression.parse("3d6");
+
+		assertEquals(3, dice.getCount());
+		assertEquals(6, dice.getSides());
+		assertEquals(3, dice.getKeep(), "All dice should be kept");
+		assertEquals(3, dice.getMinimum());
+		assertEquals(18, dice.getMaximum());
+		assertEquals("3d6", dice.toString());
+	}
+
+	@Test
+	@DisplayName("Test parsing a keep-highest dice expression")
+	void testParseKeepHighest()
+	{
+		DiceExpression dice = DiceExpression.parse(" 4D6KH3 ");
+
+		assertEquals(4, dice.getCount());
+		assertEquals(6, dice.getSides());
+		assertEquals(3, dice.getKeep());
+		assertEquals(3, dice.getMinimum());
+		assertEquals(18, dice.getMaximum());
+		assertEquals("4d6kh3", dice.toString(), "toString should give the canonical form");
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"", "d6", "3d", "3d6+1", "0d6", "3d1", "3d6kh4", "3d6kh0", "11d6"})
+	@DisplayName("Test invalid dice expressions are rejected")
+	void testParseInvalid(String expression)
+	{
+		assertThrows(IllegalArgumentException.class, () -> DiceExpression.parse(expression));
+	}
+
+	@Test
+	@DisplayName("Test rolls cover the full range and nothing outside it")
+	void testRollRange()
+	{
+		// fixed seed keeps the test repeatable
+		Random random = new Random(42);
+		for (String expression : new String[]{"3d6", "4d6kh3"})
+		{
+			DiceExpression dice = DiceExpression.parse(expression);
+			boolean[] seen = new boolean[dice.getMaximum() + 1];
+			for (int i = 0; i < 100000; i++)
+			{
+				int roll = dice.roll(random);
+				assertTrue(roll >= dice.getMinimum() && roll <= dice.getMaximum(),
+						   expression + " rolled out of range: " + roll);
+				seen[roll] = true;
+			}
+			for (int value = dice.getMinimum(); value <= dice.getMaximum(); value++)
+			{
+				assertTrue(seen[value], expression + " never rolled " + value);
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Test exact distributions match known values")
+	void testDistributionKnownValues()
+	{
+		double[] plain = DiceExpression.parse("3d6").calculateDistribution();
+		assertEquals(19, plain.length, "Distribution should be indexed up to the maximum");
+		assertEquals(0, plain[2], 0, "Results below the minimum are impossible");
+		assertEquals(1.0 / 216, plain[3], 1e-12);
+		assertEquals(27.0 / 216, plain[10], 1e-12);
+		assertEquals(1.0 / 216, plain[18], 1e-12);
+
+		// four sixes, or three sixes and any other die in any of four positions
+		double[] heroic = DiceExpression.parse("4d6kh3").calculateDistribution();
+		assertEquals(21.0 / 1296, heroic[18], 1e-12);
+		assertEquals(1.0 / 1296, heroic[3], 1e-12, "Only four ones give 3");
+
+		// rolling with advantage
+		double[] advantage = DiceExpression.parse("2d20kh1").calculateDistribution();
+		assertEquals(39.0 / 400, advantage[20], 1e-12);
+		assertEquals(1.0 / 400, advantage[1], 1e-12);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"3d6", "4d6kh3", "5d4kh2", "2d10"})
+	@DisplayName("Test exact distributions match enumerating every roll")
+	void testDistributionMatchesEnumeration(String expression)
+	{
+		DiceExpression dice = DiceExpression.parse(expression);
+		double[] expected = new double[dice.getMaximum() + 1];
+		int outcomes = (int) Math.pow(dice.getSides(), dice.getCount());
+		int[] faces = new int[dice.getCount()];
+		for (int outcome = 0; outcome < outcomes; outcome++)
+		{
+			int remaining = outcome;
+			for (int die = 0; die < faces.length; die++)
+			{
+				faces[die] = remaining % dice.getSides() + 1;
+				remaining /= dice.getSides();
+			}
+			int[] sorted = faces.clone();
+			Arrays.sort(sorted);
+			int total = 0;
+			for (int die = sorted.length - dice.getKeep(); die < sorted.length; die++)
+			{
+				total += sorted[die];
+			}
+			expected[total] += 1.0 / outcomes;
+		}
+
+		double[] distribution = dice.calculateDistribution();
+		double sum = 0;
+		for (int total = 0; total < expected.length; total++)
+		{
+			assertEquals(expected[total], distribution[total], 1e-12, expression + " result " + total);
+			sum += distribution[total];
+		}
+		assertEquals(1.0, sum, 1e-12, "Probabilities should add up to 1");
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Party class.
+ */
+class PartyTest
+{
+	@Test
+	@DisplayName("Test add and get by id")
+	void testAddAndGet()
+	{
+		Party party = new Party();
+		SWNChar first = new SWNChar();
+		SWNChar second = new SWNChar();
+
+		int firstId = party.add(first);
+		int secondId = party.add(second);
+
+		assertNotEquals(firstId, secondId, "Each character should get its own id");
+		assertSame(first, party.get(firstId));
+		assertSame(second, party.get(secondId));
+		assertEquals(2, party.size());
+		assertNull(party.get(0), "0 should never be an id");
+		assertNull(party.get(-1), "Negative ids should not be found");
+		assertNull(party.get(secondId + 1), "Unused ids should not be found");
+	}
+
+	@Test
+	@DisplayName("Test removed ids are not reused")
+	void testRemove()
+	{
+		Party party = new Party();
+		SWNChar first = new SWNChar();
+		int firstId = party.add(first);
+
+		assertSame(first, party.remove(firstId));
+		assertNull(party.get(firstId), "A removed character should not be found");
+		assertNull(party.remove(firstId), "A character should only be removed once");
+		assertEquals(0, party.size());
+
+		SWNChar second = new SWNChar();
+		int secondId = party.add(second);
+		assertNotEquals(firstId, secondId, "The freed slot should be reused under a new id");
+		assertNull(party.get(firstId), "The old id should not reach the new character");
+		assertNull(party.remove(firstId), "The old id should not remove the new character");
+		assertSame(second, party.get(secondId));
+	}
+
+	@Test
+	@DisplayName("Test party grows up to its limit")
+	void testFull()
+	{
+		Party party = new Party();
+		List<Integer> ids = new ArrayList<>();
+		for (int index = 0; index < Party.MAX_CHARACTERS; index++)
+		{
+			ids.add(party.add(new SWNChar()));
+		}
+
+		assertEquals(Party.MAX_CHARACTERS, party.size());
+		assertEquals(Party.MAX_CHARACTERS, ids.stream().distinct().count(), "Every id should be different");
+		assertThrows(IllegalArgumentException.class, () -> party.add(new SWNChar()),
+					 "A full party should not take another character");
+
+		party.remove(ids.get(5));
+		assertNotNull(party.get(party.add(new SWNChar())), "A freed slot should be usable again");
+	}
+
+	@Test
+	@DisplayName("Test paging walks every character once")
+	void testPage()
+	{
+		Party party = new Party();
+		List<Integer> ids = new ArrayList<>();
+		for (int index = 0; index < 10; index++)
+		{
+			ids.add(party.add(new SWNChar()));
+		}
+		party.remove(ids.get(3));
+
+		int[] first = party.page(0, 4);
+		assertArrayEquals(new int[] {ids.get(0), ids.get(1), ids.get(2), ids.get(4)}, first);
+
+		// a cursor that has since been removed still marks the place
+		party.remove(ids.get(4));
+		int[] second = party.page(first[3], 4);
+		assertArrayEquals(new int[] {ids.get(5), ids.get(6), ids.get(7), ids.get(8)}, second);
+
+		assertArrayEquals(new int[] {ids.get(9)}, party.page(second[3], 4));
+		assertEquals(0, party.page(ids.get(9), 4).length, "The page after the last should be empty");
+	}
+
+	@Test
+	@DisplayName("Test forEach visits every character")
+	void testForEach()
+	{
+		Party party = new Party();
+		SWNChar first = new SWNChar();
+		SWNChar second = new SWNChar();
+		party.add(first);
+		int removedId = party.add(new SWNChar());
+		party.add(second);
+		party.remove(removedId);
+
+		List<SWNChar> visited = new ArrayList<>();
+		party.forEach(visited::add);
+
+		assertEquals(List.of(first, second), visited);
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the RollAuditLog class.
+ */
+class RollAuditLogTest
+{
+	private static final String SESSION_ID = "0f8fad5b-d9cb-469f-a165-70867728950e";
+	private static final byte[] SECRET = "roll audit log test secret, 32+ bytes".getBytes(StandardCharsets.UTF_8);
+
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * Record a number of plain rolls of the same values.
+	 *
+	 * @param theLog   The open log
+	 * @param theRolls The number of rolls
+	 */
+	private static void recordRolls(RollAuditLog theLog, int theRolls)
+	{
+		SWNRules rules = RulesetRegistry.getInstance().getDefaultRuleset();
+		CharacterEvent roll = CharacterEvent.rollAttributes(new int[]{3, 8, 10, 12, 17, 18});
+		for (int index = 0; index < theRolls; index++)
+		{
+			assertTrue(theLog.record(SESSION_ID, roll, rules, RollAuditLog.TYPE_ROLL, 1));
+		}
+	}
+
+	@Test
+	@DisplayName("Test rolls are written and read back")
+	void testRecordAndRead() throws IOException, InterruptedException
+	{
+		RollAuditLog log = new RollAuditLog(16);
+		log.open(tempDir, 4, SECRET);
+		recordRolls(log, 10);
+		log.close();
+
+		List<RollAuditRecord> records = new ArrayList<>();
+		assertEquals(10, RollAuditReader.forEach(tempDir, records::add));
+		assertEquals(3, RollAuditLog.listFiles(tempDir).size(), "Files should roll every 4 records");
+		RollAuditRecord first = records.get(0);
+		assertEquals(1, first.getSequence(), "Sequence numbers should start at 1");
+		assertEquals(UUID.fromString(SESSION_ID), first.getSessionId());
+		assertArrayEquals(new int[]{3, 8, 10, 12, 17, 18}, first.getValues());
+		assertEquals(RollAuditLog.TYPE_ROLL, first.getType());
+		assertEquals(1, first.getAttempts());
+		assertEquals(RollAuditLog.rulesetHash(SWNRules.DEFAULT_RULESET_ID), first.getRulesetHash());
+		assertEquals(10, records.get(9).getSequence());
+		assertEquals(10, RollAuditReader.verify(tempDir, SECRET));
+	}
+
+	@Test
+	@DisplayName("Test reopening continues the sequence and hash chain")
+	void testReopen() throws IOException, InterruptedException
+	{
+		RollAuditLog log = new RollAuditLog(16);
+		log.open(tempDir, 4, SECRET);
+		recordRolls(log, 6);
+		log.close();
+		log.open(tempDir, 4, SECRET);
+		recordRolls(log, 3);
+		log.close();
+
+		assertEquals(9, RollAuditReader.verify(tempDir, SECRET), "The chain should continue across restarts");
+		assertEquals(3, RollAuditLog.listFiles(tempDir).size(), "The last file should be continued");
+	}
+
+	@Test
+	@DisplayName("Test a closed log records nothing")
+	void testClosed() throws IOException
+	{
+		RollAuditLog log = new RollAuditLog(16);
+		SWNRules rules = RulesetRegistry.getInstance().getDefaultRuleset();
+
+		assertFalse(log.record(SESSION_ID, CharacterEvent.rollAttributes(new int[6]), rules, RollAuditLog.TYPE_ROLL, 1));
+		assertEquals(0, RollAuditReader.verify(tempDir, SECRET));
+		assertThrows(IllegalArgumentException.class, () -> new RollAuditLog(10), "Capacity must be a power of two");
+		assertThrows(IllegalArgumentException.class, () -> log.open(tempDir, 4, new byte[8]), "A short secret should be refused");
+	}
+
+	@Test
+	@DisplayName("Test concurrent rolls are all written once")
+	void testConcurrentRecord() throws IOException, InterruptedException
+	{
+		// a small ring makes the producers wrap around it and wait on the drainer
+		RollAuditLog log = new RollAuditLog(8);
+		log.open(tempDir, 1000, SECRET);
+		SWNRules rules = RulesetRegistry.getInstance().getDefaultRuleset();
+		List<Thread> threads = new ArrayList<>();
+		for (int thread = 0; thread < 4; thread++)
+		{
+			String sessionId = UUID.randomUUID().toString();
+			threads.add(new Thread(() ->
+			{
+				for (int roll = 1; roll <= 1000; roll++)
+				{
+					log.record(sessionId, CharacterEvent.rollAttributes(new int[]{roll % 16 + 3, 3, 3, 3, 3, 3}),
+							   rules, RollAuditLog.TYPE_CONSTRAINED_ROLL, roll);
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads)
+		{
+			thread.join();
+		}
+		log.close();
+
+		Set<String> rolls = new HashSet<>();
+		RollAuditReader.forEach(tempDir, record -> rolls.add(record.getSessionId() + ":" + record.getAttempts()));
+		assertEquals(4000, rolls.size(), "Every roll should be written exactly once");
+		assertEquals(4000, RollAuditReader.verify(tempDir, SECRET));
+	}
+
+	@Test
+	@DisplayName("Test rolls are refused, not waited on, after the drainer fails")
+	void testDrainerFailure() throws IOException
+	{
+		Path directory = tempDir.resolve("audit");
+		RollAuditLog log = new RollAuditLog(4);
+		log.open(directory, 1, SECRET);
+		// the drainer fails creating the first file once the directory is gone
+		Files.delete(directory);
+		SWNRules rules = RulesetRegistry.getInstance().getDefaultRuleset();
+		CharacterEvent roll = CharacterEvent.rollAttributes(new int[]{3, 8, 10, 12, 17, 18});
+
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+		{
+			int recorded = 0;
+			// more rolls than the ring holds, so a producer would wait on the dead drainer
+			for (int index = 0; index < 16; index++)
+			{
+				if (log.record(SESSION_ID, roll, rules, RollAuditLog.TYPE_ROLL, 1))
+				{
+					recorded++;
+				}
+			}
+			assertTrue(recorded <= 4, "Only rolls that fit in the ring should be taken");
+			assertFalse(log.isOpen(), "The log should close when the drainer fails");
+			log.close();
+		});
+	}
+
+	@Test
+	@DisplayName("Test every roll taken while closing is written")
+	void testCloseWhileRecording() throws IOException, InterruptedException
+	{
+		RollAuditLog log = new RollAuditLog(8);
+		log.open(tempDir, 1000, SECRET);
+		SWNRules rules = RulesetRegistry.getInstance().getDefaultRuleset();
+		CharacterEvent roll = CharacterEvent.rollAttributes(new int[]{3, 8, 10, 12, 17, 18});
+		AtomicInteger recorded = new AtomicInteger();
+		List<Thread> threads = new ArrayList<>();
+		for (int thread = 0; thread < 4; thread++)
+		{
+			threads.add(new Thread(() ->
+			{
+				for (int index = 0; index < 5000; index++)
+				{
+					if (log.record(SESSION_ID, roll, rules, RollAuditLog.TYPE_ROLL, 1))
+					{
+						recorded.incrementAndGet();
+					}
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		log.close();
+		for (Thread thread : threads)
+		{
+			thread.join();
+		}
+
+		assertEquals(recorded.get(), RollAuditReader.verify(tempDir, SECRET), "Every roll that was taken should be written");
+	}
+}
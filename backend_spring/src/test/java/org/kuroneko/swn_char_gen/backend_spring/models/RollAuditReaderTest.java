@@ -0,0 +1,128 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the RollAuditReader class.
+ */
+class RollAuditReaderTest
+{
+	private static final byte[] SECRET = "roll audit reader test secret, 32+ bytes".getBytes(StandardCharsets.UTF_8);
+
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * Write an audit log of 12 rolls in 3 files.
+	 *
+	 * @throws IOException if the log cannot be written
+	 * @throws InterruptedException if interrupted while closing the log
+	 */
+	@BeforeEach
+	void setUp() throws IOException, InterruptedException
+	{
+		RollAuditLog log = new RollAuditLog(16);
+		log.open(tempDir, 4, SECRET);
+		SWNRules rules = RulesetRegistry.getInstance().getDefaultRuleset();
+		for (int roll = 0; roll < 12; roll++)
+		{
+			log.record("session", CharacterEvent.rollAttributes(new int[]{10, 10, 10, 10, 10, 10}), rules, RollAuditLog.TYPE_ROLL, 1);
+		}
+		log.close();
+	}
+
+	@Test
+	@DisplayName("Test an untouched log verifies")
+	void testVerify() throws IOException
+	{
+		assertEquals(12, RollAuditReader.verify(tempDir, SECRET));
+	}
+
+	@Test
+	@DisplayName("Test a changed roll is detected")
+	void testChangedRecord() throws IOException
+	{
+		// make the strength of the second record in the second file an 18
+		try (RandomAccessFile file = new RandomAccessFile(RollAuditLog.listFiles(tempDir).get(1).toFile(), "rw"))
+		{
+			file.seek(RollAuditLog.RECORD_BYTES + 32);
+			file.write(18);
+		}
+
+		Exception exception = assertThrows(IllegalStateException.class, () -> RollAuditReader.verify(tempDir, SECRET));
+		assertTrue(exception.getMessage().contains("record 6"), "The changed record should be named");
+	}
+
+	@Test
+	@DisplayName("Test a removed file is detected")
+	void testRemovedFile() throws IOException
+	{
+		List<Path> files = RollAuditLog.listFiles(tempDir);
+		Files.delete(files.get(1));
+
+		Exception exception = assertThrows(IllegalStateException.class, () -> RollAuditReader.verify(tempDir, SECRET));
+		assertTrue(exception.getMessage().contains("expected record 5"), "The gap should be reported");
+	}
+
+	@Test
+	@DisplayName("Test the chain cannot be rebuilt without the secret")
+	void testRebuiltChain() throws Exception
+	{
+		// change a roll, then recompute every chain hash as someone without the secret would have to
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		long chainHash = 0;
+		for (Path path : RollAuditLog.listFiles(tempDir))
+		{
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE))
+			{
+				ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+				buffer.put(32, (byte) 18);
+				for (int offset = 0; offset < buffer.limit(); offset += RollAuditLog.RECORD_BYTES)
+				{
+					digest.update(ByteBuffer.allocate(8).putLong(0, chainHash));
+					digest.update(buffer.duplicate().position(offset).limit(offset + RollAuditLog.HASHED_BYTES));
+					chainHash = ByteBuffer.wrap(digest.digest()).getLong();
+					buffer.putLong(offset + RollAuditLog.HASHED_BYTES, chainHash);
+				}
+			}
+		}
+
+		Exception exception = assertThrows(IllegalStateException.class, () -> RollAuditReader.verify(tempDir, SECRET));
+		assertTrue(exception.getMessage().contains("record 1 "), "The first rewritten record should be named");
+	}
+
+	@Test
+	@DisplayName("Test the log does not verify with another secret")
+	void testWrongSecret()
+	{
+		byte[] other = "some other roll audit secret, 32+ bytes".getBytes(StandardCharsets.UTF_8);
+
+		assertThrows(IllegalStateException.class, () -> RollAuditReader.verify(tempDir, other));
+		assertThrows(IllegalArgumentException.class, () -> RollAuditReader.verify(tempDir, null), "A secret is required");
+	}
+}
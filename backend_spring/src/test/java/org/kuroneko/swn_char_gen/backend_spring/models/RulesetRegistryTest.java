@@ -0,0 +1,111 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the RulesetRegistry class.
+ */
+class RulesetRegistryTest
+{
+	/**
+	 * Restores the built-in rulesets after each test.
+	 */
+	@AfterEach
+	void tearDown()
+	{
+		RulesetRegistry.getInstance().reset();
+	}
+
+	/**
+	 * Build a ruleset with the standard table.
+	 *
+	 * @param theId      The ruleset id
+	 * @param theVersion The ruleset version
+	 * @return The compiled rules
+	 */
+	private static SWNRules buildRules(String theId, int theVersion)
+	{
+		Properties properties = new Properties();
+		properties.setProperty("id", theId);
+		properties.setProperty("version", String.valueOf(theVersion));
+		properties.setProperty("dice", "3d6");
+		properties.setProperty("changed_attribute_value", "14");
+		for (int value = 3; value <= 18; value++)
+		{
+			properties.setProperty("modifier." + value, "0");
+		}
+		return SWNRules.compile(properties);
+	}
+
+	@Test
+	@DisplayName("Test singleton pattern")
+	void testSingletonPattern()
+	{
+		assertSame(RulesetRegistry.getInstance(), RulesetRegistry.getInstance(),
+				   "getInstance should always return the same instance");
+	}
+
+	@Test
+	@DisplayName("Test built-in rulesets are registered")
+	void testBuiltInRulesets()
+	{
+		RulesetRegistry registry = RulesetRegistry.getInstance();
+
+		assertEquals(SWNRules.DEFAULT_RULESET_ID, registry.getDefaultRuleset().getId());
+		assertSame(registry.getDefaultRuleset(), registry.getRuleset(null), "A null id should give the default rules");
+		assertTrue(registry.hasRuleset("swn_heroic"), "The heroic house rule should be built in");
+		assertFalse(registry.hasRuleset("no_such_rules"));
+		assertTrue(registry.hasRuleset(null), "Null should name the standard rules, as getRuleset takes it");
+
+		List<SWNRules> rulesets = registry.getRulesets();
+		assertEquals(2, rulesets.size(), "There should be two built-in rulesets");
+		assertEquals(SWNRules.DEFAULT_RULESET_ID, rulesets.get(0).getId(), "Rulesets should be ordered by id");
+		assertEquals("swn_heroic", rulesets.get(1).getId(), "Rulesets should be ordered by id");
+	}
+
+	@Test
+	@DisplayName("Test unknown ruleset is rejected")
+	void testUnknownRuleset()
+	{
+		Exception exception = assertThrows(IllegalArgumentException.class,
+										   () -> RulesetRegistry.getInstance().getRuleset("no_such_rules"));
+		assertEquals("Unknown ruleset: no_such_rules", exception.getMessage());
+	}
+
+	@Test
+	@DisplayName("Test publish adds new rulesets and only replaces older versions")
+	void testPublish()
+	{
+		RulesetRegistry registry = RulesetRegistry.getInstance();
+
+		SWNRules custom = buildRules("custom", 1);
+		assertTrue(registry.publish(custom), "A new ruleset should be published");
+		assertSame(custom, registry.getRuleset("custom"));
+
+		assertFalse(registry.publish(buildRules("custom", 1)), "The same version should not replace the ruleset");
+		assertSame(custom, registry.getRuleset("custom"));
+
+		SWNRules newer = buildRules("custom", 2);
+		assertTrue(registry.publish(newer), "A newer version should replace the ruleset");
+		assertSame(newer, registry.getRuleset("custom"));
+
+		registry.reset();
+		assertFalse(registry.hasRuleset("custom"), "reset should drop published rulesets");
+	}
+}
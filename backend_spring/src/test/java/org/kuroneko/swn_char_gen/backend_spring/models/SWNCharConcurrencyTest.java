@@ -0,0 +1,222 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests for concurrent use of one SWNChar.
+ * <p>
+ * Writers upload characters whose attributes are all one value and change single attributes, while
+ * readers check that every toMap is a whole character - never part of one change and part of another.
+ */
+class SWNCharConcurrencyTest
+{
+	private static final int WRITERS = 4;
+	private static final int READERS = 4;
+	private static final int CHANGES_PER_WRITER = 2000;
+
+	private static final String[] ATTRIBUTE_KEYS = {"mStrength", "mDexterity", "mConstitution",
+													"mIntelligence", "mWisdom", "mCharisma"};
+
+	/**
+	 * Restores the default history limits after each test.
+	 */
+	@AfterEach
+	void tearDown()
+	{
+		CharacterEventLog.configure(CharacterEventLog.DEFAULT_MAX_EVENTS, CharacterEventLog.DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * Build an upload where every attribute has the same value, and the name is that value.
+	 *
+	 * @param theValue The attribute value
+	 * @return The character data
+	 */
+	private static Map<String, Object> uniform(int theValue)
+	{
+		Map<String, Object> data = new HashMap<>();
+		data.put("mName", String.valueOf(theValue));
+		for (String key : ATTRIBUTE_KEYS)
+		{
+			data.put(key, theValue);
+		}
+		data.put("mChangedAttribute", "NONE");
+		data.put("mChangedAttributeOriginalValue", 0);
+		return data;
+	}
+
+	/**
+	 * Check that a character is one of the states the writers can produce.
+	 *
+	 * @param theData The character data from toMap
+	 * @return A description of the problem, or null if the character is whole
+	 */
+	private static String checkWhole(Map<String, Object> theData)
+	{
+		int expected = Integer.parseInt((String) theData.get("mName"));
+		String changed = String.valueOf(theData.get("mChangedAttribute"));
+		for (int index = 0; index < ATTRIBUTE_KEYS.length; index++)
+		{
+			int value = (Integer) theData.get(ATTRIBUTE_KEYS[index]);
+			boolean isChanged = AttributeEnum.values()[index].name().equals(changed);
+			if (isChanged ? (value != 14) : (value != expected))
+			{
+				return "Torn character: " + theData;
+			}
+		}
+		if (!"NONE".equals(changed) && !Integer.valueOf(expected).equals(theData.get("mChangedAttributeOriginalValue")))
+		{
+			return "Torn original value: " + theData;
+		}
+		return null;
+	}
+
+	@Test
+	@DisplayName("Test readers never see a torn character and writers never lose a change")
+	void testConcurrentReadsAndWrites() throws Exception
+	{
+		CharacterEventLog.configure(WRITERS * CHANGES_PER_WRITER + 1, CharacterEventLog.DEFAULT_MAX_BYTES);
+		SWNChar character = new SWNChar(uniform(3));
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+		try
+		{
+			List<Future<String>> readers = new ArrayList<>();
+			for (int reader = 0; reader < READERS; reader++)
+			{
+				readers.add(pool.submit(() ->
+				{
+					start.await();
+					while (writing.get())
+					{
+						String problem = checkWhole(character.toMap());
+						if (problem != null)
+						{
+							return problem;
+						}
+					}
+					return null;
+				}));
+			}
+
+			List<Future<Void>> writers = new ArrayList<>();
+			for (int writer = 0; writer < WRITERS; writer++)
+			{
+				int seed = writer;
+				writers.add(pool.submit(() ->
+				{
+					start.await();
+					for (int change = 0; change < CHANGES_PER_WRITER; change++)
+					{
+						if (change % 2 == 0)
+						{
+							character.fromMap(uniform(3 + (seed + change) % 16));
+						}
+						else
+						{
+							character.changeOneAttribute(AttributeEnum.values()[(seed + change) % AttributeEnum.COUNT]);
+						}
+					}
+					return null;
+				}));
+			}
+
+			start.countDown();
+			for (Future<Void> writer : writers)
+			{
+				writer.get(60, TimeUnit.SECONDS);
+			}
+			writing.set(false);
+			for (Future<String> reader : readers)
+			{
+				assertNull(reader.get(60, TimeUnit.SECONDS));
+			}
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+
+		assertEquals(1 + WRITERS * CHANGES_PER_WRITER, character.getEvents().size(), "Every change should be recorded");
+		assertNull(checkWhole(character.toMap()));
+		character.releaseHistory();
+	}
+
+	@Test
+	@DisplayName("Test concurrent undo and redo keep the character whole")
+	void testConcurrentUndoRedo() throws IOException, InterruptedException
+	{
+		SWNChar character = new SWNChar(uniform(10));
+		character.changeOneAttribute(AttributeEnum.WISDOM);
+		List<Thread> threads = new ArrayList<>();
+		List<String> problems = Collections.synchronizedList(new ArrayList<>());
+		for (int thread = 0; thread < 4; thread++)
+		{
+			threads.add(new Thread(() ->
+			{
+				for (int step = 0; step < 1000; step++)
+				{
+					try
+					{
+						if (character.canUndo())
+						{
+							character.undo();
+						}
+						else
+						{
+							character.redo();
+						}
+					}
+					catch (IllegalArgumentException e)
+					{
+						// another thread moved first, which is fine
+					}
+					Map<String, Object> data = character.toMap();
+					if (!"Default Name".equals(data.get("mName")))
+					{
+						String problem = checkWhole(data);
+						if (problem != null)
+						{
+							problems.add(problem);
+						}
+					}
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads)
+		{
+			thread.join();
+		}
+		assertEquals(List.of(), problems);
+		character.releaseHistory();
+	}
+}
@@ -12,7 +12,13 @@ package org.kuroneko.swn_char_gen.backend_spring.models;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -34,55 +40,28 @@ class SWNCharDataTest
 		nameField.setAccessible(true);
 		assertEquals("Default Name", nameField.get(charData), "Default name should be 'Default Name'");
 
-		// Test attribute values
-		Field strengthField = SWNCharData.class.getDeclaredField("mStrength");
-		strengthField.setAccessible(true);
-		assertEquals(0, strengthField.getInt(charData), "Default strength should be 0");
-
-		Field dexterityField = SWNCharData.class.getDeclaredField("mDexterity");
-		dexterityField.setAccessible(true);
-		assertEquals(0, dexterityField.getInt(charData), "Default dexterity should be 0");
-
-		Field constitutionField = SWNCharData.class.getDeclaredField("mConstitution");
-		constitutionField.setAccessible(true);
-		assertEquals(0, constitutionField.getInt(charData), "Default constitution should be 0");
-
-		Field intelligenceField = SWNCharData.class.getDeclaredField("mIntelligence");
-		intelligenceField.setAccessible(true);
-		assertEquals(0, intelligenceField.getInt(charData), "Default intelligence should be 0");
-
-		Field wisdomField = SWNCharData.class.getDeclaredField("mWisdom");
-		wisdomField.setAccessible(true);
-		assertEquals(0, wisdomField.getInt(charData), "Default wisdom should be 0");
-
-		Field charismaField = SWNCharData.class.getDeclaredField("mCharisma");
-		charismaField.setAccessible(true);
-		assertEquals(0, charismaField.getInt(charData), "Default charisma should be 0");
-
-		// Test attribute modifiers
-		Field strengthModField = SWNCharData.class.getDeclaredField("mStrengthModifier");
-		strengthModField.setAccessible(true);
-		assertEquals(0, strengthModField.getInt(charData), "Default strength modifier should be 0");
-
-		Field dexterityModField = SWNCharData.class.getDeclaredField("mDexterityModifier");
-		dexterityModField.setAccessible(true);
-		assertEquals(0, dexterityModField.getInt(charData), "Default dexterity modifier should be 0");
-
-		Field constitutionModField = SWNCharData.class.getDeclaredField("mConstitutionModifier");
-		constitutionModField.setAccessible(true);
-		assertEquals(0, constitutionModField.getInt(charData), "Default constitution modifier should be 0");
-
-		Field intelligenceModField = SWNCharData.class.getDeclaredField("mIntelligenceModifier");
-		intelligenceModField.setAccessible(true);
-		assertEquals(0, intelligenceModField.getInt(charData), "Default intelligence modifier should be 0");
-
-		Field wisdomModField = SWNCharData.class.getDeclaredField("mWisdomModifier");
-		wisdomModField.setAccessible(true);
-		assertEquals(0, wisdomModField.getInt(charData), "Default wisdom modifier should be 0");
-
-		Field charismaModField = SWNCharData.class.getDeclaredField("mCharismaModifier");
-		charismaModField.setAccessible(true);
-		assertEquals(0, charismaModField.getInt(charData), "Default charisma modifier should be 0");
+		Field rulesetField = SWNCharData.class.getDeclaredField("mRulesetId");
+		rulesetField.setAccessible(true);
+		assertEquals(SWNRules.DEFAULT_RULESET_ID, rulesetField.get(charData), "Default ruleset should be the standard rules");
+
+		// Test attribute values, one entry per attribute indexed by ordinal
+		Field attributesField = SWNCharData.class.getDeclaredField("mAttributes");
+		attributesField.setAccessible(true);
+		int[] attributes = (int[]) attributesField.get(charData);
+		assertEquals(AttributeEnum.COUNT, attributes.length, "There should be one value per attribute");
+		for (AttributeEnum attribute : AttributeEnum.values())
+		{
+			if (attribute != AttributeEnum.NONE)
+			{
+				assertEquals(0, attributes[attribute.ordinal()], "Default " + attribute + " should be 0");
+			}
+		}
+
+		// Test attribute modifiers are derived rather than stored
+		assertThrows(NoSuchFieldException.class, () -> SWNCharData.class.getDeclaredField("mModifiers"),
+					 "Modifiers should not be stored");
+		assertThrows(NoSuchFieldException.class, () -> SWNCharData.class.getDeclaredField("mStrengthModifier"),
+					 "Modifiers should not be stored");
 
 		// Test changed attribute tracking
 		Field changedAttrField = SWNCharData.class.getDeclaredField("mChangedAttribute");
@@ -108,13 +87,9 @@ class SWNCharDataTest
 		nameField.setAccessible(true);
 		nameField.set(charData, "Test Character");
 
-		Field strengthField = SWNCharData.class.getDeclaredField("mStrength");
-		strengthField.setAccessible(true);
-		strengthField.setInt(charData, 14);
-
-		Field strengthModField = SWNCharData.class.getDeclaredField("mStrengthModifier");
-		strengthModField.setAccessible(true);
-		strengthModField.setInt(charData, 1);
+		Field attributesField = SWNCharData.class.getDeclaredField("mAttributes");
+		attributesField.setAccessible(true);
+		((int[]) attributesField.get(charData))[AttributeEnum.STRENGTH.ordinal()] = 14;
 
 		Field changedAttrField = SWNCharData.class.getDeclaredField("mChangedAttribute");
 		changedAttrField.setAccessible(true);
@@ -126,9 +101,51 @@ class SWNCharDataTest
 
 		// Verify the modifications
 		assertEquals("Test Character", nameField.get(charData), "Name should be modified");
-		assertEquals(14, strengthField.getInt(charData), "Strength should be modified");
-		assertEquals(1, strengthModField.getInt(charData), "Strength modifier should be modified");
+		assertEquals(14, ((int[]) attributesField.get(charData))[AttributeEnum.STRENGTH.ordinal()], "Strength should be modified");
 		assertEquals(AttributeEnum.STRENGTH, changedAttrField.get(charData), "Changed attribute should be modified");
 		assertEquals(10, changedAttrOrigValField.getInt(charData), "Changed attribute original value should be modified");
 	}
-}
\ No newline at end of file
+
+	@Test
+	@DisplayName("Test JSON keeps the individual attribute and modifier field names")
+	void testJsonFieldNames() throws Exception
+	{
+		SWNCharData charData = new SWNCharData();
+		charData.mAttributes[AttributeEnum.STRENGTH.ordinal()] = 14;
+		charData.mAttributes[AttributeEnum.CHARISMA.ordinal()] = 3;
+		charData.mChangedAttribute = AttributeEnum.STRENGTH;
+		charData.mChangedAttributeOriginalValue = 9;
+
+		ObjectMapper mapper = new ObjectMapper();
+		Map<String, Object> json = mapper.convertValue(charData, new TypeReference<Map<String, Object>>() {});
+		assertEquals(List.of("mName", "mRulesetId",
+							 "mStrength", "mDexterity", "mConstitution", "mIntelligence", "mWisdom", "mCharisma",
+							 "mStrengthModifier", "mDexterityModifier", "mConstitutionModifier",
+							 "mIntelligenceModifier", "mWisdomModifier", "mCharismaModifier",
+							 "mChangedAttribute", "mChangedAttributeOriginalValue"),
+					 List.copyOf(json.keySet()), "Fields should match the Python output");
+		assertEquals(14, json.get("mStrength"));
+		assertEquals(1, json.get("mStrengthModifier"), "Modifiers should come from the rules table");
+		assertEquals(-2, json.get("mCharismaModifier"), "Modifiers should come from the rules table");
+		assertEquals(0, json.get("mWisdomModifier"), "Unset attributes should have modifier 0");
+		assertEquals("STRENGTH", json.get("mChangedAttribute"));
+
+		// reading back, including updating an existing object as fromMap does
+		SWNCharData copy = mapper.convertValue(json, SWNCharData.class);
+		assertArrayEquals(charData.mAttributes, copy.mAttributes);
+		assertEquals(AttributeEnum.STRENGTH, copy.mChangedAttribute);
+		assertEquals(9, copy.mChangedAttributeOriginalValue);
+
+		SWNCharData updated = new SWNCharData();
+		updated.mName = "Kept";
+		JsonNode node = mapper.valueToTree(Map.of("mWisdom", 12, "mWisdomModifier", 3));
+		mapper.readerForUpdating(updated).readValue(node);
+		assertEquals("Kept", updated.mName, "Fields missing from the data should be kept");
+		assertEquals(12, updated.mAttributes[AttributeEnum.WISDOM.ordinal()]);
+		assertEquals(0, mapper.convertValue(updated, new TypeReference<Map<String, Object>>() {}).get("mWisdomModifier"),
+					 "Uploaded modifiers should be ignored");
+
+		assertThrows(Exception.class, () -> mapper.convertValue(Map.of("mLuck", 3), SWNCharData.class),
+					 "Unknown fields should be rejected");
+	}
+}
@@ -9,13 +9,17 @@
 
 package org.kuroneko.swn_char_gen.backend_spring.models;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -41,6 +45,15 @@ public class SWNCharTest
 		character = new SWNChar();
 	}
 
+	/**
+	 * Restores the built-in rulesets in case a test published different ones.
+	 */
+	@AfterEach
+	void tearDown()
+	{
+		RulesetRegistry.getInstance().reset();
+	}
+
 	/**
 	 * Tests that the default constructor creates a character with the expected default values.
 	 * Verifies that all attributes, modifiers, and other fields are initialized correctly.
@@ -70,6 +83,7 @@ public class SWNCharTest
 			assertEquals(0, charMap.get("mCharismaModifier"));
 			assertEquals(AttributeEnum.NONE.toString(), charMap.get("mChangedAttribute"));
 			assertEquals(0, charMap.get("mChangedAttributeOriginalValue"));
+			assertEquals(SWNRules.DEFAULT_RULESET_ID, charMap.get("mRulesetId"));
 		}
 		catch (IllegalArgumentException e)
 		{
@@ -80,7 +94,8 @@ public class SWNCharTest
 	/**
 	 * Tests that the constructor with a Map argument correctly initializes a character.
 	 * Creates a character with specific attribute values and verifies that all fields
-	 * are set correctly from the provided Map.
+	 * are set correctly from the provided Map. The uploaded modifiers disagree with the
+	 * rules table and are replaced by the table values.
 	 *
 	 * @throws IOException if there's an error during character creation
 	 */
@@ -123,12 +138,13 @@ public class SWNCharTest
 			assertEquals(16, resultMap.get("mIntelligence"));
 			assertEquals(8, resultMap.get("mWisdom"));
 			assertEquals(6, resultMap.get("mCharisma"));
+			// modifiers come from the rules table, not the uploaded values
 			assertEquals(1, resultMap.get("mStrengthModifier"));
 			assertEquals(0, resultMap.get("mDexterityModifier"));
 			assertEquals(0, resultMap.get("mConstitutionModifier"));
-			assertEquals(2, resultMap.get("mIntelligenceModifier"));
-			assertEquals(-1, resultMap.get("mWisdomModifier"));
-			assertEquals(-2, resultMap.get("mCharismaModifier"));
+			assertEquals(1, resultMap.get("mIntelligenceModifier"));
+			assertEquals(0, resultMap.get("mWisdomModifier"));
+			assertEquals(-1, resultMap.get("mCharismaModifier"));
 			assertEquals("STRENGTH", resultMap.get("mChangedAttribute"));
 			assertEquals(10, resultMap.get("mChangedAttributeOriginalValue"));
 		}
@@ -437,4 +453,295 @@ public class SWNCharTest
 			fail("Exception thrown: " + e.getMessage());
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Tests that a character picks up newly published rules the next time it is accessed.
+	 * Publishes an errata where the changed attribute value is 15 and an 8 gives -1, and verifies
+	 * that the changed attribute and the modifiers are recalculated on the next toMap call.
+	 *
+	 * @throws IOException if the default rules cannot be read
+	 */
+	@Test
+	@DisplayName("Test characters are recalculated lazily after a rules change")
+	void testLazyRulesRefresh() throws IOException
+	{
+		Map<String, Object> charData = new HashMap<>();
+		charData.put("mStrength", 8);
+		charData.put("mDexterity", 10);
+		charData.put("mConstitution", 10);
+		charData.put("mIntelligence", 10);
+		charData.put("mWisdom", 10);
+		charData.put("mCharisma", 10);
+		character.fromMap(charData);
+		character.changeOneAttribute(AttributeEnum.DEXTERITY);
+
+		Properties errata = new Properties();
+		try (InputStream stream = SWNRules.class.getResourceAsStream(SWNRules.DEFAULT_RULES_RESOURCE))
+		{
+			errata.load(stream);
+		}
+		errata.setProperty("version", String.valueOf(RulesetRegistry.getInstance().getDefaultRuleset().getVersion() + 1));
+		errata.setProperty("changed_attribute_value", "15");
+		errata.setProperty("modifier.8", "-1");
+		RulesetRegistry.getInstance().publish(SWNRules.compile(errata));
+
+		Map<String, Object> resultMap = character.toMap();
+		assertEquals(8, resultMap.get("mStrength"));
+		assertEquals(-1, resultMap.get("mStrengthModifier"), "Modifier should use the new table");
+		assertEquals(15, resultMap.get("mDexterity"), "Changed attribute should use the new value");
+		assertEquals(1, resultMap.get("mDexterityModifier"));
+		assertEquals(10, resultMap.get("mChangedAttributeOriginalValue"), "Original value should be kept");
+	}
+
+	/**
+	 * Tests that a rules change which narrows the modifier table clamps values outside it,
+	 * so the character can still be read.
+	 *
+	 * @throws IOException if the default rules cannot be read
+	 */
+	@Test
+	@DisplayName("Test a narrowed modifier table clamps stored values")
+	void testNarrowedRulesRefresh() throws IOException
+	{
+		Map<String, Object> charData = new HashMap<>();
+		charData.put("mStrength", 3);
+		charData.put("mDexterity", 10);
+		charData.put("mConstitution", 10);
+		charData.put("mIntelligence", 10);
+		charData.put("mWisdom", 10);
+		charData.put("mCharisma", 18);
+		character.fromMap(charData);
+		character.changeOneAttribute(AttributeEnum.STRENGTH);
+
+		Properties narrowed = new Properties();
+		try (InputStream stream = SWNRules.class.getResourceAsStream(SWNRules.DEFAULT_RULES_RESOURCE))
+		{
+			narrowed.load(stream);
+		}
+		narrowed.setProperty("version", String.valueOf(RulesetRegistry.getInstance().getDefaultRuleset().getVersion() + 1));
+		narrowed.setProperty("dice", "6d2");
+		for (String value : new String[] {"3", "4", "5", "17", "18"})
+		{
+			narrowed.remove("modifier." + value);
+		}
+		assertTrue(RulesetRegistry.getInstance().publish(SWNRules.compile(narrowed)));
+
+		Map<String, Object> resultMap = character.toMap();
+		assertEquals(14, resultMap.get("mStrength"), "Changed attribute should use the new value");
+		assertEquals(6, resultMap.get("mChangedAttributeOriginalValue"), "Original value should be clamped to the table");
+		assertEquals(16, resultMap.get("mCharisma"), "Value above the table should be clamped to its top");
+		assertEquals(1, resultMap.get("mCharismaModifier"));
+		assertEquals(10, resultMap.get("mDexterity"), "Values in the table should be kept");
+		assertEquals(SWNChar.fromData(character.getData(), character.getRulesVersion()).toMap(), resultMap,
+					 "The clamped character should pack and unpack");
+	}
+
+	/**
+	 * Tests that a character records the ruleset it was created with and that uploads
+	 * can select a ruleset but not an unknown one.
+	 *
+	 * @throws IOException if there's an error during data loading
+	 */
+	@Test
+	@DisplayName("Test characters record their ruleset")
+	void testRuleset() throws IOException
+	{
+		SWNChar heroic = SWNChar.forRuleset("swn_heroic");
+		assertEquals("swn_heroic", heroic.toMap().get("mRulesetId"));
+
+		Map<String, Object> charData = new HashMap<>();
+		charData.put("mRulesetId", "swn_heroic");
+		character.fromMap(charData);
+		assertEquals("swn_heroic", character.toMap().get("mRulesetId"), "Upload should switch rulesets");
+
+		charData.put("mRulesetId", "no_such_rules");
+		assertThrows(IllegalArgumentException.class, () -> new SWNChar(charData),
+					 "Upload with an unknown ruleset should be rejected");
+		assertThrows(IllegalArgumentException.class, () -> SWNChar.forRuleset("no_such_rules"),
+					 "Unknown rulesets should be rejected");
+	}
+
+	/**
+	 * Tests the calculateOdds method.
+	 * Verifies the attribute percentiles, the total modifier, and that the best attribute to change
+	 * is measured against the rolled values when an attribute has already been changed.
+	 *
+	 * @throws IOException if there's an error during data loading
+	 */
+	@Test
+	@DisplayName("Test calculateOdds method")
+	@SuppressWarnings("unchecked")
+	void testCalculateOdds() throws IOException
+	{
+		assertThrows(IllegalArgumentException.class, () -> character.calculateOdds(),
+					 "Odds need rolled attributes");
+
+		Map<String, Object> charData = new HashMap<>();
+		charData.put("mStrength", 8);
+		charData.put("mDexterity", 10);
+		charData.put("mConstitution", 10);
+		charData.put("mIntelligence", 10);
+		charData.put("mWisdom", 10);
+		charData.put("mCharisma", 3);
+		character.fromMap(charData);
+
+		Map<String, Object> odds = character.calculateOdds();
+		Map<String, Object> attributes = (Map<String, Object>) odds.get("attributes");
+		Map<String, Object> dexterity = (Map<String, Object>) attributes.get("DEXTERITY");
+		assertEquals(6, attributes.size(), "Every attribute should be reported");
+		assertEquals(10, dexterity.get("value"));
+		assertEquals(100 * (81 + 13.5) / 216, (double) dexterity.get("percentile"), 1e-9);
+		assertEquals(-2, odds.get("modifierSum"));
+		assertEquals(SWNRules.loadDefault().getOdds().getModifierSumProbability(-2),
+					 (double) odds.get("modifierSumProbability"), 1e-12);
+
+		Map<String, Object> bestChange = (Map<String, Object>) odds.get("bestChange");
+		assertEquals("CHARISMA", bestChange.get("attribute"), "Raising the 3 gains the most");
+		assertEquals(1, bestChange.get("modifierSum"));
+		assertEquals(3, bestChange.get("gain"));
+
+		character.changeOneAttribute(AttributeEnum.DEXTERITY);
+		odds = character.calculateOdds();
+		bestChange = (Map<String, Object>) odds.get("bestChange");
+		assertEquals(-1, odds.get("modifierSum"));
+		assertEquals("CHARISMA", bestChange.get("attribute"));
+		assertEquals(2, bestChange.get("gain"), "Moving the change restores dexterity to 10");
+	}
+
+	/**
+	 * Tests the constrained rollAttributes method.
+	 * Verifies that the result meets the constraints and that constraints the exact odds
+	 * rule out are rejected without rolling.
+	 */
+	@Test
+	@DisplayName("Test constrained rollAttributes method")
+	void testConstrainedRollAttributes()
+	{
+		for (int i = 0; i < 100; i++)
+		{
+			int attempts = character.rollAttributes(2, 16);
+			assertTrue(attempts >= 1, "At least one roll should be made");
+
+			Map<String, Object> resultMap = character.toMap();
+			int modifierSum = 0;
+			int highest = 0;
+			for (String attribute : new String[]{"Strength", "Dexterity", "Constitution", "Intelligence", "Wisdom", "Charisma"})
+			{
+				modifierSum += (int) resultMap.get("m" + attribute + "Modifier");
+				highest = Math.max(highest, (int) resultMap.get("m" + attribute));
+			}
+			assertTrue(modifierSum >= 2, "Total modifier should meet the minimum: " + modifierSum);
+			assertTrue(highest >= 16, "An attribute should reach the minimum: " + highest);
+		}
+
+		assertEquals(1, character.rollAttributes(Integer.MIN_VALUE, 0), "No constraints should take one roll");
+		assertThrows(IllegalArgumentException.class, () -> character.rollAttributes(Integer.MIN_VALUE, 19),
+					 "No roll can reach 19");
+		assertThrows(IllegalArgumentException.class, () -> character.rollAttributes(12, 0),
+					 "Six 18s is too unlikely to roll");
+	}
+
+	/**
+	 * Tests that changeOneAttribute rejects NONE without touching the current change.
+	 */
+	@Test
+	@DisplayName("Test changeOneAttribute rejects NONE")
+	void testChangeOneAttributeWithNone()
+	{
+		character.rollAttributes();
+		character.changeOneAttribute(AttributeEnum.WISDOM);
+
+		assertThrows(IllegalArgumentException.class, () -> character.changeOneAttribute(AttributeEnum.NONE));
+		Map<String, Object> resultMap = character.toMap();
+		assertEquals("WISDOM", resultMap.get("mChangedAttribute"), "The current change should be kept");
+		assertEquals(14, resultMap.get("mWisdom"));
+	}
+
+	/**
+	 * Tests that uploads with attribute values outside the rules table are rejected.
+	 */
+	@Test
+	@DisplayName("Test upload rejects invalid attribute values")
+	void testFromMapRejectsInvalidValues()
+	{
+		Map<String, Object> charData = new HashMap<>();
+		charData.put("mStrength", 25);
+
+		assertThrows(IllegalArgumentException.class, () -> new SWNChar(charData),
+					 "Values without a modifier should be rejected");
+	}
+
+	/**
+	 * Tests that rolls and attribute changes can be undone and redone.
+	 */
+	@Test
+	@DisplayName("Test undo and redo of rolls and changes")
+	void testUndoRedo()
+	{
+		assertFalse(character.canUndo(), "A new character has nothing to undo");
+		assertThrows(IllegalArgumentException.class, () -> character.undo());
+
+		character.rollAttributes();
+		Map<String, Object> rolled = character.toMap();
+		character.changeOneAttribute(AttributeEnum.DEXTERITY);
+		Map<String, Object> changed = character.toMap();
+
+		character.undo();
+		assertEquals(rolled, character.toMap(), "Undo should restore the roll");
+		character.undo();
+		assertEquals(0, character.toMap().get("mStrength"), "Undo should restore the unrolled attributes");
+		assertFalse(character.canUndo());
+
+		character.redo();
+		character.redo();
+		assertEquals(changed, character.toMap(), "Redo should restore the change");
+		assertFalse(character.canRedo());
+		character.releaseHistory();
+	}
+
+	/**
+	 * Tests that an upload is recorded as an event and can be undone.
+	 */
+	@Test
+	@DisplayName("Test fromMap can be undone")
+	void testFromMapUndo() throws IOException
+	{
+		character.rollAttributes();
+		Map<String, Object> rolled = character.toMap();
+		Map<String, Object> uploaded = new HashMap<>(rolled);
+		uploaded.put("mName", "Uploaded");
+
+		character.fromMap(uploaded);
+		assertEquals("Uploaded", character.toMap().get("mName"));
+		character.undo();
+		assertEquals(rolled, character.toMap(), "Undo should restore the data before the upload");
+	}
+
+	/**
+	 * Tests that every change is recorded in the event log, and that invalid uploads record nothing.
+	 */
+	@Test
+	@DisplayName("Test changes are recorded as events")
+	void testGetEvents()
+	{
+		character.rollAttributes();
+		character.changeOneAttribute(AttributeEnum.STRENGTH);
+		character.setDetail(DetailEnum.NAME, "Test Character");
+		Map<String, Object> invalid = new HashMap<>();
+		invalid.put("mStrength", 25);
+		assertThrows(IllegalArgumentException.class, () -> character.fromMap(invalid));
+
+		List<CharacterEvent> events = character.getEvents();
+		assertEquals(3, events.size(), "The invalid upload should not be recorded");
+		assertEquals(CharacterEventType.ROLL_ATTRIBUTES, events.get(0).getType());
+		assertEquals(CharacterEventType.CHANGE_ATTRIBUTE, events.get(1).getType());
+		assertEquals(AttributeEnum.STRENGTH, events.get(1).getAttribute());
+		assertEquals(14, events.get(1).getValue());
+		assertEquals(CharacterEventType.SET_DETAIL, events.get(2).getType());
+		assertEquals("Test Character", character.toMap().get("mName"));
+
+		assertEquals(3, character.compactEvents(Long.MAX_VALUE), "Every change should be compacted");
+		assertFalse(character.canUndo(), "Compacted changes cannot be undone");
+		assertEquals("Test Character", character.toMap().get("mName"), "Compaction should not change the data");
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the SWNOdds class.
+ */
+class SWNOddsTest
+{
+	@Test
+	@DisplayName("Test attribute odds for the standard rules")
+	void testAttributeOdds()
+	{
+		SWNOdds odds = SWNRules.loadDefault().getOdds();
+
+		assertEquals(27.0 / 216, odds.getAttributeProbability(10), 1e-12);
+		assertEquals(0, odds.getAttributeProbability(2), "Values the dice cannot roll have no chance");
+		assertEquals(0, odds.getAttributeProbability(19), "Values the dice cannot roll have no chance");
+		// 81 of 216 rolls are below 10 and ties count half
+		assertEquals(100 * (81 + 13.5) / 216, odds.getAttributePercentile(10), 1e-9);
+		assertEquals(100 - odds.getAttributePercentile(10), odds.getAttributePercentile(11), 1e-9,
+					 "3d6 is symmetric around 10.5");
+		assertEquals(0, odds.getAttributePercentile(0));
+		assertEquals(100, odds.getAttributePercentile(19));
+	}
+
+	@Test
+	@DisplayName("Test total modifier odds for the standard rules")
+	void testModifierSumOdds()
+	{
+		SWNOdds odds = SWNRules.loadDefault().getOdds();
+
+		assertEquals(-12, odds.getMinModifierSum(), "Six attributes of -2");
+		assertEquals(12, odds.getMaxModifierSum(), "Six attributes of +2");
+		assertEquals(Math.pow(1.0 / 216, 6), odds.getModifierSumProbability(12), 1e-20);
+
+		double total = 0;
+		for (int sum = odds.getMinModifierSum(); sum <= odds.getMaxModifierSum(); sum++)
+		{
+			// the standard modifier table is symmetric, so the totals are too
+			assertEquals(odds.getModifierSumProbability(sum), odds.getModifierSumProbability(-sum), 1e-12);
+			total += odds.getModifierSumProbability(sum);
+		}
+		assertEquals(1.0, total, 1e-12, "Probabilities should add up to 1");
+		assertEquals(50, odds.getModifierSumPercentile(0), 1e-9, "A total of 0 is the median");
+		assertEquals(0, odds.getModifierSumProbability(13));
+	}
+
+	@Test
+	@DisplayName("Test at-least probabilities for constrained rolls")
+	void testAtLeastOdds()
+	{
+		SWNOdds odds = SWNRules.loadDefault().getOdds();
+
+		assertEquals(1, odds.getHighestAttributeAtLeastProbability(3), 1e-12, "Every roll is at least 3");
+		assertEquals(0, odds.getHighestAttributeAtLeastProbability(19), 1e-12);
+		assertEquals(1 - Math.pow(1 - 1.0 / 216, 6), odds.getHighestAttributeAtLeastProbability(18), 1e-12);
+		assertEquals(1, odds.getModifierSumAtLeastProbability(-12), 1e-12);
+		assertEquals(1, odds.getModifierSumAtLeastProbability(-100), 1e-12);
+		assertEquals(0, odds.getModifierSumAtLeastProbability(13), 1e-12);
+		assertEquals(odds.getModifierSumProbability(12), odds.getModifierSumAtLeastProbability(12), 1e-20);
+		assertEquals(1 - odds.getModifierSumAtLeastProbability(1), odds.getModifierSumAtLeastProbability(0), 1e-12,
+					 "The standard totals are symmetric around 0");
+	}
+
+	@Test
+	@DisplayName("Test joint probabilities for constrained rolls")
+	void testConstrainedRollOdds()
+	{
+		SWNOdds odds = SWNRules.loadDefault().getOdds();
+
+		assertEquals(odds.getModifierSumAtLeastProbability(2), odds.getConstrainedRollProbability(2, 0), 1e-12,
+					 "No highest value limit leaves the total alone");
+		assertEquals(odds.getHighestAttributeAtLeastProbability(16), odds.getConstrainedRollProbability(Integer.MIN_VALUE, 16), 1e-12,
+					 "No total limit leaves the highest value alone");
+		assertEquals(Math.pow(1.0 / 216, 6), odds.getConstrainedRollProbability(12, 18), 1e-20, "Only six 18s reach 12");
+		assertEquals(0, odds.getConstrainedRollProbability(0, 19), "No roll reaches 19");
+		assertEquals(0, odds.getConstrainedRollProbability(Integer.MAX_VALUE, 0));
+		assertEquals(odds.getHighestAttributeAtLeastProbability(14), odds.getConstrainedRollProbability(odds.getMinModifierSum(), 14), 1e-12,
+					 "Every roll reaches the lowest total");
+
+		double joint = odds.getConstrainedRollProbability(2, 16);
+		assertEquals(0.0831263068600, joint, 1e-12, "Joint odds should match a count over every roll");
+		assertTrue(joint < Math.min(odds.getModifierSumAtLeastProbability(2), odds.getHighestAttributeAtLeastProbability(16)),
+				   "Both constraints should be rarer than either alone: " + joint);
+		assertTrue(joint > odds.getModifierSumAtLeastProbability(2) * odds.getHighestAttributeAtLeastProbability(16),
+				   "A high attribute makes a high total more likely: " + joint);
+	}
+
+	@Test
+	@DisplayName("Test heroic rules give better totals")
+	void testHeroicOdds()
+	{
+		SWNOdds standard = SWNRules.loadDefault().getOdds();
+		SWNOdds heroic = SWNRules.loadBuiltIn("swn_heroic").getOdds();
+
+		assertTrue(heroic.getModifierSumPercentile(0) < standard.getModifierSumPercentile(0),
+				   "A total of 0 should be less lucky with 4d6 drop lowest");
+		assertEquals(21.0 / 1296, heroic.getAttributeProbability(18), 1e-12);
+	}
+}
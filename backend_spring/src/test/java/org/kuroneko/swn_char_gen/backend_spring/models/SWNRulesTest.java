@@ -0,0 +1,129 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the SWNRules class.
+ */
+class SWNRulesTest
+{
+	/**
+	 * Build a small valid rules table for the tests to modify.
+	 *
+	 * @return Rules properties covering attribute values 1 to 3
+	 */
+	private static Properties smallRules()
+	{
+		Properties properties = new Properties();
+		properties.setProperty("id", "small");
+		properties.setProperty("name", "Small Rules");
+		properties.setProperty("version", "7");
+		properties.setProperty("dice", "1d3");
+		properties.setProperty("changed_attribute_value", "2");
+		properties.setProperty("modifier.1", "-1");
+		properties.setProperty("modifier.2", "0");
+		properties.setProperty("modifier.3", "1");
+		return properties;
+	}
+
+	@Test
+	@DisplayName("Test default rules match the SWN table")
+	void testLoadDefault()
+	{
+		SWNRules rules = SWNRules.loadDefault();
+
+		assertEquals(SWNRules.DEFAULT_RULESET_ID, rules.getId(), "Default rules should have the default id");
+		assertEquals("3d6", rules.getDice().toString(), "Default rules should roll 3d6");
+		assertEquals(3, rules.getMinAttribute(), "Lowest attribute should be 3");
+		assertEquals(18, rules.getMaxAttribute(), "Highest attribute should be 18");
+		assertEquals(14, rules.getChangedAttributeValue(), "Changed attribute value should be 14");
+		assertEquals(-2, rules.calculateModifier(3), "Modifier for 3 should be -2");
+		assertEquals(0, rules.calculateModifier(10), "Modifier for 10 should be 0");
+		assertEquals(2, rules.calculateModifier(18), "Modifier for 18 should be 2");
+	}
+
+	@Test
+	@DisplayName("Test built-in rulesets load by id")
+	void testLoadBuiltIn()
+	{
+		SWNRules rules = SWNRules.loadBuiltIn("swn_heroic");
+
+		assertEquals("swn_heroic", rules.getId());
+		assertEquals("4d6kh3", rules.getDice().toString());
+		assertThrows(IllegalStateException.class, () -> SWNRules.loadBuiltIn("no_such_rules"));
+	}
+
+	@Test
+	@DisplayName("Test compile builds a table from properties")
+	void testCompile()
+	{
+		SWNRules rules = SWNRules.compile(smallRules());
+
+		assertEquals("small", rules.getId(), "Id should come from the properties");
+		assertEquals("Small Rules", rules.getName(), "Name should come from the properties");
+		assertEquals(7, rules.getVersion(), "Version should come from the properties");
+		assertEquals(2, rules.getChangedAttributeValue(), "Changed attribute value should come from the properties");
+		assertEquals(-1, rules.calculateModifier(1));
+		assertEquals(0, rules.calculateModifier(2));
+		assertEquals(1, rules.calculateModifier(3));
+		assertEquals(0, rules.calculateModifier(0), "Unset attribute should have modifier 0");
+		assertThrows(IllegalArgumentException.class, () -> rules.calculateModifier(4),
+					 "Values outside the table should be rejected");
+	}
+
+	@Test
+	@DisplayName("Test compile rejects a table with a gap")
+	void testCompileRejectsGap()
+	{
+		Properties properties = smallRules();
+		properties.remove("modifier.2");
+
+		Exception exception = assertThrows(IllegalArgumentException.class, () -> SWNRules.compile(properties));
+		assertTrue(exception.getMessage().contains("modifier.2"), "Message should name the missing entry");
+	}
+
+	@Test
+	@DisplayName("Test compile rejects missing or invalid entries")
+	void testCompileRejectsInvalidEntries()
+	{
+		Properties noVersion = smallRules();
+		noVersion.remove("version");
+		assertThrows(IllegalArgumentException.class, () -> SWNRules.compile(noVersion));
+
+		Properties badModifier = smallRules();
+		badModifier.setProperty("modifier.3", "plus one");
+		assertThrows(IllegalArgumentException.class, () -> SWNRules.compile(badModifier));
+
+		Properties badChangedValue = smallRules();
+		badChangedValue.setProperty("changed_attribute_value", "14");
+		assertThrows(IllegalArgumentException.class, () -> SWNRules.compile(badChangedValue));
+
+		Properties badId = smallRules();
+		badId.setProperty("id", "../small");
+		assertThrows(IllegalArgumentException.class, () -> SWNRules.compile(badId));
+
+		Properties tooHigh = smallRules();
+		tooHigh.setProperty("modifier.256", "1");
+		assertThrows(IllegalArgumentException.class, () -> SWNRules.compile(tooHigh),
+					 "Values too large to pack should be rejected");
+
+		Properties badDice = smallRules();
+		badDice.setProperty("dice", "1d4");
+		assertThrows(IllegalArgumentException.class, () -> SWNRules.compile(badDice),
+					 "Dice that can roll past the table should be rejected");
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the SWNSimulator class.
+ */
+class SWNSimulatorTest
+{
+	// several tasks' worth, so the run is split across threads
+	private static final long CHARACTERS = 300_000;
+
+	@Test
+	@DisplayName("Test every character is counted once")
+	void testCounts()
+	{
+		LongAdder progress = new LongAdder();
+		SWNSimulationResult result = new SWNSimulator(SWNRules.loadDefault()).run(CHARACTERS, 42, progress);
+
+		assertEquals(SWNRules.DEFAULT_RULESET_ID, result.getRulesetId());
+		assertEquals(CHARACTERS, result.getCharacters());
+		assertEquals(CHARACTERS, progress.sum(), "Progress should reach the number of characters");
+
+		long attributes = 0;
+		for (int value = 0; value <= result.getMaxAttribute(); value++)
+		{
+			attributes += result.getAttributeCount(value);
+		}
+		assertEquals(CHARACTERS * SWNOdds.ATTRIBUTE_COUNT, attributes, "Every attribute should be counted");
+
+		long rolled = 0;
+		long changed = 0;
+		for (int sum = result.getMinModifierSum(); sum <= result.getMaxModifierSum(); sum++)
+		{
+			rolled += result.getModifierSumCount(sum);
+			changed += result.getChangedModifierSumCount(sum);
+		}
+		assertEquals(CHARACTERS, rolled);
+		assertEquals(CHARACTERS, changed);
+
+		long gains = 0;
+		for (int gain = 0; gain <= result.getMaxChangeGain(); gain++)
+		{
+			gains += result.getChangeGainCount(gain);
+		}
+		assertEquals(CHARACTERS, gains);
+		assertTrue(result.getMeanChangedModifierSum() > result.getMeanModifierSum(), "Changing an attribute should help on average");
+	}
+
+	@Test
+	@DisplayName("Test the same seed gives the same result on any number of threads")
+	void testRepeatable()
+	{
+		SWNRules rules = SWNRules.loadDefault();
+		ForkJoinPool single = new ForkJoinPool(1);
+		ForkJoinPool several = new ForkJoinPool(4);
+		try
+		{
+			SWNSimulationResult first = new SWNSimulator(rules, single).run(CHARACTERS, 7, null);
+			SWNSimulationResult second = new SWNSimulator(rules, several).run(CHARACTERS, 7, null);
+			for (int sum = first.getMinModifierSum(); sum <= first.getMaxModifierSum(); sum++)
+			{
+				assertEquals(first.getModifierSumCount(sum), second.getModifierSumCount(sum), "Total " + sum);
+				assertEquals(first.getChangedModifierSumCount(sum), second.getChangedModifierSumCount(sum), "Total " + sum);
+			}
+		}
+		finally
+		{
+			single.shutdown();
+			several.shutdown();
+		}
+	}
+
+	@Test
+	@DisplayName("Test the simulation agrees with the exact odds")
+	void testMatchesExactOdds()
+	{
+		SWNRules rules = SWNRules.loadBuiltIn("swn_heroic");
+		SWNSimulationResult result = new SWNSimulator(rules).run(CHARACTERS, 3, null);
+		SWNOdds odds = rules.getOdds();
+
+		for (int sum = result.getMinModifierSum(); sum <= result.getMaxModifierSum(); sum++)
+		{
+			double expected = odds.getModifierSumProbability(sum);
+			double actual = (double) result.getModifierSumCount(sum) / CHARACTERS;
+			// five standard errors, so a correct simulation essentially never fails
+			double tolerance = 5 * Math.sqrt(expected * (1 - expected) / CHARACTERS) + 1e-6;
+			assertEquals(expected, actual, tolerance, "Total " + sum);
+		}
+	}
+
+	@Test
+	@DisplayName("Test a changed attribute value above the dice range is counted")
+	void testChangedValueAboveDice()
+	{
+		Properties properties = new Properties();
+		properties.setProperty("id", "low_dice");
+		properties.setProperty("version", "1");
+		properties.setProperty("dice", "2d6");
+		properties.setProperty("changed_attribute_value", "14");
+		for (int value = 2; value <= 13; value++)
+		{
+			properties.setProperty("modifier." + value, "0");
+		}
+		// only the changed value, which 2d6 cannot roll, has a modifier
+		properties.setProperty("modifier.14", "5");
+		SWNRules rules = SWNRules.compile(properties);
+
+		SWNSimulationResult result = new SWNSimulator(rules).run(CHARACTERS, 11, null);
+
+		assertEquals(CHARACTERS, result.getModifierSumCount(0), "Every rolled total should be 0");
+		assertEquals(CHARACTERS, result.getChangedModifierSumCount(5), "Every changed total should be the changed modifier");
+		assertEquals(CHARACTERS, result.getChangeGainCount(5));
+	}
+
+	@Test
+	@DisplayName("Test a run needs at least one character")
+	void testInvalidCount()
+	{
+		SWNSimulator simulator = new SWNSimulator(SWNRules.loadDefault());
+
+		assertThrows(IllegalArgumentException.class, () -> simulator.run(0, 1, null));
+	}
+}
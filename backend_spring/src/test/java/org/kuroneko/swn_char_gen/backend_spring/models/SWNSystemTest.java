@@ -9,6 +9,7 @@
 
 package org.kuroneko.swn_char_gen.backend_spring.models;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.RepeatedTest;
@@ -16,6 +17,8 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.util.Properties;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -23,6 +26,14 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 class SWNSystemTest
 {
+	/**
+	 * Restores the built-in rulesets in case a test published different ones.
+	 */
+	@AfterEach
+	void tearDown()
+	{
+		RulesetRegistry.getInstance().reset();
+	}
 
 	@Test
 	@DisplayName("Test getChangedAttributeValue returns 14")
@@ -162,4 +173,48 @@ class SWNSystemTest
 		assertTrue(middleSum > highSum,
 				   "Middle attribute values (8-13) should be more common than high values (14-18)");
 	}
-}
\ No newline at end of file
+
+	@Test
+	@DisplayName("Test published rules are used by existing SWNSystem instances")
+	void testPublishRules()
+	{
+		// Create the instance before publishing to show it reads the current snapshot
+		SWNSystem system = new SWNSystem();
+
+		Properties properties = new Properties();
+		properties.setProperty("id", SWNRules.DEFAULT_RULESET_ID);
+		properties.setProperty("version", "2");
+		properties.setProperty("dice", "3d6");
+		properties.setProperty("changed_attribute_value", "12");
+		for (int value = 3; value <= 18; value++)
+		{
+			properties.setProperty("modifier." + value, String.valueOf(value / 6));
+		}
+		SWNRules rules = SWNRules.compile(properties);
+		assertTrue(RulesetRegistry.getInstance().publish(rules), "A newer version should be published");
+
+		assertSame(rules, system.getRules(), "getRules should return the published snapshot");
+		assertEquals(12, system.getChangedAttributeValue(), "getChangedAttributeValue should use the new rules");
+		assertEquals(3, system.calculateModifier(18), "calculateModifier should use the new rules");
+	}
+
+	@Test
+	@DisplayName("Test SWNSystem uses the requested ruleset")
+	void testRulesetSelection()
+	{
+		SWNSystem standard = new SWNSystem();
+		SWNSystem heroic = new SWNSystem("swn_heroic");
+
+		assertEquals(SWNRules.DEFAULT_RULESET_ID, standard.getRulesetId(), "Default system should use the standard rules");
+		assertEquals("swn_heroic", heroic.getRulesetId(), "System should use the requested ruleset");
+		assertEquals("4d6kh3", heroic.getRules().getDice().toString(), "Heroic rules should roll 4d6 keep 3");
+		for (int i = 0; i < 100; i++)
+		{
+			int attributeValue = heroic.calculateAttribute();
+			assertTrue(attributeValue >= 3 && attributeValue <= 18,
+					   "calculateAttribute should return a value between 3 and 18");
+		}
+		assertThrows(IllegalArgumentException.class, () -> new SWNSystem("no_such_rules"),
+					 "Unknown rulesets should be rejected");
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the SessionKeyGenerator class.
+ */
+class SessionKeyGeneratorTest
+{
+	@Test
+	@DisplayName("Test keys from many threads are all distinct")
+	void testDistinctAcrossThreads() throws Exception
+	{
+		SessionKeyGenerator generator = new SessionKeyGenerator(4, 1000);
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		try
+		{
+			List<Future<List<SessionKey>>> results = new ArrayList<>();
+			for (int thread = 0; thread < 16; thread++)
+			{
+				results.add(pool.submit(() ->
+				{
+					List<SessionKey> keys = new ArrayList<>();
+					for (int index = 0; index < 5000; index++)
+					{
+						keys.add(generator.next());
+					}
+					return keys;
+				}));
+			}
+			Set<SessionKey> seen = new HashSet<>();
+			for (Future<List<SessionKey>> result : results)
+			{
+				seen.addAll(result.get(60, TimeUnit.SECONDS));
+			}
+			assertEquals(16 * 5000, seen.size(), "No key should be handed out twice");
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	@DisplayName("Test every bit of a key is random")
+	void testBitsBalanced()
+	{
+		SessionKeyGenerator generator = new SessionKeyGenerator(1, 1000);
+		int[] ones = new int[128];
+		int count = 10_000;
+		for (int index = 0; index < count; index++)
+		{
+			SessionKey key = generator.next();
+			for (int bit = 0; bit < 64; bit++)
+			{
+				ones[bit] += (int) (key.getHigh() >>> bit) & 1;
+				ones[64 + bit] += (int) (key.getLow() >>> bit) & 1;
+			}
+		}
+		for (int bit = 0; bit < 128; bit++)
+		{
+			// ten standard deviations either side of half, so a correct generator never fails
+			assertTrue(Math.abs(ones[bit] - count / 2) < 500, "Bit " + bit + " was set " + ones[bit] + " times");
+		}
+	}
+
+	@Test
+	@DisplayName("Test stripes reseed after the interval")
+	void testReseed()
+	{
+		SessionKeyGenerator generator = new SessionKeyGenerator(1, 100);
+		for (int index = 0; index < 1000; index++)
+		{
+			generator.next();
+		}
+
+		assertTrue(generator.getReseedCount() >= 5, "A stripe should reseed every interval");
+		assertThrows(IllegalArgumentException.class, () -> new SessionKeyGenerator(3, 100),
+					 "Stripe counts must be a power of two");
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the SessionKey class.
+ */
+class SessionKeyTest
+{
+	@Test
+	@DisplayName("Test string form parses back to an equal key")
+	void testRoundTrip()
+	{
+		SessionKey key = SessionKey.random();
+		SessionKey parsed = SessionKey.fromString(key.toString());
+
+		assertEquals(36, key.toString().length(), "String form should be in UUID layout");
+		assertEquals(key, parsed, "Parsed key should equal the original");
+		assertEquals(key.hashCode(), parsed.hashCode(), "Equal keys should have equal hash codes");
+		assertEquals(key.getHigh(), parsed.getHigh());
+		assertEquals(key.getLow(), parsed.getLow());
+	}
+
+	@Test
+	@DisplayName("Test keys with different halves are not equal")
+	void testEquality()
+	{
+		assertEquals(new SessionKey(1, 2), new SessionKey(1, 2));
+		assertNotEquals(new SessionKey(1, 2), new SessionKey(2, 1));
+		assertNotEquals(new SessionKey(1, 2), new SessionKey(1, 3));
+		assertNotEquals(SessionKey.random(), SessionKey.random(), "Random keys should differ");
+	}
+
+	@Test
+	@DisplayName("Test invalid strings are rejected")
+	void testFromStringRejectsInvalid()
+	{
+		assertThrows(IllegalArgumentException.class, () -> SessionKey.fromString(null));
+		assertThrows(IllegalArgumentException.class, () -> SessionKey.fromString(""));
+		assertThrows(IllegalArgumentException.class, () -> SessionKey.fromString("1-1-1-1-1"));
+		assertThrows(IllegalArgumentException.class, () -> SessionKey.fromString("zzzzzzzz-zzzz-zzzz-zzzz-zzzzzzzzzzzz"));
+	}
+
+	@Test
+	@DisplayName("Test keys from older session ids are stable")
+	void testOf()
+	{
+		SessionKey key = SessionKey.random();
+
+		assertEquals(key, SessionKey.of(key.toString()), "An id in UUID layout should parse to its key");
+		assertEquals(SessionKey.of("servlet-session"), SessionKey.of("servlet-session"),
+					 "The same id should always give the same key");
+		assertNotEquals(SessionKey.of("servlet-session"), SessionKey.of("other-session"));
+	}
+}
@@ -0,0 +1,268 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.models;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the SessionMap class.
+ */
+class SessionMapTest
+{
+	/**
+	 * Find keys that hash to the same segment and the same first slot, so they share a probe chain.
+	 *
+	 * @param theCount The number of keys to find
+	 * @return The keys
+	 */
+	private static List<SessionKey> collidingKeys(int theCount)
+	{
+		long target = SessionMap.hash(0, 0);
+		List<SessionKey> keys = new ArrayList<>();
+		for (long high = 0; keys.size() < theCount; high++)
+		{
+			long hash = SessionMap.hash(high, 0);
+			// same top bits for the segment, same low bits for the slot in a new segment
+			if ((hash >>> 60) == (target >>> 60) && (hash & 15) == (target & 15))
+			{
+				keys.add(new SessionKey(high, 0));
+			}
+		}
+		return keys;
+	}
+
+	@Test
+	@DisplayName("Test put, get and remove")
+	void testPutGetRemove()
+	{
+		SessionMap<String> map = new SessionMap<>();
+		SessionKey key = SessionKey.random();
+
+		assertNull(map.get(key), "An empty map should have no value");
+		assertNull(map.put(key, "first"), "A new key should have no previous value");
+		assertEquals("first", map.get(key));
+		assertEquals("first", map.put(key, "second"), "Replacing should return the previous value");
+		assertEquals("second", map.get(new SessionKey(key.getHigh(), key.getLow())), "An equal key should find the value");
+		assertEquals(1, map.size());
+		assertEquals("second", map.remove(key));
+		assertNull(map.get(key), "A removed key should have no value");
+		assertNull(map.remove(key), "Removing again should find nothing");
+		assertEquals(0, map.size());
+		assertThrows(IllegalArgumentException.class, () -> map.put(key, null), "Null values should be rejected");
+	}
+
+	@Test
+	@DisplayName("Test computeIfAbsent creates a value only once")
+	void testComputeIfAbsent()
+	{
+		SessionMap<String> map = new SessionMap<>();
+		SessionKey key = SessionKey.random();
+		AtomicInteger created = new AtomicInteger();
+
+		assertEquals("created0", map.computeIfAbsent(key, () -> "created" + created.getAndIncrement()));
+		assertEquals("created0", map.computeIfAbsent(key, () -> "created" + created.getAndIncrement()),
+					 "A present key should keep its value");
+		assertEquals(1, created.get(), "The factory should not run for a present key");
+		assertEquals(1, map.size());
+		assertThrows(IllegalArgumentException.class, () -> map.computeIfAbsent(SessionKey.random(), () -> null),
+					 "A null value should be rejected");
+		assertEquals(1, map.size(), "A rejected value should not be stored");
+	}
+
+	@Test
+	@DisplayName("Test racing computeIfAbsent calls get the same value")
+	void testComputeIfAbsentRace() throws Exception
+	{
+		SessionMap<Object> map = new SessionMap<>();
+		SessionKey key = SessionKey.random();
+		AtomicInteger created = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try
+		{
+			List<Future<Object>> results = new ArrayList<>();
+			for (int thread = 0; thread < 8; thread++)
+			{
+				results.add(pool.submit(() -> map.computeIfAbsent(key, () ->
+				{
+					created.incrementAndGet();
+					return new Object();
+				})));
+			}
+			Object first = results.get(0).get(60, TimeUnit.SECONDS);
+			for (Future<Object> result : results)
+			{
+				assertSame(first, result.get(60, TimeUnit.SECONDS), "Every caller should get the same value");
+			}
+			assertEquals(1, created.get(), "The factory should run once");
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	@DisplayName("Test removal keeps colliding keys reachable")
+	void testRemoveShiftsCollidingKeys()
+	{
+		SessionMap<String> map = new SessionMap<>();
+		List<SessionKey> keys = collidingKeys(4);
+		for (SessionKey key : keys)
+		{
+			map.put(key, key.toString());
+		}
+
+		// removing the head of the chain must move the others back, not cut them off
+		map.remove(keys.get(0));
+		for (SessionKey key : keys.subList(1, keys.size()))
+		{
+			assertEquals(key.toString(), map.get(key), "Keys later in the chain should still be found");
+		}
+		map.remove(keys.get(2));
+		assertEquals(keys.get(1).toString(), map.get(keys.get(1)));
+		assertEquals(keys.get(3).toString(), map.get(keys.get(3)));
+		assertNull(map.get(keys.get(0)));
+		assertNull(map.get(keys.get(2)));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	@DisplayName("Test the map grows and shrinks")
+	void testResize()
+	{
+		SessionMap<Integer> map = new SessionMap<>();
+		List<SessionKey> keys = new ArrayList<>();
+		for (int index = 0; index < 20_000; index++)
+		{
+			SessionKey key = SessionKey.random();
+			keys.add(key);
+			map.put(key, index);
+		}
+
+		assertEquals(20_000, map.size());
+		for (int index = 0; index < keys.size(); index++)
+		{
+			assertEquals(Integer.valueOf(index), map.get(keys.get(index)), "Every key should survive the resizes");
+		}
+		for (int index = 0; index < keys.size(); index += 2)
+		{
+			map.remove(keys.get(index));
+		}
+		assertEquals(10_000, map.size());
+		for (int index = 0; index < keys.size(); index++)
+		{
+			assertEquals(index % 2 == 0 ? null : index, map.get(keys.get(index)));
+		}
+	}
+
+	@Test
+	@DisplayName("Test forEachValue sees every value")
+	void testForEachValue()
+	{
+		SessionMap<Integer> map = new SessionMap<>();
+		for (int index = 0; index < 1000; index++)
+		{
+			map.put(SessionKey.random(), index);
+		}
+
+		Set<Integer> seen = new HashSet<>();
+		map.forEachValue(seen::add);
+		assertEquals(1000, seen.size(), "Every value should be seen once");
+	}
+
+	@Test
+	@DisplayName("Test readers always find stable keys while writers resize")
+	void testConcurrentAccess() throws Exception
+	{
+		SessionMap<SessionKey> map = new SessionMap<>();
+		List<SessionKey> stable = new ArrayList<>();
+		for (int index = 0; index < 1000; index++)
+		{
+			SessionKey key = SessionKey.random();
+			stable.add(key);
+			map.put(key, key);
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(6);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		try
+		{
+			List<Future<Integer>> readers = new ArrayList<>();
+			for (int reader = 0; reader < 2; reader++)
+			{
+				readers.add(pool.submit(() ->
+				{
+					int missed = 0;
+					do
+					{
+						for (SessionKey key : stable)
+						{
+							if (map.get(key) != key)
+							{
+								missed++;
+							}
+						}
+					}
+					while (writing.get());
+					return missed;
+				}));
+			}
+			List<Future<?>> writers = new ArrayList<>();
+			for (int writer = 0; writer < 4; writer++)
+			{
+				writers.add(pool.submit(() ->
+				{
+					List<SessionKey> added = new ArrayList<>();
+					for (int index = 0; index < 20_000; index++)
+					{
+						SessionKey key = SessionKey.random();
+						added.add(key);
+						map.put(key, key);
+					}
+					// remove half again, so removals also run alongside the readers
+					for (int index = 0; index < added.size(); index += 2)
+					{
+						map.remove(added.get(index));
+					}
+				}));
+			}
+			for (Future<?> writer : writers)
+			{
+				writer.get(60, TimeUnit.SECONDS);
+			}
+			writing.set(false);
+			for (Future<Integer> reader : readers)
+			{
+				assertEquals(Integer.valueOf(0), reader.get(60, TimeUnit.SECONDS), "A stable key should never be missed");
+			}
+		}
+		finally
+		{
+			writing.set(false);
+			pool.shutdownNow();
+		}
+		assertEquals(1000 + 4 * 10_000, map.size());
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterChanges;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the CharacterPollService.
+ * <p>
+ * The results are read straight from the DeferredResult, so no server is needed. CharacterService
+ * is mocked for the whole characters sent on a reset.
+ */
+@ExtendWith(MockitoExtension.class)
+public class CharacterPollServiceTest
+{
+	@Mock
+	private CharacterService characterService;
+
+	/**
+	 * Publish a change of the given type.
+	 *
+	 * @param theSession The session key
+	 * @param theType    The type
+	 */
+	private static void publish(SessionKey theSession, String theType)
+	{
+		Map<String, Object> change = new HashMap<>();
+		change.put("type", theType);
+		CharacterChanges.getInstance().publish(theSession, change);
+	}
+
+	/**
+	 * Tests that changes the client has not seen are answered at once.
+	 */
+	@Test
+	@DisplayName("Newer Changes Are Answered At Once")
+	void testNewerChanges()
+	{
+		CharacterPollService service = new CharacterPollService(characterService, 60_000);
+		SessionKey session = SessionKey.random();
+		publish(session, "ROLL_ATTRIBUTES");
+		publish(session, "SET_DETAIL");
+
+		DeferredResult<Map<String, Object>> result = service.poll(session, 1);
+
+		assertTrue(result.hasResult(), "The request should not wait");
+		@SuppressWarnings("unchecked")
+		Map<String, Object> answer = (Map<String, Object>) result.getResult();
+		assertEquals(2L, answer.get("version"));
+		List<?> changes = (List<?>) answer.get("changes");
+		assertEquals(1, changes.size(), "Only the change after the version should be sent");
+		assertEquals("SET_DETAIL", ((Map<?, ?>) changes.get(0)).get("type"));
+	}
+
+	/**
+	 * Tests that a client with every change waits for the next one, and stops listening once answered.
+	 */
+	@Test
+	@DisplayName("Waits For The Next Change")
+	void testWaitsForChange()
+	{
+		CharacterPollService service = new CharacterPollService(characterService, 60_000);
+		SessionKey session = SessionKey.random();
+		publish(session, "ROLL_ATTRIBUTES");
+
+		DeferredResult<Map<String, Object>> result = service.poll(session, 1);
+		assertFalse(result.hasResult(), "The request should wait for a change");
+		assertEquals(1, CharacterChanges.getInstance().getListenerCount(session));
+
+		publish(SessionKey.random(), "ROLL_ATTRIBUTES");
+		assertFalse(result.hasResult(), "Another session's change should not wake the request");
+
+		publish(session, "CHANGE_ATTRIBUTE");
+		assertTrue(result.hasResult(), "The change should wake the request");
+		@SuppressWarnings("unchecked")
+		Map<String, Object> answer = (Map<String, Object>) result.getResult();
+		assertEquals(2L, answer.get("version"));
+		assertEquals(1, ((List<?>) answer.get("changes")).size());
+	}
+
+	/**
+	 * Tests that a version too old to catch up from is answered with the whole character.
+	 */
+	@Test
+	@DisplayName("Old Version Is Reset")
+	void testReset()
+	{
+		CharacterPollService service = new CharacterPollService(characterService, 60_000);
+		SessionKey session = SessionKey.random();
+		Map<String, Object> versioned = new HashMap<>();
+		versioned.put("version", 0L);
+		versioned.put("character", new HashMap<>());
+		when(characterService.getVersionedCharacter(session)).thenReturn(versioned);
+
+		DeferredResult<Map<String, Object>> result = service.poll(session, 7);
+
+		assertTrue(result.hasResult());
+		@SuppressWarnings("unchecked")
+		Map<String, Object> answer = (Map<String, Object>) result.getResult();
+		assertEquals(true, answer.get("reset"), "The client should be told to start again");
+		assertEquals(0L, answer.get("version"));
+		assertNotNull(answer.get("character"));
+	}
+
+	/**
+	 * Tests that a watch is completed by the next change, and that cancelling one stops listening, as
+	 * the reactive controller does on a timeout.
+	 */
+	@Test
+	@DisplayName("Watch Completes On A Change And Stops Listening When Cancelled")
+	void testWatch()
+	{
+		CharacterPollService service = new CharacterPollService(characterService, 60_000);
+		SessionKey session = SessionKey.random();
+		publish(session, "ROLL_ATTRIBUTES");
+
+		CompletableFuture<Map<String, Object>> changed = service.watch(session, 1);
+		CompletableFuture<Map<String, Object>> cancelled = service.watch(session, 1);
+		assertEquals(2, CharacterChanges.getInstance().getListenerCount(session));
+
+		cancelled.cancel(false);
+		assertEquals(1, CharacterChanges.getInstance().getListenerCount(session), "A cancelled watch should stop listening");
+
+		publish(session, "CHANGE_ATTRIBUTE");
+		assertTrue(changed.isDone(), "The change should complete the watch");
+		assertEquals(2L, changed.join().get("version"));
+		assertEquals(0, CharacterChanges.getInstance().getListenerCount(session), "An answered watch should stop listening");
+		assertEquals(Map.of("version", 2L, "changes", List.of()), CharacterPollService.noChanges(2));
+	}
+}
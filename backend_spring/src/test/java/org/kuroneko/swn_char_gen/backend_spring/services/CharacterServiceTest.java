@@ -9,26 +9,29 @@
 
 package org.kuroneko.swn_char_gen.backend_spring.services;
 
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpSession;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.kuroneko.swn_char_gen.backend_spring.models.AttributeEnum;
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterChanges;
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterEvent;
 import org.kuroneko.swn_char_gen.backend_spring.models.CharacterStore;
 import org.kuroneko.swn_char_gen.backend_spring.models.DetailEnum;
+import org.kuroneko.swn_char_gen.backend_spring.models.Party;
 import org.kuroneko.swn_char_gen.backend_spring.models.SWNChar;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
+import org.mockito.stubbing.Answer;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -39,14 +42,12 @@ import static org.mockito.Mockito.*;
  * <p>
  * These tests focus on the service layer, verifying that:
  * - Service methods work correctly in isolation
- * - Session management functions properly
+ * - Each operation works on the session it is given
  * - Character creation, retrieval, and modification work as expected
  * - Error cases are handled appropriately
  * <p>
- * The tests use Mockito to mock dependencies such as:
- * - HttpServletRequest and HttpSession for session management
- * - ServletRequestAttributes for the RequestContextHolder
- * - CharacterStore for character storage
+ * The tests use Mockito to mock CharacterStore for character storage, whose mutate methods are
+ * answered by running the operation on a test character.
  * <p>
  * MockedStatic is used to mock the static getInstance() method of CharacterStore.
  * <p>
@@ -60,67 +61,44 @@ public class CharacterServiceTest
 	@InjectMocks
 	private CharacterService characterService;
 
-	@Mock
-	private HttpServletRequest request;
-
-	@Mock
-	private HttpSession session;
-
-	@Mock
-	private ServletRequestAttributes attributes;
-
 	@Mock
 	private CharacterStore characterStore;
 
 	private static final String TEST_SESSION_ID = "test-session-id";
 
-	@BeforeEach
-	void setUp()
-	{
-		// Mock the RequestContextHolder to return our mocked ServletRequestAttributes
-		RequestContextHolder.setRequestAttributes(attributes);
-
-		// Mock the ServletRequestAttributes to return our mocked HttpServletRequest
-		when(attributes.getRequest()).thenReturn(request);
+	private static final SessionKey SESSION = SessionKey.of(TEST_SESSION_ID);
 
-		// Mock the HttpServletRequest to return our mocked HttpSession
-		when(request.getSession(true)).thenReturn(session);
+	/**
+	 * Answer for the store's mutate methods that runs the operation on a character, as the real store
+	 * does for a session that has one.
+	 *
+	 * @param theCharacter The session's character
+	 * @return The answer
+	 */
+	private static Answer<Object> runOn(SWNChar theCharacter)
+	{
+		return invocation -> invocation.<Function<SWNChar, Object>>getArgument(1).apply(theCharacter);
 	}
 
 	/**
-	 * Tests the getOrCreateSessionId method when a session ID already exists.
+	 * Answer for the store's replace method that runs the operation on the new character.
+	 *
+	 * @return The answer
 	 */
-	@Test
-	@DisplayName("Get Existing Session ID")
-	void testGetExistingSessionId()
+	private static Answer<Object> runOnReplacement()
 	{
-		// Mock the session to return an existing session ID
-		when(session.getAttribute("session_id")).thenReturn(TEST_SESSION_ID);
-
-		// Call the method under test
-		String sessionId = characterService.getOrCreateSessionId();
-
-		// Verify the result
-		assertEquals(TEST_SESSION_ID, sessionId, "Should return the existing session ID");
-		verify(session, never()).setAttribute(eq("session_id"), any());
+		return invocation -> invocation.<Function<SWNChar, Object>>getArgument(2).apply(invocation.getArgument(1));
 	}
 
 	/**
-	 * Tests the getOrCreateSessionId method when a session ID doesn't exist.
+	 * Answer for the store's mutateParty method that runs the operation on a party.
+	 *
+	 * @param theParty The session's party
+	 * @return The answer
 	 */
-	@Test
-	@DisplayName("Create New Session ID")
-	void testCreateNewSessionId()
+	private static Answer<Object> runOnParty(Party theParty)
 	{
-		// Mock the session to return null for the session ID
-		when(session.getAttribute("session_id")).thenReturn(null);
-
-		// Call the method under test
-		String sessionId = characterService.getOrCreateSessionId();
-
-		// Verify the result
-		assertNotNull(sessionId, "Should create a new session ID");
-		verify(session).setAttribute(eq("session_id"), eq(sessionId));
+		return invocation -> invocation.<Function<Party, Object>>getArgument(1).apply(theParty);
 	}
 
 	/**
@@ -148,17 +126,19 @@ public class CharacterServiceTest
 		characterData.put("mChangedAttribute", "NONE");
 		characterData.put("mChangedAttributeOriginalValue", 0);
 
-		// Mock the getOrCreateSessionId method
+		when(characterStore.replace(any(SessionKey.class), any(SWNChar.class), any())).thenAnswer(runOnReplacement());
+
 		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
 		{
 			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
 
 			// Call the method under test
-			Map<String, Object> result = characterService.uploadCharacter(characterData);
+			Map<String, Object> result = characterService.uploadCharacter(SESSION, characterData);
 
 			// Verify the result
 			assertNotNull(result, "Should return character data");
-			verify(characterStore).storeCharacter(anyString(), any(SWNChar.class));
+			assertEquals(1, result.get("mConstitutionModifier"), "Modifiers should come from the rules table");
+			verify(characterStore).replace(any(SessionKey.class), any(SWNChar.class), any());
 		}
 	}
 
@@ -169,17 +149,57 @@ public class CharacterServiceTest
 	@DisplayName("Create New Character")
 	void testCreateNewCharacter()
 	{
-		// Mock the getOrCreateSessionId method
+		when(characterStore.replace(any(SessionKey.class), any(SWNChar.class), any())).thenAnswer(runOnReplacement());
+
 		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
 		{
 			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
 
 			// Call the method under test
-			Map<String, Object> result = characterService.createNewCharacter();
+			Map<String, Object> result = characterService.createNewCharacter(SESSION, null);
 
 			// Verify the result
 			assertNotNull(result, "Should return character data");
-			verify(characterStore).storeCharacter(anyString(), any(SWNChar.class));
+			verify(characterStore).replace(any(SessionKey.class), any(SWNChar.class), any());
+		}
+	}
+
+	/**
+	 * Tests the createNewCharacter method with a ruleset.
+	 */
+	@Test
+	@DisplayName("Create New Character With Ruleset")
+	void testCreateNewCharacterWithRuleset()
+	{
+		when(characterStore.replace(any(SessionKey.class), any(SWNChar.class), any())).thenAnswer(runOnReplacement());
+
+		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
+		{
+			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
+
+			// Call the method under test
+			Map<String, Object> result = characterService.createNewCharacter(SESSION, "swn_heroic");
+
+			// Verify the result
+			assertEquals("swn_heroic", result.get("mRulesetId"), "Character should record its ruleset");
+			verify(characterStore).replace(any(SessionKey.class), any(SWNChar.class), any());
+		}
+	}
+
+	/**
+	 * Tests the createNewCharacter method with an unknown ruleset.
+	 */
+	@Test
+	@DisplayName("Create New Character With Unknown Ruleset")
+	void testCreateNewCharacterWithUnknownRuleset()
+	{
+		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
+		{
+			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
+
+			// Call the method under test and verify it throws an exception
+			assertThrows(IllegalArgumentException.class, () -> characterService.createNewCharacter(SESSION, "no_such_rules"));
+			verify(characterStore, never()).replace(any(SessionKey.class), any(SWNChar.class), any());
 		}
 	}
 
@@ -192,44 +212,66 @@ public class CharacterServiceTest
 	{
 		// Mock the characterStore
 		SWNChar mockChar = new SWNChar();
-		when(characterStore.characterMissing(anyString())).thenReturn(false);
-		when(characterStore.getCharacter(anyString())).thenReturn(mockChar);
+		when(characterStore.mutateOrCreate(any(SessionKey.class), any())).thenAnswer(runOn(mockChar));
 
 		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
 		{
 			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
 
 			// Call the method under test
-			Map<String, Object> result = characterService.getCharacter();
+			Map<String, Object> result = characterService.getCharacter(SESSION);
 
-			// Verify the result
+			// Verify the result, and that the request made one call to the store
 			assertNotNull(result, "Should return character data");
-			verify(characterStore).getCharacter(anyString());
-			verify(characterStore, never()).storeCharacter(anyString(), any(SWNChar.class));
+			verify(characterStore).mutateOrCreate(any(SessionKey.class), any());
+			verifyNoMoreInteractions(characterStore);
 		}
 	}
 
 	/**
-	 * Tests the getCharacter method when a character doesn't exist.
+	 * Tests that each call works on the session it is given.
+	 */
+	@Test
+	@DisplayName("Get Character For Each Session")
+	void testGetCharacterForEachSession()
+	{
+		when(characterStore.mutateOrCreate(any(SessionKey.class), any())).thenAnswer(runOn(new SWNChar()));
+
+		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
+		{
+			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
+
+			// Call the method under test for two sessions
+			assertNotNull(characterService.getCharacter(SessionKey.of("explicit-session-id")), "Should return character data");
+			assertNotNull(characterService.getCharacter(SESSION), "Should return character data");
+
+			// Verify each call used its own session
+			verify(characterStore).mutateOrCreate(eq(SessionKey.of("explicit-session-id")), any());
+			verify(characterStore).mutateOrCreate(eq(SESSION), any());
+		}
+	}
+
+	/**
+	 * Tests the getCharacter method when a character doesn't exist, so the store creates one.
 	 */
 	@Test
 	@DisplayName("Get Non-Existing Character")
 	void testGetNonExistingCharacter()
 	{
-		// Mock the characterStore
-		when(characterStore.characterMissing(anyString())).thenReturn(true);
+		// Mock the characterStore creating a new character
+		when(characterStore.mutateOrCreate(any(SessionKey.class), any())).thenAnswer(runOn(new SWNChar()));
 
 		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
 		{
 			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
 
 			// Call the method under test
-			Map<String, Object> result = characterService.getCharacter();
+			Map<String, Object> result = characterService.getCharacter(SESSION);
 
 			// Verify the result
 			assertNotNull(result, "Should return character data");
-			verify(characterStore, never()).getCharacter(anyString());
-			verify(characterStore).storeCharacter(anyString(), any(SWNChar.class));
+			verify(characterStore, never()).mutate(any(SessionKey.class), any());
+			verify(characterStore, never()).storeCharacter(any(SessionKey.class), any(SWNChar.class));
 		}
 	}
 
@@ -242,8 +284,7 @@ public class CharacterServiceTest
 	{
 		// Mock the characterStore
 		SWNChar mockChar = mock(SWNChar.class);
-		when(characterStore.characterMissing(anyString())).thenReturn(false);
-		when(characterStore.getCharacter(anyString())).thenReturn(mockChar);
+		when(characterStore.mutateOrCreate(any(SessionKey.class), any())).thenAnswer(runOn(mockChar));
 		when(mockChar.toMap()).thenReturn(new HashMap<>());
 
 		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
@@ -251,13 +292,38 @@ public class CharacterServiceTest
 			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
 
 			// Call the method under test
-			Map<String, Object> result = characterService.rollAttributes();
+			Map<String, Object> result = characterService.rollAttributes(SESSION);
 
 			// Verify the result
 			assertNotNull(result, "Should return character data");
 			verify(mockChar).rollAttributes();
-			verify(characterStore).getCharacter(anyString());
-			verify(characterStore, never()).storeCharacter(anyString(), any(SWNChar.class));
+			verify(characterStore).mutateOrCreate(any(SessionKey.class), any());
+			verifyNoMoreInteractions(characterStore);
+		}
+	}
+
+	/**
+	 * Tests the constrained rollAttributes method, where missing constraints mean no limit.
+	 */
+	@Test
+	@DisplayName("Constrained Roll Attributes")
+	void testConstrainedRollAttributes()
+	{
+		// Mock the characterStore
+		SWNChar mockChar = mock(SWNChar.class);
+		when(characterStore.mutateOrCreate(any(SessionKey.class), any())).thenAnswer(runOn(mockChar));
+		when(mockChar.toMap()).thenReturn(new HashMap<>());
+
+		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
+		{
+			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
+
+			// Call the method under test
+			Map<String, Object> result = characterService.rollAttributes(SESSION, null, 14);
+
+			// Verify the result
+			assertNotNull(result, "Should return character data");
+			verify(mockChar).rollAttributes(Integer.MIN_VALUE, 14);
 		}
 	}
 
@@ -270,8 +336,7 @@ public class CharacterServiceTest
 	{
 		// Mock the characterStore
 		SWNChar mockChar = mock(SWNChar.class);
-		when(characterStore.characterMissing(anyString())).thenReturn(false);
-		when(characterStore.getCharacter(anyString())).thenReturn(mockChar);
+		when(characterStore.mutate(any(SessionKey.class), any())).thenAnswer(runOn(mockChar));
 		when(mockChar.toMap()).thenReturn(new HashMap<>());
 
 		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
@@ -279,7 +344,7 @@ public class CharacterServiceTest
 			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
 
 			// Call the method under test
-			Map<String, Object> result = characterService.changeAttribute("strength");
+			Map<String, Object> result = characterService.changeAttribute(SESSION, "strength");
 
 			// Verify the result
 			assertNotNull(result, "Should return character data");
@@ -293,16 +358,137 @@ public class CharacterServiceTest
 	@Test
 	@DisplayName("Change Attribute with No Character")
 	void testChangeAttributeWithNoCharacter()
+	{
+		// Mock the characterStore finding no character
+		when(characterStore.mutate(any(SessionKey.class), any())).thenThrow(new IllegalArgumentException("No character found"));
+
+		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
+		{
+			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
+
+			// Call the method under test and verify it throws an exception
+			assertThrows(IllegalArgumentException.class, () -> characterService.changeAttribute(SESSION, "strength"));
+		}
+	}
+
+	/**
+	 * Tests the getOdds method.
+	 */
+	@Test
+	@DisplayName("Get Odds")
+	void testGetOdds()
 	{
 		// Mock the characterStore
-		when(characterStore.characterMissing(anyString())).thenReturn(true);
+		SWNChar mockChar = mock(SWNChar.class);
+		Map<String, Object> odds = new HashMap<>();
+		odds.put("modifierSum", 0);
+		when(characterStore.mutate(any(SessionKey.class), any())).thenAnswer(runOn(mockChar));
+		when(mockChar.calculateOdds()).thenReturn(odds);
+
+		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
+		{
+			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
+
+			// Call the method under test
+			Map<String, Object> result = characterService.getOdds(SESSION);
+
+			// Verify the result
+			assertEquals(odds, result, "Should return the character odds");
+			verify(mockChar).calculateOdds();
+		}
+	}
+
+	/**
+	 * Tests the getOdds method when no character is found.
+	 */
+	@Test
+	@DisplayName("Get Odds with No Character")
+	void testGetOddsWithNoCharacter()
+	{
+		// Mock the characterStore finding no character
+		when(characterStore.mutate(any(SessionKey.class), any())).thenThrow(new IllegalArgumentException("No character found"));
 
 		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
 		{
 			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
 
 			// Call the method under test and verify it throws an exception
-			assertThrows(IllegalArgumentException.class, () -> characterService.changeAttribute("strength"));
+			assertThrows(IllegalArgumentException.class, () -> characterService.getOdds(SESSION));
+		}
+	}
+
+	/**
+	 * Tests the undo and redo methods.
+	 */
+	@Test
+	@DisplayName("Undo and Redo")
+	void testUndoRedo()
+	{
+		// Mock the characterStore
+		SWNChar mockChar = mock(SWNChar.class);
+		when(characterStore.mutate(any(SessionKey.class), any())).thenAnswer(runOn(mockChar));
+		when(mockChar.toMap()).thenReturn(new HashMap<>());
+
+		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
+		{
+			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
+
+			// Call the methods under test
+			assertNotNull(characterService.undo(SESSION), "Should return character data");
+			assertNotNull(characterService.redo(SESSION), "Should return character data");
+
+			// Verify the character was changed
+			verify(mockChar).undo();
+			verify(mockChar).redo();
+		}
+	}
+
+	/**
+	 * Tests the undo method when no character is found.
+	 */
+	@Test
+	@DisplayName("Undo with No Character")
+	void testUndoWithNoCharacter()
+	{
+		// Mock the characterStore finding no character
+		when(characterStore.mutate(any(SessionKey.class), any())).thenThrow(new IllegalArgumentException("No character found"));
+
+		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
+		{
+			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
+
+			// Call the method under test and verify it throws an exception
+			assertThrows(IllegalArgumentException.class, () -> characterService.undo(SESSION));
+		}
+	}
+
+	/**
+	 * Tests the getEvents method.
+	 */
+	@Test
+	@DisplayName("Get Events")
+	void testGetEvents()
+	{
+		// Mock the characterStore
+		SWNChar mockChar = mock(SWNChar.class);
+		when(characterStore.mutate(any(SessionKey.class), any())).thenAnswer(runOn(mockChar));
+		when(mockChar.getEvents()).thenReturn(List.of(CharacterEvent.rollAttributes(new int[]{3, 4, 5, 6, 7, 8}),
+													  CharacterEvent.changeAttribute(AttributeEnum.DEXTERITY, 14)));
+
+		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
+		{
+			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
+
+			// Call the method under test
+			List<Map<String, Object>> result = characterService.getEvents(SESSION);
+
+			// Verify the result
+			assertEquals(2, result.size(), "Should return every event");
+			assertEquals("ROLL_ATTRIBUTES", result.get(0).get("type"));
+			assertEquals(3, ((Map<?, ?>) result.get(0).get("values")).get("STRENGTH"));
+			assertEquals("CHANGE_ATTRIBUTE", result.get(1).get("type"));
+			assertEquals("DEXTERITY", result.get(1).get("attribute"));
+			assertEquals(14, result.get(1).get("value"));
 		}
 	}
 
@@ -315,8 +501,7 @@ public class CharacterServiceTest
 	{
 		// Mock the characterStore
 		SWNChar mockChar = mock(SWNChar.class);
-		when(characterStore.characterMissing(anyString())).thenReturn(false);
-		when(characterStore.getCharacter(anyString())).thenReturn(mockChar);
+		when(characterStore.mutate(any(SessionKey.class), any())).thenAnswer(runOn(mockChar));
 		when(mockChar.toMap()).thenReturn(new HashMap<>());
 
 		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
@@ -324,7 +509,7 @@ public class CharacterServiceTest
 			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
 
 			// Call the method under test
-			Map<String, Object> result = characterService.setDetail("name", "Test Character");
+			Map<String, Object> result = characterService.setDetail(SESSION, "name", "Test Character");
 
 			// Verify the result
 			assertNotNull(result, "Should return character data");
@@ -339,15 +524,209 @@ public class CharacterServiceTest
 	@DisplayName("Set Detail with No Character")
 	void testSetDetailWithNoCharacter()
 	{
-		// Mock the characterStore
-		when(characterStore.characterMissing(anyString())).thenReturn(true);
+		// Mock the characterStore finding no character
+		when(characterStore.mutate(any(SessionKey.class), any())).thenThrow(new IllegalArgumentException("No character found"));
 
 		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
 		{
 			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
 
 			// Call the method under test and verify it throws an exception
-			assertThrows(IllegalArgumentException.class, () -> characterService.setDetail("name", "Test Character"));
+			assertThrows(IllegalArgumentException.class, () -> characterService.setDetail(SESSION, "name", "Test Character"));
+		}
+	}
+
+	/**
+	 * Tests creating a party character and reaching it by its id.
+	 */
+	@Test
+	@DisplayName("Create And Get Party Character")
+	void testCreatePartyCharacter()
+	{
+		Party party = new Party();
+		when(characterStore.mutateParty(any(SessionKey.class), any())).thenAnswer(runOnParty(party));
+
+		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
+		{
+			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
+			SessionKey key = SessionKey.of(TEST_SESSION_ID);
+
+			// Call the method under test
+			Map<String, Object> created = characterService.createPartyCharacter(key, "swn_heroic");
+
+			// Verify the result
+			int id = (Integer) created.get("id");
+			assertEquals(1, party.size(), "The character should join the party");
+			assertEquals("swn_heroic", party.get(id).getRulesetId());
+			assertEquals(party.get(id).toMap(), characterService.getPartyCharacter(key, id));
+			assertThrows(IllegalArgumentException.class, () -> characterService.getPartyCharacter(key, id + 1),
+						 "An unknown id should be rejected");
+		}
+	}
+
+	/**
+	 * Tests that listing the party pages through its characters.
+	 */
+	@Test
+	@DisplayName("List Party Characters")
+	void testListPartyCharacters()
+	{
+		Party party = new Party();
+		for (int index = 0; index < 3; index++)
+		{
+			SWNChar character = new SWNChar();
+			character.setDetail(DetailEnum.NAME, "Character " + index);
+			party.add(character);
+		}
+		when(characterStore.mutateParty(any(SessionKey.class), any())).thenAnswer(runOnParty(party));
+
+		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
+		{
+			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
+			SessionKey key = SessionKey.of(TEST_SESSION_ID);
+
+			// Call the method under test
+			Map<String, Object> first = characterService.listPartyCharacters(key, 0, 2);
+			List<?> firstCharacters = (List<?>) first.get("characters");
+			Map<String, Object> second = characterService.listPartyCharacters(key, (Integer) first.get("next"), 2);
+
+			// Verify the result
+			assertEquals(2, firstCharacters.size());
+			assertEquals("Character 0", ((Map<?, ?>) firstCharacters.get(0)).get("name"));
+			assertEquals(3, first.get("count"));
+			assertEquals(1, ((List<?>) second.get("characters")).size());
+			assertEquals("Character 2", ((Map<?, ?>) ((List<?>) second.get("characters")).get(0)).get("name"));
+			assertNull(second.get("next"), "The last page should have no next cursor");
+		}
+	}
+
+	/**
+	 * Tests that listing the party rejects a limit out of range.
+	 */
+	@Test
+	@DisplayName("List Party Characters With Invalid Limit")
+	void testListPartyCharactersWithInvalidLimit()
+	{
+		SessionKey key = SessionKey.of(TEST_SESSION_ID);
+
+		assertThrows(IllegalArgumentException.class, () -> characterService.listPartyCharacters(key, 0, 0));
+		assertThrows(IllegalArgumentException.class,
+					 () -> characterService.listPartyCharacters(key, 0, CharacterService.MAX_PAGE_SIZE + 1));
+	}
+
+	/**
+	 * Tests changing and removing a party character.
+	 */
+	@Test
+	@DisplayName("Change And Remove Party Character")
+	void testChangeAndRemovePartyCharacter()
+	{
+		Party party = new Party();
+		SWNChar mockChar = mock(SWNChar.class);
+		int id = party.add(mockChar);
+		when(characterStore.mutateParty(any(SessionKey.class), any())).thenAnswer(runOnParty(party));
+		when(mockChar.toMap()).thenReturn(new HashMap<>());
+
+		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
+		{
+			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
+			SessionKey key = SessionKey.of(TEST_SESSION_ID);
+
+			// Call the methods under test
+			assertNotNull(characterService.changePartyAttribute(key, id, "strength"));
+			assertNotNull(characterService.setPartyDetail(key, id, "name", "Test Character"));
+			characterService.removePartyCharacter(key, id);
+
+			// Verify the result
+			verify(mockChar).changeOneAttribute(AttributeEnum.STRENGTH);
+			verify(mockChar).setDetail(DetailEnum.NAME, "Test Character");
+			verify(mockChar).releaseHistory();
+			assertEquals(0, party.size(), "The character should leave the party");
+			assertThrows(IllegalArgumentException.class, () -> characterService.removePartyCharacter(key, id),
+						 "A removed character should not be removed again");
+		}
+	}
+
+	/**
+	 * Tests that a batch get reaches the party once and reports the ids it did not find.
+	 */
+	@Test
+	@DisplayName("Batch Get Party Characters")
+	void testBatchGetPartyCharacters()
+	{
+		Party party = new Party();
+		SWNChar first = new SWNChar();
+		SWNChar second = new SWNChar();
+		int firstId = party.add(first);
+		int secondId = party.add(second);
+		when(characterStore.mutateParty(any(SessionKey.class), any())).thenAnswer(runOnParty(party));
+
+		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
+		{
+			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
+
+			// Call the method under test
+			Map<String, Object> result = characterService.batchGetPartyCharacters(SessionKey.of(TEST_SESSION_ID),
+																				  List.of(secondId, 99, firstId));
+
+			// Verify the result
+			List<?> characters = (List<?>) result.get("characters");
+			assertEquals(2, characters.size());
+			assertEquals(secondId, ((Map<?, ?>) characters.get(0)).get("id"), "Characters should be in the order asked for");
+			assertEquals(first.toMap(), ((Map<?, ?>) characters.get(1)).get("character"));
+			assertEquals(List.of(99), result.get("missing"));
+			verify(characterStore, times(1)).mutateParty(any(SessionKey.class), any());
+		}
+	}
+
+	/**
+	 * Tests that a batch get needs at least one id and at most a party's worth.
+	 */
+	@Test
+	@DisplayName("Batch Get Party Characters With Invalid Ids")
+	void testBatchGetPartyCharactersWithInvalidIds()
+	{
+		SessionKey key = SessionKey.of(TEST_SESSION_ID);
+		List<Integer> tooMany = Collections.nCopies(CharacterService.MAX_BATCH_SIZE + 1, 1);
+
+		assertThrows(IllegalArgumentException.class, () -> characterService.batchGetPartyCharacters(key, List.of()));
+		assertThrows(IllegalArgumentException.class, () -> characterService.batchGetPartyCharacters(key, tooMany));
+	}
+
+	/**
+	 * Tests that changes to the character are published to its followers, with their versions.
+	 */
+	@Test
+	@DisplayName("Changes Are Published")
+	void testChangesArePublished()
+	{
+		SWNChar character = new SWNChar();
+		when(characterStore.mutateOrCreate(any(SessionKey.class), any())).thenAnswer(runOn(character));
+		when(characterStore.mutate(any(SessionKey.class), any())).thenAnswer(runOn(character));
+
+		try (MockedStatic<CharacterStore> mockedStatic = mockStatic(CharacterStore.class))
+		{
+			mockedStatic.when(CharacterStore::getInstance).thenReturn(characterStore);
+			SessionKey key = SessionKey.random();
+
+			// Call the methods under test
+			Map<String, Object> start = characterService.getVersionedCharacter(key);
+			characterService.rollAttributes(key);
+			characterService.changeAttribute(key, "strength");
+			characterService.undo(key);
+
+			// Verify the result
+			assertEquals(0L, start.get("version"), "A new character should start at version 0");
+			assertNotNull(start.get("character"));
+			List<Map<String, Object>> changes = CharacterChanges.getInstance().since(key, 0);
+			assertEquals(3, changes.size());
+			assertEquals("ROLL_ATTRIBUTES", changes.get(0).get("type"));
+			assertNotNull(changes.get(0).get("values"), "A roll should carry the rolled values");
+			assertEquals("CHANGE_ATTRIBUTE", changes.get(1).get("type"));
+			assertEquals("STRENGTH", changes.get(1).get("attribute"));
+			assertEquals("UNDO", changes.get(2).get("type"));
+			assertEquals(character.toMap(), changes.get(2).get("character"), "An undo should carry the whole character");
+			assertEquals(3L, characterService.getVersionedCharacter(key).get("version"));
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the CharacterShareService class, with the real CharacterStore and a fresh session for
+ * each player so the tests do not share characters.
+ */
+class CharacterShareServiceTest
+{
+	private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+	private static final long TTL = 60_000;
+
+	private final CharacterService characterService = new CharacterService();
+	private final AtomicLong now = new AtomicLong(1_000_000);
+	private final CharacterShareService shareService =
+			new CharacterShareService(characterService, new SessionTokens(SECRET), TTL, now::get);
+
+	@Test
+	@DisplayName("Test a GM reads players' characters through their share tokens")
+	void testBatchGetSharedCharacters()
+	{
+		SessionKey gm = SessionKey.random();
+		SessionKey player = SessionKey.random();
+		SessionKey other = SessionKey.random();
+		String playerName = (String) characterService.createNewCharacter(player, null).get("mName");
+		characterService.createNewCharacter(other, null);
+		int partyId = (Integer) characterService.createPartyCharacter(other, null).get("id");
+		int gmId = (Integer) characterService.createPartyCharacter(gm, null).get("id");
+
+		String playerToken = (String) shareService.share(player, CharacterShareService.OWN_CHARACTER).get("token");
+		String partyToken = (String) shareService.share(other, partyId).get("token");
+		Map<String, Object> result = shareService.batchGet(gm, List.of(gmId), List.of(playerToken, partyToken));
+
+		assertEquals(1, ((List<?>) result.get("characters")).size(), "The GM's own party character should be found");
+		List<?> shared = (List<?>) result.get("shared");
+		assertEquals(2, shared.size(), "Both shared characters should be found");
+		Map<?, ?> first = (Map<?, ?>) shared.get(0);
+		assertEquals(playerToken, first.get("token"));
+		assertEquals(0, first.get("id"));
+		assertEquals(playerName, ((Map<?, ?>) first.get("character")).get("mName"));
+		assertEquals(partyId, ((Map<?, ?>) shared.get(1)).get("id"));
+		assertEquals(List.of(), result.get("invalid"));
+	}
+
+	@Test
+	@DisplayName("Test revoked, removed and forged share tokens are not honored")
+	void testInvalidTokens()
+	{
+		SessionKey gm = SessionKey.random();
+		SessionKey player = SessionKey.random();
+		characterService.createNewCharacter(player, null);
+		int partyId = (Integer) characterService.createPartyCharacter(player, null).get("id");
+		String ownToken = (String) shareService.share(player, CharacterShareService.OWN_CHARACTER).get("token");
+		String partyToken = (String) shareService.share(player, partyId).get("token");
+		String forged = new CharacterShareService(characterService, new SessionTokens(""), TTL)
+				.share(player, CharacterShareService.OWN_CHARACTER).get("token").toString();
+
+		characterService.removePartyCharacter(player, partyId);
+		Map<String, Object> result = shareService.batchGet(gm, null, List.of(ownToken, partyToken, forged, "junk"));
+		assertEquals(1, ((List<?>) result.get("shared")).size(), "Only the own character token should still be honored");
+		assertEquals(List.of(partyToken, forged, "junk"), result.get("invalid"));
+		assertEquals(List.of(), result.get("characters"), "No party ids were asked for");
+
+		shareService.revoke(player);
+		result = shareService.batchGet(gm, null, List.of(ownToken));
+		assertEquals(List.of(ownToken), result.get("invalid"), "A revoked token should not be honored");
+		String newToken = (String) shareService.share(player, CharacterShareService.OWN_CHARACTER).get("token");
+		result = shareService.batchGet(gm, null, List.of(newToken));
+		assertEquals(1, ((List<?>) result.get("shared")).size(), "A token made after the revoke should be honored");
+	}
+
+	@Test
+	@DisplayName("Test a share token stops at its expiry and when the shared character is replaced")
+	void testExpiredAndReplacedTokens()
+	{
+		SessionKey gm = SessionKey.random();
+		SessionKey player = SessionKey.random();
+		characterService.createNewCharacter(player, null);
+		Map<String, Object> share = shareService.share(player, CharacterShareService.OWN_CHARACTER);
+		String token = (String) share.get("token");
+		assertEquals(now.get() + TTL, share.get("expires"));
+
+		now.addAndGet(TTL - 1);
+		assertEquals(1, ((List<?>) shareService.batchGet(gm, null, List.of(token)).get("shared")).size(),
+					 "A token should be honored until it expires");
+		now.addAndGet(1);
+		assertEquals(List.of(token), shareService.batchGet(gm, null, List.of(token)).get("invalid"),
+					 "An expired token should not be honored");
+
+		String replacedToken = (String) shareService.share(player, CharacterShareService.OWN_CHARACTER).get("token");
+		characterService.createNewCharacter(player, null);
+		String newToken = (String) shareService.share(player, CharacterShareService.OWN_CHARACTER).get("token");
+		Map<String, Object> result = shareService.batchGet(gm, null, List.of(replacedToken, newToken));
+		assertEquals(List.of(replacedToken), result.get("invalid"),
+					 "A token should not follow the session to a new character");
+		assertEquals(1, ((List<?>) result.get("shared")).size(), "A token for the new character should be honored");
+	}
+
+	@Test
+	@DisplayName("Test many tokens of one owner are read in one batch")
+	void testTokensGroupedByOwner()
+	{
+		SessionKey gm = SessionKey.random();
+		SessionKey player = SessionKey.random();
+		SessionKey other = SessionKey.random();
+		characterService.createNewCharacter(player, null);
+		characterService.createNewCharacter(other, null);
+		int firstId = (Integer) characterService.createPartyCharacter(player, null).get("id");
+		int secondId = (Integer) characterService.createPartyCharacter(player, null).get("id");
+		String first = (String) shareService.share(player, firstId).get("token");
+		String own = (String) shareService.share(other, CharacterShareService.OWN_CHARACTER).get("token");
+		String second = (String) shareService.share(player, secondId).get("token");
+
+		Map<String, Object> result = shareService.batchGet(gm, null, List.of(first, own, second, first));
+		List<?> shared = (List<?>) result.get("shared");
+		assertEquals(4, shared.size(), "Every token should be answered, repeats included");
+		assertEquals(List.of(first, own, second, first), shared.stream().map(entry -> ((Map<?, ?>) entry).get("token")).toList(),
+					 "Answers should keep the order asked for across owners");
+		assertEquals(secondId, ((Map<?, ?>) shared.get(2)).get("id"));
+	}
+
+	@Test
+	@DisplayName("Test sharing a missing character and oversized batches are rejected")
+	void testRejectsInvalidRequests()
+	{
+		SessionKey session = SessionKey.random();
+		List<String> tooMany = Collections.nCopies(CharacterShareService.MAX_TOKENS + 1, "token");
+
+		assertThrows(IllegalArgumentException.class, () -> shareService.share(session, CharacterShareService.OWN_CHARACTER),
+					 "A session without a character has nothing to share");
+		assertThrows(IllegalArgumentException.class, () -> shareService.share(session, 1));
+		assertThrows(IllegalArgumentException.class, () -> shareService.batchGet(session, null, null));
+		assertThrows(IllegalArgumentException.class, () -> shareService.batchGet(session, List.of(), tooMany));
+		assertThrows(IllegalArgumentException.class, () -> CharacterShareService.toIds(List.of("1")));
+		assertThrows(IllegalArgumentException.class, () -> CharacterShareService.toTokens(List.of(1)));
+	}
+}
@@ -0,0 +1,44 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterStore;
+import org.kuroneko.swn_char_gen.backend_spring.models.SWNChar;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the EventLogCompactor class.
+ * <p>
+ * The compaction is called directly rather than waiting on the scheduler.
+ */
+class EventLogCompactorTest
+{
+	private static final SessionKey TEST_SESSION_ID = SessionKey.of("event-log-compactor-test");
+
+	@Test
+	@DisplayName("Test changes past the retention age are compacted")
+	void testCompactOldChanges()
+	{
+		SWNChar character = new SWNChar();
+		character.rollAttributes();
+		CharacterStore.getInstance().storeCharacter(TEST_SESSION_ID, character);
+
+		new EventLogCompactor(Long.MAX_VALUE / 2).compact();
+		assertTrue(character.canUndo(), "Recent changes should be kept");
+
+		new EventLogCompactor(-1000).compact();
+		assertFalse(character.canUndo(), "Changes past the retention age should be compacted");
+		assertTrue(character.getEvents().isEmpty());
+	}
+}
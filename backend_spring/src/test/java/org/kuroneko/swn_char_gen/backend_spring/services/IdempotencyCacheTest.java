@@ -0,0 +1,282 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the IdempotencyCache class.
+ * <p>
+ * A fake clock is used for the expiry tests, so they do not wait.
+ */
+class IdempotencyCacheTest
+{
+	private final SessionKey session = SessionKey.random();
+	private final AtomicLong now = new AtomicLong();
+	private final AtomicInteger runs = new AtomicInteger();
+
+	/**
+	 * An operation that counts its runs and answers with the run number.
+	 *
+	 * @return The operation
+	 */
+	private Supplier<ResponseEntity<?>> counting()
+	{
+		return () -> ResponseEntity.ok(Map.of("run", runs.incrementAndGet()));
+	}
+
+	/**
+	 * Get a response's body as text.
+	 *
+	 * @param theResponse The response, with a JSON body
+	 * @return The body
+	 */
+	private static String body(ResponseEntity<?> theResponse)
+	{
+		return new String((byte[]) theResponse.getBody(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	@DisplayName("Test a key runs the operation once and replays its response")
+	void testReplay()
+	{
+		IdempotencyCache cache = new IdempotencyCache(10, 60_000, 5_000, now::get);
+
+		ResponseEntity<?> first = cache.execute(session, "key-1", "POST", "/api/undo", null, counting());
+		ResponseEntity<?> retry = cache.execute(session, "key-1", "POST", "/api/undo", null, counting());
+
+		assertEquals(1, runs.get(), "The retry should not run the operation");
+		assertEquals("{\"run\":1}", body(first));
+		assertEquals(body(first), body(retry), "The retry should get the same response");
+		assertEquals(200, retry.getStatusCode().value());
+		assertNull(first.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER));
+		assertEquals("true", retry.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER));
+	}
+
+	@Test
+	@DisplayName("Test keys belong to their session, and requests without one always run")
+	void testKeysAreSeparate()
+	{
+		IdempotencyCache cache = new IdempotencyCache(10, 60_000, 5_000, now::get);
+
+		cache.execute(session, "key-1", "POST", "/api/undo", null, counting());
+		cache.execute(SessionKey.random(), "key-1", "POST", "/api/undo", null, counting());
+		cache.execute(session, "key-2", "POST", "/api/undo", null, counting());
+		cache.execute(session, null, "POST", "/api/undo", null, counting());
+		cache.execute(session, null, "POST", "/api/undo", null, counting());
+
+		assertEquals(5, runs.get());
+		assertEquals(3, cache.size(), "Requests without a key should not be kept");
+	}
+
+	@Test
+	@DisplayName("Test responses expire and the oldest are dropped when full")
+	void testEviction()
+	{
+		IdempotencyCache cache = new IdempotencyCache(2, 1_000, 5_000, now::get);
+
+		cache.execute(session, "key-1", "POST", "/api/undo", null, counting());
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_000));
+		cache.execute(session, "key-1", "POST", "/api/undo", null, counting());
+		assertEquals(2, runs.get(), "An expired key should run again");
+
+		cache.execute(session, "key-2", "POST", "/api/undo", null, counting());
+		cache.execute(session, "key-3", "POST", "/api/undo", null, counting());
+		assertEquals(2, cache.size(), "The cache should not grow past its size");
+		cache.execute(session, "key-1", "POST", "/api/undo", null, counting());
+		assertEquals(5, runs.get(), "The oldest key should have been dropped");
+		cache.execute(session, "key-3", "POST", "/api/undo", null, counting());
+		assertEquals(5, runs.get(), "A recent key should still be kept");
+	}
+
+	@Test
+	@DisplayName("Test server errors and exceptions are not kept")
+	void testFailuresAreNotKept()
+	{
+		IdempotencyCache cache = new IdempotencyCache(10, 60_000, 5_000, now::get);
+
+		ResponseEntity<?> failed = cache.execute(session, "key-1", "POST", "/api/undo", null, () ->
+		{
+			runs.incrementAndGet();
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of());
+		});
+		assertEquals(503, failed.getStatusCode().value());
+		cache.execute(session, "key-1", "POST", "/api/undo", null, counting());
+		assertEquals(2, runs.get(), "A retry after a server error should run again");
+
+		assertThrows(IllegalStateException.class, () -> cache.execute(session, "key-2", "POST", "/api/undo", null, () ->
+		{
+			throw new IllegalStateException("failed");
+		}));
+		cache.execute(session, "key-2", "POST", "/api/undo", null, counting());
+		assertEquals(3, runs.get(), "A retry after an exception should run again");
+	}
+
+	@Test
+	@DisplayName("Test bad requests are kept")
+	void testBadRequestsAreKept()
+	{
+		IdempotencyCache cache = new IdempotencyCache(10, 60_000, 5_000, now::get);
+
+		cache.execute(session, "key-1", "POST", "/api/undo", null, () ->
+		{
+			runs.incrementAndGet();
+			return ResponseEntity.badRequest().body(Map.of("error", "invalid"));
+		});
+		ResponseEntity<?> retry = cache.execute(session, "key-1", "POST", "/api/undo", null, counting());
+
+		assertEquals(1, runs.get());
+		assertEquals(400, retry.getStatusCode().value());
+		assertEquals("{\"error\":\"invalid\"}", body(retry));
+	}
+
+	@Test
+	@DisplayName("Test invalid keys are rejected")
+	void testInvalidKeys()
+	{
+		IdempotencyCache cache = new IdempotencyCache(10, 60_000, 5_000, now::get);
+
+		assertEquals(400, cache.execute(session, "", "POST", "/api/undo", null, counting()).getStatusCode().value());
+		assertEquals(400, cache.execute(session, "k".repeat(IdempotencyCache.MAX_KEY_LENGTH + 1), "POST", "/api/undo", null, counting())
+				.getStatusCode().value());
+		assertEquals(0, runs.get());
+		assertThrows(IllegalArgumentException.class, () -> new IdempotencyCache(0, 60_000, 5_000));
+	}
+
+	@Test
+	@DisplayName("Test a retry during the first request waits for its response")
+	void testRetryWhileRunning() throws Exception
+	{
+		IdempotencyCache cache = new IdempotencyCache(10, 60_000, 5_000, now::get);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() -> cache.execute(session, "key-1", "POST", "/api/undo", null, () ->
+		{
+			started.countDown();
+			try
+			{
+				release.await();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			return counting().get();
+		}));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		CompletableFuture<ResponseEntity<?>> retry = CompletableFuture.supplyAsync(() -> cache.execute(session, "key-1", "POST", "/api/undo", null, counting()));
+		Thread.sleep(50);
+		assertFalse(retry.isDone(), "The retry should wait for the first request");
+
+		release.countDown();
+		assertEquals(body(first.get(5, TimeUnit.SECONDS)), body(retry.get(5, TimeUnit.SECONDS)));
+		assertEquals(1, runs.get(), "The operation should run once");
+	}
+
+	@Test
+	@DisplayName("Test a retry that outwaits the first request is answered with a conflict")
+	void testRetryTimesOut() throws Exception
+	{
+		IdempotencyCache cache = new IdempotencyCache(10, 60_000, 50, now::get);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() -> cache.execute(session, "key-1", "POST", "/api/undo", null, () ->
+		{
+			started.countDown();
+			try
+			{
+				release.await();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			return counting().get();
+		}));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		ResponseEntity<?> retry = cache.execute(session, "key-1", "POST", "/api/undo", null, counting());
+		assertEquals(409, retry.getStatusCode().value(), "A retry should not wait on the first request for ever");
+
+		release.countDown();
+		assertEquals(200, first.get(5, TimeUnit.SECONDS).getStatusCode().value());
+		assertEquals(1, runs.get(), "The retry should not run the operation");
+		assertEquals("true", cache.execute(session, "key-1", "POST", "/api/undo", null, counting()).getHeaders()
+				.getFirst(IdempotencyCache.REPLAYED_HEADER), "A later retry should get the response");
+	}
+
+	@Test
+	@DisplayName("Test many sessions share the size limit")
+	void testSizeAcrossSessions()
+	{
+		IdempotencyCache cache = new IdempotencyCache(8, 60_000, 5_000, now::get);
+
+		for (int i = 0; i < 100; i++)
+		{
+			cache.execute(SessionKey.random(), "key-1", "POST", "/api/undo", null, counting());
+			cache.execute(session, "key-" + i, "POST", "/api/undo", null, counting());
+		}
+		assertEquals(8, cache.size(), "The cache should not grow past its size");
+		cache.execute(session, "key-99", "POST", "/api/undo", null, counting());
+		assertEquals(200, runs.get(), "The newest key should still be kept");
+	}
+
+	@Test
+	@DisplayName("Test a key reused for a different request is refused")
+	void testFingerprintMismatch() throws Exception
+	{
+		IdempotencyCache cache = new IdempotencyCache(10, 60_000, 5_000, now::get);
+		Map<String, String> body = new LinkedHashMap<>();
+		body.put("detail", "name");
+		body.put("value", "Vela");
+		Map<String, String> reordered = new LinkedHashMap<>();
+		reordered.put("value", "Vela");
+		reordered.put("detail", "name");
+
+		ResponseEntity<?> first = cache.execute(session, "key-1", "POST", "/api/set-detail", body, counting());
+		ResponseEntity<?> retry = cache.execute(session, "key-1", "POST", "/api/set-detail", reordered, counting());
+		ResponseEntity<?> changed = cache.execute(session, "key-1", "POST", "/api/set-detail", Map.of("detail", "name", "value", "Other"), counting());
+		ResponseEntity<?> moved = cache.execute(session, "key-1", "POST", "/api/characters/1/set-detail", body, counting());
+
+		assertEquals(1, runs.get(), "Only the first request should run");
+		assertEquals(body(first), body(retry), "The same body in another order should be a retry");
+		assertEquals(422, changed.getStatusCode().value(), "Another body should be refused");
+		assertEquals(422, moved.getStatusCode().value(), "Another path should be refused");
+		assertNull(changed.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER), "A refusal is not a replay");
+
+		byte[] upload = "{\"mName\":\"Vela\"}".getBytes(StandardCharsets.UTF_8);
+		InputStreamSource file = () -> new ByteArrayInputStream(upload);
+		assertEquals(cache.fingerprint("POST", "/api/upload-character", file),
+					 cache.fingerprint("POST", "/api/upload-character", (InputStreamSource) () -> new ByteArrayInputStream(upload.clone())),
+					 "An upload should be fingerprinted by its bytes");
+		assertNotEquals(cache.fingerprint("POST", "/api/upload-character", file),
+						cache.fingerprint("POST", "/api/upload-character", (InputStreamSource) () -> new ByteArrayInputStream(new byte[1])));
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterEvent;
+import org.kuroneko.swn_char_gen.backend_spring.models.RollAuditLog;
+import org.kuroneko.swn_char_gen.backend_spring.models.RollAuditReader;
+import org.kuroneko.swn_char_gen.backend_spring.models.RulesetRegistry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the RollAuditService class.
+ */
+class RollAuditServiceTest
+{
+	private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	@DisplayName("Test the service opens and closes the shared audit log")
+	void testStartAndStop() throws IOException, InterruptedException
+	{
+		RollAuditService service = new RollAuditService(tempDir.toString(), 100, SECRET);
+
+		service.start();
+		try
+		{
+			assertTrue(RollAuditLog.getInstance().isOpen(), "start should open the log");
+			RollAuditLog.getInstance().record("session", CharacterEvent.rollAttributes(new int[]{9, 9, 9, 9, 9, 9}),
+											  RulesetRegistry.getInstance().getDefaultRuleset(), RollAuditLog.TYPE_ROLL, 1);
+		}
+		finally
+		{
+			service.stop();
+		}
+		assertFalse(RollAuditLog.getInstance().isOpen(), "stop should close the log");
+		assertEquals(1, RollAuditReader.verify(tempDir, Base64.getDecoder().decode(SECRET)), "The roll should be written before stop returns");
+	}
+
+	@Test
+	@DisplayName("Test the service without a directory does nothing")
+	void testDisabledService() throws IOException, InterruptedException
+	{
+		RollAuditService service = new RollAuditService("", 100, "");
+
+		service.start();
+		assertFalse(RollAuditLog.getInstance().isOpen(), "No log should be opened without a directory");
+		service.stop();
+	}
+
+	@Test
+	@DisplayName("Test the service needs a secret to audit")
+	void testSecretRequired()
+	{
+		assertThrows(IllegalArgumentException.class, () -> new RollAuditService(tempDir.toString(), 100, ""));
+		assertThrows(IllegalArgumentException.class, () -> new RollAuditService(tempDir.toString(), 100, "c2hvcnQ="),
+					 "A secret under 32 bytes should be refused");
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kuroneko.swn_char_gen.backend_spring.models.RulesetRegistry;
+import org.kuroneko.swn_char_gen.backend_spring.models.SWNRules;
+import org.kuroneko.swn_char_gen.backend_spring.models.SWNSystem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the RulesFileWatcher class.
+ * <p>
+ * The reload logic is tested directly rather than waiting on file system events,
+ * since the speed of WatchService notifications varies by platform.
+ */
+class RulesFileWatcherTest
+{
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * Restores the built-in rulesets after each test.
+	 */
+	@AfterEach
+	void tearDown()
+	{
+		RulesetRegistry.getInstance().reset();
+	}
+
+	/**
+	 * Write a rules file where every modifier is the same value.
+	 *
+	 * @param theId       The ruleset id, also used as the file name
+	 * @param theVersion  The rules version
+	 * @param theModifier The modifier for every attribute value
+	 * @return The path of the written file
+	 * @throws IOException if the file cannot be written
+	 */
+	private Path writeRules(String theId, int theVersion, int theModifier) throws IOException
+	{
+		StringBuilder contents = new StringBuilder();
+		contents.append("id=").append(theId).append('\n');
+		contents.append("version=").append(theVersion).append('\n');
+		contents.append("dice=3d6\n");
+		contents.append("changed_attribute_value=14\n");
+		for (int value = 3; value <= 18; value++)
+		{
+			contents.append("modifier.").append(value).append('=').append(theModifier).append('\n');
+		}
+		Path file = tempDir.resolve(theId + ".properties");
+		Files.writeString(file, contents.toString());
+		return file;
+	}
+
+	@Test
+	@DisplayName("Test newer rules file is published")
+	void testReloadPublishesNewerVersion() throws IOException
+	{
+		int version = RulesetRegistry.getInstance().getDefaultRuleset().getVersion() + 1;
+		Path file = writeRules(SWNRules.DEFAULT_RULESET_ID, version, 3);
+		RulesFileWatcher watcher = new RulesFileWatcher(tempDir.toString());
+
+		assertTrue(watcher.reload(file), "A newer version should be published");
+		assertEquals(3, new SWNSystem().calculateModifier(10), "The new modifiers should be in use");
+	}
+
+	@Test
+	@DisplayName("Test rules file with the same version is ignored")
+	void testReloadIgnoresSameVersion() throws IOException
+	{
+		SWNRules before = RulesetRegistry.getInstance().getDefaultRuleset();
+		Path file = writeRules(SWNRules.DEFAULT_RULESET_ID, before.getVersion(), 3);
+		RulesFileWatcher watcher = new RulesFileWatcher(tempDir.toString());
+
+		assertFalse(watcher.reload(file), "An unchanged version should not be published");
+		assertSame(before, RulesetRegistry.getInstance().getDefaultRuleset(), "The current rules should be kept");
+	}
+
+	@Test
+	@DisplayName("Test invalid rules file keeps the current rules")
+	void testReloadKeepsRulesOnInvalidFile() throws IOException
+	{
+		SWNRules before = RulesetRegistry.getInstance().getDefaultRuleset();
+		Path file = tempDir.resolve("swn.properties");
+		Files.writeString(file, "id=swn\nversion=99\nmodifier.3=\n");
+		RulesFileWatcher watcher = new RulesFileWatcher(tempDir.toString());
+
+		assertFalse(watcher.reload(file), "An invalid file should not be published");
+		assertSame(before, RulesetRegistry.getInstance().getDefaultRuleset(), "The current rules should be kept");
+	}
+
+	@Test
+	@DisplayName("Test start loads every file and stop shuts down cleanly")
+	void testStartAndStop() throws IOException
+	{
+		writeRules("house", 1, -3);
+		writeRules("other_house", 1, 2);
+		RulesFileWatcher watcher = new RulesFileWatcher(tempDir.toString());
+
+		watcher.start();
+		try
+		{
+			assertEquals(-3, new SWNSystem("house").calculateModifier(10), "start should load the files immediately");
+			assertEquals(2, new SWNSystem("other_house").calculateModifier(10), "start should load the files immediately");
+		}
+		finally
+		{
+			watcher.stop();
+		}
+	}
+
+	@Test
+	@DisplayName("Test watcher without a directory does nothing")
+	void testDisabledWatcher() throws IOException
+	{
+		RulesFileWatcher watcher = new RulesFileWatcher("");
+
+		watcher.start();
+		assertEquals(0, watcher.reloadAll(), "Nothing should be published without a directory");
+		watcher.stop();
+		assertEquals(2, RulesetRegistry.getInstance().getRulesets().size(), "Only the built-in rulesets should exist");
+	}
+}
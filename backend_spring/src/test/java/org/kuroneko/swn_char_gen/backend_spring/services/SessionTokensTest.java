@@ -0,0 +1,99 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the SessionTokens class.
+ */
+class SessionTokensTest
+{
+	private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+	@Test
+	@DisplayName("Test signed token verifies to the same key")
+	void testSignAndVerify()
+	{
+		SessionTokens tokens = new SessionTokens(SECRET);
+		SessionKey key = SessionKey.random();
+
+		String token = tokens.sign(key);
+
+		assertEquals(43, token.length(), "Token should be 32 bytes of unpadded base64");
+		assertEquals(key, tokens.verify(token), "Token should verify to the key it was made for");
+		assertEquals(key, new SessionTokens(SECRET).verify(token), "Another signer with the same secret should accept it");
+	}
+
+	@Test
+	@DisplayName("Test tampered and malformed tokens are rejected")
+	void testVerifyRejectsBadTokens()
+	{
+		SessionTokens tokens = new SessionTokens(SECRET);
+		String token = tokens.sign(new SessionKey(1, 2));
+		char[] tampered = token.toCharArray();
+		tampered[3] = tampered[3] == 'A' ? 'B' : 'A';
+
+		assertNull(tokens.verify(new String(tampered)), "A changed key should not verify");
+		assertNull(tokens.verify(token.substring(1)), "A short token should not verify");
+		assertNull(tokens.verify(token.replace(token.charAt(0), '*')), "A token that is not base64 should not verify");
+		assertNull(tokens.verify(null));
+		assertNull(new SessionTokens("").verify(token), "A token signed with another secret should not verify");
+	}
+
+	@Test
+	@DisplayName("Test invalid secrets are rejected")
+	void testRejectsInvalidSecret()
+	{
+		assertThrows(IllegalArgumentException.class, () -> new SessionTokens(Base64.getEncoder().encodeToString(new byte[16])),
+					 "Secrets shorter than 32 bytes should be rejected");
+		assertThrows(IllegalArgumentException.class, () -> new SessionTokens("not base64!"));
+	}
+
+	@Test
+	@DisplayName("Test sealed payloads only open for their purpose")
+	void testSealAndOpen()
+	{
+		SessionTokens tokens = new SessionTokens(SECRET);
+		byte[] payload = {1, 2, 3, 4, 5};
+
+		String token = tokens.seal(SessionTokens.PURPOSE_CHARACTER, payload);
+
+		assertArrayEquals(payload, tokens.open(SessionTokens.PURPOSE_CHARACTER, token), "Payload should open unchanged");
+		assertNull(tokens.open(SessionTokens.PURPOSE_SESSION, token), "A character token should not open as a session token");
+		assertNull(tokens.verify(tokens.seal(SessionTokens.PURPOSE_CHARACTER, new byte[16])),
+				   "A character token should not verify as a session key");
+		assertNull(tokens.open(SessionTokens.PURPOSE_CHARACTER, "AAAA"), "A token shorter than its signature should not open");
+	}
+
+	@Test
+	@DisplayName("Test the session key is read from the session cookie only")
+	void testFromCookies()
+	{
+		SessionTokens tokens = new SessionTokens(SECRET);
+		SessionKey key = SessionKey.random();
+		Cookie session = new Cookie(SessionTokens.COOKIE_NAME, tokens.sign(key));
+
+		assertEquals(key, tokens.fromCookies(new Cookie[]{new Cookie("other", "value"), session}));
+		assertNull(tokens.fromCookies(null), "A request without cookies has no session");
+		assertNull(tokens.fromCookies(new Cookie[]{new Cookie("other", tokens.sign(key))}),
+				   "A token in another cookie should not be read");
+		assertNull(tokens.fromCookies(new Cookie[]{new Cookie(SessionTokens.COOKIE_NAME, "forged")}),
+				   "A session cookie that does not verify should not be read");
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterEventLog;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the StatelessCharacterService class.
+ * <p>
+ * The service is used directly, with a real SessionTokens, since the token is the only state.
+ */
+class StatelessCharacterServiceTest
+{
+	private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+	private static final SessionKey SESSION = SessionKey.random();
+
+	private final StatelessCharacterService service = new StatelessCharacterService(new SessionTokens(SECRET));
+
+	@Test
+	@DisplayName("Test each operation carries the character in the returned token")
+	void testOperationsChainThroughTokens()
+	{
+		StatelessCharacterService.Result created = service.createNewCharacter("swn_heroic");
+		assertEquals("swn_heroic", created.getCharacter().get("mRulesetId"));
+
+		StatelessCharacterService.Result rolled = service.rollAttributes(SESSION, created.getToken());
+		assertEquals("swn_heroic", rolled.getCharacter().get("mRulesetId"), "The ruleset should come from the token");
+		assertNotEquals(0, rolled.getCharacter().get("mStrength"), "Attributes should be rolled");
+
+		StatelessCharacterService.Result changed = service.changeAttribute(rolled.getToken(), "strength");
+		assertEquals(14, changed.getCharacter().get("mStrength"));
+		assertEquals("STRENGTH", changed.getCharacter().get("mChangedAttribute"));
+
+		StatelessCharacterService.Result named = service.setDetail(changed.getToken(), "name", "Token Hero");
+		assertEquals("Token Hero", named.getCharacter().get("mName"));
+
+		Map<String, Object> again = service.getCharacter(named.getToken()).getCharacter();
+		assertEquals(named.getCharacter(), again, "Reading the token back should give the same character");
+		assertNotNull(service.getOdds(named.getToken()).get("modifierSum"));
+	}
+
+	@Test
+	@DisplayName("Test constrained rolls meet their constraints")
+	void testConstrainedRoll()
+	{
+		StatelessCharacterService.Result rolled = service.rollAttributes(SESSION, null, null, 16);
+
+		int highest = 0;
+		for (String name : new String[] {"mStrength", "mDexterity", "mConstitution", "mIntelligence", "mWisdom", "mCharisma"})
+		{
+			highest = Math.max(highest, (Integer) rolled.getCharacter().get(name));
+		}
+		assertTrue(highest >= 16, "One attribute should reach 16");
+	}
+
+	@Test
+	@DisplayName("Test a missing token starts a new character only where the stateful service does")
+	void testMissingToken()
+	{
+		assertEquals("Default Name", service.getCharacter(null).getCharacter().get("mName"));
+		Exception exception = assertThrows(IllegalArgumentException.class, () -> service.changeAttribute(null, "strength"));
+		assertEquals("No character found", exception.getMessage());
+		assertThrows(IllegalArgumentException.class, () -> service.setDetail("", "name", "x"));
+		assertThrows(IllegalArgumentException.class, () -> service.getOdds(null));
+	}
+
+	@Test
+	@DisplayName("Test forged tokens are rejected")
+	void testForgedToken()
+	{
+		String token = service.createNewCharacter(null).getToken();
+		StatelessCharacterService other = new StatelessCharacterService(new SessionTokens(""));
+
+		Exception exception = assertThrows(IllegalArgumentException.class, () -> other.getCharacter(token));
+		assertEquals("Invalid character token", exception.getMessage(), "Another secret should not accept the token");
+		char[] tampered = token.toCharArray();
+		tampered[2] = tampered[2] == 'A' ? 'B' : 'A';
+		assertThrows(IllegalArgumentException.class, () -> service.getCharacter(new String(tampered)));
+		String session = new SessionTokens(SECRET).sign(new SessionKey(1, 2));
+		assertThrows(IllegalArgumentException.class, () -> service.getCharacter(session),
+					 "A session token should not be accepted as a character");
+	}
+
+	@Test
+	@DisplayName("Test uploads become tokens and hold no history")
+	void testUpload() throws Exception
+	{
+		long before = CharacterEventLog.getGlobalBytes();
+		Map<String, Object> data = new HashMap<>();
+		data.put("mName", "Uploaded");
+		data.put("mStrength", 12);
+
+		StatelessCharacterService.Result uploaded = service.uploadCharacter(data);
+
+		assertEquals("Uploaded", service.getCharacter(uploaded.getToken()).getCharacter().get("mName"));
+		assertEquals(12, service.getCharacter(uploaded.getToken()).getCharacter().get("mStrength"));
+		assertEquals(before, CharacterEventLog.getGlobalBytes(), "No history should be left charged");
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * SWN Char Gen © 2025. by Tod Casasent is licensed under CC BY-NC-SA 4.0. To view a copy of this license, visit https://creativecommons.org/licenses/by-nc-sa/4.0/
+ *
+ * Rules and values associated with the SWN system are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ * https://sine-nomine-publishing.myshopify.com/
+ * Used in accordance with his Discord message of limiting content to the free version of the rules.
+ * Specifically, the SWNSystem.java and swn_system.py game strings, values, and relationship are the copyright of Kevin Crawford, Sine Nominee Publishing.
+ */
+
+
+package org.kuroneko.swn_char_gen.backend_spring.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kuroneko.swn_char_gen.backend_spring.models.CharacterActors;
+import org.kuroneko.swn_char_gen.backend_spring.models.SessionKey;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the VirtualThreadMode class.
+ */
+class VirtualThreadModeTest
+{
+	@Test
+	@DisplayName("Test enabled mode runs the actors on virtual threads until stopped")
+	void testEnabled()
+	{
+		VirtualThreadMode mode = new VirtualThreadMode(true);
+
+		mode.start();
+		try
+		{
+			assertTrue(mode.isEnabled());
+			assertTrue(CharacterActors.getInstance().ask(SessionKey.of("virtual-session"), () -> Thread.currentThread().isVirtual()),
+					   "Messages should run on virtual threads");
+		}
+		finally
+		{
+			mode.stop();
+		}
+		// a new session, since a mailbox still draining finishes its batch on the executor it started on
+		assertFalse(CharacterActors.getInstance().ask(SessionKey.of("platform-session"), () -> Thread.currentThread().isVirtual()),
+					"Stop should restore the platform thread pool");
+	}
+
+	@Test
+	@DisplayName("Test disabled mode leaves the actors on platform threads")
+	void testDisabled()
+	{
+		VirtualThreadMode mode = new VirtualThreadMode(false);
+
+		mode.start();
+		assertFalse(mode.isEnabled());
+		assertFalse(CharacterActors.getInstance().ask(SessionKey.of("platform-session"), () -> Thread.currentThread().isVirtual()),
+					"Messages should stay on platform threads");
+		mode.stop();
+	}
+}